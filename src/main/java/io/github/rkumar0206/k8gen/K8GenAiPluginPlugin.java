@@ -1,11 +1,44 @@
 package io.github.rkumar0206.k8gen;
 
+import io.github.rkumar0206.k8gen.ai.gemini.GeminiContextCacheService;
 import io.github.rkumar0206.k8gen.extension.K8GenExtension;
+import io.github.rkumar0206.k8gen.model.StartupMode;
+import io.github.rkumar0206.k8gen.tasks.AssembleManifestsTask;
+import io.github.rkumar0206.k8gen.tasks.BenchmarkStartupTask;
+import io.github.rkumar0206.k8gen.tasks.BuildContextValueSource;
+import io.github.rkumar0206.k8gen.tasks.CapacityPlanTask;
 import io.github.rkumar0206.k8gen.tasks.GenerateK8DeploymentConfigTask;
+import io.github.rkumar0206.k8gen.tasks.ImageLayerReportTask;
+import io.github.rkumar0206.k8gen.tasks.K8GenWatchTask;
+import io.github.rkumar0206.k8gen.tasks.ProfileResourcesTask;
+import io.github.rkumar0206.k8gen.tasks.ValidateManifestsTask;
+import io.github.rkumar0206.k8gen.util.DockerfileGenerator;
+import io.github.rkumar0206.k8gen.util.VersionUtils;
+import org.gradle.api.NamedDomainObjectContainer;
 import org.gradle.api.Plugin;
 import org.gradle.api.Project;
+import org.gradle.api.artifacts.ArtifactCollection;
+import org.gradle.api.artifacts.Configuration;
+import org.gradle.api.artifacts.ConfigurationVariant;
+import org.gradle.api.artifacts.Dependency;
+import org.gradle.api.artifacts.dsl.DependencyHandler;
+import org.gradle.api.artifacts.type.ArtifactTypeDefinition;
+import org.gradle.api.attributes.Attribute;
+import org.gradle.api.attributes.Category;
+import org.gradle.api.file.Directory;
+import org.gradle.api.plugins.JavaPluginExtension;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.tasks.SourceSet;
+import org.gradle.api.tasks.SourceSetContainer;
+import org.gradle.api.tasks.TaskProvider;
+import org.gradle.api.tasks.bundling.AbstractArchiveTask;
+import org.gradle.api.tasks.bundling.Compression;
+import org.gradle.api.tasks.bundling.Tar;
+import org.gradle.jvm.toolchain.JavaToolchainService;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.List;
+
 /**
  * A Gradle plugin that automates the generation of Kubernetes deployment configurations.
  *
@@ -20,6 +53,33 @@ import org.jetbrains.annotations.NotNull;
  */
 public class K8GenAiPluginPlugin implements Plugin<@NotNull Project> {
 
+    /**
+     * The {@link Category} of the variants holding the generated manifests.
+     */
+    public static final String MANIFESTS_CATEGORY = "k8s-manifests";
+
+    /**
+     * The form of the generated manifests a variant holds: {@link #MANIFEST_FORMAT_DIRECTORY},
+     * {@link #MANIFEST_FORMAT_YAML} or {@link #MANIFEST_FORMAT_BUNDLE}.
+     */
+    public static final Attribute<String> MANIFEST_FORMAT_ATTRIBUTE =
+            Attribute.of("io.github.rkumar0206.k8gen.manifest-format", String.class);
+
+    /**
+     * The output directory of the generation, as it is.
+     */
+    public static final String MANIFEST_FORMAT_DIRECTORY = "directory";
+
+    /**
+     * The Kubernetes objects in one multi-document YAML file.
+     */
+    public static final String MANIFEST_FORMAT_YAML = "yaml";
+
+    /**
+     * The output directory of the generation as a gzip-compressed tar archive.
+     */
+    public static final String MANIFEST_FORMAT_BUNDLE = "tar.gz";
+
     /**
      * Applies the plugin to a given Gradle project.
      *
@@ -39,12 +99,232 @@ public class K8GenAiPluginPlugin implements Plugin<@NotNull Project> {
         // Register a task
         K8GenExtension extension = project.getExtensions()
                 .create("k8Gen", K8GenExtension.class);
+        // per project, as the directory is published in the k8Manifests variants
+        extension.getOutputDir().convention(project.getLayout().getProjectDirectory().dir("k8s").getAsFile().getAbsolutePath());
+
+        // shared by all projects of the build so the prompt's instruction block is cached only once
+        Provider<GeminiContextCacheService> contextCache = project.getGradle().getSharedServices()
+                .registerIfAbsent("k8GenGeminiContextCache", GeminiContextCacheService.class, spec -> {
+                    spec.getParameters().getStateFile().set(project.getRootProject().getLayout()
+                            .getProjectDirectory().file(".gradle/k8gen/gemini-context-cache.json"));
+                    spec.getParameters().getTtlMinutes().set(extension.getContextCacheTtlMinutes());
+                });
 
-        project.getTasks().register("generateK8DeploymentConfig", GenerateK8DeploymentConfigTask.class, task -> {
+        // shared by generateK8DeploymentConfig and k8GenWatch
+        project.getTasks().withType(GenerateK8DeploymentConfigTask.class).configureEach(task -> {
             task.getOutputDir().set(extension.getOutputDir());
             task.getConfigFilePath().set(extension.getJsonConfigFilePath());
+            task.getConfigFiles().from(extension.getJsonConfigFilePath().map(project::file));
+            for (String name : List.of("application.properties", "application.yml")) {
+                task.getConfigFiles().from(project.file("src/main/resources/" + name));
+            }
             task.getModel().set(extension.getModel());
+            task.getModelRouting().set(extension.getModelRouting());
+            task.getModelTiers().set(extension.getModelTiers());
+            task.getModelRoutingStats().set(project.getRootProject().getLayout().getProjectDirectory()
+                    .file(".gradle/k8gen/model-routing.json"));
             task.getGeminiAPIKey().set(extension.getGeminiAPIKey());
+            task.getOutputFormat().set(extension.getOutputFormat());
+            task.getNormalizeYaml().set(extension.getNormalizeYaml());
+            task.getJvmTuning().set(extension.getJvmTuning());
+            task.getStartupMode().set(extension.getStartupMode());
+            task.getLayeredJar().set(extension.getLayeredJar());
+            task.getKubernetesVersion().set(extension.getKubernetesVersion());
+            for (StartupMode mode : StartupMode.values()) {
+                String plugin = GenerateK8DeploymentConfigTask.requiredBuildPlugin(mode);
+                if (plugin != null) {
+                    project.getPluginManager().withPlugin(plugin, applied -> task.getAppliedBuildPlugins().add(plugin));
+                }
+            }
+            task.getScanBuildContext().set(extension.getScanBuildContext());
+            task.getBuildContextExclusions().set(project.getProviders().of(BuildContextValueSource.class, spec -> {
+                spec.getParameters().getEnabled().set(extension.getScanBuildContext());
+                spec.getParameters().getProjectDirectory().set(project.getLayout().getProjectDirectory());
+                spec.getParameters().getOutputDir().set(extension.getOutputDir());
+            }));
+            // a plain file rather than the profiling task's output, generation must not trigger a profiling run
+            task.getResourceProfile().from(project.getLayout().getProjectDirectory().file(extension.getResourceProfile()));
+            task.getImageTuningRules().from(project.getLayout().getProjectDirectory().file(extension.getImageTuningRules()));
+            task.getGenerationCache().set(extension.getGenerationCache());
+            task.getGenerationCacheDir().set(project.getRootProject().getLayout().getProjectDirectory()
+                    .dir(".gradle/k8gen/generations"));
+            task.getMaxContinuations().set(extension.getMaxContinuations());
+            task.getGeminiBaseUrl().set(extension.getGeminiBaseUrl());
+            task.getContextCaching().set(extension.getContextCaching());
+            task.getContextCache().set(contextCache);
+            task.usesService(contextCache);
+        });
+
+        TaskProvider<GenerateK8DeploymentConfigTask> generate = project.getTasks()
+                .register("generateK8DeploymentConfig", GenerateK8DeploymentConfigTask.class);
+        registerManifestVariants(project, extension, generate);
+
+        project.getTasks().register("k8GenWatch", K8GenWatchTask.class, task -> {
+            task.setDescription("Regenerates the deployment configuration whenever its configuration files change.");
+            task.getWatchedFiles().from(extension.getJsonConfigFilePath().map(project::file));
+            task.getWatchedFiles().from(project.getLayout().getProjectDirectory().file(extension.getResourceProfile()));
+            task.getWatchedFiles().from(project.getLayout().getProjectDirectory().file(extension.getImageTuningRules()));
+            for (String name : List.of("application.properties", "application.yml", "application.yaml")) {
+                task.getWatchedFiles().from(project.file("src/main/resources/" + name));
+            }
+            task.getDebounceMillis().convention(300L);
+        });
+
+        project.getTasks().register("planK8Capacity", CapacityPlanTask.class, task -> {
+            task.setDescription("Simulates scheduling the generated workloads onto the node pool at minimum and maximum scale.");
+            task.getManifestDir().fileProvider(extension.getOutputDir().map(GenerateK8DeploymentConfigTask::outputDirectory));
+            task.getNodePoolFile().set(project.getLayout().getProjectDirectory().file(extension.getNodePool()));
+            task.getFailOnUnschedulable().convention(false);
+            task.getReportFile().convention(project.getLayout().getBuildDirectory()
+                    .file("reports/k8gen/capacity-plan.txt"));
+        });
+
+        project.getTasks().register("validateK8Manifests", ValidateManifestsTask.class, task -> {
+            task.setDescription("Validates the generated manifests against the bundled Kubernetes schemas.");
+            task.getManifestDir().fileProvider(extension.getOutputDir().map(GenerateK8DeploymentConfigTask::outputDirectory));
+            task.getKubernetesVersion().set(extension.getKubernetesVersion());
+            task.getFailOnError().convention(true);
+            task.getReportFile().convention(project.getLayout().getBuildDirectory()
+                    .file("reports/k8gen/manifest-validation.txt"));
+        });
+
+        project.getPlugins().withId("java", java -> {
+            SourceSet main = project.getExtensions().getByType(SourceSetContainer.class)
+                    .getByName(SourceSet.MAIN_SOURCE_SET_NAME);
+            ArtifactCollection runtimeArtifacts = project.getConfigurations()
+                    .getByName(main.getRuntimeClasspathConfigurationName()).getIncoming().getArtifacts();
+            DependencyHandler dependencies = project.getDependencies();
+            Configuration loader = project.getConfigurations().create("k8GenSpringBootLoader", configuration -> {
+                configuration.setDescription("The spring-boot-loader of the Spring Boot version on the runtime class path.");
+                configuration.setCanBeConsumed(false);
+                configuration.setTransitive(false);
+                configuration.getDependencies().addAllLater(runtimeArtifacts.getResolvedArtifacts().map(artifacts -> {
+                    // extracted with jarmode=tools, the image has no loader layer to size
+                    String version = ImageLayerReportTask.springBootVersion(artifacts);
+                    return version == null || DockerfileGenerator.extractsWithJarTools(version) ? List.<Dependency>of()
+                            : List.of(dependencies.create("org.springframework.boot:spring-boot-loader:" + version));
+                }));
+            });
+            Provider<String> springBootVersion = runtimeArtifacts.getResolvedArtifacts()
+                    .map(ImageLayerReportTask::springBootVersion);
+            project.getTasks().withType(GenerateK8DeploymentConfigTask.class)
+                    .configureEach(task -> task.getSpringBootVersion().set(springBootVersion));
+            project.getTasks().withType(BenchmarkStartupTask.class)
+                    .configureEach(task -> task.getSpringBootVersion().set(springBootVersion));
+            project.getTasks().register("reportK8ImageLayers", ImageLayerReportTask.class, task -> {
+                task.setDescription("Reports the size of each layer of the application image.");
+                task.getRuntimeClasspath().from(runtimeArtifacts.getArtifactFiles());
+                task.getRuntimeLayers().set(runtimeArtifacts.getResolvedArtifacts().map(ImageLayerReportTask::layers));
+                task.getMainOutput().from(main.getOutput());
+                task.getSpringBootVersion().set(springBootVersion);
+                // lenient, a loader that cannot be resolved is reported as unknown
+                task.getLoaderClasspath().from(loader.getIncoming().artifactView(view -> view.setLenient(true)).getFiles());
+                task.getReportFile().convention(project.getLayout().getBuildDirectory()
+                        .file("reports/k8gen/image-layers.txt"));
+            });
+
+            project.getPluginManager().withPlugin("org.springframework.boot", springBoot -> {
+                JavaPluginExtension javaExtension = project.getExtensions().getByType(JavaPluginExtension.class);
+                JavaToolchainService toolchains = project.getExtensions().getByType(JavaToolchainService.class);
+                project.getTasks().register("profileK8Resources", ProfileResourcesTask.class, task -> {
+                    task.setDescription("Profiles a local run of the boot jar and suggests resources and probe timings.");
+                    task.getBootJar().set(project.getTasks().named("bootJar", AbstractArchiveTask.class)
+                            .flatMap(AbstractArchiveTask::getArchiveFile));
+                    task.getJavaLauncher().convention(toolchains.launcherFor(javaExtension.getToolchain()));
+                    task.getConfigFile().set(project.getLayout().getProjectDirectory()
+                            .file(extension.getJsonConfigFilePath()));
+                    task.getJavaVersion().convention(task.getJavaLauncher()
+                            .map(launcher -> String.valueOf(launcher.getMetadata().getLanguageVersion().asInt())));
+                    task.getReadinessPath().convention("/actuator/health/readiness");
+                    task.getWarmupPaths().convention(List.of("/actuator/health"));
+                    task.getWarmupRequests().convention(2000);
+                    task.getConcurrency().convention(8);
+                    task.getSteadyStateSeconds().convention(30);
+                    task.getTimeoutSeconds().convention(180);
+                    task.getWorkDir().convention(project.getLayout().getBuildDirectory().dir("k8gen/profile"));
+                    task.getProfileFile().convention(project.getLayout().getProjectDirectory()
+                            .file(extension.getResourceProfile()));
+                });
+            });
+        });
+
+        // identical dependencies must produce identical layers, whatever the Gradle version defaults to
+        project.getTasks().withType(AbstractArchiveTask.class)
+                .matching(task -> "bootJar".equals(task.getName()))
+                .configureEach(task -> {
+                    if (extension.getReproducibleBootJar().get()) {
+                        task.setPreserveFileTimestamps(false);
+                        task.setReproducibleFileOrder(true);
+                    }
+                });
+
+        project.getTasks().register("benchmarkK8Startup", BenchmarkStartupTask.class, task -> {
+            task.setDescription("Builds the image of each startup mode and measures its time-to-ready.");
+            task.getConfigFile().set(project.getLayout().getProjectDirectory().file(extension.getJsonConfigFilePath()));
+            task.getProjectDirectory().convention(project.getLayout().getProjectDirectory());
+            task.getGradleVersion().convention(VersionUtils.getGradleVersion(project));
+            task.getJavaVersion().convention(project.provider(() -> VersionUtils.getJavaVersion(project)));
+            task.getModes().convention(List.of(StartupMode.JAR.getValue(), StartupMode.APPCDS.getValue()));
+            task.getRuns().convention(3);
+            task.getReadinessPath().convention("/actuator/health/readiness");
+            task.getTimeoutSeconds().convention(180);
+            task.getWorkDir().convention(project.getLayout().getBuildDirectory().dir("k8gen/startup-benchmark"));
+            task.getReportFile().convention(project.getLayout().getBuildDirectory()
+                    .file("reports/k8gen/startup-benchmark.txt"));
+        });
+    }
+
+    /**
+     * Publishes the generated manifests as the variants of the consumable {@code k8Manifests} configuration, one
+     * per {@link #MANIFEST_FORMAT_ATTRIBUTE format}. A project depending on them gets the files of the up-to-date
+     * generation through dependency resolution, instead of generating again or copying them by path.
+     */
+    private static void registerManifestVariants(Project project, K8GenExtension extension,
+                                                 TaskProvider<GenerateK8DeploymentConfigTask> generate) {
+        project.getDependencies().getAttributesSchema().attribute(MANIFEST_FORMAT_ATTRIBUTE);
+        Provider<Directory> manifestDir = project.getLayout()
+                .dir(extension.getOutputDir().map(GenerateK8DeploymentConfigTask::outputDirectory));
+
+        TaskProvider<AssembleManifestsTask> assemble = project.getTasks().register("assembleK8Manifests",
+                AssembleManifestsTask.class, task -> {
+                    task.setDescription("Writes the generated Kubernetes objects into one multi-document YAML file.");
+                    task.dependsOn(generate);
+                    task.getManifestDir().set(manifestDir);
+                    task.getManifestFile().convention(project.getLayout().getBuildDirectory()
+                            .file("k8gen/manifests/" + project.getName() + "-k8s.yaml"));
+                });
+        TaskProvider<Tar> bundle = project.getTasks().register("bundleK8Manifests", Tar.class, task -> {
+            task.setDescription("Packs the generated files into a gzip-compressed tar archive.");
+            task.dependsOn(generate);
+            task.from(manifestDir);
+            task.setCompression(Compression.GZIP);
+            task.getArchiveFileName().set(project.getName() + "-k8s-manifests.tar.gz");
+            task.getDestinationDirectory().set(project.getLayout().getBuildDirectory().dir("k8gen/manifests"));
+            task.setPreserveFileTimestamps(false);
+            task.setReproducibleFileOrder(true);
+        });
+
+        project.getConfigurations().consumable("k8Manifests", configuration -> {
+            configuration.setDescription("The generated Kubernetes manifests, for other projects to depend on.");
+            configuration.getAttributes().attribute(Category.CATEGORY_ATTRIBUTE,
+                    project.getObjects().named(Category.class, MANIFESTS_CATEGORY));
+            NamedDomainObjectContainer<ConfigurationVariant> variants = configuration.getOutgoing().getVariants();
+            variants.register("k8ManifestsDirectory", variant -> {
+                variant.getAttributes().attribute(MANIFEST_FORMAT_ATTRIBUTE, MANIFEST_FORMAT_DIRECTORY);
+                variant.artifact(manifestDir, artifact -> {
+                    artifact.setType(ArtifactTypeDefinition.DIRECTORY_TYPE);
+                    artifact.builtBy(generate);
+                });
+            });
+            variants.register("k8ManifestsYaml", variant -> {
+                variant.getAttributes().attribute(MANIFEST_FORMAT_ATTRIBUTE, MANIFEST_FORMAT_YAML);
+                variant.artifact(assemble.flatMap(AssembleManifestsTask::getManifestFile),
+                        artifact -> artifact.setType("yaml"));
+            });
+            variants.register("k8ManifestsBundle", variant -> {
+                variant.getAttributes().attribute(MANIFEST_FORMAT_ATTRIBUTE, MANIFEST_FORMAT_BUNDLE);
+                variant.artifact(bundle, artifact -> artifact.setType("tgz"));
+            });
         });
     }
 }
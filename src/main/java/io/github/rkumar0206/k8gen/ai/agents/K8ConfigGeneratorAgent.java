@@ -1,12 +1,35 @@
 package io.github.rkumar0206.k8gen.ai.agents;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.github.rkumar0206.k8gen.ai.gemini.GeminiApiException;
+import io.github.rkumar0206.k8gen.ai.gemini.GeminiContextCacheService;
+import io.github.rkumar0206.k8gen.ai.gemini.GeminiResponse;
+import io.github.rkumar0206.k8gen.ai.gemini.GeminiRestClient;
 import io.github.rkumar0206.k8gen.model.DeploymentConfig;
+import io.github.rkumar0206.k8gen.util.FileExtractionUtil;
+import io.github.rkumar0206.k8gen.util.JsonFileStreamExtractor;
+import dev.langchain4j.data.message.UserMessage;
 import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.response.ChatResponse;
 import dev.langchain4j.model.googleai.GoogleAiGeminiChatModel;
+import dev.langchain4j.model.output.FinishReason;
+import lombok.Setter;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Duration;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.function.BiConsumer;
 
 /**
  * `K8ConfigGeneratorAgent` is an agent responsible for generating Kubernetes configuration files
@@ -18,7 +41,50 @@ import java.time.Duration;
  */
 public class K8ConfigGeneratorAgent {
 
+    private static final Logger LOGGER = Logging.getLogger(K8ConfigGeneratorAgent.class);
+
+    /**
+     * Output format in which files are delimited by BEGIN_FILE/END_FILE markers.
+     */
+    public static final String OUTPUT_FORMAT_MARKERS = "markers";
+
+    /**
+     * Output format in which files are returned as a JSON array of {@code {path, content}} objects.
+     */
+    public static final String OUTPUT_FORMAT_JSON = "json";
+
+    /**
+     * The response schema requested in the {@link #OUTPUT_FORMAT_JSON json} output format.
+     */
+    public static final JsonNode FILES_RESPONSE_SCHEMA = createFilesResponseSchema();
+
+    private static final String JSON_OUTPUT_INSTRUCTION = """
+            
+            #Output format override (structured output):
+            - Ignore every instruction above about BEGIN_FILE/END_FILE markers and the extraction regex.
+            - Return a JSON array. Each element is an object with `path` (the file name from "Files to produce") and `content` (the raw file content as a string).
+            - Keep the order from "Files to produce". No text outside the JSON array.
+            
+            """;
+
+    private static final String FINISH_REASON_MAX_TOKENS = "MAX_TOKENS";
+
     private final ChatModel model;
+    private final String modelName;
+    private final GeminiRestClient restClient;
+    private final GeminiContextCacheService contextCache;
+
+    /**
+     * The format in which the model returns the files, {@link #OUTPUT_FORMAT_MARKERS} by default.
+     */
+    @Setter
+    private String outputFormat = OUTPUT_FORMAT_MARKERS;
+
+    /**
+     * The maximum number of continuation requests sent for a truncated answer, {@code 2} by default.
+     */
+    @Setter
+    private int maxContinuations = 2;
 
     /**
      * Constructs a new `K8ConfigGeneratorAgent`.
@@ -27,12 +93,33 @@ public class K8ConfigGeneratorAgent {
      * @param modelName The name of the specific chat model to use for generation (e.g., "gemini-pro").
      */
     public K8ConfigGeneratorAgent(String apiKey, String modelName) {
-        this.model = GoogleAiGeminiChatModel.builder()
+        this(apiKey, modelName, null, null);
+    }
+
+    /**
+     * Constructs a new `K8ConfigGeneratorAgent` that sends the static instruction block through
+     * Gemini context caching.
+     *
+     * @param apiKey The API key for authenticating with the chat model service.
+     * @param modelName The name of the specific chat model to use for generation (e.g., "gemini-pro").
+     * @param baseUrl The Gemini API base URL, or {@code null} for the public endpoint. Pointing this at
+     *                a local stand-in allows the generation to be exercised without the real API.
+     * @param contextCache The shared cache service, or {@code null} to always send the full prompt.
+     */
+    public K8ConfigGeneratorAgent(String apiKey, String modelName, String baseUrl,
+                                  GeminiContextCacheService contextCache) {
+        GoogleAiGeminiChatModel.GoogleAiGeminiChatModelBuilder builder = GoogleAiGeminiChatModel.builder()
                 .apiKey(apiKey)
                 .modelName(modelName)
-                .timeout(Duration.ofMinutes(5))
+                .timeout(Duration.ofMinutes(5));
 //                .temperature(0.2)
-                .build();
+        if (baseUrl != null && !baseUrl.isBlank()) {
+            builder.baseUrl(baseUrl);
+        }
+        this.model = builder.build();
+        this.modelName = modelName;
+        this.restClient = new GeminiRestClient(apiKey, baseUrl, Duration.ofMinutes(5));
+        this.contextCache = contextCache;
     }
 
 
@@ -41,18 +128,213 @@ public class K8ConfigGeneratorAgent {
      * configured chat model.
      *
      * <p>This method first constructs a prompt from the given deployment configuration and version,
-     * then uses the chat model to generate the final configuration string.
+     * then uses the chat model to generate the final configuration string. When a context cache is
+     * configured, only the {@code Inputs:} section is sent with the request and the instruction block
+     * is referenced from the cache. If the cache cannot be used the full prompt is sent instead.
      *
      * @param deploymentConfig An object containing the application's deployment details
      * @param version The version number for the deployment.
      * @return A {@code String} containing the generated Kubernetes configuration (e.g., YAML).
-     * @throws JsonProcessingException If there is an error processing the deployment configuration
-     * to generate the prompt.
+     * @throws IOException If there is an error processing the deployment configuration
+     * to generate the prompt or calling the model.
+     * @throws InterruptedException If the calling thread is interrupted while waiting for the model.
      */
-    public String generateConfigs(DeploymentConfig deploymentConfig, Integer version) throws JsonProcessingException {
+    public String generateConfigs(DeploymentConfig deploymentConfig, Integer version)
+            throws IOException, InterruptedException {
 
-        String prompt = generatePrompt(deploymentConfig, version);
-        return model.chat(prompt);
+        return chat(generateSystemInstruction(version), generateInputs(deploymentConfig, version)).getText();
+    }
+
+    /**
+     * Generates the files and hands each one to the given consumer.
+     *
+     * <p>In the default {@link #OUTPUT_FORMAT_MARKERS markers} format the complete answer is
+     * extracted with {@link FileExtractionUtil#extractFiles(String)}. In the
+     * {@link #OUTPUT_FORMAT_JSON json} format the model is asked for structured output following
+     * {@link #FILES_RESPONSE_SCHEMA}; the response is streamed and every file is passed on as soon
+     * as its JSON object is complete. Objects that cannot be used are dropped. A syntax error ends the
+     * extraction, keeping the files received so far, and counts as a truncated answer.
+     *
+     * <p>When the answer is cut off, either because the model reports that it hit its output token
+     * limit, because the last file block is not terminated or because the structured output breaks off,
+     * a continuation request is sent. It
+     * lists the files already received and asks only for the remaining ones, starting again at the
+     * incomplete file. At most {@code maxContinuations} such requests are made; each file is handed
+     * to the consumer only once.
+     *
+     * @param deploymentConfig An object containing the application's deployment details
+     * @param version The version number for using different prompts (internal use only)
+     * @param fileConsumer Receives {@code (path, content)} for every generated file.
+     * @return {@code true} if the answer was complete, {@code false} if it was still truncated after the
+     * last continuation request.
+     * @throws IOException If the prompt cannot be built or the model call fails.
+     * @throws InterruptedException If the calling thread is interrupted while waiting for the model.
+     */
+    public boolean generateFiles(DeploymentConfig deploymentConfig, Integer version,
+                              BiConsumer<String, String> fileConsumer) throws IOException, InterruptedException {
+
+        boolean jsonOutput = OUTPUT_FORMAT_JSON.equalsIgnoreCase(outputFormat);
+        String systemInstruction = systemInstruction(version, jsonOutput);
+        String inputs = generateInputs(deploymentConfig, version);
+
+        // only the names are remembered, the contents go straight to the consumer
+        Set<String> receivedFiles = new LinkedHashSet<>();
+        BiConsumer<String, String> deduplicatingConsumer = (path, content) -> {
+            if (receivedFiles.add(path)) {
+                fileConsumer.accept(path, content);
+            }
+        };
+
+        String userText = inputs;
+        for (int continuation = 0; ; continuation++) {
+            String incompleteFile = jsonOutput
+                    ? streamJsonFiles(systemInstruction, userText, deduplicatingConsumer)
+                    : extractMarkedFiles(systemInstruction, userText, deduplicatingConsumer);
+
+            if (incompleteFile == null) {
+                return true;
+            }
+            if (continuation >= maxContinuations) {
+                LOGGER.warn("Model output is still truncated after {} continuation requests, {} files received",
+                        continuation, receivedFiles.size());
+                return false;
+            }
+            LOGGER.lifecycle("Model output was truncated after {} complete files, requesting the remaining files",
+                    receivedFiles.size());
+            userText = inputs + continuationRequest(receivedFiles, incompleteFile);
+        }
+    }
+
+    /**
+     * Sends one marker-format request and passes the complete file blocks on.
+     *
+     * @return {@code null} if the answer is complete, otherwise the name of the unterminated file
+     * (empty if the answer stopped between two files).
+     */
+    private String extractMarkedFiles(String systemInstruction, String userText,
+                                      BiConsumer<String, String> fileConsumer) throws IOException, InterruptedException {
+
+        GeminiResponse response = chat(systemInstruction, userText);
+        FileExtractionUtil.extractFiles(response.getText()).forEach(fileConsumer);
+
+        String unterminatedFile = FileExtractionUtil.findUnterminatedFile(response.getText());
+        if (unterminatedFile != null) {
+            return unterminatedFile;
+        }
+        return FINISH_REASON_MAX_TOKENS.equals(response.getFinishReason()) ? "" : null;
+    }
+
+    /**
+     * Sends one structured-output request and streams the files on.
+     *
+     * @return {@code null} if the answer is complete, otherwise the name of the incomplete file
+     * (empty if it is unknown).
+     */
+    private String streamJsonFiles(String systemInstruction, String userText,
+                                   BiConsumer<String, String> fileConsumer) throws IOException, InterruptedException {
+
+        JsonFileStreamExtractor extractor = new JsonFileStreamExtractor(fileConsumer);
+
+        GeminiResponse response = callWithContextCache(systemInstruction,
+                cacheName -> restClient.streamGenerateContent(modelName, cacheName, null, userText,
+                        FILES_RESPONSE_SCHEMA, extractor::feed));
+        if (response == null) {
+            response = restClient.streamGenerateContent(modelName, null, systemInstruction, userText,
+                    FILES_RESPONSE_SCHEMA, extractor::feed);
+        }
+        extractor.finish();
+
+        LOGGER.info("Received {} files as structured output (finish reason {})",
+                extractor.getExtractedFiles(), response.getFinishReason());
+        if (extractor.getDroppedObjects() > 0) {
+            LOGGER.warn("Dropped {} structured output entries without path or content",
+                    extractor.getDroppedObjects());
+        }
+
+        if (extractor.getError() != null) {
+            LOGGER.warn("Structured output stopped after {} files: {}", extractor.getExtractedFiles(),
+                    extractor.getError());
+        }
+        // the files after a syntax error are missing just like those after the token limit
+        if (extractor.isTruncated() || extractor.getError() != null
+                || FINISH_REASON_MAX_TOKENS.equals(response.getFinishReason())) {
+            return extractor.getIncompleteFile() == null ? "" : extractor.getIncompleteFile();
+        }
+        return null;
+    }
+
+    /**
+     * Sends the prompt, through the context cache when possible.
+     */
+    private GeminiResponse chat(String systemInstruction, String userText) throws IOException, InterruptedException {
+
+        GeminiResponse response = callWithContextCache(systemInstruction,
+                cacheName -> restClient.generateContent(modelName, cacheName, userText));
+        if (response != null) {
+            return response;
+        }
+
+        ChatResponse chatResponse = model.chat(ChatRequest.builder()
+                .messages(UserMessage.from(systemInstruction + userText))
+                .build());
+        String finishReason = chatResponse.finishReason() == FinishReason.LENGTH
+                ? FINISH_REASON_MAX_TOKENS
+                : String.valueOf(chatResponse.finishReason());
+        return new GeminiResponse(chatResponse.aiMessage().text(), finishReason, 0, 0, 0);
+    }
+
+    private static String continuationRequest(Set<String> receivedFiles, String incompleteFile) {
+        StringBuilder request = new StringBuilder("""
+                
+                #Continuation request:
+                Your previous answer was cut off by the output token limit.
+                """);
+        request.append("Files already received completely, do NOT repeat them: ")
+                .append(receivedFiles.isEmpty() ? "none" : String.join(", ", receivedFiles))
+                .append(".\n");
+        if (!incompleteFile.isEmpty()) {
+            request.append("The file `").append(incompleteFile).append("` was incomplete, send it again in full.\n");
+        }
+        request.append("Continue with the remaining files from \"Files to produce\" in the same order and output format.\n");
+        return request.toString();
+    }
+
+    /**
+     * Runs the given call against the context cache of the system instruction.
+     *
+     * @return The call's response, or {@code null} if no cache is configured or it cannot be used.
+     */
+    private GeminiResponse callWithContextCache(String systemInstruction, CachedCall call)
+            throws IOException, InterruptedException {
+
+        if (contextCache == null) {
+            return null;
+        }
+        // a second attempt is made when the server no longer knows the cache we remembered
+        for (int attempt = 0; attempt < 2; attempt++) {
+            String cacheName = contextCache.resolve(restClient, modelName, systemInstruction);
+            if (cacheName == null) {
+                return null;
+            }
+            try {
+                GeminiResponse response = call.call(cacheName);
+                LOGGER.info("Gemini usage: {} prompt tokens ({} from cache), {} output tokens",
+                        response.getPromptTokenCount(), response.getCachedContentTokenCount(),
+                        response.getCandidatesTokenCount());
+                return response;
+            } catch (GeminiApiException e) {
+                if (e.getStatusCode() != 403 && e.getStatusCode() != 404) {
+                    throw e;
+                }
+                contextCache.invalidate(modelName, systemInstruction);
+            }
+        }
+        return null;
+    }
+
+    @FunctionalInterface
+    private interface CachedCall {
+        GeminiResponse call(String cacheName) throws IOException, InterruptedException;
     }
 
     /**
@@ -69,8 +351,76 @@ public class K8ConfigGeneratorAgent {
      */
     public String generatePrompt(DeploymentConfig deploymentConfig, Integer version) throws JsonProcessingException {
 
+        return generateSystemInstruction(version) + generateInputs(deploymentConfig, version);
+    }
+
+    /**
+     * Constructs the dynamic part of the prompt: the serialized deployment configuration.
+     *
+     * <p>This is the only part of the prompt that differs between services, so it is sent as the
+     * user turn on top of the cached {@link #generateSystemInstruction(Integer) system instruction}.
+     *
+     * @param deploymentConfig An object containing the application's deployment details.
+     * @param version The version number for using different prompts (internal use only)
+     * @return The {@code Inputs:} section of the prompt.
+     * @throws JsonProcessingException If the {@code deploymentConfig} cannot be serialized.
+     */
+    public static String generateInputs(DeploymentConfig deploymentConfig, Integer version) throws JsonProcessingException {
+
         String inputConfig = new ObjectMapper().writeValueAsString(deploymentConfig);
 
+        if (version == null || version == 1) {
+            return "Inputs:\n" + inputConfig + "\n-- End of prompt --\n";
+        }
+        if (version == 2) {
+            return "Inputs:\n\n" + inputConfig + "\n";
+        }
+        if (version == 3) {
+            return "Inputs:\n\n" + inputConfig;
+        }
+        return "";
+    }
+
+    /**
+     * Identifies a generation by everything that influences the model's answer: the model, the output
+     * format and the full prompt text. Equal keys can reuse the files of an earlier generation.
+     *
+     * @param deploymentConfig The configuration sent to the model.
+     * @param modelName The name of the chat model.
+     * @param outputFormat {@code markers} or {@code json}.
+     * @param version The version number for using different prompts (internal use only)
+     * @return A SHA-256 hex digest.
+     * @throws JsonProcessingException If the {@code deploymentConfig} cannot be serialized.
+     */
+    public static String generationKey(DeploymentConfig deploymentConfig, String modelName, String outputFormat,
+                                       Integer version) throws JsonProcessingException {
+        boolean jsonOutput = OUTPUT_FORMAT_JSON.equalsIgnoreCase(outputFormat);
+        String text = modelName + "\n" + (jsonOutput ? OUTPUT_FORMAT_JSON : OUTPUT_FORMAT_MARKERS) + "\n"
+                + systemInstruction(version, jsonOutput) + generateInputs(deploymentConfig, version);
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static String systemInstruction(Integer version, boolean jsonOutput) {
+        return generateSystemInstruction(version) + (jsonOutput ? JSON_OUTPUT_INSTRUCTION : "");
+    }
+
+    /**
+     * Constructs the static instruction block of the prompt.
+     *
+     * <p>The returned text does not depend on the deployment configuration, which makes it a good
+     * candidate for Gemini context caching: it is uploaded once per model and prompt version and
+     * then referenced by every generation request of the build.
+     *
+     * @param version The version number for using different prompts (internal use only)
+     * @return The instruction text preceding the {@code Inputs:} section.
+     */
+    public static String generateSystemInstruction(Integer version) {
+
         if (version == null || version == 1) {
             return """
                     #Role:
@@ -241,10 +591,6 @@ public class K8ConfigGeneratorAgent {
                     9. The assistant must not ask clarification questions. If inputs are ambiguous or missing use defaults described above.
                     10. Output must be machine-extractable. No trailing characters outside final END_FILE marker.
                     
-                    Inputs:
-                    """
-                    + inputConfig + "\n" + """
-                    -- End of prompt --
                     """;
         }
 
@@ -378,10 +724,7 @@ public class K8ConfigGeneratorAgent {
                     17. networkpolicy.yaml (if requested)
                     18. README_AUTOMATION.md (1-line CI usage)
                     
-                    Inputs:
-                    
-                    """ +
-                    inputConfig + "\n";
+                    """;
         }
 
         if (version == 3) {
@@ -430,12 +773,23 @@ public class K8ConfigGeneratorAgent {
                - Logs to stdout/stderr, Prometheus scrape annotations.
                - Image name: `{registry}/{app}:{tag}` (default `{{BUILD_TIMESTAMP}}`).
                - Only minimal comments for CI build/apply.
-            Inputs:
-            
-            """ + inputConfig;
+            """;
         }
 
         return "";
     }
 
+    private static JsonNode createFilesResponseSchema() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        ObjectNode file = objectMapper.createObjectNode().put("type", "OBJECT");
+        ObjectNode properties = file.putObject("properties");
+        properties.putObject("path").put("type", "STRING");
+        properties.putObject("content").put("type", "STRING");
+        file.putArray("required").add("path").add("content");
+        file.putArray("propertyOrdering").add("path").add("content");
+
+        ObjectNode schema = objectMapper.createObjectNode().put("type", "ARRAY");
+        schema.set("items", file);
+        return schema;
+    }
 }
@@ -0,0 +1,42 @@
+package io.github.rkumar0206.k8gen.ai.gemini;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * A data class representing a Gemini {@code cachedContents} entry.
+ *
+ * <p>Only the fields needed to reuse and refresh an entry are kept. Instances are persisted
+ * between builds, so the class stays a plain Jackson-friendly bean.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CachedContent {
+    /**
+     * The resource name of the entry, e.g. {@code cachedContents/abc123}.
+     */
+    private String name;
+    /**
+     * The model the entry was created for. Cached content can only be used with this model.
+     */
+    private String model;
+    /**
+     * The RFC 3339 timestamp after which the server discards the entry.
+     */
+    private String expireTime;
+
+    /**
+     * Checks whether the entry is still usable for at least the given amount of time.
+     *
+     * @param margin The minimum remaining lifetime.
+     * @return {@code true} if the entry expires later than {@code now + margin}.
+     */
+    public boolean isValidFor(Duration margin) {
+        return expireTime != null && Instant.parse(expireTime).isAfter(Instant.now().plus(margin));
+    }
+}
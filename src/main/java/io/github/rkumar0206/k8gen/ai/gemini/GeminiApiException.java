@@ -0,0 +1,24 @@
+package io.github.rkumar0206.k8gen.ai.gemini;
+
+import lombok.Getter;
+
+import java.io.IOException;
+
+/**
+ * Thrown when the Gemini REST API answers with a non-success HTTP status.
+ */
+@Getter
+public class GeminiApiException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The HTTP status code returned by the server.
+     */
+    private final int statusCode;
+
+    public GeminiApiException(int statusCode, String message) {
+        super(message);
+        this.statusCode = statusCode;
+    }
+}
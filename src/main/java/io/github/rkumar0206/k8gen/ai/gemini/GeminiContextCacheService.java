@@ -0,0 +1,179 @@
+package io.github.rkumar0206.k8gen.ai.gemini;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.provider.Property;
+import org.gradle.api.services.BuildService;
+import org.gradle.api.services.BuildServiceParameters;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A shared Gradle build service that owns the Gemini context caches for the static part of the prompt.
+ *
+ * <p>One instance exists per build, so every subproject of a multi-project build that applies the
+ * plugin reuses the same cache entry instead of creating its own. The known entries are also
+ * persisted to a state file below the root project's {@code .gradle} directory, which lets
+ * consecutive builds keep using an entry for as long as its TTL allows.
+ *
+ * <p>Entries are keyed by model name and a hash of the instruction text, so changing either the
+ * model or the prompt version never picks up a stale cache.
+ */
+public abstract class GeminiContextCacheService implements BuildService<GeminiContextCacheService.Params>, AutoCloseable {
+
+    private static final Logger LOGGER = Logging.getLogger(GeminiContextCacheService.class);
+
+    /**
+     * Parameters of the {@link GeminiContextCacheService}.
+     */
+    public interface Params extends BuildServiceParameters {
+        /**
+         * The file in which known cache entries are persisted between builds.
+         */
+        RegularFileProperty getStateFile();
+
+        /**
+         * The time-to-live of a cache entry in minutes.
+         */
+        Property<Integer> getTtlMinutes();
+    }
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, CachedContent> entries = new ConcurrentHashMap<>();
+    private final Set<String> unsupportedKeys = ConcurrentHashMap.newKeySet();
+    private boolean dirty;
+
+    public GeminiContextCacheService() {
+        File stateFile = getParameters().getStateFile().get().getAsFile();
+        if (stateFile.exists()) {
+            try {
+                entries.putAll(objectMapper.readValue(stateFile, new TypeReference<Map<String, CachedContent>>() {
+                }));
+            } catch (IOException e) {
+                LOGGER.info("Ignoring unreadable Gemini context cache state {}", stateFile, e);
+            }
+        }
+    }
+
+    /**
+     * Returns the name of a cache entry holding the given system instruction, creating or refreshing
+     * the entry when needed.
+     *
+     * <p>An entry whose remaining lifetime drops below a quarter of the TTL is extended rather than
+     * recreated. If the server refuses to create an entry (e.g. because the instruction is below the
+     * model's minimum cacheable size), {@code null} is returned and the combination is not retried
+     * for the rest of the build. After a transient failure {@code null} is returned as well, but the
+     * next call tries again.
+     *
+     * @param client            The client used to talk to the API.
+     * @param modelName         The model the entry must be bound to.
+     * @param systemInstruction The static instruction text.
+     * @return The cache resource name, or {@code null} if caching is not possible.
+     * @throws InterruptedException If the calling thread is interrupted.
+     */
+    public synchronized String resolve(GeminiRestClient client, String modelName, String systemInstruction)
+            throws InterruptedException {
+
+        String key = cacheKey(modelName, systemInstruction);
+        if (unsupportedKeys.contains(key)) {
+            return null;
+        }
+
+        Duration ttl = Duration.ofMinutes(getParameters().getTtlMinutes().get());
+        Duration refreshMargin = ttl.dividedBy(4);
+        CachedContent entry = entries.get(key);
+        boolean creating = false;
+
+        try {
+            if (entry != null && !entry.isValidFor(refreshMargin) && entry.isValidFor(Duration.ofSeconds(30))) {
+                entry = client.updateCachedContentTtl(entry.getName(), modelName, ttl);
+                LOGGER.info("Extended Gemini context cache {} until {}", entry.getName(), entry.getExpireTime());
+                store(key, entry);
+            } else if (entry == null || !entry.isValidFor(Duration.ofSeconds(30))) {
+                creating = true;
+                entry = client.createCachedContent(modelName, systemInstruction, ttl);
+                LOGGER.lifecycle("Created Gemini context cache {} for {} (expires {})",
+                        entry.getName(), modelName, entry.getExpireTime());
+                store(key, entry);
+            }
+            return entry.getName();
+        } catch (IOException e) {
+            LOGGER.warn("Gemini context caching unavailable for {}, sending the full prompt instead: {}",
+                    modelName, e.getMessage());
+            if (entries.remove(key) != null) {
+                dirty = true;
+            }
+            // an entry that vanished before its TTL could be extended is simply created again
+            if (creating && isRefusal(e)) {
+                unsupportedKeys.add(key);
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Tells whether the server refused to create an entry, e.g. with 400 for an instruction below the
+     * minimum cacheable size, so that retrying is pointless. Network errors, 5xx answers, timeouts and
+     * rate limiting are transient and the next request tries again.
+     */
+    private static boolean isRefusal(IOException e) {
+        return e instanceof GeminiApiException apiException
+                && apiException.getStatusCode() >= 400 && apiException.getStatusCode() < 500
+                && apiException.getStatusCode() != 408 && apiException.getStatusCode() != 429;
+    }
+
+    /**
+     * Forgets a cache entry, for example after the server reported that it no longer exists.
+     *
+     * @param modelName         The model the entry is bound to.
+     * @param systemInstruction The instruction text the entry was created from.
+     */
+    public synchronized void invalidate(String modelName, String systemInstruction) {
+        if (entries.remove(cacheKey(modelName, systemInstruction)) != null) {
+            dirty = true;
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (!dirty) {
+            return;
+        }
+        File stateFile = getParameters().getStateFile().get().getAsFile();
+        try {
+            Files.createDirectories(stateFile.getParentFile().toPath());
+            objectMapper.writerWithDefaultPrettyPrinter().writeValue(stateFile, new HashMap<>(entries));
+        } catch (IOException e) {
+            LOGGER.info("Unable to persist Gemini context cache state {}", stateFile, e);
+        }
+    }
+
+    private void store(String key, CachedContent entry) {
+        entries.put(key, entry);
+        dirty = true;
+    }
+
+    private static String cacheKey(String modelName, String systemInstruction) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest((modelName + "\n" + systemInstruction).getBytes(StandardCharsets.UTF_8));
+            return modelName + ":" + HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package io.github.rkumar0206.k8gen.ai.gemini;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * The relevant parts of a Gemini {@code generateContent} response.
+ */
+@Getter
+@AllArgsConstructor
+public class GeminiResponse {
+    /**
+     * The text of the first candidate, with thought parts removed.
+     */
+    private final String text;
+    /**
+     * The raw finish reason reported by the API, e.g. {@code STOP} or {@code MAX_TOKENS}.
+     */
+    private final String finishReason;
+    /**
+     * The total number of prompt tokens, including the cached ones.
+     */
+    private final int promptTokenCount;
+    /**
+     * The number of prompt tokens served from the context cache.
+     */
+    private final int cachedContentTokenCount;
+    /**
+     * The number of tokens in the generated candidate.
+     */
+    private final int candidatesTokenCount;
+}
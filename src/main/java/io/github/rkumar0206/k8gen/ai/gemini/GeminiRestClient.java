@@ -0,0 +1,259 @@
+package io.github.rkumar0206.k8gen.ai.gemini;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A minimal client for the parts of the Gemini REST API that are not exposed through
+ * langchain4j, most importantly the {@code cachedContents} resource used for context caching.
+ *
+ * <p>The base URL is configurable so that the client can be pointed at a local stand-in
+ * server (for example a small HTTP stub in tests) instead of the public endpoint.
+ */
+public class GeminiRestClient {
+
+    /**
+     * The public Gemini API endpoint, including the API version.
+     */
+    public static final String DEFAULT_BASE_URL = "https://generativelanguage.googleapis.com/v1beta";
+
+    private static final String API_KEY_HEADER = "x-goog-api-key";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient httpClient;
+    private final String apiKey;
+    private final String baseUrl;
+    private final Duration timeout;
+
+    /**
+     * Constructs a new `GeminiRestClient`.
+     *
+     * @param apiKey  The API key sent with every request.
+     * @param baseUrl The API base URL including the version segment, e.g. {@link #DEFAULT_BASE_URL}.
+     * @param timeout The per-request timeout.
+     */
+    public GeminiRestClient(String apiKey, String baseUrl, Duration timeout) {
+        this.apiKey = apiKey;
+        this.baseUrl = stripTrailingSlash(baseUrl == null || baseUrl.isBlank() ? DEFAULT_BASE_URL : baseUrl);
+        this.timeout = timeout;
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+    }
+
+    /**
+     * Creates a cached content entry holding the given system instruction.
+     *
+     * @param modelName         The model the cache is bound to (caches are model specific).
+     * @param systemInstruction The static instruction text to cache.
+     * @param ttl               How long the cache entry should live.
+     * @return The created cache entry.
+     * @throws IOException If the request fails or the server rejects it.
+     * @throws InterruptedException If the calling thread is interrupted while waiting for the response.
+     */
+    public CachedContent createCachedContent(String modelName, String systemInstruction, Duration ttl)
+            throws IOException, InterruptedException {
+
+        ObjectNode body = objectMapper.createObjectNode();
+        body.put("model", "models/" + modelName);
+        body.set("systemInstruction", textContent(null, systemInstruction));
+        body.put("ttl", ttl.toSeconds() + "s");
+
+        JsonNode response = send("POST", baseUrl + "/cachedContents", body);
+        return toCachedContent(response, modelName);
+    }
+
+    /**
+     * Extends the lifetime of an existing cached content entry.
+     *
+     * @param name      The resource name returned on creation, e.g. {@code cachedContents/abc123}.
+     * @param modelName The model the cache is bound to.
+     * @param ttl       The new time-to-live, counted from now.
+     * @return The updated cache entry.
+     * @throws IOException If the request fails or the entry no longer exists.
+     * @throws InterruptedException If the calling thread is interrupted while waiting for the response.
+     */
+    public CachedContent updateCachedContentTtl(String name, String modelName, Duration ttl)
+            throws IOException, InterruptedException {
+
+        ObjectNode body = objectMapper.createObjectNode();
+        body.put("ttl", ttl.toSeconds() + "s");
+
+        JsonNode response = send("PATCH", baseUrl + "/" + name + "?updateMask=ttl", body);
+        return toCachedContent(response, modelName);
+    }
+
+    /**
+     * Calls {@code generateContent} with a single user turn on top of a cached system instruction.
+     *
+     * @param modelName     The model to call. Must match the model the cache was created for.
+     * @param cachedContent The cache resource name.
+     * @param userText      The dynamic part of the prompt.
+     * @return The concatenated text of the first candidate together with its finish reason.
+     * @throws IOException If the request fails.
+     * @throws InterruptedException If the calling thread is interrupted while waiting for the response.
+     */
+    public GeminiResponse generateContent(String modelName, String cachedContent, String userText)
+            throws IOException, InterruptedException {
+
+        ObjectNode body = generateContentBody(cachedContent, null, userText, null);
+
+        JsonNode response = send("POST", baseUrl + "/models/" + modelName + ":generateContent", body);
+        return toGeminiResponse(response);
+    }
+
+    /**
+     * Calls {@code streamGenerateContent} and hands every received text fragment to the given consumer
+     * as soon as its server-sent event arrives.
+     *
+     * <p>The text is not accumulated by the client, so the returned response only carries the
+     * finish reason and token usage of the stream.
+     *
+     * @param modelName         The model to call.
+     * @param cachedContent     The cache resource name, or {@code null} if no cache is used.
+     * @param systemInstruction The instruction text, only used when no cache is given.
+     * @param userText          The dynamic part of the prompt.
+     * @param responseSchema    The schema of a structured JSON response, or {@code null} for plain text.
+     * @param textConsumer      Receives the text fragments in order.
+     * @return The finish reason and token usage of the stream.
+     * @throws IOException If the request fails.
+     * @throws InterruptedException If the calling thread is interrupted while waiting for the response.
+     */
+    public GeminiResponse streamGenerateContent(String modelName, String cachedContent, String systemInstruction,
+                                                String userText, JsonNode responseSchema,
+                                                Consumer<String> textConsumer)
+            throws IOException, InterruptedException {
+
+        ObjectNode body = generateContentBody(cachedContent, systemInstruction, userText, responseSchema);
+        HttpRequest request = newRequest("POST",
+                baseUrl + "/models/" + modelName + ":streamGenerateContent?alt=sse", body);
+
+        HttpResponse<Stream<String>> response = httpClient.send(request, HttpResponse.BodyHandlers.ofLines());
+
+        try (Stream<String> lines = response.body()) {
+            if (response.statusCode() / 100 != 2) {
+                throw new GeminiApiException(response.statusCode(), "streamGenerateContent failed with HTTP "
+                        + response.statusCode() + ": " + lines.collect(Collectors.joining("\n")));
+            }
+
+            String finishReason = null;
+            JsonNode usage = objectMapper.createObjectNode();
+            Iterator<String> iterator = lines.iterator();
+            while (iterator.hasNext()) {
+                String line = iterator.next();
+                if (!line.startsWith("data:")) {
+                    continue;
+                }
+                JsonNode chunk = objectMapper.readTree(line.substring("data:".length()).trim());
+                JsonNode candidate = chunk.path("candidates").path(0);
+                for (JsonNode part : candidate.path("content").path("parts")) {
+                    if (!part.path("thought").asBoolean(false) && part.hasNonNull("text")) {
+                        textConsumer.accept(part.get("text").asText());
+                    }
+                }
+                if (candidate.hasNonNull("finishReason")) {
+                    finishReason = candidate.get("finishReason").asText();
+                }
+                if (chunk.has("usageMetadata")) {
+                    usage = chunk.get("usageMetadata");
+                }
+            }
+            return new GeminiResponse("", finishReason,
+                    usage.path("promptTokenCount").asInt(0),
+                    usage.path("cachedContentTokenCount").asInt(0),
+                    usage.path("candidatesTokenCount").asInt(0));
+        }
+    }
+
+    private ObjectNode generateContentBody(String cachedContent, String systemInstruction, String userText,
+                                           JsonNode responseSchema) {
+
+        ObjectNode body = objectMapper.createObjectNode();
+        if (cachedContent != null) {
+            body.put("cachedContent", cachedContent);
+        } else if (systemInstruction != null) {
+            body.set("systemInstruction", textContent(null, systemInstruction));
+        }
+        ArrayNode contents = body.putArray("contents");
+        contents.add(textContent("user", userText));
+
+        if (responseSchema != null) {
+            ObjectNode generationConfig = body.putObject("generationConfig");
+            generationConfig.put("responseMimeType", "application/json");
+            generationConfig.set("responseSchema", responseSchema);
+        }
+        return body;
+    }
+
+    private JsonNode send(String method, String url, ObjectNode body) throws IOException, InterruptedException {
+
+        HttpRequest request = newRequest(method, url, body);
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+
+        if (response.statusCode() / 100 != 2) {
+            throw new GeminiApiException(response.statusCode(), method + " " + url + " failed with HTTP "
+                    + response.statusCode() + ": " + response.body());
+        }
+        return objectMapper.readTree(response.body());
+    }
+
+    private HttpRequest newRequest(String method, String url, ObjectNode body) throws IOException {
+        return HttpRequest.newBuilder(URI.create(url))
+                .timeout(timeout)
+                .header("Content-Type", "application/json")
+                .header(API_KEY_HEADER, apiKey)
+                .method(method, HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)))
+                .build();
+    }
+
+    private ObjectNode textContent(String role, String text) {
+        ObjectNode content = objectMapper.createObjectNode();
+        if (role != null) {
+            content.put("role", role);
+        }
+        content.putArray("parts").addObject().put("text", text);
+        return content;
+    }
+
+    private CachedContent toCachedContent(JsonNode response, String modelName) {
+        return new CachedContent(
+                response.path("name").asText(),
+                modelName,
+                response.path("expireTime").asText(null));
+    }
+
+    private GeminiResponse toGeminiResponse(JsonNode response) {
+        JsonNode candidate = response.path("candidates").path(0);
+        StringBuilder text = new StringBuilder();
+        for (JsonNode part : candidate.path("content").path("parts")) {
+            // skip thought summaries of thinking models, only the answer is of interest
+            if (!part.path("thought").asBoolean(false)) {
+                text.append(part.path("text").asText(""));
+            }
+        }
+        JsonNode usage = response.path("usageMetadata");
+        return new GeminiResponse(
+                text.toString(),
+                candidate.path("finishReason").asText(null),
+                usage.path("promptTokenCount").asInt(0),
+                usage.path("cachedContentTokenCount").asInt(0),
+                usage.path("candidatesTokenCount").asInt(0));
+    }
+
+    private static String stripTrailingSlash(String url) {
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+}
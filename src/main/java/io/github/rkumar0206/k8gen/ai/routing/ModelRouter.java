@@ -0,0 +1,129 @@
+package io.github.rkumar0206.k8gen.ai.routing;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import io.github.rkumar0206.k8gen.ai.agents.K8ConfigGeneratorAgent;
+import io.github.rkumar0206.k8gen.model.DeploymentConfig;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Picks the model of a generation from the complexity of its deployment configuration.
+ *
+ * <p>The complexity score adds up the files the prompt asks for, one more point for every entry of
+ * {@code extraK8sResources}, whose manifests the model writes without a template, two points for every
+ * additional image, which needs a compose service and its own manifests, and one point per started KiB of
+ * the inputs sent to the model. The tier table maps each model to the highest score it handles; a score
+ * above every bound goes to the model with the highest bound.
+ */
+public class ModelRouter {
+
+    /**
+     * The default tiers: a bare service goes to the lightest model, one with a database, an Ingress or an
+     * HPA to the default model, and one with extra resources and images to the strongest model.
+     */
+    public static final Map<String, Integer> DEFAULT_TIERS = defaultTiers();
+
+    private static final int BASE_FILES = 9;
+
+    private final List<Map.Entry<String, Integer>> tiers;
+
+    /**
+     * The complexity of a deployment configuration.
+     *
+     * @param requestedFiles   The number of files the prompt asks for.
+     * @param extraResources   The number of {@code extraK8sResources} entries.
+     * @param additionalImages The number of additional images.
+     * @param inputKiB         The size of the inputs sent to the model, in started KiB.
+     */
+    public record Complexity(int requestedFiles, int extraResources, int additionalImages, int inputKiB) {
+
+        /**
+         * @return The complexity score.
+         */
+        public int score() {
+            return requestedFiles + extraResources + 2 * additionalImages + inputKiB;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "score %d (%d files, %d extra resources, %d additional images, %d KiB of inputs)",
+                    score(), requestedFiles, extraResources, additionalImages, inputKiB);
+        }
+    }
+
+    /**
+     * Creates a router.
+     *
+     * @param tiers The highest complexity score each model handles.
+     * @throws IllegalArgumentException If the table is empty.
+     */
+    public ModelRouter(Map<String, Integer> tiers) {
+        if (tiers == null || tiers.isEmpty()) {
+            throw new IllegalArgumentException("modelTiers needs at least one model");
+        }
+        this.tiers = new ArrayList<>(tiers.entrySet());
+        this.tiers.sort(Map.Entry.comparingByValue());
+    }
+
+    /**
+     * Measures the complexity of a deployment configuration.
+     *
+     * @param deploymentConfig The configuration as it is sent to the model.
+     * @return The complexity.
+     * @throws JsonProcessingException If the configuration cannot be serialized.
+     */
+    public static Complexity complexity(DeploymentConfig deploymentConfig) throws JsonProcessingException {
+        int extraResources = size(deploymentConfig.getExtraK8sResources());
+        int requestedFiles = BASE_FILES + extraResources;
+        if (deploymentConfig.getSecrets() != null && !deploymentConfig.getSecrets().isEmpty()) {
+            requestedFiles++; // .env
+        }
+        if (deploymentConfig.isIncludeDatabase()) {
+            requestedFiles += 2; // pvc and the postgres workload
+        }
+        if (deploymentConfig.getIngressHost() != null && !deploymentConfig.getIngressHost().isBlank()) {
+            requestedFiles++;
+        }
+        if (deploymentConfig.isEnableHPA()) {
+            requestedFiles++;
+        }
+        if (deploymentConfig.getMigrations() != null) {
+            requestedFiles++;
+        }
+        int inputBytes = K8ConfigGeneratorAgent.generateInputs(deploymentConfig, 1).getBytes(StandardCharsets.UTF_8).length;
+        return new Complexity(requestedFiles, extraResources, size(deploymentConfig.getAdditionalDockerImages()),
+                (inputBytes + 1023) / 1024);
+    }
+
+    /**
+     * Picks the model of a complexity score.
+     *
+     * @param score The complexity score.
+     * @return The model with the lowest bound not below the score, or the one with the highest bound.
+     */
+    public String modelFor(int score) {
+        return tiers.stream()
+                .filter(tier -> score <= tier.getValue())
+                .findFirst()
+                .orElse(tiers.get(tiers.size() - 1))
+                .getKey();
+    }
+
+    private static int size(List<?> list) {
+        return list == null ? 0 : list.size();
+    }
+
+    private static Map<String, Integer> defaultTiers() {
+        Map<String, Integer> tiers = new LinkedHashMap<>();
+        tiers.put("gemini-2.5-flash-lite", 12);
+        tiers.put("gemini-2.5-flash", 24);
+        tiers.put("gemini-2.5-pro", Integer.MAX_VALUE);
+        return Collections.unmodifiableMap(tiers);
+    }
+}
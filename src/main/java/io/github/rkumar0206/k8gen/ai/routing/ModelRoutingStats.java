@@ -0,0 +1,162 @@
+package io.github.rkumar0206.k8gen.ai.routing;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Data;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Records the latency and outcome of the model calls of every model, so the tiers of {@link ModelRouter}
+ * can be tuned from data.
+ *
+ * <p>The statistics are kept in one JSON file shared by all projects of the build. A generation succeeded
+ * when the model answered with a complete set of files; a failed call or an answer still truncated after the
+ * continuation requests counts as a failure, and its complexity score is kept. Scores that fail on a model
+ * are the ones to move to the next tier. An unreadable file starts the statistics afresh, and a file that
+ * cannot be written only loses the record.
+ */
+public class ModelRoutingStats {
+
+    private static final Logger LOGGER = Logging.getLogger(ModelRoutingStats.class);
+    // the projects of a parallel build update the same file
+    private static final Object LOCK = new Object();
+
+    private final Path file;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * The statistics of one model.
+     */
+    @Data
+    public static class ModelStats {
+        /**
+         * The number of generations sent to the model.
+         */
+        private int generations;
+        /**
+         * The number of generations answered with a complete set of files.
+         */
+        private int successes;
+        /**
+         * The summed latency of all generations, in milliseconds.
+         */
+        private long totalLatencyMillis;
+        /**
+         * The highest latency of a generation, in milliseconds.
+         */
+        private long maxLatencyMillis;
+        /**
+         * The lowest complexity score routed to the model.
+         */
+        private int minScore = Integer.MAX_VALUE;
+        /**
+         * The highest complexity score routed to the model.
+         */
+        private int maxScore;
+        /**
+         * The complexity scores of the failed generations.
+         */
+        private TreeSet<Integer> failedScores = new TreeSet<>();
+    }
+
+    /**
+     * Creates the statistics.
+     *
+     * @param file The JSON file holding them, created on the first record.
+     */
+    public ModelRoutingStats(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Loads the statistics.
+     *
+     * @return The statistics by model name, empty if there are none.
+     */
+    public Map<String, ModelStats> load() {
+        synchronized (LOCK) {
+            return read();
+        }
+    }
+
+    /**
+     * Records one generation.
+     *
+     * @param model         The model the generation was sent to.
+     * @param score         The complexity score of the configuration.
+     * @param latencyMillis The time the generation took, in milliseconds.
+     * @param success       Whether the model answered with a complete set of files.
+     * @return The updated statistics of the model.
+     */
+    public ModelStats record(String model, int score, long latencyMillis, boolean success) {
+        synchronized (LOCK) {
+            Map<String, ModelStats> stats = read();
+            ModelStats modelStats = stats.computeIfAbsent(model, name -> new ModelStats());
+            modelStats.setGenerations(modelStats.getGenerations() + 1);
+            modelStats.setTotalLatencyMillis(modelStats.getTotalLatencyMillis() + latencyMillis);
+            modelStats.setMaxLatencyMillis(Math.max(modelStats.getMaxLatencyMillis(), latencyMillis));
+            modelStats.setMinScore(Math.min(modelStats.getMinScore(), score));
+            modelStats.setMaxScore(Math.max(modelStats.getMaxScore(), score));
+            if (success) {
+                modelStats.setSuccesses(modelStats.getSuccesses() + 1);
+            } else {
+                modelStats.getFailedScores().add(score);
+            }
+            try {
+                write(stats);
+            } catch (IOException e) {
+                LOGGER.info("Unable to write the model routing statistics {}", file, e);
+            }
+            return modelStats;
+        }
+    }
+
+    /**
+     * Describes the statistics of a model for the build log.
+     *
+     * @param model The model name.
+     * @param stats The statistics of the model.
+     * @return A one-line description.
+     */
+    public static String summary(String model, ModelStats stats) {
+        return String.format(Locale.ROOT, "%s: %d of %d generations complete, mean latency %d ms, scores %d-%d%s",
+                model, stats.getSuccesses(), stats.getGenerations(),
+                stats.getGenerations() == 0 ? 0 : stats.getTotalLatencyMillis() / stats.getGenerations(),
+                stats.getMinScore(), stats.getMaxScore(),
+                stats.getFailedScores().isEmpty() ? "" : ", failed at " + stats.getFailedScores());
+    }
+
+    private Map<String, ModelStats> read() {
+        if (!Files.isRegularFile(file)) {
+            return new TreeMap<>();
+        }
+        try {
+            return objectMapper.readValue(file.toFile(), new TypeReference<TreeMap<String, ModelStats>>() {
+            });
+        } catch (IOException e) {
+            LOGGER.info("Ignoring unreadable model routing statistics {}", file, e);
+            return new TreeMap<>();
+        }
+    }
+
+    private void write(Map<String, ModelStats> stats) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Path temporary = Files.createTempFile(file.toAbsolutePath().getParent(), "model-routing", ".tmp");
+        try {
+            objectMapper.writerWithDefaultPrettyPrinter().writeValue(temporary.toFile(), stats);
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+}
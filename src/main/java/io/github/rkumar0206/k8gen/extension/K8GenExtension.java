@@ -1,9 +1,14 @@
 package io.github.rkumar0206.k8gen.extension;
 
 
+import io.github.rkumar0206.k8gen.ai.agents.K8ConfigGeneratorAgent;
+import io.github.rkumar0206.k8gen.ai.gemini.GeminiRestClient;
+import io.github.rkumar0206.k8gen.ai.routing.ModelRouter;
+import io.github.rkumar0206.k8gen.model.StartupMode;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import org.gradle.api.model.ObjectFactory;
+import org.gradle.api.provider.MapProperty;
 import org.gradle.api.provider.Property;
 import org.jetbrains.annotations.NotNull;
 
@@ -26,7 +31,8 @@ public class K8GenExtension {
 
     /**
      * The output directory where the generated Kubernetes configuration files will be saved.
-     * The default value is the project's root directory (`/`).
+     * The default value is the `k8s` directory of the project, so that the directories published by
+     * several projects of a build do not coincide.
      */
     private final Property<@NotNull String> outputDir;
 
@@ -42,8 +48,121 @@ public class K8GenExtension {
      */
     private final Property<String> model;
 
+    /**
+     * Whether the model is picked from {@link #modelTiers} by the complexity of the configuration instead of
+     * taken from {@link #model}. The default value is {@code false}.
+     */
+    private final Property<Boolean> modelRouting;
+
+    /**
+     * The model tiers of the complexity-based routing: the highest complexity score each model handles. A score
+     * above every bound goes to the model with the highest bound. The default tiers route up to 12 points to
+     * {@code gemini-2.5-flash-lite}, up to 24 to {@code gemini-2.5-flash} and everything else to
+     * {@code gemini-2.5-pro}.
+     */
+    private final MapProperty<String, Integer> modelTiers;
+
     private final Property<String> geminiAPIKey;
 
+    /**
+     * The format in which the model returns the generated files: {@code markers} (BEGIN/END file markers)
+     * or {@code json} (structured output parsed incrementally). The default value is {@code markers}.
+     */
+    private final Property<String> outputFormat;
+
+    /**
+     * Whether generated YAML files are re-emitted in a canonical form (stable key order, consistent
+     * scalars, comments at the top of each document). The default value is {@code true}.
+     */
+    private final Property<Boolean> normalizeYaml;
+
+    /**
+     * Whether {@code JAVA_TOOL_OPTIONS} of the application is replaced with JVM flags computed from the
+     * configured memory and CPU limits. The default value is {@code true}.
+     */
+    private final Property<Boolean> jvmTuning;
+
+    /**
+     * How the application image is built and started: {@code jar}, {@code appcds}, {@code aot}, {@code crac}
+     * or {@code native}. A {@code startupMode} in the configuration file takes precedence.
+     * The default value is {@code jar}.
+     */
+    private final Property<String> startupMode;
+
+    /**
+     * Whether the Dockerfile copies the layers of Spring Boot's layered jar one by one, also in the
+     * {@code jar} startup mode. The default value is {@code true}.
+     */
+    private final Property<Boolean> layeredJar;
+
+    /**
+     * Whether {@code bootJar} is configured with fixed file timestamps and a reproducible file order, so
+     * that unchanged dependencies produce an identical image layer. The default value is {@code false}.
+     */
+    private final Property<Boolean> reproducibleBootJar;
+
+    /**
+     * Whether {@code .dockerignore} is synthesized from a parallel scan of the project directory instead
+     * of taken from the model. The default value is {@code true}.
+     */
+    private final Property<Boolean> scanBuildContext;
+
+    /**
+     * The resource profile written by {@code profileK8Resources}, relative to the project directory. If the
+     * file exists, its suggested requests, limits and startup time replace those of the configuration file.
+     * The default value is {@code k8gen-resource-profile.json}.
+     */
+    private final Property<String> resourceProfile;
+
+    /**
+     * The JSON file describing the node pool that {@code planK8Capacity} plans the generated workloads against,
+     * relative to the project directory. The default value is {@code k8gen-node-pool.json}.
+     */
+    private final Property<String> nodePool;
+
+    /**
+     * The Kubernetes version the generated manifests target and {@code validateK8Manifests} validates them for,
+     * e.g. {@code 1.28}. The default value is {@code 1.26}, the oldest supported version.
+     */
+    private final Property<String> kubernetesVersion;
+
+    /**
+     * The JSON file with additional rules of the image tuning catalogue, relative to the project directory.
+     * A rule replaces the bundled rule of the same name. The default value is {@code k8gen-image-tuning.json};
+     * without the file only the bundled rules apply.
+     */
+    private final Property<String> imageTuningRules;
+
+    /**
+     * Whether the files of a generation are cached below the root project's {@code .gradle} directory and reused
+     * while the prompt stays the same. {@code imageTag}, {@code imageRegistry}, {@code namespace} and secret values
+     * are sent as placeholders, so changing them does not call the model again. The default value is {@code true}.
+     */
+    private final Property<Boolean> generationCache;
+
+    /**
+     * The maximum number of continuation requests sent when the model's answer is truncated.
+     * The default value is {@code 2}.
+     */
+    private final Property<Integer> maxContinuations;
+
+    /**
+     * The base URL of the Gemini API, including the version segment.
+     * The default value is the public endpoint; a local stand-in server can be used instead.
+     */
+    private final Property<String> geminiBaseUrl;
+
+    /**
+     * Whether the static instruction block of the prompt is sent through Gemini context caching.
+     * The default value is {@code true}. If the cache cannot be created the full prompt is sent.
+     */
+    private final Property<Boolean> contextCaching;
+
+    /**
+     * The time-to-live of the Gemini context cache in minutes. The default value is {@code 60}.
+     */
+    private final Property<Integer> contextCacheTtlMinutes;
+
     /**
      * Constructs a new `K8GenExtension` with default values.
      *
@@ -57,6 +176,24 @@ public class K8GenExtension {
         this.outputDir = objects.property(String.class).convention("/");
         this.jsonConfigFilePath = objects.property(String.class).convention("/k8-config.json");
         this.model = objects.property(String.class).convention("gemini-2.5-flash");
+        this.modelRouting = objects.property(Boolean.class).convention(false);
+        this.modelTiers = objects.mapProperty(String.class, Integer.class).convention(ModelRouter.DEFAULT_TIERS);
         this.geminiAPIKey = objects.property(String.class).convention("");
+        this.outputFormat = objects.property(String.class).convention(K8ConfigGeneratorAgent.OUTPUT_FORMAT_MARKERS);
+        this.normalizeYaml = objects.property(Boolean.class).convention(true);
+        this.jvmTuning = objects.property(Boolean.class).convention(true);
+        this.startupMode = objects.property(String.class).convention(StartupMode.JAR.getValue());
+        this.layeredJar = objects.property(Boolean.class).convention(true);
+        this.reproducibleBootJar = objects.property(Boolean.class).convention(false);
+        this.scanBuildContext = objects.property(Boolean.class).convention(true);
+        this.resourceProfile = objects.property(String.class).convention("k8gen-resource-profile.json");
+        this.nodePool = objects.property(String.class).convention("k8gen-node-pool.json");
+        this.kubernetesVersion = objects.property(String.class).convention("1.26");
+        this.imageTuningRules = objects.property(String.class).convention("k8gen-image-tuning.json");
+        this.generationCache = objects.property(Boolean.class).convention(true);
+        this.maxContinuations = objects.property(Integer.class).convention(2);
+        this.geminiBaseUrl = objects.property(String.class).convention(GeminiRestClient.DEFAULT_BASE_URL);
+        this.contextCaching = objects.property(Boolean.class).convention(true);
+        this.contextCacheTtlMinutes = objects.property(Integer.class).convention(60);
     }
 }
\ No newline at end of file
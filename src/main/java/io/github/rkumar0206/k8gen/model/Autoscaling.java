@@ -0,0 +1,46 @@
+package io.github.rkumar0206.k8gen.model;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * The scaling targets and rates of the generated {@code autoscaling/v2} HorizontalPodAutoscaler.
+ *
+ * <p>Every target that is set becomes a metric of the autoscaler, which scales to the largest replica
+ * count any of them asks for. Without any target the autoscaler scales on 70% CPU utilization. The
+ * request rate and latency targets are served from the application's Micrometer metrics through the
+ * Prometheus adapter.
+ */
+@Data
+public class Autoscaling {
+    /**
+     * The target average CPU utilization in percent of the CPU request.
+     */
+    private Integer targetCpuUtilization;
+    /**
+     * The target number of HTTP requests per second per pod, as a Kubernetes quantity, e.g. {@code 50}.
+     */
+    private String requestsPerSecond;
+    /**
+     * The target 95th percentile of the HTTP request latency in milliseconds, averaged over the pods.
+     */
+    private Integer p95LatencyMillis;
+    /**
+     * Additional per-pod metrics served by the Prometheus adapter.
+     */
+    private List<CustomMetric> customMetrics;
+    /**
+     * Scales a Kafka consumer on the lag of its consumer group, with a KEDA {@code ScaledObject} instead of
+     * the HorizontalPodAutoscaler.
+     */
+    private KafkaLagScaling kafkaLag;
+    /**
+     * How fast replicas are added. Defaults to no stabilization and doubling or four more pods every 15 seconds.
+     */
+    private ScalingRules scaleUp;
+    /**
+     * How fast replicas are removed. Defaults to a five minute stabilization window and 10% per minute.
+     */
+    private ScalingRules scaleDown;
+}
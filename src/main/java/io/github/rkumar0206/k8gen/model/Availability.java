@@ -0,0 +1,32 @@
+package io.github.rkumar0206.k8gen.model;
+
+import lombok.Data;
+
+/**
+ * How the application pods are spread over the cluster and replaced during rollouts.
+ */
+@Data
+public class Availability {
+    /**
+     * Whether the pods are spread evenly across zones. Defaults to {@code true}.
+     */
+    private Boolean spreadAcrossZones;
+    /**
+     * Whether the pods are spread evenly across nodes. Defaults to {@code true}.
+     */
+    private Boolean spreadAcrossNodes;
+    /**
+     * Whether spreading is a hard requirement ({@code DoNotSchedule}) instead of a preference
+     * ({@code ScheduleAnyway}). Defaults to {@code false}.
+     */
+    private Boolean strictSpread;
+    /**
+     * Whether the scheduler prefers nodes without another pod of the application. Defaults to {@code true}.
+     */
+    private Boolean podAntiAffinity;
+    /**
+     * The time Spring Boot's graceful shutdown may take to finish in-flight requests, in seconds.
+     * Defaults to {@code 30}, Spring Boot's default.
+     */
+    private Integer shutdownTimeoutSeconds;
+}
@@ -0,0 +1,26 @@
+package io.github.rkumar0206.k8gen.model;
+
+import lombok.Data;
+
+/**
+ * A per-pod autoscaling metric computed by the Prometheus adapter from a Prometheus series.
+ */
+@Data
+public class CustomMetric {
+    /**
+     * The name under which the adapter serves the metric, referenced by the autoscaler.
+     */
+    private String name;
+    /**
+     * The Prometheus series the metric is computed from, e.g. {@code orders_queue_size}.
+     */
+    private String series;
+    /**
+     * The adapter's metrics query template. Defaults to the per-pod rate of the series over two minutes.
+     */
+    private String query;
+    /**
+     * The target average value per pod, as a Kubernetes quantity.
+     */
+    private String targetAverageValue;
+}
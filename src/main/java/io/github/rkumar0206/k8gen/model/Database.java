@@ -0,0 +1,42 @@
+package io.github.rkumar0206.k8gen.model;
+
+import lombok.Data;
+
+/**
+ * The resources and workload of the PostgreSQL StatefulSet generated when {@code includeDatabase} is set.
+ */
+@Data
+public class Database {
+    /**
+     * The PostgreSQL image. Defaults to {@code postgres:16}.
+     */
+    private String image;
+    /**
+     * The CPU request of the database container. Defaults to the CPU limit.
+     */
+    private String cpuRequest;
+    /**
+     * The CPU limit of the database container. Defaults to {@code 1}.
+     */
+    private String cpuLimit;
+    /**
+     * The memory request of the database container. Defaults to the memory limit.
+     */
+    private String memoryRequest;
+    /**
+     * The memory limit of the database container, which {@code postgresql.conf} is tuned for. Defaults to {@code 1Gi}.
+     */
+    private String memoryLimit;
+    /**
+     * The size of the data volume. Defaults to {@code 10Gi}.
+     */
+    private String storageSize;
+    /**
+     * The storage class of the data volume. Unset uses the cluster's default class.
+     */
+    private String storageClass;
+    /**
+     * {@code oltp} (default) for many short transactions, or {@code analytic} for few large queries.
+     */
+    private String workload;
+}
@@ -0,0 +1,36 @@
+package io.github.rkumar0206.k8gen.model;
+
+import lombok.Data;
+
+/**
+ * The database connection settings the connection budget of the application is planned from.
+ */
+@Data
+public class DatabaseConnections {
+    /**
+     * The {@code max_connections} of the database. Defaults to {@code 100}, the Postgres default.
+     */
+    private Integer maxConnections;
+    /**
+     * Connections kept free for superusers, migrations and administration. Defaults to {@code 10}.
+     */
+    private Integer reservedConnections;
+    /**
+     * The Hikari pool size wanted per pod. Defaults to {@code 10}, the Hikari default.
+     */
+    private Integer poolSize;
+    /**
+     * When to put PgBouncer in front of the database: {@code auto} (default) when the pools of all pods
+     * exceed the budget, {@code always} or {@code never}.
+     */
+    private String pgBouncer;
+    /**
+     * How PgBouncer runs: {@code deployment} (default), a shared Deployment with its own Service, or
+     * {@code sidecar}, a container next to every application container.
+     */
+    private String pgBouncerMode;
+    /**
+     * The PgBouncer image, configured through the environment variables of {@code edoburu/pgbouncer}.
+     */
+    private String pgBouncerImage;
+}
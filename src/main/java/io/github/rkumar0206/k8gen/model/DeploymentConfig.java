@@ -1,5 +1,6 @@
 package io.github.rkumar0206.k8gen.model;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Data;
 
 import java.util.List;
@@ -75,6 +76,14 @@ public class DeploymentConfig {
      * The maximum number of replicas for HPA.
      */
     private int hpaMaxReplicas;
+    /**
+     * How the pods are spread over the cluster and replaced during rollouts.
+     */
+    private Availability availability;
+    /**
+     * The scaling targets and rates of the HPA.
+     */
+    private Autoscaling autoscaling;
     /**
      * The CPU request for the application's container.
      */
@@ -91,6 +100,24 @@ public class DeploymentConfig {
      * The memory limit for the application's container.
      */
     private String memoryLimit;
+    /**
+     * How the application image is built and started: {@code jar}, {@code appcds}, {@code aot},
+     * {@code crac} or {@code native}. See {@link StartupMode}.
+     */
+    private String startupMode;
+    /**
+     * The expected time in seconds until the application is ready, e.g. measured by {@code profileK8Resources}.
+     * When set, the {@code startupProbe} is sized from it instead of from the startup mode.
+     */
+    private Integer expectedStartupSeconds;
+    /**
+     * The thread model and timeouts of the embedded web server.
+     */
+    private WebServer webServer;
+    /**
+     * The profiling and metrics wired into the application's Deployment.
+     */
+    private Observability observability;
     /**
      * The host name for the Ingress resource.
      */
@@ -103,6 +130,14 @@ public class DeploymentConfig {
      * A flag indicating whether to include database-related resources in the deployment.
      */
     private boolean includeDatabase;
+    /**
+     * The resources and workload of the generated PostgreSQL StatefulSet.
+     */
+    private Database database;
+    /**
+     * The connection budget settings of the database.
+     */
+    private DatabaseConnections dbConnections;
     /**
      * Configuration for database migrations.
      */
@@ -119,4 +154,10 @@ public class DeploymentConfig {
      * A list of paths to additional Kubernetes resource files to be included.
      */
     private List<String> extraK8sResources;
+    /**
+     * Field overrides per environment, e.g. {@code {"prod": {"replicas": 4, "namespace": "orders-prod"}}}.
+     * Each environment becomes a Kustomize overlay of the generated manifests. Not sent to the model.
+     */
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
+    private Map<String, Map<String, Object>> environments;
 }
\ No newline at end of file
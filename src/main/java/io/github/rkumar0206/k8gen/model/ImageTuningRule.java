@@ -0,0 +1,50 @@
+package io.github.rkumar0206.k8gen.model;
+
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A rule of the image tuning catalogue: the resources and engine settings given to the containers of an
+ * additional image, such as Redis or Kafka.
+ *
+ * <p>Values of {@code env} and {@code args} may refer to the memory limit of the container:
+ * {@code {memoryMiB}}, {@code {memoryMiB:60%}} or {@code {memoryGiB:40%:0.25}}, the last part being a minimum.
+ */
+@Data
+public class ImageTuningRule {
+    /**
+     * The name of the rule. A user rule replaces the bundled rule of the same name.
+     */
+    private String name;
+    /**
+     * The image repositories the rule applies to, without registry and tag, e.g. {@code redis} or
+     * {@code bitnami/kafka}. A trailing {@code *} matches any suffix.
+     */
+    private List<String> images;
+    /**
+     * The roles of {@link DockerImage} the rule is limited to, e.g. {@code cache}. Empty for every role.
+     */
+    private List<String> roles;
+    /**
+     * The CPU request set when the container has none.
+     */
+    private String cpuRequest;
+    /**
+     * The memory request set when the container has none.
+     */
+    private String memoryRequest;
+    /**
+     * The memory limit set when the container has none.
+     */
+    private String memoryLimit;
+    /**
+     * Environment variables set on the container.
+     */
+    private Map<String, String> env;
+    /**
+     * Command-line flags merged into the container's arguments, replacing flags of the same name.
+     */
+    private List<String> args;
+}
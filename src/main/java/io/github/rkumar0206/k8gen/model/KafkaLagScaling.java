@@ -0,0 +1,55 @@
+package io.github.rkumar0206.k8gen.model;
+
+import lombok.Data;
+
+/**
+ * The consumer-group lag target of a KEDA {@code ScaledObject} scaling a Kafka consumer.
+ *
+ * <p>The replicas are capped at the partition count of the topic, since a consumer group assigns each
+ * partition to one consumer only and further pods would stay idle.
+ */
+@Data
+public class KafkaLagScaling {
+    /**
+     * The Kafka bootstrap servers. Defaults to {@code SPRING_KAFKA_BOOTSTRAP_SERVERS} of {@code configd}, or to
+     * port 9092 of the Kafka container of {@code additionalDockerImages}.
+     */
+    private String bootstrapServers;
+    /**
+     * The consumer group whose lag is measured. Defaults to {@code SPRING_KAFKA_CONSUMER_GROUP_ID} of
+     * {@code configd}, or to the application name.
+     */
+    private String consumerGroup;
+    /**
+     * The consumed topic. Without a topic the lag of every topic of the consumer group counts.
+     */
+    private String topic;
+    /**
+     * The number of partitions of the topic, the upper bound of the replicas.
+     */
+    private Integer partitions;
+    /**
+     * The target lag per pod. Defaults to {@code 100} messages.
+     */
+    private Integer lagThreshold;
+    /**
+     * The lag above which the consumer is scaled up from zero replicas. Defaults to {@code 0}.
+     */
+    private Integer activationLagThreshold;
+    /**
+     * How often KEDA checks the lag, in seconds. Defaults to {@code 30}.
+     */
+    private Integer pollingIntervalSeconds;
+    /**
+     * How long KEDA waits after the last activity before scaling to zero, in seconds. Defaults to {@code 300}.
+     */
+    private Integer cooldownPeriodSeconds;
+    /**
+     * Whether the consumer is scaled to zero replicas while there is no lag. Defaults to {@code false}.
+     */
+    private Boolean scaleToZero;
+    /**
+     * The KEDA {@code TriggerAuthentication} holding the SASL or TLS credentials of the cluster, if any.
+     */
+    private String authenticationRef;
+}
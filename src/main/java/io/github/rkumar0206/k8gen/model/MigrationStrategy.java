@@ -0,0 +1,46 @@
+package io.github.rkumar0206.k8gen.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * Where the database migrations of the application run.
+ */
+@Getter
+@AllArgsConstructor
+public enum MigrationStrategy {
+    /**
+     * An initContainer of the application Deployment, run by every pod that starts.
+     */
+    INIT_CONTAINER("initContainer"),
+    /**
+     * A dedicated Job run once per release, before the Deployment is updated.
+     */
+    JOB("job");
+
+    /**
+     * The value used in the configuration file.
+     */
+    private final String value;
+
+    /**
+     * @param value the configured value, may be {@code null}
+     * @return the strategy, {@link #INIT_CONTAINER} if none is configured
+     * @throws IllegalArgumentException if the value is unknown
+     */
+    public static MigrationStrategy fromValue(String value) {
+        if (value == null || value.isBlank()) {
+            return INIT_CONTAINER;
+        }
+        String normalized = value.trim().toLowerCase(Locale.ROOT);
+        return Arrays.stream(values())
+                .filter(strategy -> strategy.value.toLowerCase(Locale.ROOT).equals(normalized))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown migrations.strategy '" + value + "', expected one of "
+                        + Arrays.stream(values()).map(MigrationStrategy::getValue).collect(Collectors.joining(", "))));
+    }
+}
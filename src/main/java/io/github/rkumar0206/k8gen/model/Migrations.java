@@ -25,4 +25,20 @@ public class Migrations {
      * A list of command-line arguments to pass to the migration tool's container.
      */
     private List<String> args;
-}
\ No newline at end of file
+    /**
+     * Where the migrations run: {@code initContainer} (the default) or {@code job}. See {@link MigrationStrategy}.
+     */
+    private String strategy;
+    /**
+     * The number of retries of the migration Job before it is marked failed. Defaults to {@code 2}.
+     */
+    private Integer backoffLimit;
+    /**
+     * The time in seconds after which a running migration Job is stopped. Defaults to {@code 600}.
+     */
+    private Integer activeDeadlineSeconds;
+    /**
+     * The time in seconds after which a finished migration Job is deleted. Defaults to {@code 86400}.
+     */
+    private Integer ttlSecondsAfterFinished;
+}
@@ -0,0 +1,33 @@
+package io.github.rkumar0206.k8gen.model;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * The node pool the generated workloads are planned against by {@code planK8Capacity}.
+ * All nodes are alike and assigned to the zones in turn.
+ */
+@Data
+public class NodePool {
+    /**
+     * The number of nodes.
+     */
+    private int nodeCount;
+    /**
+     * The allocatable CPU of a node, e.g. {@code 3920m}, as reported by {@code kubectl describe node}.
+     */
+    private String cpu;
+    /**
+     * The allocatable memory of a node, e.g. {@code 14Gi}.
+     */
+    private String memory;
+    /**
+     * The zones of the pool. Defaults to a single zone.
+     */
+    private List<String> zones;
+    /**
+     * The maximum number of pods per node. Defaults to {@code 110}, the kubelet default.
+     */
+    private Integer maxPodsPerNode;
+}
@@ -0,0 +1,14 @@
+package io.github.rkumar0206.k8gen.model;
+
+import lombok.Data;
+
+/**
+ * The diagnostics wired into the application's Deployment.
+ */
+@Data
+public class Observability {
+    /**
+     * Continuous JFR recording of the application container. Off when missing.
+     */
+    private Profiling profiling;
+}
@@ -0,0 +1,40 @@
+package io.github.rkumar0206.k8gen.model;
+
+import lombok.Data;
+
+/**
+ * The continuous Java Flight Recorder recording of the application container.
+ */
+@Data
+public class Profiling {
+    /**
+     * Whether the recording runs, e.g. {@code false} to switch it off in one environment. Defaults to {@code true}.
+     */
+    private Boolean enabled;
+    /**
+     * The JFR settings: {@code default}, about 1% overhead and meant for continuous use, or {@code profile}, which
+     * samples more and costs about 2%. Defaults to {@code default}.
+     */
+    private String settings;
+    /**
+     * The size the rolling JFR repository is kept under, in MiB. Defaults to {@code 128}.
+     */
+    private Integer maxSizeMiB;
+    /**
+     * The age after which recorded data is dropped from the repository, in minutes. Defaults to {@code 120}.
+     */
+    private Integer maxAgeMinutes;
+    /**
+     * The JFR global buffer memory ({@code memorysize}), in MiB. Defaults to {@code 16}.
+     */
+    private Integer memoryMiB;
+    /**
+     * Whether the recording is dumped to {@code /jfr/exit.jfr} when the JVM exits, e.g. after a failed liveness
+     * probe. Defaults to {@code true}.
+     */
+    private Boolean dumpOnExit;
+    /**
+     * Whether unified GC logging is written to rotated files next to the recording. Defaults to {@code true}.
+     */
+    private Boolean gcLog;
+}
@@ -0,0 +1,76 @@
+package io.github.rkumar0206.k8gen.model;
+
+import lombok.Data;
+
+/**
+ * The result of a local profiling run of the application, written by the {@code profileK8Resources}
+ * task and read by the generation step.
+ *
+ * <p>It holds what was measured and the resource settings suggested from it. The suggestions replace
+ * the corresponding values of the {@link DeploymentConfig} when manifests are generated.
+ */
+@Data
+public class ResourceProfile {
+    /**
+     * The values measured during the profiling run.
+     */
+    private Measurements measured = new Measurements();
+    /**
+     * The resource settings derived from the measurements.
+     */
+    private Suggestions suggested = new Suggestions();
+
+    /**
+     * Values measured during a profiling run.
+     */
+    @Data
+    public static class Measurements {
+        /**
+         * Wall-clock time from process start until the readiness endpoint answered.
+         */
+        private double startupSeconds;
+        /**
+         * CPU time the process consumed until it was ready.
+         */
+        private double startupCpuSeconds;
+        /**
+         * Mean CPU usage in cores during the steady-state window.
+         */
+        private double steadyCpuCores;
+        /**
+         * 95th percentile of the CPU usage in cores during the steady-state window.
+         */
+        private double steadyCpuCoresP95;
+        /**
+         * The largest heap usage after a garbage collection, i.e. the live set, in MiB.
+         */
+        private long liveHeapMiB;
+        /**
+         * The largest heap usage observed, in MiB.
+         */
+        private long peakHeapMiB;
+        /**
+         * The largest resident set size observed, in MiB.
+         */
+        private long peakRssMiB;
+        /**
+         * The number of warm-up and steady-state requests sent.
+         */
+        private long requests;
+    }
+
+    /**
+     * Resource settings suggested from the measurements.
+     */
+    @Data
+    public static class Suggestions {
+        private String cpuRequest;
+        private String cpuLimit;
+        private String memoryRequest;
+        private String memoryLimit;
+        /**
+         * The expected startup time under the suggested CPU limit, sizes the {@code startupProbe}.
+         */
+        private int expectedStartupSeconds;
+    }
+}
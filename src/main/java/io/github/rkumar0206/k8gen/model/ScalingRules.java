@@ -0,0 +1,33 @@
+package io.github.rkumar0206.k8gen.model;
+
+import lombok.Data;
+
+/**
+ * The {@code behavior} of a HorizontalPodAutoscaler in one direction.
+ *
+ * <p>{@code percent} and {@code pods} each become a policy over {@code periodSeconds}; {@code selectPolicy}
+ * decides which of them applies when both are set.
+ */
+@Data
+public class ScalingRules {
+    /**
+     * The time over which past recommendations are considered before scaling, in seconds.
+     */
+    private Integer stabilizationWindowSeconds;
+    /**
+     * The largest change in percent of the current replicas per period.
+     */
+    private Integer percent;
+    /**
+     * The largest change in pods per period.
+     */
+    private Integer pods;
+    /**
+     * The period of the policies in seconds.
+     */
+    private Integer periodSeconds;
+    /**
+     * {@code Max}, {@code Min} or {@code Disabled}.
+     */
+    private String selectPolicy;
+}
@@ -0,0 +1,88 @@
+package io.github.rkumar0206.k8gen.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * The way the application image is built and started, trading build time and image constraints
+ * for a shorter time-to-ready.
+ *
+ * <p>Each mode carries the {@code startupProbe} settings used for it: the probe period and the number
+ * of failures tolerated before the container is restarted. Their product is the startup budget, about
+ * three times the startup time typically observed for the mode.
+ */
+@Getter
+@AllArgsConstructor
+public enum StartupMode {
+    /**
+     * A plain executable jar, the model's Dockerfile is kept.
+     */
+    JAR("jar", 5, 24),
+    /**
+     * An extracted jar started with a class data sharing archive dumped by a training run.
+     */
+    APPCDS("appcds", 5, 12),
+    /**
+     * Spring AOT processing ({@code processAot}) on top of the class data sharing archive.
+     */
+    AOT("aot", 3, 15),
+    /**
+     * A CRaC checkpoint taken after the application context was refreshed, restored on startup.
+     * Requires a CRaC enabled JDK and the {@code CHECKPOINT_RESTORE} capability at runtime.
+     */
+    CRAC("crac", 2, 15),
+    /**
+     * A GraalVM native image.
+     */
+    NATIVE("native", 1, 20);
+
+    /**
+     * The value used in the extension and the configuration file.
+     */
+    private final String value;
+    /**
+     * The {@code periodSeconds} of the startup probe.
+     */
+    private final int startupProbePeriodSeconds;
+    /**
+     * The {@code failureThreshold} of the startup probe.
+     */
+    private final int startupProbeFailureThreshold;
+
+    /**
+     * Resolves a mode from its value, ignoring case.
+     *
+     * @param value the value, e.g. {@code appcds}; {@code null} or blank yields {@link #JAR}
+     * @return the mode
+     * @throws IllegalArgumentException if the value is unknown
+     */
+    public static StartupMode fromValue(String value) {
+        if (value == null || value.isBlank()) {
+            return JAR;
+        }
+        String normalized = value.trim().toLowerCase(Locale.ROOT);
+        return Arrays.stream(values())
+                .filter(mode -> mode.value.equals(normalized))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown startupMode '" + value + "', expected one of "
+                        + Arrays.stream(values()).map(StartupMode::getValue).collect(Collectors.joining(", "))));
+    }
+
+    /**
+     * @return the time in seconds the startup probe waits for the application before restarting it
+     */
+    public int getStartupBudgetSeconds() {
+        return startupProbePeriodSeconds * startupProbeFailureThreshold;
+    }
+
+    /**
+     * @return {@code true} if the application runs on a JVM, i.e. JVM flags apply
+     */
+    public boolean isJvm() {
+        return this != NATIVE;
+    }
+}
@@ -0,0 +1,30 @@
+package io.github.rkumar0206.k8gen.model;
+
+import lombok.Data;
+
+/**
+ * The request handling settings of the application's embedded web server.
+ */
+@Data
+public class WebServer {
+    /**
+     * Whether requests are handled on virtual threads ({@code spring.threads.virtual.enabled}). Defaults to
+     * {@code true} on Java 21 and later; ignored on earlier versions.
+     */
+    private Boolean virtualThreads;
+    /**
+     * The maximum number of Tomcat worker threads when virtual threads are off. Defaults to 50 per CPU of the
+     * CPU limit, between 20 and Tomcat's default of 200.
+     */
+    private Integer maxThreads;
+    /**
+     * How long the Ingress waits for a response, and Tomcat for a request, in seconds. Defaults to {@code 60},
+     * the ingress-nginx default.
+     */
+    private Integer requestTimeoutSeconds;
+    /**
+     * How long the proxy in front of the pods keeps idle upstream connections open, in seconds. Defaults to
+     * {@code 60}, the ingress-nginx and AWS load balancer default.
+     */
+    private Integer idleTimeoutSeconds;
+}
@@ -0,0 +1,138 @@
+package io.github.rkumar0206.k8gen.processor;
+
+import io.github.rkumar0206.k8gen.model.Autoscaling;
+import io.github.rkumar0206.k8gen.model.DeploymentConfig;
+import io.github.rkumar0206.k8gen.util.AutoscalingGenerator;
+import io.github.rkumar0206.k8gen.util.ManifestUtil;
+import io.github.rkumar0206.k8gen.util.YamlDocument;
+import io.github.rkumar0206.k8gen.util.YamlNormalizer;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Replaces the model's HorizontalPodAutoscaler with the one built by {@link AutoscalingGenerator}.
+ *
+ * <p>The autoscaler keeps the name and scale target of the model's, and is emitted as {@code hpa.yaml}
+ * on {@link #finish(BiConsumer)} if the model did not produce one. When it scales on Prometheus metrics,
+ * the application pods are annotated for scraping, the metrics port is named, a latency target turns on
+ * the request histogram, and {@code prometheus.yaml} (a {@code PodMonitor}) and
+ * {@code prometheus-adapter-values.yaml} (the adapter rules) are emitted as well. A Kafka consumer scaling
+ * on its consumer-group lag gets a KEDA {@code ScaledObject} in place of the autoscaler, in the same file,
+ * since KEDA manages the autoscaler of the Deployment itself.
+ */
+public class AutoscalingProcessor extends YamlPatchProcessor {
+
+    private static final String HPA_FILE = "hpa.yaml";
+    private static final String DEFAULT_PORT_NAME = "http";
+
+    private final DeploymentConfig deploymentConfig;
+    private final Autoscaling autoscaling;
+    private final boolean podMetrics;
+    private final boolean kafkaLag;
+    private String deploymentName;
+    private String metricsPortName = DEFAULT_PORT_NAME;
+    private boolean hpaWritten;
+
+    /**
+     * Creates a new processor.
+     *
+     * @param deploymentConfig the deployment configuration with the autoscaling settings
+     * @throws IllegalArgumentException if the autoscaling settings are invalid
+     */
+    public AutoscalingProcessor(DeploymentConfig deploymentConfig) {
+        List<String> problems = AutoscalingGenerator.validate(deploymentConfig);
+        if (!problems.isEmpty()) {
+            throw new IllegalArgumentException("Invalid autoscaling settings: " + String.join("; ", problems));
+        }
+        this.deploymentConfig = deploymentConfig;
+        this.autoscaling = AutoscalingGenerator.autoscaling(deploymentConfig);
+        this.podMetrics = AutoscalingGenerator.hasPodMetrics(autoscaling);
+        this.kafkaLag = autoscaling.getKafkaLag() != null;
+    }
+
+    @Override
+    protected boolean patch(String fileName, List<YamlDocument> documents) {
+        if (ManifestUtil.isComposeFile(fileName)) {
+            return false;
+        }
+        boolean changed = false;
+        for (YamlDocument document : documents) {
+            if ("HorizontalPodAutoscaler".equals(document.getKind())) {
+                Map<String, Object> metadata = ManifestUtil.map(document.asMap().get("metadata"));
+                Map<String, Object> spec = ManifestUtil.map(document.asMap().get("spec"));
+                Map<String, Object> target = spec == null ? null : ManifestUtil.map(spec.get("scaleTargetRef"));
+                document.setData(autoscaler(nameOr(metadata, applicationName()), nameOr(target, targetName())));
+                hpaWritten = true;
+                changed = true;
+            } else if ("Deployment".equals(document.getKind())
+                    && ManifestUtil.findAppContainer(document, applicationName()) != null) {
+                // the Kafka or Redis Deployment is neither scaled nor scraped
+                deploymentName = nameOr(ManifestUtil.map(document.asMap().get("metadata")), null);
+                changed |= podMetrics && patchDeployment(document);
+            }
+        }
+        return changed;
+    }
+
+    @Override
+    public void finish(BiConsumer<String, String> next) {
+        if (!hpaWritten) {
+            next.accept(HPA_FILE, render(autoscaler(applicationName(), targetName())));
+        }
+        if (podMetrics) {
+            Map<String, Object> podMonitor = AutoscalingGenerator.podMonitor(deploymentConfig);
+            Map<String, Object> endpoint = ManifestUtil.maps(ManifestUtil.child(podMonitor, "spec")
+                    .get("podMetricsEndpoints")).get(0);
+            endpoint.put("port", metricsPortName);
+            next.accept("prometheus.yaml", render(podMonitor));
+            next.accept("prometheus-adapter-values.yaml", render(AutoscalingGenerator.adapterValues(deploymentConfig)));
+        }
+    }
+
+    private Map<String, Object> autoscaler(String name, String targetName) {
+        return kafkaLag ? AutoscalingGenerator.scaledObject(deploymentConfig, name, targetName)
+                : AutoscalingGenerator.horizontalPodAutoscaler(deploymentConfig, name, targetName);
+    }
+
+    private boolean patchDeployment(YamlDocument document) {
+        Map<String, Object> container = ManifestUtil.findAppContainer(document, applicationName());
+        int port = deploymentConfig.getPort() > 0 ? deploymentConfig.getPort() : 8080;
+        Map<String, Object> annotations = ManifestUtil.child(ManifestUtil.child(ManifestUtil.child(
+                ManifestUtil.child(document.asMap(), "spec"), "template"), "metadata"), "annotations");
+        annotations.put("prometheus.io/scrape", "true");
+        annotations.put("prometheus.io/path", AutoscalingGenerator.METRICS_PATH);
+        annotations.put("prometheus.io/port", String.valueOf(port));
+
+        List<Map<String, Object>> ports = ManifestUtil.maps(container.get("ports"));
+        for (Map<String, Object> containerPort : ports) {
+            if (String.valueOf(port).equals(String.valueOf(containerPort.get("containerPort"))) || ports.size() == 1) {
+                containerPort.putIfAbsent("name", DEFAULT_PORT_NAME);
+                metricsPortName = String.valueOf(containerPort.get("name"));
+                break;
+            }
+        }
+        if (autoscaling.getP95LatencyMillis() != null) {
+            ManifestUtil.setEnv(container, "MANAGEMENT_METRICS_DISTRIBUTION_PERCENTILES_HISTOGRAM_HTTP_SERVER_REQUESTS", "true");
+        }
+        return true;
+    }
+
+    private String applicationName() {
+        return deploymentConfig.getApplicationName();
+    }
+
+    private String targetName() {
+        return deploymentName != null ? deploymentName : applicationName();
+    }
+
+    private static String nameOr(Map<String, Object> map, String defaultName) {
+        Object name = map == null ? null : map.get("name");
+        return name == null ? defaultName : name.toString();
+    }
+
+    private static String render(Map<String, Object> object) {
+        return YamlNormalizer.render(List.of(new YamlDocument(object)));
+    }
+}
@@ -0,0 +1,308 @@
+package io.github.rkumar0206.k8gen.processor;
+
+import io.github.rkumar0206.k8gen.model.DeploymentConfig;
+import io.github.rkumar0206.k8gen.util.ConnectionBudget;
+import io.github.rkumar0206.k8gen.util.ManifestUtil;
+import io.github.rkumar0206.k8gen.util.YamlDocument;
+import io.github.rkumar0206.k8gen.util.YamlNormalizer;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Applies the {@link ConnectionBudget} to the generated manifests.
+ *
+ * <p>The application's ConfigMap gets {@code SPRING_DATASOURCE_HIKARI_MAXIMUM_POOL_SIZE}. When the
+ * budget calls for PgBouncer, every JDBC URL of the application (in the ConfigMap or set explicitly on
+ * the container) is pointed at PgBouncer, with {@code prepareThreshold=0} since server-side prepared
+ * statements do not survive transaction pooling. PgBouncer connects to the host of the original URL,
+ * or to the Service on port 5432, with the credentials the application container uses. As that host may
+ * only be known from files after the application's workload, both the sidecar and the shared
+ * {@code pgbouncer.yaml} (Deployment and Service) are added on {@link #finish(BiConsumer)}: files with a
+ * workload that gets the sidecar are held back until then.
+ */
+public class DatabaseConnectionProcessor extends YamlPatchProcessor {
+
+    private static final Logger LOGGER = Logging.getLogger(DatabaseConnectionProcessor.class);
+
+    /**
+     * The environment variable holding Hikari's maximum pool size.
+     */
+    public static final String POOL_SIZE_VARIABLE = "SPRING_DATASOURCE_HIKARI_MAXIMUM_POOL_SIZE";
+    private static final String URL_VARIABLE = "SPRING_DATASOURCE_URL";
+    private static final String USERNAME_VARIABLE = "SPRING_DATASOURCE_USERNAME";
+    private static final String PASSWORD_VARIABLE = "SPRING_DATASOURCE_PASSWORD";
+    private static final int POSTGRES_PORT = 5432;
+    private static final Pattern JDBC_URL = Pattern.compile("^jdbc:postgresql://([^/:?]+)(?::(\\d+))?/([^?]*)(\\?.*)?$");
+
+    private final DeploymentConfig deploymentConfig;
+    private final ConnectionBudget budget;
+    private final String pgBouncerHost;
+    private boolean configMapPatched;
+    private String upstreamHost;
+    private int upstreamPort = POSTGRES_PORT;
+    private String postgresService;
+    private Map<String, Object> usernameSource;
+    private Map<String, Object> passwordSource;
+    private String secretName;
+    private final Map<String, List<YamlDocument>> sidecarFiles = new LinkedHashMap<>();
+    private final List<Map<String, Object>> sidecarPodSpecs = new ArrayList<>();
+
+    /**
+     * Creates a new processor.
+     *
+     * @param deploymentConfig the deployment configuration
+     * @param budget           the planned connection budget
+     */
+    public DatabaseConnectionProcessor(DeploymentConfig deploymentConfig, ConnectionBudget budget) {
+        this.deploymentConfig = deploymentConfig;
+        this.budget = budget;
+        this.pgBouncerHost = budget.isSidecar() ? "localhost" : deploymentConfig.getApplicationName() + "-pgbouncer";
+        LOGGER.lifecycle(budget.summary());
+        budget.getWarnings().forEach(LOGGER::warn);
+    }
+
+    @Override
+    public void process(String fileName, String content, BiConsumer<String, String> next) {
+        super.process(fileName, content, (name, patched) -> {
+            if (!sidecarFiles.containsKey(name)) {
+                next.accept(name, patched);
+            }
+        });
+    }
+
+    @Override
+    protected boolean patch(String fileName, List<YamlDocument> documents) {
+        if (ManifestUtil.isComposeFile(fileName)) {
+            return false;
+        }
+        int sidecars = sidecarPodSpecs.size();
+        boolean changed = false;
+        for (YamlDocument document : documents) {
+            String kind = document.getKind();
+            if ("Service".equals(kind)) {
+                rememberPostgresService(document.asMap());
+            } else if ("ConfigMap".equals(kind)) {
+                changed |= patchConfigMap(document.asMap());
+            } else if ("Deployment".equals(kind) || "StatefulSet".equals(kind)) {
+                changed |= patchWorkload(document);
+            }
+        }
+        if (sidecarPodSpecs.size() > sidecars) {
+            sidecarFiles.put(fileName, documents);
+        }
+        return changed;
+    }
+
+    @Override
+    public void finish(BiConsumer<String, String> next) {
+        if (!configMapPatched) {
+            LOGGER.warn("No ConfigMap of the application found, {} was not set", POOL_SIZE_VARIABLE);
+        }
+        for (Map<String, Object> podSpec : sidecarPodSpecs) {
+            List<Object> containers = ManifestUtil.list(podSpec, "containers");
+            containers.removeIf(item -> "pgbouncer".equals(ManifestUtil.map(item) == null ? null : ManifestUtil.map(item).get("name")));
+            containers.add(pgBouncerContainer());
+        }
+        sidecarFiles.forEach((fileName, documents) -> next.accept(fileName, YamlNormalizer.render(documents)));
+        if (budget.isPgBouncer() && !budget.isSidecar()) {
+            String name = deploymentConfig.getApplicationName() + "-pgbouncer";
+            next.accept("pgbouncer.yaml", YamlNormalizer.render(List.of(
+                    new YamlDocument(pgBouncerDeployment(name)), new YamlDocument(pgBouncerService(name)))));
+        }
+    }
+
+    private boolean patchConfigMap(Map<String, Object> configMap) {
+        if (configMapPatched || isDatabaseObject(configMap)) {
+            return false;
+        }
+        Map<String, Object> data = ManifestUtil.child(configMap, "data");
+        data.put(POOL_SIZE_VARIABLE, String.valueOf(budget.getPoolSize()));
+        if (budget.isPgBouncer()) {
+            Object url = data.get(URL_VARIABLE);
+            data.put(URL_VARIABLE, url == null ? pgBouncerUrl(deploymentConfig.getDbName(), null) : redirect(url.toString()));
+        }
+        configMapPatched = true;
+        return true;
+    }
+
+    private boolean patchWorkload(YamlDocument document) {
+        if (isDatabaseObject(document.asMap())) {
+            return false;
+        }
+        Map<String, Object> container = ManifestUtil.findAppContainer(document, deploymentConfig.getApplicationName());
+        if (container == null || String.valueOf(container.get("image")).contains("postgres")) {
+            return false;
+        }
+        rememberCredentials(container);
+        boolean changed = false;
+        for (Map<String, Object> variable : ManifestUtil.maps(container.get("env"))) {
+            if (POOL_SIZE_VARIABLE.equals(variable.get("name"))) {
+                ManifestUtil.setEnv(container, POOL_SIZE_VARIABLE, String.valueOf(budget.getPoolSize()));
+                changed = true;
+            } else if (budget.isPgBouncer() && URL_VARIABLE.equals(variable.get("name")) && variable.get("value") != null) {
+                variable.put("value", redirect(variable.get("value").toString()));
+                changed = true;
+            }
+        }
+        if (budget.isPgBouncer() && budget.isSidecar()) {
+            // the upstream and credentials may still change, the sidecar is added on finish
+            sidecarPodSpecs.add(ManifestUtil.podSpec(document));
+            changed = true;
+        }
+        return changed;
+    }
+
+    /**
+     * Points a JDBC URL at PgBouncer and remembers the original host as the upstream of PgBouncer.
+     */
+    private String redirect(String url) {
+        Matcher matcher = JDBC_URL.matcher(url.trim());
+        if (!matcher.matches()) {
+            LOGGER.warn("Unable to route {} through PgBouncer, not a PostgreSQL JDBC URL", url);
+            return url;
+        }
+        if (!matcher.group(1).equals(pgBouncerHost)) {
+            upstreamHost = matcher.group(1);
+            upstreamPort = matcher.group(2) == null ? POSTGRES_PORT : Integer.parseInt(matcher.group(2));
+        }
+        return pgBouncerUrl(matcher.group(3), matcher.group(4));
+    }
+
+    private String pgBouncerUrl(String database, String query) {
+        String parameters = query == null ? "" : query.substring(1);
+        if (!parameters.contains("prepareThreshold=")) {
+            parameters = parameters.isEmpty() ? "prepareThreshold=0" : parameters + "&prepareThreshold=0";
+        }
+        String name = database == null || database.isBlank() ? deploymentConfig.getApplicationName() : database;
+        return "jdbc:postgresql://" + pgBouncerHost + ":" + ConnectionBudget.PGBOUNCER_PORT + "/" + name + "?" + parameters;
+    }
+
+    private void rememberPostgresService(Map<String, Object> service) {
+        Map<String, Object> spec = ManifestUtil.map(service.get("spec"));
+        Map<String, Object> metadata = ManifestUtil.map(service.get("metadata"));
+        if (spec == null || metadata == null || postgresService != null) {
+            return;
+        }
+        for (Map<String, Object> port : ManifestUtil.maps(spec.get("ports"))) {
+            if (String.valueOf(POSTGRES_PORT).equals(String.valueOf(port.get("port")))) {
+                postgresService = String.valueOf(metadata.get("name"));
+            }
+        }
+    }
+
+    private void rememberCredentials(Map<String, Object> container) {
+        for (Map<String, Object> variable : ManifestUtil.maps(container.get("env"))) {
+            if (USERNAME_VARIABLE.equals(variable.get("name"))) {
+                usernameSource = variable;
+            } else if (PASSWORD_VARIABLE.equals(variable.get("name"))) {
+                passwordSource = variable;
+            }
+        }
+        for (Map<String, Object> source : ManifestUtil.maps(container.get("envFrom"))) {
+            Map<String, Object> secretRef = ManifestUtil.map(source.get("secretRef"));
+            if (secretRef != null && secretRef.get("name") != null) {
+                secretName = secretRef.get("name").toString();
+            }
+        }
+    }
+
+    private Map<String, Object> pgBouncerContainer() {
+        String host = upstreamHost != null ? upstreamHost : postgresService != null ? postgresService : "postgres";
+        Map<String, Object> container = new LinkedHashMap<>();
+        container.put("name", "pgbouncer");
+        container.put("image", budget.getPgBouncerImage());
+        Map<String, Object> port = new LinkedHashMap<>();
+        port.put("name", "pgbouncer");
+        port.put("containerPort", ConnectionBudget.PGBOUNCER_PORT);
+        container.put("ports", new ArrayList<>(List.of(port)));
+        ManifestUtil.setEnv(container, "DB_HOST", host);
+        ManifestUtil.setEnv(container, "DB_PORT", String.valueOf(upstreamPort));
+        ManifestUtil.list(container, "env").add(credential("DB_USER", usernameSource, USERNAME_VARIABLE));
+        ManifestUtil.list(container, "env").add(credential("DB_PASSWORD", passwordSource, PASSWORD_VARIABLE));
+        ManifestUtil.setEnv(container, "LISTEN_PORT", String.valueOf(ConnectionBudget.PGBOUNCER_PORT));
+        ManifestUtil.setEnv(container, "AUTH_TYPE", "scram-sha-256");
+        ManifestUtil.setEnv(container, "POOL_MODE", "transaction");
+        ManifestUtil.setEnv(container, "DEFAULT_POOL_SIZE", String.valueOf(budget.getPgBouncerPoolSize()));
+        ManifestUtil.setEnv(container, "MAX_DB_CONNECTIONS", String.valueOf(budget.getPgBouncerPoolSize()));
+        ManifestUtil.setEnv(container, "MAX_CLIENT_CONN", String.valueOf(budget.getPgBouncerMaxClientConnections()));
+        Map<String, Object> resources = ManifestUtil.child(container, "resources");
+        ManifestUtil.child(resources, "requests").put("cpu", "50m");
+        ManifestUtil.child(resources, "requests").put("memory", "32Mi");
+        ManifestUtil.child(resources, "limits").put("memory", "64Mi");
+        Map<String, Object> readinessProbe = ManifestUtil.child(container, "readinessProbe");
+        ManifestUtil.child(readinessProbe, "tcpSocket").put("port", ConnectionBudget.PGBOUNCER_PORT);
+        readinessProbe.put("periodSeconds", 5);
+        return container;
+    }
+
+    /**
+     * Copies how the application container gets a credential, falling back to its Secret.
+     */
+    private Map<String, Object> credential(String name, Map<String, Object> source, String secretKey) {
+        Map<String, Object> variable = new LinkedHashMap<>();
+        variable.put("name", name);
+        if (source != null && (source.get("value") != null || source.get("valueFrom") != null)) {
+            if (source.get("valueFrom") != null) {
+                variable.put("valueFrom", source.get("valueFrom"));
+            } else {
+                variable.put("value", source.get("value"));
+            }
+            return variable;
+        }
+        String secret = secretName != null ? secretName : deploymentConfig.getApplicationName() + "-secret";
+        Map<String, Object> secretKeyRef = ManifestUtil.child(ManifestUtil.child(variable, "valueFrom"), "secretKeyRef");
+        secretKeyRef.put("name", secret);
+        secretKeyRef.put("key", secretKey);
+        return variable;
+    }
+
+    private Map<String, Object> pgBouncerDeployment(String name) {
+        Map<String, Object> deployment = object("apps/v1", "Deployment", name);
+        Map<String, Object> spec = ManifestUtil.child(deployment, "spec");
+        spec.put("replicas", ConnectionBudget.PGBOUNCER_REPLICAS);
+        ManifestUtil.child(ManifestUtil.child(spec, "selector"), "matchLabels").put("app", name);
+        Map<String, Object> template = ManifestUtil.child(spec, "template");
+        ManifestUtil.child(ManifestUtil.child(template, "metadata"), "labels").put("app", name);
+        ManifestUtil.list(ManifestUtil.child(template, "spec"), "containers").add(pgBouncerContainer());
+        return deployment;
+    }
+
+    private Map<String, Object> pgBouncerService(String name) {
+        Map<String, Object> service = object("v1", "Service", name);
+        Map<String, Object> spec = ManifestUtil.child(service, "spec");
+        ManifestUtil.child(spec, "selector").put("app", name);
+        Map<String, Object> port = new LinkedHashMap<>();
+        port.put("name", "pgbouncer");
+        port.put("port", ConnectionBudget.PGBOUNCER_PORT);
+        port.put("targetPort", "pgbouncer");
+        ManifestUtil.list(spec, "ports").add(port);
+        return service;
+    }
+
+    private Map<String, Object> object(String apiVersion, String kind, String name) {
+        Map<String, Object> object = new LinkedHashMap<>();
+        object.put("apiVersion", apiVersion);
+        object.put("kind", kind);
+        Map<String, Object> metadata = ManifestUtil.child(object, "metadata");
+        metadata.put("name", name);
+        if (deploymentConfig.getNamespace() != null && !deploymentConfig.getNamespace().isBlank()) {
+            metadata.put("namespace", deploymentConfig.getNamespace());
+        }
+        ManifestUtil.child(metadata, "labels").put("app", name);
+        return object;
+    }
+
+    private static boolean isDatabaseObject(Map<String, Object> object) {
+        Map<String, Object> metadata = ManifestUtil.map(object.get("metadata"));
+        String name = metadata == null ? "" : String.valueOf(metadata.get("name"));
+        return name.contains("postgres") || name.contains("pgbouncer");
+    }
+}
@@ -0,0 +1,50 @@
+package io.github.rkumar0206.k8gen.processor;
+
+import io.github.rkumar0206.k8gen.util.BuildContextScanner;
+import io.github.rkumar0206.k8gen.util.ManifestUtil;
+
+import java.util.function.BiConsumer;
+
+/**
+ * Replaces the model's generic {@code .dockerignore} with one synthesized by {@link BuildContextScanner}.
+ *
+ * <p>The content is the result of the scan that the task already tracks as an input, so the project tree is not
+ * walked a second time. Besides {@code .dockerignore}, the same content is written as
+ * {@code Dockerfile.dockerignore}, which BuildKit picks up when the image is built from the project directory with
+ * {@code -f <outputDir>/Dockerfile}.
+ */
+public class DockerignoreProcessor implements ManifestProcessor {
+
+    private static final String DOCKERIGNORE = ".dockerignore";
+    private static final String DOCKERFILE_DOCKERIGNORE = "Dockerfile.dockerignore";
+
+    private final String dockerignore;
+    private boolean dockerignoreWritten;
+
+    /**
+     * Creates a new processor.
+     *
+     * @param dockerignore the synthesized {@code .dockerignore}, see {@link BuildContextScanner.Scan#toDockerignore()}
+     */
+    public DockerignoreProcessor(String dockerignore) {
+        this.dockerignore = dockerignore;
+    }
+
+    @Override
+    public void process(String fileName, String content, BiConsumer<String, String> next) {
+        if (ManifestUtil.isRootFile(fileName, DOCKERIGNORE)) {
+            dockerignoreWritten = true;
+            next.accept(fileName, dockerignore);
+            return;
+        }
+        next.accept(fileName, content);
+    }
+
+    @Override
+    public void finish(BiConsumer<String, String> next) {
+        if (!dockerignoreWritten) {
+            next.accept(DOCKERIGNORE, dockerignore);
+        }
+        next.accept(DOCKERFILE_DOCKERIGNORE, dockerignore);
+    }
+}
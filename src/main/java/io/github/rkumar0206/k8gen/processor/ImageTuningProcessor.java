@@ -0,0 +1,235 @@
+package io.github.rkumar0206.k8gen.processor;
+
+import io.github.rkumar0206.k8gen.model.DeploymentConfig;
+import io.github.rkumar0206.k8gen.model.DockerImage;
+import io.github.rkumar0206.k8gen.model.ImageTuningRule;
+import io.github.rkumar0206.k8gen.util.ImageTuningCatalogue;
+import io.github.rkumar0206.k8gen.util.ManifestUtil;
+import io.github.rkumar0206.k8gen.util.ResourceQuantity;
+import io.github.rkumar0206.k8gen.util.YamlDocument;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Applies the {@link ImageTuningCatalogue} to the containers of the additional images.
+ *
+ * <p>Every container of a Deployment or StatefulSet, and every docker-compose service, other than the
+ * application's gets the resources of its rule where the model set none, the rule's environment, and the
+ * rule's flags merged into its arguments. Memory placeholders are resolved against the container's memory
+ * limit, so e.g. Redis' {@code maxmemory} follows the limit. The role of a container is the one of the
+ * {@code additionalDockerImages} entry with the same name or image.
+ */
+public class ImageTuningProcessor extends YamlPatchProcessor {
+
+    private static final Logger LOGGER = Logging.getLogger(ImageTuningProcessor.class);
+    private static final Pattern COMPOSE_MEMORY = Pattern.compile("(\\d+(?:\\.\\d+)?)\\s*([bkmg]?)b?", Pattern.CASE_INSENSITIVE);
+
+    private final DeploymentConfig deploymentConfig;
+    private final ImageTuningCatalogue catalogue;
+
+    /**
+     * Creates a new processor.
+     *
+     * @param deploymentConfig the deployment configuration
+     * @param catalogue        the tuning rules
+     */
+    public ImageTuningProcessor(DeploymentConfig deploymentConfig, ImageTuningCatalogue catalogue) {
+        this.deploymentConfig = deploymentConfig;
+        this.catalogue = catalogue;
+    }
+
+    @Override
+    protected boolean patch(String fileName, List<YamlDocument> documents) {
+        boolean changed = false;
+        if (ManifestUtil.isComposeFile(fileName)) {
+            for (YamlDocument document : documents) {
+                Map<String, Object> compose = document.asMap();
+                Map<String, Object> services = compose == null ? null : ManifestUtil.map(compose.get("services"));
+                if (services == null) {
+                    continue;
+                }
+                Map<String, Object> appService = ManifestUtil.findAppService(compose, deploymentConfig.getApplicationName());
+                for (Map.Entry<String, Object> entry : services.entrySet()) {
+                    Map<String, Object> service = ManifestUtil.map(entry.getValue());
+                    if (service != null && service != appService) {
+                        changed |= patchService(entry.getKey(), service);
+                    }
+                }
+            }
+            return changed;
+        }
+        for (YamlDocument document : documents) {
+            String kind = document.getKind();
+            Map<String, Object> podSpec = ManifestUtil.podSpec(document);
+            if (podSpec == null || !("Deployment".equals(kind) || "StatefulSet".equals(kind))) {
+                continue;
+            }
+            Map<String, Object> appContainer = ManifestUtil.findAppContainer(podSpec, deploymentConfig.getApplicationName());
+            if (appContainer != null
+                    && !ManifestUtil.isApplication(document, appContainer, deploymentConfig.getApplicationName())) {
+                // the only container of another workload, e.g. the Redis Deployment
+                appContainer = null;
+            }
+            for (Map<String, Object> container : ManifestUtil.maps(podSpec.get("containers"))) {
+                if (container != appContainer) {
+                    changed |= patchContainer(container);
+                }
+            }
+        }
+        return changed;
+    }
+
+    private boolean patchContainer(Map<String, Object> container) {
+        String name = String.valueOf(container.get("name"));
+        Object image = container.get("image");
+        ImageTuningRule rule = catalogue.find(image == null ? null : image.toString(), role(name, image));
+        if (rule == null) {
+            return false;
+        }
+        Map<String, Object> resources = ManifestUtil.child(container, "resources");
+        Map<String, Object> requests = ManifestUtil.child(resources, "requests");
+        Map<String, Object> limits = ManifestUtil.child(resources, "limits");
+        putIfAbsent(requests, "cpu", rule.getCpuRequest());
+        putIfAbsent(requests, "memory", rule.getMemoryRequest());
+        putIfAbsent(limits, "memory", rule.getMemoryLimit());
+        Object memory = limits.get("memory") != null ? limits.get("memory") : requests.get("memory");
+        if (memory == null) {
+            LOGGER.warn("Container {} has no memory limit, the {} tuning is skipped", name, rule.getName());
+            return true;
+        }
+        long memoryMiB = ResourceQuantity.parseMemoryMiB(memory.toString());
+
+        if (rule.getEnv() != null) {
+            rule.getEnv().forEach((key, value) ->
+                    ManifestUtil.setEnv(container, key, ImageTuningCatalogue.resolve(value, memoryMiB)));
+        }
+        if (rule.getArgs() != null && !rule.getArgs().isEmpty()) {
+            List<String> flags = resolve(rule.getArgs(), memoryMiB);
+            if (container.get("command") instanceof List<?> command) {
+                container.put("command", removeFlags(strings(command), flags));
+            }
+            List<String> args = removeFlags(container.get("args") instanceof List<?> list ? strings(list) : List.of(), flags);
+            args.addAll(flags);
+            container.put("args", new ArrayList<Object>(args));
+        }
+        LOGGER.info("Applied the {} tuning to container {} ({} MiB)", rule.getName(), name, memoryMiB);
+        return true;
+    }
+
+    private boolean patchService(String name, Map<String, Object> service) {
+        Object image = service.get("image");
+        ImageTuningRule rule = catalogue.find(image == null ? null : image.toString(), role(name, image));
+        if (rule == null) {
+            return false;
+        }
+        Map<String, Object> limits = ManifestUtil.child(ManifestUtil.child(ManifestUtil.child(service, "deploy"),
+                "resources"), "limits");
+        if (limits.get("memory") == null && rule.getMemoryLimit() != null) {
+            limits.put("memory", ResourceQuantity.parseMemoryMiB(rule.getMemoryLimit()) + "M");
+        }
+        if (limits.get("memory") == null) {
+            LOGGER.warn("Service {} has no memory limit, the {} tuning is skipped", name, rule.getName());
+            return true;
+        }
+        long memoryMiB = composeMemoryMiB(limits.get("memory").toString());
+
+        if (rule.getEnv() != null) {
+            rule.getEnv().forEach((key, value) ->
+                    ManifestUtil.setComposeEnv(service, key, ImageTuningCatalogue.resolve(value, memoryMiB)));
+        }
+        if (rule.getArgs() != null && !rule.getArgs().isEmpty()) {
+            List<String> flags = resolve(rule.getArgs(), memoryMiB);
+            Object command = service.get("command");
+            List<String> args = removeFlags(command instanceof List<?> list ? strings(list)
+                    : command == null ? List.of() : Arrays.asList(command.toString().trim().split("\\s+")), flags);
+            args.addAll(flags);
+            service.put("command", new ArrayList<Object>(args));
+        }
+        return true;
+    }
+
+    /**
+     * Finds the role of a container or service through the matching {@code additionalDockerImages} entry.
+     */
+    private String role(String name, Object image) {
+        List<DockerImage> images = deploymentConfig.getAdditionalDockerImages();
+        if (images == null) {
+            return null;
+        }
+        for (DockerImage dockerImage : images) {
+            if (name.equals(dockerImage.getName())
+                    || image != null && dockerImage.getImage() != null && image.toString().equals(dockerImage.getImage())) {
+                return dockerImage.getRole();
+            }
+        }
+        return null;
+    }
+
+    private static List<String> resolve(List<String> templates, long memoryMiB) {
+        List<String> values = new ArrayList<>();
+        for (String template : templates) {
+            values.add(ImageTuningCatalogue.resolve(template, memoryMiB));
+        }
+        return values;
+    }
+
+    /**
+     * Removes the flags set by the rule from existing arguments, including the value following a flag.
+     */
+    private static List<String> removeFlags(List<String> existing, List<String> flags) {
+        List<String> names = new ArrayList<>();
+        for (String flag : flags) {
+            if (flag.startsWith("-")) {
+                names.add(flag.contains("=") ? flag.substring(0, flag.indexOf('=')) : flag);
+            }
+        }
+        List<String> kept = new ArrayList<>();
+        for (int i = 0; i < existing.size(); i++) {
+            String arg = existing.get(i);
+            String argName = arg.contains("=") ? arg.substring(0, arg.indexOf('=')) : arg;
+            if (!names.contains(argName)) {
+                kept.add(arg);
+            } else if (!arg.contains("=") && i + 1 < existing.size() && !existing.get(i + 1).startsWith("-")) {
+                i++;
+            }
+        }
+        return kept;
+    }
+
+    private static List<String> strings(List<?> values) {
+        List<String> strings = new ArrayList<>();
+        values.forEach(value -> strings.add(String.valueOf(value)));
+        return strings;
+    }
+
+    private static void putIfAbsent(Map<String, Object> map, String key, String value) {
+        if (map.get(key) == null && value != null && !value.isBlank()) {
+            map.put(key, value);
+        }
+    }
+
+    /**
+     * Parses a docker-compose memory value, whose suffixes are binary: {@code 512m}, {@code 1g}, {@code 256M}.
+     */
+    private static long composeMemoryMiB(String value) {
+        Matcher matcher = COMPOSE_MEMORY.matcher(value.trim());
+        if (!matcher.matches()) {
+            return ResourceQuantity.parseMemoryMiB(value);
+        }
+        double number = Double.parseDouble(matcher.group(1));
+        return switch (matcher.group(2).toLowerCase(Locale.ROOT)) {
+            case "g" -> Math.round(number * 1024);
+            case "m" -> Math.round(number);
+            case "k" -> Math.round(number / 1024);
+            default -> Math.round(number / 1024 / 1024);
+        };
+    }
+}
@@ -0,0 +1,83 @@
+package io.github.rkumar0206.k8gen.processor;
+
+import io.github.rkumar0206.k8gen.model.DeploymentConfig;
+import io.github.rkumar0206.k8gen.util.JvmTuning;
+import io.github.rkumar0206.k8gen.util.ManifestUtil;
+import io.github.rkumar0206.k8gen.util.ResourceQuantity;
+import io.github.rkumar0206.k8gen.util.YamlDocument;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Replaces the model's {@code JAVA_TOOL_OPTIONS} with the flags computed by {@link JvmTuning}.
+ *
+ * <p>In workload manifests the variable is set on the application container; the workloads of backing
+ * services are left alone. In docker-compose files it is set on the application service, whose
+ * {@code deploy.resources.limits} are also set to the configured limits so that the JVM sees the same
+ * container size locally as in the cluster.
+ */
+public class JvmTuningProcessor extends YamlPatchProcessor {
+
+    private static final Logger LOGGER = Logging.getLogger(JvmTuningProcessor.class);
+
+    /**
+     * The environment variable read by every JVM on startup.
+     */
+    public static final String JAVA_TOOL_OPTIONS = "JAVA_TOOL_OPTIONS";
+
+    private final DeploymentConfig deploymentConfig;
+    private final JvmTuning tuning;
+
+    /**
+     * Creates a new processor.
+     *
+     * @param deploymentConfig the deployment configuration the flags are derived from
+     * @param tuning           the computed flags
+     */
+    public JvmTuningProcessor(DeploymentConfig deploymentConfig, JvmTuning tuning) {
+        this.deploymentConfig = deploymentConfig;
+        this.tuning = tuning;
+        tuning.getWarnings().forEach(LOGGER::warn);
+        LOGGER.info("JVM flags for {}: {}", deploymentConfig.getApplicationName(), tuning.toJavaToolOptions());
+    }
+
+    @Override
+    protected boolean patch(String fileName, List<YamlDocument> documents) {
+        if (ManifestUtil.isComposeFile(fileName)) {
+            return documents.stream().anyMatch(document -> document.asMap() != null && patchCompose(document.asMap()));
+        }
+        boolean changed = false;
+        for (YamlDocument document : documents) {
+            String kind = document.getKind();
+            if (!"Deployment".equals(kind) && !"StatefulSet".equals(kind)) {
+                continue;
+            }
+            // a Kafka or Elasticsearch container would honour the application's heap and GC flags
+            Map<String, Object> container = ManifestUtil.findAppContainer(document, deploymentConfig.getApplicationName());
+            if (container != null) {
+                ManifestUtil.setEnv(container, JAVA_TOOL_OPTIONS, tuning.toJavaToolOptions());
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    private boolean patchCompose(Map<String, Object> compose) {
+        Map<String, Object> service = ManifestUtil.findAppService(compose, deploymentConfig.getApplicationName());
+        if (service == null) {
+            return false;
+        }
+        ManifestUtil.setComposeEnv(service, JAVA_TOOL_OPTIONS, tuning.toJavaToolOptions());
+
+        Map<String, Object> limits = ManifestUtil.child(ManifestUtil.child(ManifestUtil.child(service, "deploy"),
+                "resources"), "limits");
+        limits.put("memory", tuning.getMemoryLimitMiB() + "M");
+        String cpuLimit = deploymentConfig.getCpuLimit();
+        limits.put("cpus", ResourceQuantity.formatComposeCpus(ResourceQuantity.parseCpuMillis(
+                cpuLimit == null || cpuLimit.isBlank() ? JvmTuning.DEFAULT_CPU_LIMIT : cpuLimit)));
+        return true;
+    }
+}
@@ -0,0 +1,339 @@
+package io.github.rkumar0206.k8gen.processor;
+
+import io.github.rkumar0206.k8gen.model.DeploymentConfig;
+import io.github.rkumar0206.k8gen.util.AutoscalingGenerator;
+import io.github.rkumar0206.k8gen.util.ConnectionBudget;
+import io.github.rkumar0206.k8gen.util.EnvironmentOverrides;
+import io.github.rkumar0206.k8gen.util.JfrProfiling;
+import io.github.rkumar0206.k8gen.util.JvmTuning;
+import io.github.rkumar0206.k8gen.util.ManifestUtil;
+import io.github.rkumar0206.k8gen.util.WebServerTuning;
+import io.github.rkumar0206.k8gen.util.YamlDocument;
+import io.github.rkumar0206.k8gen.util.YamlNormalizer;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.function.BiConsumer;
+
+/**
+ * Turns the generated manifests into a Kustomize base with one overlay per configured environment.
+ *
+ * <p>On {@link #finish(BiConsumer)} {@code kustomization.yaml} is emitted listing every generated manifest,
+ * replacing one produced by the model, and {@code overlays/<environment>/kustomization.yaml} for each
+ * environment of {@link EnvironmentOverrides}. An overlay sets the namespace, and patches the application
+ * Deployment's replicas, resources, {@code JAVA_TOOL_OPTIONS}, Tomcat thread pool and Hikari pool size, the
+ * HPA or ScaledObject bounds and the Ingress host where the environment differs from the base configuration. No
+ * further model call is needed.
+ *
+ * <p>The objects an overlay cannot add or reshape are checked up front: an environment that enables the HPA
+ * needs it in the base, and one whose replicas call for another PgBouncer plan than the base is rejected, since
+ * the PgBouncer objects and {@code max_connections} of the base are shared by every overlay.
+ */
+public class KustomizeProcessor extends YamlPatchProcessor {
+
+    private static final String KUSTOMIZATION = "kustomization.yaml";
+
+    private final DeploymentConfig deploymentConfig;
+    private final Map<String, DeploymentConfig> environments;
+    private final Map<String, ConnectionBudget> connectionBudgets = new LinkedHashMap<>();
+    private final ConnectionBudget baseBudget;
+    private final boolean jvmTuning;
+    private final TreeSet<String> resources = new TreeSet<>();
+    private String deploymentName;
+    private String containerName;
+    private boolean javaToolOptions;
+    private String hpaName;
+    private String hpaKind;
+    private String ingressName;
+    private final List<String> ingressHostPaths = new ArrayList<>();
+
+    /**
+     * Creates a new processor.
+     *
+     * @param deploymentConfig the base configuration with the environments
+     * @param jvmTuning        whether {@code JAVA_TOOL_OPTIONS} is derived from the resource limits
+     * @throws IllegalArgumentException if the environments are invalid
+     */
+    public KustomizeProcessor(DeploymentConfig deploymentConfig, boolean jvmTuning) {
+        this.deploymentConfig = deploymentConfig;
+        this.environments = EnvironmentOverrides.resolve(deploymentConfig);
+        this.jvmTuning = jvmTuning;
+        this.baseBudget = deploymentConfig.isIncludeDatabase() ? ConnectionBudget.plan(deploymentConfig) : null;
+        environments.forEach((environment, config) -> {
+            if (config.isEnableHPA() && !deploymentConfig.isEnableHPA()) {
+                throw new IllegalArgumentException("Environment '" + environment
+                        + "' enables the HPA, which an overlay cannot add, set enableHPA in the base configuration");
+            }
+            if (baseBudget != null && config.isIncludeDatabase()) {
+                connectionBudgets.put(environment, checkedBudget(environment, config));
+            }
+        });
+    }
+
+    @Override
+    public void process(String fileName, String content, BiConsumer<String, String> next) {
+        if (ManifestUtil.isRootFile(fileName, KUSTOMIZATION)) {
+            return;
+        }
+        super.process(fileName, content, next);
+    }
+
+    @Override
+    protected boolean patch(String fileName, List<YamlDocument> documents) {
+        if (ManifestUtil.isComposeFile(fileName) || documents.stream().noneMatch(document -> document.getKind() != null)
+                || documents.stream().anyMatch(document -> "Kustomization".equals(document.getKind()))) {
+            return false;
+        }
+        resources.add(fileName.replace('\\', '/'));
+        for (YamlDocument document : documents) {
+            String kind = document.getKind();
+            Map<String, Object> root = document.asMap();
+            String name = kind == null ? null : name(root);
+            if ("Deployment".equals(kind) && deploymentName == null) {
+                Map<String, Object> podSpec = ManifestUtil.podSpec(document);
+                Map<String, Object> container = podSpec == null ? null
+                        : ManifestUtil.findAppContainer(podSpec, deploymentConfig.getApplicationName());
+                if (container != null && (deploymentConfig.getApplicationName() == null
+                        || deploymentConfig.getApplicationName().equals(container.get("name"))
+                        || deploymentConfig.getApplicationName().equals(name))) {
+                    deploymentName = name;
+                    containerName = String.valueOf(container.get("name"));
+                    javaToolOptions = ManifestUtil.maps(container.get("env")).stream()
+                            .anyMatch(variable -> JvmTuningProcessor.JAVA_TOOL_OPTIONS.equals(variable.get("name")));
+                }
+            } else if (("HorizontalPodAutoscaler".equals(kind) || "ScaledObject".equals(kind)) && hpaName == null) {
+                hpaName = name;
+                hpaKind = kind;
+            } else if ("Ingress".equals(kind) && ingressName == null) {
+                ingressName = name;
+                collectIngressHosts(root);
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void finish(BiConsumer<String, String> next) {
+        if (environments.isEmpty()) {
+            return;
+        }
+        Map<String, Object> base = kustomization();
+        base.put("resources", new ArrayList<>(resources));
+        next.accept(KUSTOMIZATION, render(base));
+
+        environments.forEach((environment, config) -> {
+            Map<String, Object> overlay = kustomization();
+            overlay.put("resources", new ArrayList<>(List.of("../..")));
+            if (config.getNamespace() != null && !config.getNamespace().isBlank()
+                    && !config.getNamespace().equals(deploymentConfig.getNamespace())) {
+                overlay.put("namespace", config.getNamespace());
+            }
+            List<Object> patches = new ArrayList<>();
+            addPatch(patches, "Deployment", deploymentName, deploymentPatch(config, connectionBudgets.get(environment)));
+            addPatch(patches, hpaKind, hpaName, hpaPatch(config));
+            addPatch(patches, "Ingress", ingressName, ingressPatch(config));
+            if (!patches.isEmpty()) {
+                overlay.put("patches", patches);
+            }
+            next.accept("overlays/" + environment + "/" + KUSTOMIZATION, render(overlay));
+        });
+    }
+
+    private Object deploymentPatch(DeploymentConfig config, ConnectionBudget budget) {
+        if (deploymentName == null) {
+            return null;
+        }
+        Map<String, Object> patch = objectPatch("apps/v1", "Deployment", deploymentName);
+        Map<String, Object> spec = ManifestUtil.child(patch, "spec");
+        if (config.getReplicas() != deploymentConfig.getReplicas() && config.getReplicas() > 0 && !config.isEnableHPA()) {
+            spec.put("replicas", config.getReplicas());
+        }
+        Map<String, Object> container = new LinkedHashMap<>();
+        container.put("name", containerName);
+        if (!Objects.equals(config.getCpuRequest(), deploymentConfig.getCpuRequest())
+                || !Objects.equals(config.getMemoryRequest(), deploymentConfig.getMemoryRequest())
+                || !Objects.equals(config.getCpuLimit(), deploymentConfig.getCpuLimit())
+                || !Objects.equals(config.getMemoryLimit(), deploymentConfig.getMemoryLimit())) {
+            Map<String, Object> resources = ManifestUtil.child(container, "resources");
+            putIfSet(ManifestUtil.child(resources, "requests"), "cpu", config.getCpuRequest());
+            putIfSet(ManifestUtil.child(resources, "requests"), "memory", config.getMemoryRequest());
+            putIfSet(ManifestUtil.child(resources, "limits"), "cpu", config.getCpuLimit());
+            putIfSet(ManifestUtil.child(resources, "limits"), "memory", config.getMemoryLimit());
+            if (jvmTuning && javaToolOptions) {
+                // the heap and GC flags follow the limits of the environment
+                ManifestUtil.setEnv(container, JvmTuningProcessor.JAVA_TOOL_OPTIONS,
+                        JfrProfiling.forDeployment(config).appendTo(JvmTuning.forDeployment(config).toJavaToolOptions()));
+            }
+            // so does the Tomcat thread pool, set on the container as it takes precedence over the ConfigMap
+            Map<String, String> threads = WebServerTuning.forDeployment(config).toEnvironment();
+            Map<String, String> baseThreads = WebServerTuning.forDeployment(deploymentConfig).toEnvironment();
+            threads.forEach((variable, value) -> {
+                boolean pool = variable.startsWith("SERVER_TOMCAT_THREADS_") || variable.equals("SERVER_TOMCAT_ACCEPT_COUNT");
+                boolean configured = deploymentConfig.getConfigd() != null && deploymentConfig.getConfigd().containsKey(variable);
+                if (pool && !configured && !value.equals(baseThreads.get(variable))) {
+                    ManifestUtil.setEnv(container, variable, value);
+                }
+            });
+        }
+        if (budget != null && !baseBudget.isPgBouncer() && budget.getPoolSize() != baseBudget.getPoolSize()) {
+            // takes precedence over the pool size of the ConfigMap
+            ManifestUtil.setEnv(container, DatabaseConnectionProcessor.POOL_SIZE_VARIABLE, String.valueOf(budget.getPoolSize()));
+        }
+        if (container.size() > 1) {
+            ManifestUtil.list(ManifestUtil.child(ManifestUtil.child(spec, "template"), "spec"), "containers").add(container);
+        }
+        return spec.isEmpty() ? null : patch;
+    }
+
+    /**
+     * Plans the database connections of an environment. Without PgBouncer in the base only the pool size may
+     * differ, and the environment must not need PgBouncer; with PgBouncer in the base, whose limits are shared,
+     * the environment must not run more pods or larger pools than the base.
+     */
+    private ConnectionBudget checkedBudget(String environment, DeploymentConfig config) {
+        ConnectionBudget budget;
+        try {
+            budget = ConnectionBudget.plan(config);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Environment '" + environment + "': " + e.getMessage(), e);
+        }
+        boolean fits = baseBudget.isPgBouncer()
+                ? budget.getPeakPods() <= baseBudget.getPeakPods() && budget.getWantedPoolSize() <= baseBudget.getWantedPoolSize()
+                : !budget.isPgBouncer();
+        if (!fits || budget.getMaxConnections() != baseBudget.getMaxConnections()
+                || budget.isSidecar() != baseBudget.isSidecar()
+                || !budget.getPgBouncerImage().equals(baseBudget.getPgBouncerImage())) {
+            throw new IllegalArgumentException("Environment '" + environment + "' needs another database connection plan"
+                    + " than the base configuration, which an overlay cannot patch (" + budget.summary() + "; base: "
+                    + baseBudget.summary() + "), size the base configuration for the largest environment");
+        }
+        return budget;
+    }
+
+    private Object hpaPatch(DeploymentConfig config) {
+        if (hpaName == null || !config.isEnableHPA()) {
+            return null;
+        }
+        if ("ScaledObject".equals(hpaKind)) {
+            return scaledObjectPatch(config);
+        }
+        Map<String, Object> patch = objectPatch("autoscaling/v2", "HorizontalPodAutoscaler", hpaName);
+        Map<String, Object> spec = ManifestUtil.child(patch, "spec");
+        if (config.getHpaMinReplicas() > 0 && config.getHpaMinReplicas() != deploymentConfig.getHpaMinReplicas()) {
+            spec.put("minReplicas", config.getHpaMinReplicas());
+        }
+        if (config.getHpaMaxReplicas() > 0 && config.getHpaMaxReplicas() != deploymentConfig.getHpaMaxReplicas()) {
+            spec.put("maxReplicas", config.getHpaMaxReplicas());
+        }
+        return spec.isEmpty() ? null : patch;
+    }
+
+    /**
+     * The replica counts of a ScaledObject are derived as in the base, so they stay capped at the partitions.
+     */
+    private Object scaledObjectPatch(DeploymentConfig config) {
+        if (AutoscalingGenerator.autoscaling(config).getKafkaLag() == null) {
+            return null;
+        }
+        Map<String, Object> patch = objectPatch("keda.sh/v1alpha1", "ScaledObject", hpaName);
+        Map<String, Object> spec = ManifestUtil.child(patch, "spec");
+        Map<String, Object> counts = ManifestUtil.child(AutoscalingGenerator.scaledObject(config, hpaName, hpaName), "spec");
+        Map<String, Object> baseCounts = ManifestUtil.child(AutoscalingGenerator.scaledObject(deploymentConfig, hpaName, hpaName), "spec");
+        for (String field : List.of("minReplicaCount", "maxReplicaCount")) {
+            if (!Objects.equals(counts.get(field), baseCounts.get(field))) {
+                spec.put(field, counts.get(field));
+            }
+        }
+        return spec.isEmpty() ? null : patch;
+    }
+
+    /**
+     * Ingress rules are a list without merge key, so the host is replaced by JSON patch operations.
+     */
+    private Object ingressPatch(DeploymentConfig config) {
+        if (ingressName == null || ingressHostPaths.isEmpty() || config.getIngressHost() == null
+                || config.getIngressHost().equals(deploymentConfig.getIngressHost())) {
+            return null;
+        }
+        List<Object> operations = new ArrayList<>();
+        for (String path : ingressHostPaths) {
+            Map<String, Object> operation = new LinkedHashMap<>();
+            operation.put("op", "replace");
+            operation.put("path", path);
+            operation.put("value", config.getIngressHost());
+            operations.add(operation);
+        }
+        return operations;
+    }
+
+    private void collectIngressHosts(Map<String, Object> ingress) {
+        Map<String, Object> spec = ManifestUtil.map(ingress.get("spec"));
+        if (spec == null) {
+            return;
+        }
+        String baseHost = deploymentConfig.getIngressHost();
+        List<Map<String, Object>> rules = ManifestUtil.maps(spec.get("rules"));
+        for (int i = 0; i < rules.size(); i++) {
+            if (rules.get(i).get("host") != null && (baseHost == null || baseHost.equals(rules.get(i).get("host")))) {
+                ingressHostPaths.add("/spec/rules/" + i + "/host");
+            }
+        }
+        List<Map<String, Object>> tls = ManifestUtil.maps(spec.get("tls"));
+        for (int i = 0; i < tls.size(); i++) {
+            Object hosts = tls.get(i).get("hosts");
+            if (hosts instanceof List<?> list) {
+                for (int j = 0; j < list.size(); j++) {
+                    if (baseHost == null || baseHost.equals(list.get(j))) {
+                        ingressHostPaths.add("/spec/tls/" + i + "/hosts/" + j);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void addPatch(List<Object> patches, String kind, String name, Object patch) {
+        if (patch == null) {
+            return;
+        }
+        Map<String, Object> entry = new LinkedHashMap<>();
+        Map<String, Object> target = ManifestUtil.child(entry, "target");
+        target.put("kind", kind);
+        target.put("name", name);
+        entry.put("patch", render(patch).stripTrailing());
+        patches.add(entry);
+    }
+
+    private static Map<String, Object> objectPatch(String apiVersion, String kind, String name) {
+        Map<String, Object> patch = new LinkedHashMap<>();
+        patch.put("apiVersion", apiVersion);
+        patch.put("kind", kind);
+        ManifestUtil.child(patch, "metadata").put("name", name);
+        return patch;
+    }
+
+    private static Map<String, Object> kustomization() {
+        Map<String, Object> kustomization = new LinkedHashMap<>();
+        kustomization.put("apiVersion", "kustomize.config.k8s.io/v1beta1");
+        kustomization.put("kind", "Kustomization");
+        return kustomization;
+    }
+
+    private static void putIfSet(Map<String, Object> map, String key, String value) {
+        if (value != null && !value.isBlank()) {
+            map.put(key, value);
+        }
+    }
+
+    private static String name(Map<String, Object> root) {
+        Map<String, Object> metadata = ManifestUtil.map(root.get("metadata"));
+        return metadata == null || metadata.get("name") == null ? null : String.valueOf(metadata.get("name"));
+    }
+
+    private static String render(Object object) {
+        return YamlNormalizer.render(List.of(new YamlDocument(object)));
+    }
+}
@@ -0,0 +1,53 @@
+package io.github.rkumar0206.k8gen.processor;
+
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * Chains {@link ManifestProcessor}s in front of a final file sink, usually the writer.
+ *
+ * <p>Usage: pass {@link #input()} as the file consumer of the generation and call {@link #finish()}
+ * once the model is done, so that processors can emit the files they generate themselves.
+ */
+public class ManifestPipeline {
+
+    private final List<ManifestProcessor> processors;
+    private final BiConsumer<String, String> sink;
+
+    /**
+     * Creates a new pipeline.
+     *
+     * @param processors the processors in the order in which they are applied
+     * @param sink       receives the files leaving the last processor
+     */
+    public ManifestPipeline(List<ManifestProcessor> processors, BiConsumer<String, String> sink) {
+        this.processors = List.copyOf(processors);
+        this.sink = sink;
+    }
+
+    /**
+     * @return the consumer feeding files into the first processor
+     */
+    public BiConsumer<String, String> input() {
+        return stage(0);
+    }
+
+    /**
+     * Finishes every processor in order. Files emitted by a processor still pass through all the
+     * processors after it.
+     */
+    public void finish() {
+        for (int i = 0; i < processors.size(); i++) {
+            processors.get(i).finish(stage(i + 1));
+        }
+    }
+
+    private BiConsumer<String, String> stage(int index) {
+        if (index >= processors.size()) {
+            return sink;
+        }
+        ManifestProcessor processor = processors.get(index);
+        BiConsumer<String, String> next = stage(index + 1);
+        return (fileName, content) -> processor.process(fileName, content, next);
+    }
+}
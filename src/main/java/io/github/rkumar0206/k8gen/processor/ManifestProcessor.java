@@ -0,0 +1,31 @@
+package io.github.rkumar0206.k8gen.processor;
+
+import java.util.function.BiConsumer;
+
+/**
+ * A deterministic post-processing step applied to the files produced by the model.
+ *
+ * <p>Processors are chained in a {@link ManifestPipeline}. Every file is pushed through the chain
+ * as soon as it has been extracted, so a processor sees the files one by one. It passes each file
+ * on to the next step, possibly modified or renamed, or drops it. Files that a processor generates
+ * itself are emitted from {@link #finish(BiConsumer)}, after the model's files have been seen.
+ */
+public interface ManifestProcessor {
+
+    /**
+     * Processes one file.
+     *
+     * @param fileName the file path relative to the output directory
+     * @param content  the file content
+     * @param next     the next step of the pipeline, called zero or more times
+     */
+    void process(String fileName, String content, BiConsumer<String, String> next);
+
+    /**
+     * Called once after the last file has been processed.
+     *
+     * @param next the next step of the pipeline, receives files generated by this processor
+     */
+    default void finish(BiConsumer<String, String> next) {
+    }
+}
@@ -0,0 +1,272 @@
+package io.github.rkumar0206.k8gen.processor;
+
+import io.github.rkumar0206.k8gen.model.DeploymentConfig;
+import io.github.rkumar0206.k8gen.model.Migrations;
+import io.github.rkumar0206.k8gen.util.ConnectionBudget;
+import io.github.rkumar0206.k8gen.util.ManifestUtil;
+import io.github.rkumar0206.k8gen.util.YamlDocument;
+import io.github.rkumar0206.k8gen.util.YamlNormalizer;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * Moves the database migrations out of the application pods into a Job that runs once per release.
+ *
+ * <p>The migration initContainer the model adds to the application Deployment is removed, so neither
+ * rollouts nor scale-outs wait for the migration tool. On {@link #finish(BiConsumer)} it is emitted as the
+ * container of {@code migrations-job.yaml}; if the model did not add one, the container is built from the
+ * {@code migrations} configuration with the environment of the application container. The Job is named
+ * after the image tag, since a Job's pod template cannot be changed once created. It runs after the
+ * ConfigMap, Secret and database it needs and before the application Deployment: as an Argo CD {@code Sync}
+ * hook in sync wave 1 with the Deployment moved to wave 2, and as a Helm {@code post-install,pre-upgrade}
+ * hook. {@code backoffLimit}, {@code activeDeadlineSeconds} and {@code ttlSecondsAfterFinished} bound its
+ * retries, its run time and how long it is kept. With PgBouncer the application's JDBC URL points at
+ * {@code localhost} (sidecar) or at the shared PgBouncer in transaction pooling (deployment), neither of which
+ * suits a migration tool, so the Job gets the direct URL of the database.
+ */
+public class MigrationJobProcessor extends YamlPatchProcessor {
+
+    private static final String JOB_FILE = "migrations-job.yaml";
+    private static final int DEFAULT_BACKOFF_LIMIT = 2;
+    private static final int POSTGRES_PORT = 5432;
+    private static final int DEFAULT_ACTIVE_DEADLINE_SECONDS = 600;
+    private static final int DEFAULT_TTL_SECONDS_AFTER_FINISHED = 86400;
+    private static final Set<String> POD_ONLY_ENV = Set.of("JAVA_TOOL_OPTIONS", "SERVER_SHUTDOWN",
+            "SPRING_LIFECYCLE_TIMEOUT_PER_SHUTDOWN_PHASE");
+    private static final String SYNC_WAVE = "argocd.argoproj.io/sync-wave";
+    private static final String URL_VARIABLE = "SPRING_DATASOURCE_URL";
+    private static final Set<String> INHERITED_POD_FIELDS = Set.of("serviceAccountName", "imagePullSecrets",
+            "securityContext", "nodeSelector", "tolerations");
+
+    private final DeploymentConfig deploymentConfig;
+    private final Migrations migrations;
+    private final boolean pgBouncer;
+    private Map<String, Object> podSpec;
+    private Map<String, Object> appContainer;
+    private Map<String, Object> migrationContainer;
+    private String namespace;
+    private String databaseUrl;
+    private String postgresService;
+
+    /**
+     * Creates a new processor.
+     *
+     * @param deploymentConfig the deployment configuration, with {@code migrations} set
+     */
+    public MigrationJobProcessor(DeploymentConfig deploymentConfig) {
+        this.deploymentConfig = deploymentConfig;
+        this.migrations = deploymentConfig.getMigrations();
+        this.pgBouncer = deploymentConfig.isIncludeDatabase() && ConnectionBudget.plan(deploymentConfig).isPgBouncer();
+    }
+
+    @Override
+    protected boolean patch(String fileName, List<YamlDocument> documents) {
+        if (ManifestUtil.isComposeFile(fileName)) {
+            return false;
+        }
+        boolean changed = false;
+        for (YamlDocument document : documents) {
+            if ("ConfigMap".equals(document.getKind())) {
+                rememberDatabaseUrl(document.asMap());
+                continue;
+            } else if ("Service".equals(document.getKind())) {
+                rememberPostgresService(document.asMap());
+                continue;
+            }
+            Map<String, Object> container = !"Deployment".equals(document.getKind()) ? null
+                    : ManifestUtil.findAppContainer(document, deploymentConfig.getApplicationName());
+            if (container == null || podSpec != null) {
+                continue;
+            }
+            Map<String, Object> spec = ManifestUtil.podSpec(document);
+            podSpec = spec;
+            appContainer = container;
+            Map<String, Object> metadata = ManifestUtil.map(document.asMap().get("metadata"));
+            namespace = metadata == null || metadata.get("namespace") == null ? null : metadata.get("namespace").toString();
+            // after the migrations of wave 1, which run after the ConfigMap, Secret and database of wave 0
+            ManifestUtil.child(ManifestUtil.child(document.asMap(), "metadata"), "annotations").put(SYNC_WAVE, "2");
+            changed = true;
+
+            List<Map<String, Object>> initContainers = ManifestUtil.maps(spec.get("initContainers"));
+            for (Map<String, Object> initContainer : initContainers) {
+                if (isMigration(initContainer)) {
+                    migrationContainer = initContainer;
+                    ManifestUtil.list(spec, "initContainers").remove(initContainer);
+                    changed = true;
+                    break;
+                }
+            }
+            if (ManifestUtil.list(spec, "initContainers").isEmpty()) {
+                spec.remove("initContainers");
+            }
+        }
+        return changed;
+    }
+
+    @Override
+    public void finish(BiConsumer<String, String> next) {
+        next.accept(JOB_FILE, YamlNormalizer.render(List.of(new YamlDocument(job()))));
+    }
+
+    private Map<String, Object> job() {
+        String applicationName = deploymentConfig.getApplicationName();
+        Map<String, Object> job = new LinkedHashMap<>();
+        job.put("apiVersion", "batch/v1");
+        job.put("kind", "Job");
+        Map<String, Object> metadata = ManifestUtil.child(job, "metadata");
+        metadata.put("name", jobName());
+        if (namespace != null) {
+            metadata.put("namespace", namespace);
+        }
+        ManifestUtil.child(metadata, "labels").put("app", applicationName + "-migrations");
+        Map<String, Object> annotations = ManifestUtil.child(metadata, "annotations");
+        // a PreSync or pre-install hook would run before the ConfigMap, Secret and database exist
+        annotations.put("argocd.argoproj.io/hook", "Sync");
+        annotations.put(SYNC_WAVE, "1");
+        annotations.put("argocd.argoproj.io/hook-delete-policy", "BeforeHookCreation");
+        annotations.put("helm.sh/hook", "post-install,pre-upgrade");
+        annotations.put("helm.sh/hook-weight", "-5");
+        annotations.put("helm.sh/hook-delete-policy", "before-hook-creation");
+
+        Map<String, Object> spec = ManifestUtil.child(job, "spec");
+        spec.put("backoffLimit", valueOr(migrations.getBackoffLimit(), DEFAULT_BACKOFF_LIMIT));
+        spec.put("activeDeadlineSeconds", valueOr(migrations.getActiveDeadlineSeconds(), DEFAULT_ACTIVE_DEADLINE_SECONDS));
+        spec.put("ttlSecondsAfterFinished", valueOr(migrations.getTtlSecondsAfterFinished(),
+                DEFAULT_TTL_SECONDS_AFTER_FINISHED));
+        Map<String, Object> template = ManifestUtil.child(spec, "template");
+        ManifestUtil.child(ManifestUtil.child(template, "metadata"), "labels").put("app", applicationName + "-migrations");
+        Map<String, Object> jobPodSpec = ManifestUtil.child(template, "spec");
+        jobPodSpec.put("restartPolicy", "Never");
+
+        Map<String, Object> container = migrationContainer != null ? migrationContainer : container();
+        if (pgBouncer && ManifestUtil.maps(container.get("env")).stream()
+                .noneMatch(variable -> URL_VARIABLE.equals(variable.get("name")))) {
+            // no sidecar to reach on localhost, and session-level locks do not survive transaction pooling
+            ManifestUtil.setEnv(container, URL_VARIABLE, directDatabaseUrl());
+        }
+        if (podSpec != null) {
+            for (String field : INHERITED_POD_FIELDS) {
+                if (podSpec.get(field) != null) {
+                    jobPodSpec.put(field, podSpec.get(field));
+                }
+            }
+            List<Object> volumes = mountedVolumes(container);
+            if (!volumes.isEmpty()) {
+                jobPodSpec.put("volumes", volumes);
+            }
+        }
+        jobPodSpec.put("containers", new ArrayList<>(List.of(container)));
+        return job;
+    }
+
+    /**
+     * Builds the migration container from the configuration when the model did not add an initContainer.
+     */
+    private Map<String, Object> container() {
+        Map<String, Object> container = new LinkedHashMap<>();
+        container.put("name", "migrations");
+        Object image = migrations.getImage() != null && !migrations.getImage().isBlank() ? migrations.getImage()
+                : appContainer == null ? null : appContainer.get("image");
+        container.put("image", image);
+        if (migrations.getArgs() != null && !migrations.getArgs().isEmpty()) {
+            container.put("args", new ArrayList<>(migrations.getArgs()));
+        }
+        if (appContainer != null) {
+            if (appContainer.get("envFrom") != null) {
+                container.put("envFrom", appContainer.get("envFrom"));
+            }
+            List<Object> env = new ArrayList<>();
+            for (Map<String, Object> variable : ManifestUtil.maps(appContainer.get("env"))) {
+                if (!POD_ONLY_ENV.contains(String.valueOf(variable.get("name")))) {
+                    env.add(variable);
+                }
+            }
+            if (!env.isEmpty()) {
+                container.put("env", env);
+            }
+        }
+        Map<String, Object> resources = ManifestUtil.child(container, "resources");
+        ManifestUtil.child(resources, "requests").putAll(Map.of("cpu", "250m", "memory", "256Mi"));
+        ManifestUtil.child(resources, "limits").put("memory", "512Mi");
+        return container;
+    }
+
+    private List<Object> mountedVolumes(Map<String, Object> container) {
+        List<Object> volumes = new ArrayList<>();
+        for (Map<String, Object> mount : ManifestUtil.maps(container.get("volumeMounts"))) {
+            for (Map<String, Object> volume : ManifestUtil.maps(podSpec.get("volumes"))) {
+                if (volume.get("name") != null && volume.get("name").equals(mount.get("name")) && !volumes.contains(volume)) {
+                    volumes.add(volume);
+                }
+            }
+        }
+        return volumes;
+    }
+
+    private void rememberDatabaseUrl(Map<String, Object> configMap) {
+        Map<String, Object> data = ManifestUtil.map(configMap.get("data"));
+        if (databaseUrl == null && data != null && data.get(URL_VARIABLE) != null) {
+            databaseUrl = data.get(URL_VARIABLE).toString();
+        }
+    }
+
+    private void rememberPostgresService(Map<String, Object> service) {
+        Map<String, Object> metadata = ManifestUtil.map(service.get("metadata"));
+        Map<String, Object> spec = ManifestUtil.map(service.get("spec"));
+        if (postgresService != null || metadata == null || spec == null) {
+            return;
+        }
+        for (Map<String, Object> port : ManifestUtil.maps(spec.get("ports"))) {
+            if (String.valueOf(POSTGRES_PORT).equals(String.valueOf(port.get("port")))) {
+                postgresService = String.valueOf(metadata.get("name"));
+            }
+        }
+    }
+
+    /**
+     * The URL of the application's ConfigMap, which {@link DatabaseConnectionProcessor} only redirects later,
+     * otherwise the URL PgBouncer's upstream defaults to.
+     */
+    private String directDatabaseUrl() {
+        if (databaseUrl != null) {
+            return databaseUrl;
+        }
+        String database = deploymentConfig.getDbName() == null || deploymentConfig.getDbName().isBlank()
+                ? deploymentConfig.getApplicationName() : deploymentConfig.getDbName();
+        return "jdbc:postgresql://" + (postgresService != null ? postgresService : "postgres") + ":" + POSTGRES_PORT
+                + "/" + database;
+    }
+
+    private boolean isMigration(Map<String, Object> initContainer) {
+        String name = String.valueOf(initContainer.get("name")).toLowerCase(Locale.ROOT);
+        String image = String.valueOf(initContainer.get("image")).toLowerCase(Locale.ROOT);
+        String tool = migrations.getTool() == null ? "" : migrations.getTool().trim().toLowerCase(Locale.ROOT);
+        return name.contains("migrat")
+                || migrations.getImage() != null && migrations.getImage().equalsIgnoreCase(String.valueOf(initContainer.get("image")))
+                || !tool.isEmpty() && (name.contains(tool) || image.contains(tool));
+    }
+
+    /**
+     * Names the Job after the image tag, so every release creates a new Job instead of patching a finished one.
+     */
+    private String jobName() {
+        String tag = deploymentConfig.getImageTag();
+        String name = deploymentConfig.getApplicationName() + "-migrate"
+                + (tag == null || tag.isBlank() ? "" : "-" + tag);
+        name = name.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9-]+", "-");
+        if (name.length() > 63) {
+            name = name.substring(0, 63);
+        }
+        return name.replaceAll("^-+|-+$", "");
+    }
+
+    private static int valueOr(Integer value, int defaultValue) {
+        return value != null && value >= 0 ? value : defaultValue;
+    }
+}
@@ -0,0 +1,306 @@
+package io.github.rkumar0206.k8gen.processor;
+
+import io.github.rkumar0206.k8gen.model.Database;
+import io.github.rkumar0206.k8gen.model.DeploymentConfig;
+import io.github.rkumar0206.k8gen.util.ManifestUtil;
+import io.github.rkumar0206.k8gen.util.PostgresTuning;
+import io.github.rkumar0206.k8gen.util.ResourceQuantity;
+import io.github.rkumar0206.k8gen.util.YamlDocument;
+import io.github.rkumar0206.k8gen.util.YamlNormalizer;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.regex.Pattern;
+
+/**
+ * Replaces the model's PostgreSQL Deployment or StatefulSet and its PersistentVolumeClaim with a
+ * StatefulSet running the {@code postgresql.conf} of {@link PostgresTuning}.
+ *
+ * <p>{@code postgres.yaml} holds the StatefulSet, the ConfigMap with the configuration, and the headless
+ * Service the StatefulSet is governed by. The StatefulSet keeps the {@code env} and {@code envFrom} of the
+ * model's database container, so the credentials stay as generated; without one, or without a password,
+ * they are taken from the application's Secret. The model's database Service is kept under its name and selects the new pods; without one,
+ * a Service named {@code <applicationName>-postgres} is added. Readiness is
+ * checked with {@code pg_isready}, and {@code /dev/shm} is a memory volume large enough for parallel query.
+ */
+public class PostgresProcessor extends YamlPatchProcessor {
+
+    private static final Logger LOGGER = Logging.getLogger(PostgresProcessor.class);
+
+    private static final int POSTGRES_PORT = 5432;
+    private static final String DEFAULT_IMAGE = "postgres:16";
+    private static final String CONFIG_DIRECTORY = "/etc/postgresql";
+    private static final String DATA_DIRECTORY = "/var/lib/postgresql/data";
+    private static final Pattern DATABASE_NAME = Pattern.compile("(^|-)(postgres|postgresql|pg|db|database)(-|$)");
+
+    private final DeploymentConfig deploymentConfig;
+    private final Database database;
+    private final PostgresTuning tuning;
+    private final String name;
+    private List<Object> environment;
+    private Object environmentFrom;
+    private boolean serviceFound;
+
+    /**
+     * Creates a new processor.
+     *
+     * @param deploymentConfig the deployment configuration with the database settings
+     * @param maxConnections   the {@code max_connections} of the database
+     */
+    public PostgresProcessor(DeploymentConfig deploymentConfig, int maxConnections) {
+        this.deploymentConfig = deploymentConfig;
+        this.database = deploymentConfig.getDatabase() == null ? new Database() : deploymentConfig.getDatabase();
+        this.tuning = PostgresTuning.compute(database, maxConnections);
+        this.name = deploymentConfig.getApplicationName() + "-postgres";
+        tuning.getWarnings().forEach(LOGGER::warn);
+    }
+
+    @Override
+    protected boolean patch(String fileName, List<YamlDocument> documents) {
+        if (ManifestUtil.isComposeFile(fileName)) {
+            return false;
+        }
+        boolean changed = false;
+        for (Iterator<YamlDocument> iterator = documents.iterator(); iterator.hasNext(); ) {
+            YamlDocument document = iterator.next();
+            String kind = document.getKind();
+            if (("Deployment".equals(kind) || "StatefulSet".equals(kind)) && isPostgresWorkload(document)) {
+                iterator.remove();
+                changed = true;
+            } else if ("PersistentVolumeClaim".equals(kind) && DATABASE_NAME.matcher(objectName(document.asMap())).find()) {
+                LOGGER.info("Dropping PersistentVolumeClaim {}, the StatefulSet claims its own volume", objectName(document.asMap()));
+                iterator.remove();
+                changed = true;
+            } else if ("Service".equals(kind) && isPostgresService(document.asMap())) {
+                Map<String, Object> spec = ManifestUtil.child(document.asMap(), "spec");
+                Map<String, Object> selector = ManifestUtil.child(spec, "selector");
+                selector.clear();
+                selector.put("app", name);
+                serviceFound = true;
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    @Override
+    public void finish(BiConsumer<String, String> next) {
+        List<YamlDocument> documents = new ArrayList<>(List.of(new YamlDocument(configMap()),
+                new YamlDocument(service(name + "-headless", true))));
+        if (!serviceFound) {
+            documents.add(new YamlDocument(service(name, false)));
+        }
+        documents.add(new YamlDocument(statefulSet()));
+        next.accept("postgres.yaml", YamlNormalizer.render(documents));
+    }
+
+    private boolean isPostgresWorkload(YamlDocument document) {
+        Map<String, Object> podSpec = ManifestUtil.podSpec(document);
+        if (podSpec == null) {
+            return false;
+        }
+        for (Map<String, Object> container : ManifestUtil.maps(podSpec.get("containers"))) {
+            if (String.valueOf(container.get("image")).contains("postgres")) {
+                if (environment == null) {
+                    environment = new ArrayList<>(ManifestUtil.maps(container.get("env")));
+                    environmentFrom = container.get("envFrom");
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isPostgresService(Map<String, Object> service) {
+        Map<String, Object> spec = ManifestUtil.map(service.get("spec"));
+        if (spec == null || "None".equals(spec.get("clusterIP"))) {
+            return false;
+        }
+        return ManifestUtil.maps(spec.get("ports")).stream()
+                .anyMatch(port -> String.valueOf(POSTGRES_PORT).equals(String.valueOf(port.get("port"))));
+    }
+
+    private Map<String, Object> configMap() {
+        Map<String, Object> configMap = object("v1", "ConfigMap", name + "-config");
+        ManifestUtil.child(configMap, "data").put("postgresql.conf", tuning.toPostgresqlConf());
+        return configMap;
+    }
+
+    private Map<String, Object> service(String serviceName, boolean headless) {
+        Map<String, Object> service = object("v1", "Service", serviceName);
+        Map<String, Object> spec = ManifestUtil.child(service, "spec");
+        if (headless) {
+            spec.put("clusterIP", "None");
+        }
+        ManifestUtil.child(spec, "selector").put("app", name);
+        Map<String, Object> port = new LinkedHashMap<>();
+        port.put("name", "postgres");
+        port.put("port", POSTGRES_PORT);
+        port.put("targetPort", "postgres");
+        ManifestUtil.list(spec, "ports").add(port);
+        return service;
+    }
+
+    private Map<String, Object> statefulSet() {
+        Map<String, Object> statefulSet = object("apps/v1", "StatefulSet", name);
+        Map<String, Object> spec = ManifestUtil.child(statefulSet, "spec");
+        spec.put("serviceName", name + "-headless");
+        spec.put("replicas", 1);
+        ManifestUtil.child(ManifestUtil.child(spec, "selector"), "matchLabels").put("app", name);
+
+        Map<String, Object> template = ManifestUtil.child(spec, "template");
+        Map<String, Object> templateMetadata = ManifestUtil.child(template, "metadata");
+        ManifestUtil.child(templateMetadata, "labels").put("app", name);
+        // a changed configuration rolls the pod
+        ManifestUtil.child(templateMetadata, "annotations").put("checksum/config", checksum(tuning.toPostgresqlConf()));
+
+        Map<String, Object> podSpec = ManifestUtil.child(template, "spec");
+        podSpec.put("terminationGracePeriodSeconds", 60);
+        ManifestUtil.child(podSpec, "securityContext").put("fsGroup", 999);
+        ManifestUtil.list(podSpec, "containers").add(container());
+
+        List<Object> volumes = ManifestUtil.list(podSpec, "volumes");
+        Map<String, Object> config = new LinkedHashMap<>();
+        config.put("name", "config");
+        ManifestUtil.child(config, "configMap").put("name", name + "-config");
+        volumes.add(config);
+        Map<String, Object> shm = new LinkedHashMap<>();
+        shm.put("name", "dshm");
+        Map<String, Object> emptyDir = ManifestUtil.child(shm, "emptyDir");
+        emptyDir.put("medium", "Memory");
+        emptyDir.put("sizeLimit", ResourceQuantity.formatMiB(Math.max(64, tuning.getMemoryLimitMiB() / 4)));
+        volumes.add(shm);
+
+        Map<String, Object> claim = new LinkedHashMap<>();
+        ManifestUtil.child(claim, "metadata").put("name", "data");
+        Map<String, Object> claimSpec = ManifestUtil.child(claim, "spec");
+        claimSpec.put("accessModes", new ArrayList<>(List.of("ReadWriteOnce")));
+        if (database.getStorageClass() != null && !database.getStorageClass().isBlank()) {
+            claimSpec.put("storageClassName", database.getStorageClass());
+        }
+        ManifestUtil.child(ManifestUtil.child(claimSpec, "resources"), "requests").put("storage",
+                database.getStorageSize() == null || database.getStorageSize().isBlank()
+                        ? PostgresTuning.DEFAULT_STORAGE : database.getStorageSize());
+        ManifestUtil.list(spec, "volumeClaimTemplates").add(claim);
+        return statefulSet;
+    }
+
+    private Map<String, Object> container() {
+        Map<String, Object> container = new LinkedHashMap<>();
+        container.put("name", "postgres");
+        container.put("image", database.getImage() == null || database.getImage().isBlank() ? DEFAULT_IMAGE : database.getImage());
+        container.put("args", new ArrayList<>(List.of("-c", "config_file=" + CONFIG_DIRECTORY + "/postgresql.conf")));
+        Map<String, Object> port = new LinkedHashMap<>();
+        port.put("name", "postgres");
+        port.put("containerPort", POSTGRES_PORT);
+        container.put("ports", new ArrayList<>(List.of(port)));
+
+        if (environment != null) {
+            if (environmentFrom != null) {
+                container.put("envFrom", environmentFrom);
+            }
+            if (!environment.isEmpty()) {
+                container.put("env", new ArrayList<>(environment));
+            }
+            // the image refuses to initialise without a password; envFrom may provide one
+            if (environmentFrom == null && ManifestUtil.maps(environment).stream()
+                    .noneMatch(variable -> "POSTGRES_PASSWORD".equals(variable.get("name")))) {
+                ManifestUtil.list(container, "env").add(secretVariable("POSTGRES_PASSWORD", "SPRING_DATASOURCE_PASSWORD"));
+            }
+        } else {
+            ManifestUtil.setEnv(container, "POSTGRES_DB", valueOrDefault(deploymentConfig.getDbName(), deploymentConfig.getApplicationName()));
+            ManifestUtil.list(container, "env").add(secretVariable("POSTGRES_USER", "SPRING_DATASOURCE_USERNAME"));
+            ManifestUtil.list(container, "env").add(secretVariable("POSTGRES_PASSWORD", "SPRING_DATASOURCE_PASSWORD"));
+        }
+        // a sub-directory, since the volume root may contain lost+found
+        ManifestUtil.setEnv(container, "PGDATA", DATA_DIRECTORY + "/pgdata");
+
+        String memoryLimit = PostgresTuning.memoryLimit(database);
+        String cpuLimit = PostgresTuning.cpuLimit(database);
+        Map<String, Object> resources = ManifestUtil.child(container, "resources");
+        Map<String, Object> requests = ManifestUtil.child(resources, "requests");
+        requests.put("cpu", valueOrDefault(database.getCpuRequest(), cpuLimit));
+        requests.put("memory", valueOrDefault(database.getMemoryRequest(), memoryLimit));
+        Map<String, Object> limits = ManifestUtil.child(resources, "limits");
+        limits.put("cpu", cpuLimit);
+        limits.put("memory", memoryLimit);
+
+        List<Object> mounts = ManifestUtil.list(container, "volumeMounts");
+        mounts.add(mount("data", DATA_DIRECTORY));
+        mounts.add(mount("config", CONFIG_DIRECTORY));
+        mounts.add(mount("dshm", "/dev/shm"));
+
+        // crash recovery after an unclean shutdown may take a while
+        container.put("startupProbe", pgIsReady(5, 60));
+        container.put("readinessProbe", pgIsReady(5, 3));
+        container.put("livenessProbe", pgIsReady(10, 6));
+        return container;
+    }
+
+    private static Map<String, Object> pgIsReady(int periodSeconds, int failureThreshold) {
+        Map<String, Object> probe = new LinkedHashMap<>();
+        ManifestUtil.child(probe, "exec").put("command", new ArrayList<>(List.of("sh", "-c",
+                "pg_isready -h 127.0.0.1 -p " + POSTGRES_PORT + " -U \"$POSTGRES_USER\" -d \"${POSTGRES_DB:-$POSTGRES_USER}\"")));
+        probe.put("periodSeconds", periodSeconds);
+        probe.put("timeoutSeconds", 3);
+        probe.put("failureThreshold", failureThreshold);
+        return probe;
+    }
+
+    private Map<String, Object> secretVariable(String variableName, String key) {
+        Map<String, Object> variable = new LinkedHashMap<>();
+        variable.put("name", variableName);
+        Map<String, Object> secretKeyRef = ManifestUtil.child(ManifestUtil.child(variable, "valueFrom"), "secretKeyRef");
+        secretKeyRef.put("name", deploymentConfig.getApplicationName() + "-secret");
+        secretKeyRef.put("key", key);
+        return variable;
+    }
+
+    private static Map<String, Object> mount(String volume, String path) {
+        Map<String, Object> mount = new LinkedHashMap<>();
+        mount.put("name", volume);
+        mount.put("mountPath", path);
+        return mount;
+    }
+
+    private Map<String, Object> object(String apiVersion, String kind, String objectName) {
+        Map<String, Object> object = new LinkedHashMap<>();
+        object.put("apiVersion", apiVersion);
+        object.put("kind", kind);
+        Map<String, Object> metadata = ManifestUtil.child(object, "metadata");
+        metadata.put("name", objectName);
+        if (deploymentConfig.getNamespace() != null && !deploymentConfig.getNamespace().isBlank()) {
+            metadata.put("namespace", deploymentConfig.getNamespace());
+        }
+        ManifestUtil.child(metadata, "labels").put("app", name);
+        return object;
+    }
+
+    private static String objectName(Map<String, Object> object) {
+        Map<String, Object> metadata = ManifestUtil.map(object.get("metadata"));
+        return metadata == null ? "" : String.valueOf(metadata.get("name"));
+    }
+
+    private static String checksum(String content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String valueOrDefault(String value, String defaultValue) {
+        return value == null || value.isBlank() ? defaultValue : value;
+    }
+}
@@ -0,0 +1,156 @@
+package io.github.rkumar0206.k8gen.processor;
+
+import io.github.rkumar0206.k8gen.model.DeploymentConfig;
+import io.github.rkumar0206.k8gen.util.AutoscalingGenerator;
+import io.github.rkumar0206.k8gen.util.JfrProfiling;
+import io.github.rkumar0206.k8gen.util.ManifestUtil;
+import io.github.rkumar0206.k8gen.util.ResourceQuantity;
+import io.github.rkumar0206.k8gen.util.YamlDocument;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * Wires {@code observability.profiling} into the application's workload.
+ *
+ * <p>The flags of the {@link JfrProfiling} recording are appended to the container's {@code JAVA_TOOL_OPTIONS},
+ * after {@link JvmTuningProcessor} has set it, and the {@code jfr} emptyDir is mounted at
+ * {@link JfrProfiling#MOUNT_PATH}. Micrometer's JVM and GC metrics are exposed on the Prometheus endpoint, tagged
+ * with the application name, and the pod template is annotated for scraping. The workloads of backing services
+ * and docker-compose files are left as they are.
+ */
+public class ProfilingProcessor extends YamlPatchProcessor {
+
+    private static final Logger LOGGER = Logging.getLogger(ProfilingProcessor.class);
+
+    private static final String EXPOSURE_INCLUDE = "MANAGEMENT_ENDPOINTS_WEB_EXPOSURE_INCLUDE";
+    private static final String APPLICATION_TAG = "MANAGEMENT_METRICS_TAGS_APPLICATION";
+
+    private final DeploymentConfig deploymentConfig;
+    private final JfrProfiling profiling;
+    private boolean workloadPatched;
+
+    /**
+     * Creates a new processor.
+     *
+     * @param deploymentConfig the deployment configuration
+     * @param profiling        the recording
+     */
+    public ProfilingProcessor(DeploymentConfig deploymentConfig, JfrProfiling profiling) {
+        this.deploymentConfig = deploymentConfig;
+        this.profiling = profiling;
+        profiling.getWarnings().forEach(LOGGER::warn);
+        if (profiling.isEnabled()) {
+            LOGGER.info(profiling.summary());
+        }
+    }
+
+    @Override
+    protected boolean patch(String fileName, List<YamlDocument> documents) {
+        if (ManifestUtil.isComposeFile(fileName)) {
+            return false;
+        }
+        boolean changed = false;
+        for (YamlDocument document : documents) {
+            String kind = document.getKind();
+            if ("Deployment".equals(kind) || "StatefulSet".equals(kind)) {
+                changed |= patchWorkload(document);
+            }
+        }
+        return changed;
+    }
+
+    @Override
+    public void finish(BiConsumer<String, String> next) {
+        if (!workloadPatched) {
+            LOGGER.warn("No application container found, observability.profiling was not applied");
+        }
+    }
+
+    private boolean patchWorkload(YamlDocument document) {
+        // not the only container of Kafka, Redis or Postgres, which would start an unaccounted recording
+        Map<String, Object> container = ManifestUtil.findAppContainer(document, deploymentConfig.getApplicationName());
+        if (container == null) {
+            return false;
+        }
+        Map<String, Object> podSpec = ManifestUtil.podSpec(document);
+        if (profiling.isEnabled()) {
+            patchJavaToolOptions(container);
+            mountVolume(podSpec, container);
+        }
+        exposeMetrics(container);
+
+        int port = deploymentConfig.getPort() > 0 ? deploymentConfig.getPort() : 8080;
+        Map<String, Object> annotations = ManifestUtil.child(ManifestUtil.child(ManifestUtil.child(
+                ManifestUtil.child(document.asMap(), "spec"), "template"), "metadata"), "annotations");
+        annotations.put("prometheus.io/scrape", "true");
+        annotations.put("prometheus.io/path", AutoscalingGenerator.METRICS_PATH);
+        annotations.put("prometheus.io/port", String.valueOf(port));
+        workloadPatched = true;
+        return true;
+    }
+
+    private void patchJavaToolOptions(Map<String, Object> container) {
+        Object value = null;
+        for (Map<String, Object> variable : ManifestUtil.maps(container.get("env"))) {
+            if (JvmTuningProcessor.JAVA_TOOL_OPTIONS.equals(variable.get("name"))) {
+                if (variable.get("valueFrom") != null) {
+                    LOGGER.warn("{} of {} is set from a reference, the JFR flags were not added",
+                            JvmTuningProcessor.JAVA_TOOL_OPTIONS, deploymentConfig.getApplicationName());
+                    return;
+                }
+                value = variable.get("value");
+            }
+        }
+        ManifestUtil.setEnv(container, JvmTuningProcessor.JAVA_TOOL_OPTIONS,
+                profiling.appendTo(value == null ? null : value.toString()));
+    }
+
+    private void mountVolume(Map<String, Object> podSpec, Map<String, Object> container) {
+        List<Object> volumes = ManifestUtil.list(podSpec, "volumes");
+        volumes.removeIf(volume -> matches(volume, "name", JfrProfiling.VOLUME_NAME));
+        Map<String, Object> volume = new LinkedHashMap<>();
+        volume.put("name", JfrProfiling.VOLUME_NAME);
+        ManifestUtil.child(volume, "emptyDir").put("sizeLimit",
+                ResourceQuantity.formatMiB(profiling.getVolumeSizeLimitMiB()));
+        volumes.add(volume);
+
+        List<Object> mounts = ManifestUtil.list(container, "volumeMounts");
+        mounts.removeIf(mount -> matches(mount, "name", JfrProfiling.VOLUME_NAME)
+                || matches(mount, "mountPath", JfrProfiling.MOUNT_PATH));
+        Map<String, Object> mount = new LinkedHashMap<>();
+        mount.put("name", JfrProfiling.VOLUME_NAME);
+        mount.put("mountPath", JfrProfiling.MOUNT_PATH);
+        mounts.add(mount);
+    }
+
+    private void exposeMetrics(Map<String, Object> container) {
+        Map<String, String> configd = deploymentConfig.getConfigd() == null ? Map.of() : deploymentConfig.getConfigd();
+        if (!configd.containsKey(EXPOSURE_INCLUDE)) {
+            Set<String> endpoints = new LinkedHashSet<>(List.of("health", "info"));
+            for (Map<String, Object> variable : ManifestUtil.maps(container.get("env"))) {
+                if (EXPOSURE_INCLUDE.equals(variable.get("name")) && variable.get("value") != null) {
+                    endpoints.addAll(List.of(variable.get("value").toString().split("\\s*,\\s*")));
+                }
+            }
+            if (!endpoints.contains("*")) {
+                endpoints.add("prometheus");
+                ManifestUtil.setEnv(container, EXPOSURE_INCLUDE, String.join(",", endpoints));
+            }
+        }
+        if (!configd.containsKey(APPLICATION_TAG)) {
+            ManifestUtil.setEnv(container, APPLICATION_TAG, deploymentConfig.getApplicationName());
+        }
+    }
+
+    private static boolean matches(Object entry, String key, String value) {
+        Map<String, Object> map = ManifestUtil.map(entry);
+        return map != null && value.equals(map.get(key));
+    }
+}
@@ -0,0 +1,205 @@
+package io.github.rkumar0206.k8gen.processor;
+
+import io.github.rkumar0206.k8gen.model.Availability;
+import io.github.rkumar0206.k8gen.model.DeploymentConfig;
+import io.github.rkumar0206.k8gen.util.KubernetesSchemas;
+import io.github.rkumar0206.k8gen.util.ManifestUtil;
+import io.github.rkumar0206.k8gen.util.RolloutPlan;
+import io.github.rkumar0206.k8gen.util.YamlDocument;
+import io.github.rkumar0206.k8gen.util.YamlNormalizer;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Spreads the application pods over the cluster and makes rollouts and node drains lossless.
+ *
+ * <p>The application Deployment gets a rolling update strategy sized by {@link RolloutPlan}, topology
+ * spread constraints across zones and nodes, a preferred pod anti-affinity, and a {@code preStop} sleep
+ * followed by Spring Boot's graceful shutdown within {@code terminationGracePeriodSeconds}. The model's
+ * PodDisruptionBudget is rewritten to allow as many disruptions as the rollout, and emitted as
+ * {@code pdb.yaml} on {@link #finish(BiConsumer)} if the model did not produce one.
+ *
+ * <p>{@code matchLabelKeys} of the spread constraints and {@code unhealthyPodEvictionPolicy} of the budget are beta
+ * and enabled by default from Kubernetes {@value #LABEL_KEYS_AND_EVICTION_POLICY_MINOR}; for older target versions
+ * they are left out, and the spread and the drains behave as before.
+ */
+public class RolloutProcessor extends YamlPatchProcessor {
+
+    private static final String PDB_FILE = "pdb.yaml";
+    private static final String ZONE_KEY = "topology.kubernetes.io/zone";
+    private static final String NODE_KEY = "kubernetes.io/hostname";
+    private static final int DEFAULT_READINESS_PERIOD_SECONDS = 10;
+    private static final int DEFAULT_READINESS_FAILURE_THRESHOLD = 3;
+    private static final int LABEL_KEYS_AND_EVICTION_POLICY_MINOR = 27;
+
+    private final DeploymentConfig deploymentConfig;
+    private final Availability availability;
+    private final boolean betaFields;
+    private RolloutPlan plan;
+    private Map<String, Object> selectorLabels;
+    private boolean pdbWritten;
+
+    /**
+     * Creates a new processor.
+     *
+     * @param deploymentConfig  the deployment configuration
+     * @param kubernetesVersion the targeted Kubernetes version, e.g. {@code 1.28}
+     * @throws IllegalArgumentException if the version is malformed or not supported
+     */
+    public RolloutProcessor(DeploymentConfig deploymentConfig, String kubernetesVersion) {
+        this.deploymentConfig = deploymentConfig;
+        this.availability = deploymentConfig.getAvailability() != null
+                ? deploymentConfig.getAvailability() : new Availability();
+        this.betaFields = KubernetesSchemas.bundled().minorVersion(kubernetesVersion) >= LABEL_KEYS_AND_EVICTION_POLICY_MINOR;
+    }
+
+    @Override
+    protected boolean patch(String fileName, List<YamlDocument> documents) {
+        if (ManifestUtil.isComposeFile(fileName)) {
+            return false;
+        }
+        boolean changed = false;
+        for (YamlDocument document : documents) {
+            if ("Deployment".equals(document.getKind())) {
+                changed |= patchDeployment(document);
+            } else if ("PodDisruptionBudget".equals(document.getKind())) {
+                patchDisruptionBudget(document.asMap());
+                pdbWritten = true;
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    @Override
+    public void finish(BiConsumer<String, String> next) {
+        if (pdbWritten) {
+            return;
+        }
+        Map<String, Object> pdb = new LinkedHashMap<>();
+        pdb.put("apiVersion", "policy/v1");
+        pdb.put("kind", "PodDisruptionBudget");
+        Map<String, Object> metadata = ManifestUtil.child(pdb, "metadata");
+        metadata.put("name", deploymentConfig.getApplicationName());
+        ManifestUtil.child(metadata, "labels").put("app", deploymentConfig.getApplicationName());
+        patchDisruptionBudget(pdb);
+        next.accept(PDB_FILE, YamlNormalizer.render(List.of(new YamlDocument(pdb))));
+    }
+
+    /**
+     * The model may put databases and other backing services into Deployments too; only the one running
+     * the application image or named like the application is tuned.
+     */
+    private boolean patchDeployment(YamlDocument document) {
+        Map<String, Object> podSpec = ManifestUtil.podSpec(document);
+        Map<String, Object> container = podSpec == null ? null
+                : ManifestUtil.findAppContainer(podSpec, deploymentConfig.getApplicationName());
+        if (container == null || !ManifestUtil.isApplication(document, container, deploymentConfig.getApplicationName())) {
+            return false;
+        }
+        Map<String, Object> readinessProbe = ManifestUtil.map(container.get("readinessProbe"));
+        plan = RolloutPlan.plan(deploymentConfig,
+                intOr(readinessProbe, "periodSeconds", DEFAULT_READINESS_PERIOD_SECONDS),
+                intOr(readinessProbe, "failureThreshold", DEFAULT_READINESS_FAILURE_THRESHOLD));
+
+        Map<String, Object> spec = ManifestUtil.child(document.asMap(), "spec");
+        Map<String, Object> matchLabels = ManifestUtil.map(ManifestUtil.child(spec, "selector").get("matchLabels"));
+        if (matchLabels == null || matchLabels.isEmpty()) {
+            matchLabels = new LinkedHashMap<>(Map.of("app", deploymentConfig.getApplicationName()));
+            ManifestUtil.child(spec, "selector").put("matchLabels", matchLabels);
+        }
+        selectorLabels = matchLabels;
+
+        Map<String, Object> strategy = new LinkedHashMap<>();
+        strategy.put("type", "RollingUpdate");
+        Map<String, Object> rollingUpdate = ManifestUtil.child(strategy, "rollingUpdate");
+        rollingUpdate.put("maxSurge", plan.getMaxSurge());
+        rollingUpdate.put("maxUnavailable", plan.getMaxUnavailable());
+        spec.put("strategy", strategy);
+
+        List<Object> constraints = new ArrayList<>();
+        if (!Boolean.FALSE.equals(availability.getSpreadAcrossZones())) {
+            constraints.add(spreadConstraint(ZONE_KEY));
+        }
+        if (!Boolean.FALSE.equals(availability.getSpreadAcrossNodes())) {
+            constraints.add(spreadConstraint(NODE_KEY));
+        }
+        if (constraints.isEmpty()) {
+            podSpec.remove("topologySpreadConstraints");
+        } else {
+            podSpec.put("topologySpreadConstraints", constraints);
+        }
+        if (!Boolean.FALSE.equals(availability.getPodAntiAffinity())) {
+            podSpec.put("affinity", antiAffinity(ManifestUtil.map(podSpec.get("affinity"))));
+        }
+
+        podSpec.put("terminationGracePeriodSeconds", plan.getTerminationGracePeriodSeconds());
+        Map<String, Object> preStop = new LinkedHashMap<>();
+        ManifestUtil.child(preStop, "exec").put("command",
+                new ArrayList<>(List.of("sleep", String.valueOf(plan.getPreStopSleepSeconds()))));
+        ManifestUtil.child(container, "lifecycle").put("preStop", preStop);
+        ManifestUtil.setEnv(container, "SERVER_SHUTDOWN", "graceful");
+        ManifestUtil.setEnv(container, "SPRING_LIFECYCLE_TIMEOUT_PER_SHUTDOWN_PHASE", plan.getShutdownTimeoutSeconds() + "s");
+        return true;
+    }
+
+    private void patchDisruptionBudget(Map<String, Object> pdb) {
+        Map<String, Object> spec = ManifestUtil.child(pdb, "spec");
+        spec.remove("minAvailable");
+        RolloutPlan rolloutPlan = plan != null ? plan : RolloutPlan.plan(deploymentConfig,
+                DEFAULT_READINESS_PERIOD_SECONDS, DEFAULT_READINESS_FAILURE_THRESHOLD);
+        spec.put("maxUnavailable", rolloutPlan.getDisruptionsAllowed());
+        Map<String, Object> selector = ManifestUtil.child(spec, "selector");
+        if (ManifestUtil.map(selector.get("matchLabels")) == null) {
+            selector.put("matchLabels", new LinkedHashMap<>(selectorLabels()));
+        }
+        if (betaFields) {
+            // a crash-looping pod must not block node drains
+            spec.put("unhealthyPodEvictionPolicy", "AlwaysAllow");
+        } else {
+            spec.remove("unhealthyPodEvictionPolicy");
+        }
+    }
+
+    private Map<String, Object> spreadConstraint(String topologyKey) {
+        Map<String, Object> constraint = new LinkedHashMap<>();
+        constraint.put("maxSkew", 1);
+        constraint.put("topologyKey", topologyKey);
+        constraint.put("whenUnsatisfiable",
+                Boolean.TRUE.equals(availability.getStrictSpread()) ? "DoNotSchedule" : "ScheduleAnyway");
+        ManifestUtil.child(constraint, "labelSelector").put("matchLabels", new LinkedHashMap<>(selectorLabels()));
+        if (betaFields) {
+            // spread each revision on its own, otherwise a rollout may pack the new pods onto one node
+            constraint.put("matchLabelKeys", new ArrayList<>(List.of("pod-template-hash")));
+        }
+        return constraint;
+    }
+
+    private Map<String, Object> antiAffinity(Map<String, Object> affinity) {
+        Map<String, Object> result = affinity != null ? affinity : new LinkedHashMap<>();
+        Map<String, Object> term = new LinkedHashMap<>();
+        term.put("weight", 100);
+        Map<String, Object> podAffinityTerm = ManifestUtil.child(term, "podAffinityTerm");
+        ManifestUtil.child(podAffinityTerm, "labelSelector").put("matchLabels", new LinkedHashMap<>(selectorLabels()));
+        podAffinityTerm.put("topologyKey", NODE_KEY);
+        ManifestUtil.child(result, "podAntiAffinity")
+                .put("preferredDuringSchedulingIgnoredDuringExecution", new ArrayList<>(List.of(term)));
+        return result;
+    }
+
+    /**
+     * The selector labels of the application Deployment, or {@code app: <name>} before it has been seen.
+     */
+    private Map<String, Object> selectorLabels() {
+        return selectorLabels != null ? selectorLabels : Map.of("app", deploymentConfig.getApplicationName());
+    }
+
+    private static int intOr(Map<String, Object> map, String key, int defaultValue) {
+        Object value = map == null ? null : map.get(key);
+        return value instanceof Number number && number.intValue() > 0 ? number.intValue() : defaultValue;
+    }
+}
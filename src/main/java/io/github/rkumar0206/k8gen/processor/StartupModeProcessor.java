@@ -0,0 +1,139 @@
+package io.github.rkumar0206.k8gen.processor;
+
+import io.github.rkumar0206.k8gen.model.DeploymentConfig;
+import io.github.rkumar0206.k8gen.model.StartupMode;
+import io.github.rkumar0206.k8gen.util.DockerfileGenerator;
+import io.github.rkumar0206.k8gen.util.ManifestUtil;
+import io.github.rkumar0206.k8gen.util.YamlDocument;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Applies the configured {@link StartupMode} to the generated files.
+ *
+ * <p>The model's Dockerfile is replaced with the one of {@link DockerfileGenerator}, and emitted on
+ * {@link #finish(BiConsumer)} if the model did not produce one. In {@code jar} mode this only happens
+ * when the layered jar Dockerfile is enabled. In all modes the application container of the Deployment
+ * or StatefulSet gets a {@code startupProbe} sized to the mode's startup budget, or to twice the expected
+ * startup time if the configuration sets one; the readiness and liveness probes lose their
+ * {@code initialDelaySeconds}, since they only start once the startup probe has succeeded. In
+ * {@code crac} mode the container also gets the capabilities needed to restore the checkpoint.
+ */
+public class StartupModeProcessor extends YamlPatchProcessor {
+
+    private static final String DOCKERFILE = "Dockerfile";
+    private static final String LIVENESS_PATH = "/actuator/health/liveness";
+
+    private final DeploymentConfig deploymentConfig;
+    private final StartupMode mode;
+    private final String dockerfile;
+    private boolean dockerfileWritten;
+
+    /**
+     * Creates a new processor.
+     *
+     * @param deploymentConfig  the deployment configuration
+     * @param mode              the startup mode
+     * @param jvmFlags          JVM flags baked into a CRaC checkpoint, may be {@code null}
+     * @param layeredJar        whether the layered jar Dockerfile is also used in {@code jar} mode
+     * @param springBootVersion the Spring Boot version of the application, {@code null} if unknown
+     * @throws IllegalArgumentException if the mode is not supported by the Spring Boot version
+     */
+    public StartupModeProcessor(DeploymentConfig deploymentConfig, StartupMode mode, String jvmFlags,
+                                boolean layeredJar, String springBootVersion) {
+        this.deploymentConfig = deploymentConfig;
+        this.mode = mode;
+        // generated up front, so that an unsupported mode fails before the model is called
+        this.dockerfile = mode != StartupMode.JAR || layeredJar
+                ? DockerfileGenerator.generate(deploymentConfig, mode, jvmFlags, springBootVersion) : null;
+    }
+
+    @Override
+    public void process(String fileName, String content, BiConsumer<String, String> next) {
+        if (dockerfile != null && ManifestUtil.isRootFile(fileName, DOCKERFILE)) {
+            dockerfileWritten = true;
+            next.accept(fileName, dockerfile);
+            return;
+        }
+        super.process(fileName, content, next);
+    }
+
+    @Override
+    public void finish(BiConsumer<String, String> next) {
+        if (dockerfile != null && !dockerfileWritten) {
+            next.accept(DOCKERFILE, dockerfile);
+        }
+    }
+
+    @Override
+    protected boolean patch(String fileName, List<YamlDocument> documents) {
+        boolean changed = false;
+        for (YamlDocument document : documents) {
+            String kind = document.getKind();
+            if (!"Deployment".equals(kind) && !"StatefulSet".equals(kind)) {
+                continue;
+            }
+            // not the only container of a backing service, which has no actuator to probe
+            Map<String, Object> container = ManifestUtil.findAppContainer(document, deploymentConfig.getApplicationName());
+            if (container != null) {
+                patchProbes(container);
+                if (mode == StartupMode.CRAC) {
+                    List<Object> add = ManifestUtil.list(ManifestUtil.child(ManifestUtil.child(container,
+                            "securityContext"), "capabilities"), "add");
+                    for (String capability : List.of("CHECKPOINT_RESTORE", "SYS_PTRACE")) {
+                        if (!add.contains(capability)) {
+                            add.add(capability);
+                        }
+                    }
+                }
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    private void patchProbes(Map<String, Object> container) {
+        Map<String, Object> startupProbe = ManifestUtil.child(container, "startupProbe");
+        if (!startupProbe.containsKey("httpGet") && !startupProbe.containsKey("tcpSocket")
+                && !startupProbe.containsKey("exec") && !startupProbe.containsKey("grpc")) {
+            Map<String, Object> httpGet = ManifestUtil.child(startupProbe, "httpGet");
+            httpGet.put("path", LIVENESS_PATH);
+            httpGet.put("port", probePort(container));
+        }
+        startupProbe.remove("initialDelaySeconds");
+        startupProbe.put("periodSeconds", mode.getStartupProbePeriodSeconds());
+        startupProbe.put("failureThreshold", startupFailureThreshold());
+
+        for (String probe : List.of("readinessProbe", "livenessProbe")) {
+            Map<String, Object> settings = ManifestUtil.map(container.get(probe));
+            if (settings != null) {
+                settings.remove("initialDelaySeconds");
+            }
+        }
+    }
+
+    private int startupFailureThreshold() {
+        Integer expected = deploymentConfig.getExpectedStartupSeconds();
+        if (expected == null || expected <= 0) {
+            return mode.getStartupProbeFailureThreshold();
+        }
+        // twice the measured time leaves room for slower nodes and contended starts
+        return Math.max(3, (int) Math.ceil(2.0 * expected / mode.getStartupProbePeriodSeconds()));
+    }
+
+    /**
+     * Reuses the port of the liveness or readiness probe, which may be a named port.
+     */
+    private Object probePort(Map<String, Object> container) {
+        for (String probe : List.of("livenessProbe", "readinessProbe")) {
+            Map<String, Object> settings = ManifestUtil.map(container.get(probe));
+            Map<String, Object> httpGet = settings == null ? null : ManifestUtil.map(settings.get("httpGet"));
+            if (httpGet != null && httpGet.get("port") != null) {
+                return httpGet.get("port");
+            }
+        }
+        return deploymentConfig.getPort() > 0 ? deploymentConfig.getPort() : 8080;
+    }
+}
@@ -0,0 +1,126 @@
+package io.github.rkumar0206.k8gen.processor;
+
+import io.github.rkumar0206.k8gen.model.DeploymentConfig;
+import io.github.rkumar0206.k8gen.util.ManifestUtil;
+import io.github.rkumar0206.k8gen.util.WebServerTuning;
+import io.github.rkumar0206.k8gen.util.YamlDocument;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Applies the {@link WebServerTuning} to the generated manifests.
+ *
+ * <p>The settings are added to the application's ConfigMap, and replace variables of the same name set
+ * explicitly on the application container, which would take precedence. The application service of a
+ * docker-compose file gets them as environment. Every Ingress served by ingress-nginx, the default of the
+ * prompt, gets the matching proxy timeouts. Settings the {@code configd} of the configuration sets are left
+ * as they are.
+ */
+public class WebServerTuningProcessor extends YamlPatchProcessor {
+
+    private static final Logger LOGGER = Logging.getLogger(WebServerTuningProcessor.class);
+
+    private final DeploymentConfig deploymentConfig;
+    private final WebServerTuning tuning;
+    private final Map<String, String> environment;
+    private boolean configMapPatched;
+
+    /**
+     * Creates a new processor.
+     *
+     * @param deploymentConfig the deployment configuration
+     * @param tuning           the web server settings
+     */
+    public WebServerTuningProcessor(DeploymentConfig deploymentConfig, WebServerTuning tuning) {
+        this.deploymentConfig = deploymentConfig;
+        this.tuning = tuning;
+        this.environment = new LinkedHashMap<>(tuning.toEnvironment());
+        if (deploymentConfig.getConfigd() != null) {
+            environment.keySet().removeAll(deploymentConfig.getConfigd().keySet());
+        }
+        LOGGER.info(tuning.summary());
+        tuning.getWarnings().forEach(LOGGER::warn);
+    }
+
+    @Override
+    protected boolean patch(String fileName, List<YamlDocument> documents) {
+        if (ManifestUtil.isComposeFile(fileName)) {
+            return documents.stream().anyMatch(document -> document.asMap() != null && patchCompose(document.asMap()));
+        }
+        boolean changed = false;
+        for (YamlDocument document : documents) {
+            String kind = document.getKind();
+            if ("ConfigMap".equals(kind)) {
+                changed |= patchConfigMap(document.asMap());
+            } else if ("Ingress".equals(kind)) {
+                changed |= patchIngress(document.asMap());
+            } else if ("Deployment".equals(kind) || "StatefulSet".equals(kind)) {
+                changed |= patchWorkload(document);
+            }
+        }
+        return changed;
+    }
+
+    @Override
+    public void finish(BiConsumer<String, String> next) {
+        if (!configMapPatched) {
+            LOGGER.warn("No ConfigMap of the application found, the web server settings were not set");
+        }
+    }
+
+    private boolean patchConfigMap(Map<String, Object> configMap) {
+        Map<String, Object> metadata = ManifestUtil.map(configMap.get("metadata"));
+        String name = metadata == null ? "" : String.valueOf(metadata.get("name"));
+        if (configMapPatched || name.contains("postgres") || name.contains("pgbouncer")) {
+            return false;
+        }
+        ManifestUtil.child(configMap, "data").putAll(environment);
+        configMapPatched = true;
+        return true;
+    }
+
+    private boolean patchWorkload(YamlDocument document) {
+        Map<String, Object> podSpec = ManifestUtil.podSpec(document);
+        Map<String, Object> container = podSpec == null ? null
+                : ManifestUtil.findAppContainer(podSpec, deploymentConfig.getApplicationName());
+        if (container == null) {
+            return false;
+        }
+        boolean changed = false;
+        for (Map<String, Object> variable : ManifestUtil.maps(container.get("env"))) {
+            Object name = variable.get("name");
+            if (environment.containsKey(name) && variable.get("valueFrom") == null) {
+                variable.put("value", environment.get(name));
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    private boolean patchIngress(Map<String, Object> ingress) {
+        Map<String, Object> spec = ManifestUtil.map(ingress.get("spec"));
+        Object ingressClassName = spec == null ? null : spec.get("ingressClassName");
+        if (ingressClassName != null && !ingressClassName.toString().contains("nginx")) {
+            LOGGER.info("Ingress class {} is not ingress-nginx, set its timeouts to {}s", ingressClassName,
+                    tuning.getRequestTimeoutSeconds());
+            return false;
+        }
+        Map<String, Object> annotations = ManifestUtil.child(ManifestUtil.child(ingress, "metadata"), "annotations");
+        annotations.putAll(tuning.toIngressAnnotations());
+        return true;
+    }
+
+    private boolean patchCompose(Map<String, Object> compose) {
+        Map<String, Object> service = ManifestUtil.findAppService(compose, deploymentConfig.getApplicationName());
+        if (service == null) {
+            return false;
+        }
+        environment.forEach((name, value) -> ManifestUtil.setComposeEnv(service, name, value));
+        return true;
+    }
+}
@@ -0,0 +1,17 @@
+package io.github.rkumar0206.k8gen.processor;
+
+import io.github.rkumar0206.k8gen.util.YamlNormalizer;
+
+import java.util.function.BiConsumer;
+
+/**
+ * Re-emits every YAML file in the canonical form of {@link YamlNormalizer}, so that regenerating
+ * semantically identical manifests yields byte-identical files. Should be the last processor.
+ */
+public class YamlNormalizationProcessor implements ManifestProcessor {
+
+    @Override
+    public void process(String fileName, String content, BiConsumer<String, String> next) {
+        next.accept(fileName, YamlNormalizer.normalize(fileName, content));
+    }
+}
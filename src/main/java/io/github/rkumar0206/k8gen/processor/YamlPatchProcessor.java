@@ -0,0 +1,42 @@
+package io.github.rkumar0206.k8gen.processor;
+
+import io.github.rkumar0206.k8gen.util.YamlDocument;
+import io.github.rkumar0206.k8gen.util.YamlNormalizer;
+
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * Base class of processors that modify parsed YAML documents in place.
+ *
+ * <p>Non-YAML files and files that cannot be parsed are passed on unchanged. A file is only
+ * re-rendered if {@link #patch(String, List)} reports a change, so untouched files keep the
+ * model's formatting when normalization is disabled. A file whose documents were all removed is dropped.
+ */
+public abstract class YamlPatchProcessor implements ManifestProcessor {
+
+    @Override
+    public void process(String fileName, String content, BiConsumer<String, String> next) {
+        if (!YamlNormalizer.isYamlFile(fileName)) {
+            next.accept(fileName, content);
+            return;
+        }
+        List<YamlDocument> documents = YamlNormalizer.parse(content);
+        if (documents == null || !patch(fileName, documents)) {
+            next.accept(fileName, content);
+            return;
+        }
+        if (!documents.isEmpty()) {
+            next.accept(fileName, YamlNormalizer.render(documents));
+        }
+    }
+
+    /**
+     * Modifies the documents of a YAML file.
+     *
+     * @param fileName  the file path relative to the output directory
+     * @param documents the parsed documents, modifiable
+     * @return {@code true} if any document was changed
+     */
+    protected abstract boolean patch(String fileName, List<YamlDocument> documents);
+}
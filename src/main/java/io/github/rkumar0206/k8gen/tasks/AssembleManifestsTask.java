@@ -0,0 +1,44 @@
+package io.github.rkumar0206.k8gen.tasks;
+
+import io.github.rkumar0206.k8gen.util.ManifestBundle;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.tasks.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * A Gradle task that writes the Kubernetes objects of the generated manifests into one multi-document YAML file,
+ * in the order {@code kubectl apply -f} needs them. See {@link ManifestBundle}.
+ */
+@CacheableTask
+public abstract class AssembleManifestsTask extends DefaultTask {
+
+    /**
+     * The directory holding the generated manifests.
+     */
+    @InputDirectory
+    @PathSensitive(PathSensitivity.RELATIVE)
+    public abstract DirectoryProperty getManifestDir();
+
+    /**
+     * The all-in-one manifest file.
+     */
+    @OutputFile
+    public abstract RegularFileProperty getManifestFile();
+
+    @TaskAction
+    public void assemble() throws IOException {
+        String manifest = ManifestBundle.allInOne(ManifestBundle.readFiles(getManifestDir().get().getAsFile().toPath()));
+        if (manifest.isEmpty()) {
+            getLogger().warn("No Kubernetes objects found in {}", getManifestDir().get().getAsFile());
+        }
+        File manifestFile = getManifestFile().get().getAsFile();
+        Files.createDirectories(manifestFile.getParentFile().toPath());
+        Files.writeString(manifestFile.toPath(), manifest, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,249 @@
+package io.github.rkumar0206.k8gen.tasks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.rkumar0206.k8gen.model.DeploymentConfig;
+import io.github.rkumar0206.k8gen.model.StartupMode;
+import io.github.rkumar0206.k8gen.util.DockerfileGenerator;
+import io.github.rkumar0206.k8gen.util.JvmTuning;
+import io.github.rkumar0206.k8gen.util.ResourceQuantity;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.GradleException;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.ListProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * A Gradle task that measures the time-to-ready of the application for each {@link StartupMode}.
+ *
+ * <p>For every mode the Dockerfile of {@link DockerfileGenerator} is built from the project directory
+ * with the local Docker CLI. The image is then started several times with the configured memory and
+ * CPU limits, and the readiness endpoint is polled until it answers with HTTP 200. The time from
+ * {@code docker run} to the first successful answer is reported per mode (median, min and max), both
+ * in the build log and in a report file.
+ *
+ * <p>The application is expected to become ready without external dependencies, e.g. a sample app or
+ * a profile with embedded infrastructure.
+ */
+@UntrackedTask(because = "Measures wall-clock startup times of locally built images")
+public abstract class BenchmarkStartupTask extends DefaultTask {
+
+    private static final Duration POLL_INTERVAL = Duration.ofMillis(100);
+
+    /**
+     * The JSON file containing the deployment configuration.
+     */
+    @InputFile
+    @PathSensitive(PathSensitivity.NONE)
+    public abstract RegularFileProperty getConfigFile();
+
+    /**
+     * The Docker build context, the project directory by default.
+     */
+    @Internal
+    public abstract DirectoryProperty getProjectDirectory();
+
+    /**
+     * The Gradle version assumed when the deployment configuration does not name one.
+     */
+    @Input
+    public abstract Property<String> getGradleVersion();
+
+    /**
+     * The Java version assumed when the deployment configuration does not name one.
+     */
+    @Input
+    public abstract Property<String> getJavaVersion();
+
+    /**
+     * The Spring Boot version on the runtime class path. Absent if it is not known.
+     */
+    @Input
+    @Optional
+    public abstract Property<String> getSpringBootVersion();
+
+    /**
+     * The startup modes to benchmark.
+     */
+    @Input
+    public abstract ListProperty<String> getModes();
+
+    /**
+     * The number of starts measured per mode.
+     */
+    @Input
+    public abstract Property<Integer> getRuns();
+
+    /**
+     * The path polled until it answers with HTTP 200.
+     */
+    @Input
+    public abstract Property<String> getReadinessPath();
+
+    /**
+     * The time after which a start counts as failed.
+     */
+    @Input
+    public abstract Property<Integer> getTimeoutSeconds();
+
+    /**
+     * The directory holding the generated Dockerfiles.
+     */
+    @Internal
+    public abstract DirectoryProperty getWorkDir();
+
+    /**
+     * The report file.
+     */
+    @OutputFile
+    public abstract RegularFileProperty getReportFile();
+
+    @TaskAction
+    public void benchmark() throws IOException, InterruptedException {
+        DeploymentConfig deploymentConfig = readDeploymentConfig();
+        int port = deploymentConfig.getPort() > 0 ? deploymentConfig.getPort() : 8080;
+        File projectDir = getProjectDirectory().get().getAsFile();
+        File workDir = getWorkDir().get().getAsFile();
+        Files.createDirectories(workDir.toPath());
+
+        List<String> lines = new ArrayList<>();
+        lines.add(String.format(Locale.ROOT, "%-8s %8s %8s %8s  %s", "mode", "median", "min", "max", "runs"));
+
+        for (String value : getModes().get()) {
+            StartupMode mode = StartupMode.fromValue(value);
+            String tuningFlags = mode.isJvm() ? JvmTuning.forDeployment(deploymentConfig).toJavaToolOptions() : null;
+
+            File dockerfile = new File(workDir, "Dockerfile." + mode.getValue());
+            Files.writeString(dockerfile.toPath(), DockerfileGenerator.generate(deploymentConfig, mode, tuningFlags,
+                    getSpringBootVersion().getOrNull()));
+
+            String image = "k8gen-startup-benchmark:" + mode.getValue();
+            getLogger().lifecycle("Building {} image", mode.getValue());
+            docker(buildCommand(mode, dockerfile, image, projectDir));
+
+            List<Long> timings = new ArrayList<>();
+            for (int run = 0; run < getRuns().get(); run++) {
+                timings.add(measureStart(deploymentConfig, mode, image, port, tuningFlags));
+            }
+            Collections.sort(timings);
+            String line = String.format(Locale.ROOT, "%-8s %7dms %6dms %6dms  %s", mode.getValue(),
+                    timings.get(timings.size() / 2), timings.get(0), timings.get(timings.size() - 1), timings);
+            getLogger().lifecycle(line);
+            lines.add(line);
+        }
+
+        File report = getReportFile().get().getAsFile();
+        Files.createDirectories(report.getParentFile().toPath());
+        Files.write(report.toPath(), lines, StandardCharsets.UTF_8);
+        getLogger().lifecycle("Startup benchmark written to {}", report);
+    }
+
+    private List<String> buildCommand(StartupMode mode, File dockerfile, String image, File projectDir) {
+        List<String> command = new ArrayList<>(List.of("docker"));
+        if (mode == StartupMode.CRAC) {
+            // the checkpoint stage needs the privileges of RUN --security=insecure
+            command.addAll(List.of("buildx", "build", "--allow", "security.insecure", "--load"));
+        } else {
+            command.add("build");
+        }
+        command.addAll(List.of("-f", dockerfile.getAbsolutePath(), "-t", image, projectDir.getAbsolutePath()));
+        return command;
+    }
+
+    private long measureStart(DeploymentConfig deploymentConfig, StartupMode mode, String image, int port,
+                              String tuningFlags) throws IOException, InterruptedException {
+        int hostPort = freePort();
+        List<String> command = new ArrayList<>(List.of("docker", "run", "-d", "--rm", "-p", hostPort + ":" + port,
+                "--memory", ResourceQuantity.parseMemoryMiB(valueOrDefault(deploymentConfig.getMemoryLimit(),
+                        JvmTuning.DEFAULT_MEMORY_LIMIT)) + "m",
+                "--cpus", ResourceQuantity.formatComposeCpus(ResourceQuantity.parseCpuMillis(
+                        valueOrDefault(deploymentConfig.getCpuLimit(), JvmTuning.DEFAULT_CPU_LIMIT)))));
+        if (mode == StartupMode.CRAC) {
+            command.addAll(List.of("--cap-add", "CHECKPOINT_RESTORE", "--cap-add", "SYS_PTRACE"));
+        } else if (tuningFlags != null) {
+            command.addAll(List.of("-e", "JAVA_TOOL_OPTIONS=" + tuningFlags));
+        }
+        command.add(image);
+
+        long start = System.nanoTime();
+        String containerId = docker(command).trim();
+        try {
+            return waitUntilReady(hostPort, start);
+        } finally {
+            docker(List.of("docker", "rm", "-f", containerId));
+        }
+    }
+
+    private long waitUntilReady(int hostPort, long start) throws InterruptedException {
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + hostPort + getReadinessPath().get()))
+                .timeout(Duration.ofSeconds(2))
+                .GET()
+                .build();
+        long deadline = start + Duration.ofSeconds(getTimeoutSeconds().get()).toNanos();
+        while (System.nanoTime() < deadline) {
+            try {
+                if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return Duration.ofNanos(System.nanoTime() - start).toMillis();
+                }
+            } catch (IOException ignored) {
+                // not listening yet
+            }
+            Thread.sleep(POLL_INTERVAL.toMillis());
+        }
+        throw new GradleException("Application did not become ready within " + getTimeoutSeconds().get() + "s");
+    }
+
+    private String docker(List<String> command) throws IOException, InterruptedException {
+        Process process;
+        try {
+            process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        } catch (IOException e) {
+            throw new GradleException("The startup benchmark needs the docker CLI on the PATH", e);
+        }
+        String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        if (process.waitFor() != 0) {
+            throw new GradleException(String.join(" ", command) + " failed:\n" + output);
+        }
+        getLogger().debug(output);
+        return output.lines().reduce((first, second) -> second).orElse("");
+    }
+
+    private DeploymentConfig readDeploymentConfig() throws IOException {
+        DeploymentConfig deploymentConfig = new ObjectMapper()
+                .readValue(getConfigFile().get().getAsFile(), DeploymentConfig.class);
+        if (deploymentConfig.getGradleVersion() == null || deploymentConfig.getGradleVersion().isEmpty()) {
+            deploymentConfig.setGradleVersion(getGradleVersion().get());
+        }
+        if (deploymentConfig.getJavaVersion() == null || deploymentConfig.getJavaVersion().isEmpty()) {
+            deploymentConfig.setJavaVersion(getJavaVersion().get());
+        }
+        return deploymentConfig;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static String valueOrDefault(String value, String defaultValue) {
+        return value == null || value.isBlank() ? defaultValue : value;
+    }
+}
@@ -0,0 +1,57 @@
+package io.github.rkumar0206.k8gen.tasks;
+
+import io.github.rkumar0206.k8gen.util.BuildContextScanner;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.provider.Property;
+import org.gradle.api.provider.ValueSource;
+import org.gradle.api.provider.ValueSourceParameters;
+
+import java.util.List;
+
+/**
+ * The {@code .dockerignore} synthesized by {@link BuildContextScanner} for the project directory.
+ *
+ * <p>Used as an input of {@link GenerateK8DeploymentConfigTask}, so that a change of the project tree that changes
+ * the excluded paths makes the task out of date, while edits of the sources do not. As a value source it is
+ * obtained when the task's inputs are fingerprinted, not while the build is configured, and so does not make the
+ * project tree an input of the configuration cache. The task writes the value as is, so the tree is scanned once per
+ * build.
+ */
+public abstract class BuildContextValueSource implements ValueSource<String, BuildContextValueSource.Params> {
+
+    private static final Logger LOGGER = Logging.getLogger(BuildContextValueSource.class);
+
+    /**
+     * Parameters of the {@link BuildContextValueSource}.
+     */
+    public interface Params extends ValueSourceParameters {
+        /**
+         * Whether the build context is scanned at all; without it there is no value.
+         */
+        Property<Boolean> getEnabled();
+
+        /**
+         * The build context root.
+         */
+        DirectoryProperty getProjectDirectory();
+
+        /**
+         * The configured output directory, excluded from the build context.
+         */
+        Property<String> getOutputDir();
+    }
+
+    @Override
+    public String obtain() {
+        if (!getParameters().getEnabled().getOrElse(true)) {
+            return null;
+        }
+        BuildContextScanner.Scan scan = BuildContextScanner.scan(
+                getParameters().getProjectDirectory().get().getAsFile().toPath(),
+                List.of(GenerateK8DeploymentConfigTask.outputDirectory(getParameters().getOutputDir().get()).toPath()));
+        LOGGER.info(scan.toReport());
+        return scan.toDockerignore();
+    }
+}
@@ -0,0 +1,98 @@
+package io.github.rkumar0206.k8gen.tasks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.rkumar0206.k8gen.model.NodePool;
+import io.github.rkumar0206.k8gen.util.CapacityPlanner;
+import io.github.rkumar0206.k8gen.util.ManifestUtil;
+import io.github.rkumar0206.k8gen.util.YamlDocument;
+import io.github.rkumar0206.k8gen.util.YamlNormalizer;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.GradleException;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * A Gradle task that checks whether the generated workloads fit a node pool, at minimum and maximum scale.
+ *
+ * <p>The Deployments, StatefulSets, DaemonSets and HorizontalPodAutoscalers of the output directory are
+ * scheduled onto the node pool described in a local JSON file by {@link CapacityPlanner}; no cluster is
+ * contacted. The report lists the headroom, the utilization of each node and the pods that cannot be placed,
+ * both in the build log and in a report file.
+ */
+public abstract class CapacityPlanTask extends DefaultTask {
+
+    /**
+     * The directory holding the generated manifests.
+     */
+    @InputDirectory
+    @PathSensitive(PathSensitivity.RELATIVE)
+    public abstract DirectoryProperty getManifestDir();
+
+    /**
+     * The JSON file describing the node pool.
+     */
+    @InputFile
+    @PathSensitive(PathSensitivity.NONE)
+    public abstract RegularFileProperty getNodePoolFile();
+
+    /**
+     * Whether the task fails when a pod cannot be scheduled at maximum scale.
+     */
+    @Input
+    public abstract Property<Boolean> getFailOnUnschedulable();
+
+    /**
+     * The report file.
+     */
+    @OutputFile
+    public abstract RegularFileProperty getReportFile();
+
+    @TaskAction
+    public void plan() throws IOException {
+        NodePool nodePool = new ObjectMapper().readValue(getNodePoolFile().get().getAsFile(), NodePool.class);
+        List<CapacityPlanner.Workload> workloads = CapacityPlanner.workloads(readManifests(getManifestDir().get().getAsFile()));
+        if (workloads.isEmpty()) {
+            getLogger().warn("No Deployment, StatefulSet or DaemonSet found in {}", getManifestDir().get().getAsFile());
+        }
+
+        String report = CapacityPlanner.report(workloads, nodePool);
+        File reportFile = getReportFile().get().getAsFile();
+        Files.createDirectories(reportFile.getParentFile().toPath());
+        Files.writeString(reportFile.toPath(), report, StandardCharsets.UTF_8);
+        getLogger().lifecycle(report);
+
+        if (getFailOnUnschedulable().getOrElse(false)
+                && !CapacityPlanner.simulate(workloads, nodePool, true).unschedulable().isEmpty()) {
+            throw new GradleException("Some pods cannot be scheduled at maximum scale, see " + reportFile);
+        }
+    }
+
+    private List<YamlDocument> readManifests(File directory) throws IOException {
+        List<YamlDocument> documents = new ArrayList<>();
+        try (Stream<Path> paths = Files.walk(directory.toPath())) {
+            for (Path path : paths.filter(Files::isRegularFile).sorted().toList()) {
+                String fileName = path.getFileName().toString();
+                if (YamlNormalizer.isYamlFile(fileName) && !ManifestUtil.isComposeFile(fileName)) {
+                    List<YamlDocument> parsed = YamlNormalizer.parse(Files.readString(path, StandardCharsets.UTF_8));
+                    if (parsed == null) {
+                        getLogger().warn("Skipping {}, it is not valid YAML", path);
+                    } else {
+                        documents.addAll(parsed);
+                    }
+                }
+            }
+        }
+        return documents;
+    }
+}
@@ -2,23 +2,60 @@ package io.github.rkumar0206.k8gen.tasks;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.github.rkumar0206.k8gen.ai.agents.K8ConfigGeneratorAgent;
+import io.github.rkumar0206.k8gen.ai.gemini.GeminiContextCacheService;
+import io.github.rkumar0206.k8gen.ai.routing.ModelRouter;
+import io.github.rkumar0206.k8gen.ai.routing.ModelRoutingStats;
 import io.github.rkumar0206.k8gen.model.DeploymentConfig;
+import io.github.rkumar0206.k8gen.model.MigrationStrategy;
+import io.github.rkumar0206.k8gen.model.ResourceProfile;
+import io.github.rkumar0206.k8gen.model.StartupMode;
+import io.github.rkumar0206.k8gen.processor.AutoscalingProcessor;
+import io.github.rkumar0206.k8gen.processor.DatabaseConnectionProcessor;
+import io.github.rkumar0206.k8gen.processor.DockerignoreProcessor;
+import io.github.rkumar0206.k8gen.processor.ImageTuningProcessor;
+import io.github.rkumar0206.k8gen.processor.JvmTuningProcessor;
+import io.github.rkumar0206.k8gen.processor.KustomizeProcessor;
+import io.github.rkumar0206.k8gen.processor.ManifestPipeline;
+import io.github.rkumar0206.k8gen.processor.ManifestProcessor;
+import io.github.rkumar0206.k8gen.processor.MigrationJobProcessor;
+import io.github.rkumar0206.k8gen.processor.PostgresProcessor;
+import io.github.rkumar0206.k8gen.processor.ProfilingProcessor;
+import io.github.rkumar0206.k8gen.processor.RolloutProcessor;
+import io.github.rkumar0206.k8gen.processor.StartupModeProcessor;
+import io.github.rkumar0206.k8gen.processor.WebServerTuningProcessor;
+import io.github.rkumar0206.k8gen.processor.YamlNormalizationProcessor;
+import io.github.rkumar0206.k8gen.util.ConnectionBudget;
 import io.github.rkumar0206.k8gen.util.EnvVarExtractor;
 import io.github.rkumar0206.k8gen.util.FileExtractionUtil;
+import io.github.rkumar0206.k8gen.util.GenerationCache;
+import io.github.rkumar0206.k8gen.util.ImageTuningCatalogue;
+import io.github.rkumar0206.k8gen.util.JfrProfiling;
+import io.github.rkumar0206.k8gen.util.JvmTuning;
+import io.github.rkumar0206.k8gen.util.PromptPlaceholders;
 import io.github.rkumar0206.k8gen.util.VersionUtils;
+import io.github.rkumar0206.k8gen.util.WebServerTuning;
 import org.gradle.api.DefaultTask;
 import org.gradle.api.GradleException;
+import org.gradle.api.file.ConfigurableFileCollection;
 import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.MapProperty;
 import org.gradle.api.provider.Property;
+import org.gradle.api.provider.SetProperty;
 import org.gradle.api.tasks.*;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 /**
  * A Gradle task for generating Kubernetes deployment configurations using a language model.
@@ -49,6 +86,14 @@ public abstract class GenerateK8DeploymentConfigTask extends DefaultTask {
     @Input
     public abstract Property<@NotNull String> getConfigFilePath();
 
+    /**
+     * The configuration file and the application properties the configuration is completed from. Tracked by
+     * content, so an edit makes the task out of date while an unchanged configuration keeps it up to date.
+     */
+    @InputFiles
+    @PathSensitive(PathSensitivity.NAME_ONLY)
+    public abstract ConfigurableFileCollection getConfigFiles();
+
     /**
      * The name of the AI model to use for generating the configurations.
      * This is an optional {@link Input} property.
@@ -57,23 +102,168 @@ public abstract class GenerateK8DeploymentConfigTask extends DefaultTask {
     @Optional
     public abstract Property<String> getModel();
 
+    /**
+     * Whether the model is picked from {@link #getModelTiers()} by the complexity of the configuration.
+     */
+    @Input
+    @Optional
+    public abstract Property<Boolean> getModelRouting();
+
+    /**
+     * The highest complexity score each model of the routing handles.
+     */
+    @Input
+    @Optional
+    public abstract MapProperty<String, Integer> getModelTiers();
+
     @Input
     @Optional
     public abstract Property<String> getGeminiAPIKey();
 
+    /**
+     * The format in which the model returns the files: {@code markers} (default) or {@code json}.
+     */
+    @Input
+    @Optional
+    public abstract Property<String> getOutputFormat();
+
+    /**
+     * Whether generated YAML files are re-emitted in a canonical form.
+     */
+    @Input
+    @Optional
+    public abstract Property<Boolean> getNormalizeYaml();
+
+    /**
+     * Whether {@code JAVA_TOOL_OPTIONS} is replaced with flags computed from the resource limits.
+     */
+    @Input
+    @Optional
+    public abstract Property<Boolean> getJvmTuning();
+
+    /**
+     * The startup mode used when the configuration file does not set {@code startupMode}.
+     */
+    @Input
+    @Optional
+    public abstract Property<String> getStartupMode();
+
+    /**
+     * Whether the layered jar Dockerfile replaces the model's Dockerfile in the {@code jar} startup mode.
+     */
+    @Input
+    @Optional
+    public abstract Property<Boolean> getLayeredJar();
+
+    /**
+     * The ids of the build plugins a startup mode depends on that are applied to the project.
+     */
+    @Internal
+    public abstract SetProperty<String> getAppliedBuildPlugins();
+
+    /**
+     * The Spring Boot version on the runtime class path, which decides how the generated Dockerfile
+     * extracts the layers. Absent if it is not known.
+     */
+    @Input
+    @Optional
+    public abstract Property<String> getSpringBootVersion();
+
+    /**
+     * The Kubernetes version the manifests target, e.g. {@code 1.28}; fields that are not enabled by default in it
+     * are left out. The default value is {@code 1.26}.
+     */
+    @Input
+    @Optional
+    public abstract Property<String> getKubernetesVersion();
+
+    /**
+     * Whether {@code .dockerignore} is synthesized from a scan of the project directory.
+     */
+    @Input
+    @Optional
+    public abstract Property<Boolean> getScanBuildContext();
+
+    /**
+     * The synthesized {@code .dockerignore}, tracked so that the output follows the project tree; absent if the
+     * build context is not scanned. See {@link BuildContextValueSource}.
+     */
+    @Input
+    @Optional
+    public abstract Property<String> getBuildContextExclusions();
+
+    /**
+     * The resource profile written by {@code profileK8Resources}. The file may not exist.
+     */
+    @InputFiles
+    @PathSensitive(PathSensitivity.NONE)
+    public abstract ConfigurableFileCollection getResourceProfile();
+
+    /**
+     * The JSON file with user rules of the image tuning catalogue. The file may not exist.
+     */
+    @InputFiles
+    @PathSensitive(PathSensitivity.NONE)
+    public abstract ConfigurableFileCollection getImageTuningRules();
+
+    /**
+     * Whether the files of a generation are reused for an identical prompt.
+     */
+    @Internal
+    public abstract Property<Boolean> getGenerationCache();
+
+    /**
+     * The directory holding the cached generations.
+     */
+    @Internal
+    public abstract DirectoryProperty getGenerationCacheDir();
+
+    /**
+     * The JSON file recording the latency and outcome of the generations of each model.
+     */
+    @Internal
+    public abstract RegularFileProperty getModelRoutingStats();
+
+    /**
+     * The maximum number of continuation requests sent when the model's answer is truncated.
+     */
+    @Internal
+    public abstract Property<Integer> getMaxContinuations();
+
+    /**
+     * The base URL of the Gemini API. Not an input, the endpoint does not influence the result.
+     */
+    @Internal
+    public abstract Property<String> getGeminiBaseUrl();
+
+    /**
+     * Whether the static part of the prompt is served from a Gemini context cache.
+     */
+    @Internal
+    public abstract Property<Boolean> getContextCaching();
+
+    /**
+     * The build service holding the context caches shared by all projects of the build.
+     */
+    @Internal
+    public abstract Property<GeminiContextCacheService> getContextCache();
+
     public static final String GEMINI_API_KEY = "GEMINI_API_KEY";
     /**
      * The main action method for the task.
      *
      * <p>This method performs the following steps:
      * <ol>
-     * <li>Checks for the presence of the required `GEMINI_API_KEY` environment variable.</li>
      * <li>Prepares the output directory.</li>
      * <li>Reads and populates the `DeploymentConfig` object from the JSON file and project context.</li>
-     * <li>Initializes the `K8ConfigGeneratorAgent`.</li>
-     * <li>Generates the Kubernetes configurations using the agent.</li>
-     * <li>Parses the generated string to extract individual files.</li>
-     * <li>Writes the extracted files to the output directory.</li>
+     * <li>Replaces the volatile fields of the configuration with placeholders and looks up the
+     * generation cache; on a hit the cached files are used and the model is not called.</li>
+     * <li>Otherwise checks for the presence of the required `GEMINI_API_KEY` environment variable,
+     * initializes the `K8ConfigGeneratorAgent` with the configured model, or with model routing the model
+     * tier of the configuration's complexity, and generates the Kubernetes configurations using the agent.</li>
+     * <li>Extracts the individual files from the model's answer, either from the file markers or
+     * incrementally from the structured JSON output.</li>
+     * <li>Substitutes the real values and writes each extracted file to the output directory.</li>
      * </ol>
      *
      * @throws IOException If an I/O error occurs during file operations.
@@ -83,55 +273,259 @@ public abstract class GenerateK8DeploymentConfigTask extends DefaultTask {
     public void generate() throws IOException {
 
         try {
-            String apiKey = java.util.Optional.ofNullable(System.getenv(GEMINI_API_KEY))
-                    .filter(s -> !s.isBlank())
-                    .orElseGet(() -> {
-                        Object prop = getProject().findProperty(GEMINI_API_KEY);
-                        if (prop != null && !prop.toString().isBlank()) {
-                            return prop.toString();
-                        }
-                        if (getGeminiAPIKey().isPresent() && !getGeminiAPIKey().get().isBlank()) {
-                            return getGeminiAPIKey().get();
-                        }
-                        return null;
-                    });
-
-
-            if (apiKey == null || apiKey.isBlank()) {
-                throw new IllegalStateException("GEMINI_API_KEY must be set (env var or -P).");
+            generateOnce();
+        }  catch (Exception e) {
+            // Check if this was caused by an interrupt
+            if (e.getCause() instanceof InterruptedException || e instanceof InterruptedException) {
+                Thread.currentThread().interrupt(); // restore interrupt flag
+                throw new GradleException("Task was interrupted. Build cancelled.", e);
             }
+            // Any other exception handling
+            throw new GradleException("Error while generating K8s config", e);
+        }
+    }
+
+    /**
+     * What a single generation did.
+     *
+     * @param modelCalled  Whether the model was called, {@code false} for a generation cache hit.
+     * @param files        The number of files produced.
+     * @param changedFiles The number of files whose content changed on disk.
+     */
+    public record GenerationResult(boolean modelCalled, int files, int changedFiles) {
+    }
 
-            DirectoryProperty directoryProperty = getProject().getObjects().directoryProperty();
-            String outputDir = (getOutputDir().get().isEmpty() || getOutputDir().get().equals("/")) ? "/k8s" : getOutputDir().get();
-            directoryProperty.set(new File(outputDir));
+    /**
+     * Runs one generation into the output directory. Files whose content did not change are not rewritten.
+     *
+     * @return What the generation did.
+     * @throws IOException If an I/O error occurs during file operations or the model call fails.
+     * @throws InterruptedException If the thread is interrupted while waiting for the model.
+     * @throws IllegalStateException If the model has to be called and `GEMINI_API_KEY` is not set.
+     */
+    protected GenerationResult generateOnce() throws IOException, InterruptedException {
+        DirectoryProperty directoryProperty = getProject().getObjects().directoryProperty();
+        directoryProperty.set(outputDirectory(getOutputDir().get()));
 
-            File outputDirectory = directoryProperty.get().getAsFile();
-            boolean isOutputDirectoryCreated = outputDirectory.mkdirs();
+        File outputDirectory = directoryProperty.get().getAsFile();
+        boolean isOutputDirectoryCreated = outputDirectory.mkdirs();
 
-            if (Files.exists(outputDirectory.toPath()) || isOutputDirectoryCreated) {
-                DeploymentConfig deploymentConfig = getDeploymentConfig();
+        if (!Files.exists(outputDirectory.toPath()) && !isOutputDirectoryCreated) {
+            throw new IOException("Unable to create the output directory.");
+        }
+        DeploymentConfig deploymentConfig = getDeploymentConfig();
+
+        // every file is post-processed and written as soon as the agent hands it over
+        int[] written = new int[2];
+        ManifestPipeline pipeline = new ManifestPipeline(createProcessors(deploymentConfig), (fileName, content) -> {
+            try {
+                written[0]++;
+                if (FileExtractionUtil.writeFileIfChanged(fileName, content, outputDirectory)) {
+                    written[1]++;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
 
-                K8ConfigGeneratorAgent agent = new K8ConfigGeneratorAgent(apiKey, getModel().get());
-//                String prompt = agent.generatePrompt(deploymentConfig, 1);
-//                Files.writeString(new File(outputDirectory, "prompt.txt").toPath(), prompt);
+        // volatile values are substituted locally, so a release that only bumps them reuses the generation
+        PromptPlaceholders placeholders = PromptPlaceholders.of(deploymentConfig);
+        String outputFormat = getOutputFormat().getOrElse(K8ConfigGeneratorAgent.OUTPUT_FORMAT_MARKERS);
+        ModelRouter.Complexity complexity = ModelRouter.complexity(placeholders.getPromptConfig());
+        String modelName = modelName(complexity);
+        String key = K8ConfigGeneratorAgent.generationKey(placeholders.getPromptConfig(), modelName,
+                outputFormat, 1);
+        GenerationCache cache = getGenerationCache().getOrElse(true)
+                ? new GenerationCache(getGenerationCacheDir().get().getAsFile().toPath()) : null;
+        Map<String, String> cachedFiles = cache == null ? null : cache.load(key);
 
-                String generatedConfigs = agent.generateConfigs(deploymentConfig, 1);
-    //            Files.writeString(new File(outputDirectory, "generatedConfig.txt").toPath(), generatedConfigs);
+        if (cachedFiles != null) {
+            getLogger().lifecycle("Reusing the cached generation {} ({} files), the model is not called",
+                    key.substring(0, 12), cachedFiles.size());
+            cachedFiles.forEach((fileName, content) ->
+                    pipeline.input().accept(fileName, placeholders.substitute(content)));
+        } else {
+            K8ConfigGeneratorAgent agent = agent(outputFormat, modelName);
+//            String prompt = agent.generatePrompt(deploymentConfig, 1);
+//            Files.writeString(new File(outputDirectory, "prompt.txt").toPath(), prompt);
 
-                Map<String, String> filesAndThereContent = FileExtractionUtil.extractFiles(generatedConfigs);
-                FileExtractionUtil.writeFilesToDisk(filesAndThereContent, outputDirectory);
-            }else {
-                throw new IOException("Unable to create the output directory.");
+            Map<String, String> generatedFiles = new LinkedHashMap<>();
+            long start = System.nanoTime();
+            boolean complete = false;
+            try {
+                complete = agent.generateFiles(placeholders.getPromptConfig(), 1, (fileName, content) -> {
+                    generatedFiles.put(fileName, content);
+                    pipeline.input().accept(fileName, placeholders.substitute(content));
+                });
+            } finally {
+                recordGeneration(modelName, complexity, System.nanoTime() - start, complete && !generatedFiles.isEmpty());
             }
-        }  catch (Exception e) {
-            // Check if this was caused by an interrupt
-            if (e.getCause() instanceof InterruptedException || e instanceof InterruptedException) {
-                Thread.currentThread().interrupt(); // restore interrupt flag
-                throw new GradleException("Task was interrupted. Build cancelled.", e);
+            // a truncated answer is not worth keeping, the next run asks again
+            if (cache != null && complete && !generatedFiles.isEmpty()) {
+                cache.store(key, generatedFiles);
             }
-            // Any other exception handling
-            throw new GradleException("Error while generating K8s config", e);
         }
+        pipeline.finish();
+        return new GenerationResult(cachedFiles == null, written[0], written[1]);
+    }
+
+    /**
+     * Picks the model of a generation: the configured model, or with model routing the tier of the
+     * configuration's complexity.
+     *
+     * @param complexity The complexity of the configuration sent to the model.
+     * @return The model name.
+     */
+    private String modelName(ModelRouter.Complexity complexity) {
+        if (!getModelRouting().getOrElse(false)) {
+            return getModel().get();
+        }
+        String modelName = new ModelRouter(getModelTiers().getOrElse(ModelRouter.DEFAULT_TIERS)).modelFor(complexity.score());
+        getLogger().lifecycle("Routing the generation to {}, {}", modelName, complexity);
+        return modelName;
+    }
+
+    /**
+     * Records the latency and outcome of a model call in the routing statistics.
+     */
+    private void recordGeneration(String modelName, ModelRouter.Complexity complexity, long nanos, boolean success) {
+        if (!getModelRoutingStats().isPresent()) {
+            return;
+        }
+        ModelRoutingStats stats = new ModelRoutingStats(getModelRoutingStats().get().getAsFile().toPath());
+        getLogger().info(ModelRoutingStats.summary(modelName,
+                stats.record(modelName, complexity.score(), TimeUnit.NANOSECONDS.toMillis(nanos), success)));
+    }
+
+    /**
+     * Creates the agent for a generation that is not served from the cache.
+     *
+     * @param outputFormat The output format requested from the model.
+     * @param modelName    The model the generation is sent to.
+     * @return The agent.
+     * @throws IllegalStateException If `GEMINI_API_KEY` is not set.
+     */
+    protected K8ConfigGeneratorAgent agent(String outputFormat, String modelName) {
+        K8ConfigGeneratorAgent agent = new K8ConfigGeneratorAgent(resolveApiKey(), modelName,
+                getGeminiBaseUrl().getOrNull(),
+                getContextCaching().getOrElse(false) ? getContextCache().getOrNull() : null);
+        agent.setOutputFormat(outputFormat);
+        agent.setMaxContinuations(getMaxContinuations().getOrElse(2));
+        return agent;
+    }
+
+    /**
+     * Looks up the Gemini API key in the environment, the project properties and the extension, in that order.
+     *
+     * @return The API key.
+     * @throws IllegalStateException If no API key is set.
+     */
+    private String resolveApiKey() {
+        String apiKey = java.util.Optional.ofNullable(System.getenv(GEMINI_API_KEY))
+                .filter(s -> !s.isBlank())
+                .orElseGet(() -> {
+                    Object prop = getProject().findProperty(GEMINI_API_KEY);
+                    if (prop != null && !prop.toString().isBlank()) {
+                        return prop.toString();
+                    }
+                    if (getGeminiAPIKey().isPresent() && !getGeminiAPIKey().get().isBlank()) {
+                        return getGeminiAPIKey().get();
+                    }
+                    return null;
+                });
+
+        if (apiKey == null || apiKey.isBlank()) {
+            throw new IllegalStateException("GEMINI_API_KEY must be set (env var or -P).");
+        }
+        return apiKey;
+    }
+
+    /**
+     * Resolves the configured output directory; an empty value or {@code /} stands for {@code /k8s}.
+     *
+     * @param outputDir The configured output directory.
+     * @return The directory the generated files are written to.
+     */
+    public static File outputDirectory(String outputDir) {
+        return new File(outputDir.isEmpty() || outputDir.equals("/") ? "/k8s" : outputDir);
+    }
+
+    /**
+     * Creates the post-processing steps applied to the generated files, in order.
+     *
+     * @param deploymentConfig The configuration the deterministic parts of the output are derived from.
+     * @return The processors of the manifest pipeline.
+     */
+    private List<ManifestProcessor> createProcessors(DeploymentConfig deploymentConfig)
+            throws IOException {
+        StartupMode startupMode = StartupMode.fromValue(deploymentConfig.getStartupMode());
+        warnAboutMissingBuildPlugin(startupMode);
+        boolean jvmTuning = getJvmTuning().getOrElse(true) && startupMode.isJvm();
+        JvmTuning tuning = jvmTuning ? JvmTuning.forDeployment(deploymentConfig) : null;
+
+        List<ManifestProcessor> processors = new ArrayList<>();
+        if (jvmTuning) {
+            processors.add(new JvmTuningProcessor(deploymentConfig, tuning));
+        }
+        processors.add(new StartupModeProcessor(deploymentConfig, startupMode,
+                tuning == null ? null : tuning.toJavaToolOptions(), getLayeredJar().getOrElse(true),
+                getSpringBootVersion().getOrNull()));
+        // after the startup mode, the drain timings are derived from the final readiness probe
+        processors.add(new RolloutProcessor(deploymentConfig, getKubernetesVersion().getOrElse("1.26")));
+        processors.add(new WebServerTuningProcessor(deploymentConfig, WebServerTuning.forDeployment(deploymentConfig)));
+        if (deploymentConfig.getObservability() != null && deploymentConfig.getObservability().getProfiling() != null) {
+            // after the JVM flags, which it appends to
+            processors.add(new ProfilingProcessor(deploymentConfig, JfrProfiling.forDeployment(deploymentConfig)));
+        }
+        if (deploymentConfig.getMigrations() != null
+                && MigrationStrategy.fromValue(deploymentConfig.getMigrations().getStrategy()) == MigrationStrategy.JOB) {
+            processors.add(new MigrationJobProcessor(deploymentConfig));
+        }
+        if (deploymentConfig.isEnableHPA()) {
+            processors.add(new AutoscalingProcessor(deploymentConfig));
+        } else if (deploymentConfig.getAutoscaling() != null && deploymentConfig.getAutoscaling().getKafkaLag() != null) {
+            // the connection budget and the rollout are sized for hpaMaxReplicas only with enableHPA
+            getLogger().warn("autoscaling.kafkaLag is ignored without enableHPA, no ScaledObject is generated");
+        }
+        if (deploymentConfig.isIncludeDatabase()) {
+            ConnectionBudget budget = ConnectionBudget.plan(deploymentConfig);
+            processors.add(new DatabaseConnectionProcessor(deploymentConfig, budget));
+            if (deploymentConfig.getDatabase() != null) {
+                processors.add(new PostgresProcessor(deploymentConfig, budget.getMaxConnections()));
+            }
+        }
+        File userRules = getImageTuningRules().getFiles().stream().findFirst().orElse(null);
+        processors.add(new ImageTuningProcessor(deploymentConfig, ImageTuningCatalogue.load(userRules)));
+        if (deploymentConfig.getEnvironments() != null && !deploymentConfig.getEnvironments().isEmpty()) {
+            processors.add(new KustomizeProcessor(deploymentConfig, jvmTuning));
+        }
+        if (getBuildContextExclusions().isPresent()) {
+            processors.add(new DockerignoreProcessor(getBuildContextExclusions().get()));
+        }
+        if (getNormalizeYaml().getOrElse(true)) {
+            processors.add(new YamlNormalizationProcessor());
+        }
+        return processors;
+    }
+
+    private void warnAboutMissingBuildPlugin(StartupMode startupMode) {
+        String requiredPlugin = requiredBuildPlugin(startupMode);
+        if (requiredPlugin != null && !getAppliedBuildPlugins().getOrElse(Set.of()).contains(requiredPlugin)) {
+            getLogger().warn("startupMode '{}' needs the {} plugin, the generated Dockerfile will not build without it",
+                    startupMode.getValue(), requiredPlugin);
+        }
+    }
+
+    /**
+     * @param startupMode The startup mode.
+     * @return The id of the plugin the generated Dockerfile of the mode needs, or {@code null} if it needs none.
+     */
+    public static String requiredBuildPlugin(StartupMode startupMode) {
+        return switch (startupMode) {
+            case AOT -> "org.springframework.boot.aot";
+            case NATIVE -> "org.graalvm.buildtools.native";
+            default -> null;
+        };
     }
 
     /**
@@ -172,6 +566,12 @@ public abstract class GenerateK8DeploymentConfigTask extends DefaultTask {
             deploymentConfig.setJavaVersion(javaVersion);
         }
 
+        if (deploymentConfig.getStartupMode() == null || deploymentConfig.getStartupMode().isBlank()) {
+            deploymentConfig.setStartupMode(getStartupMode().getOrElse(StartupMode.JAR.getValue()));
+        }
+
+        applyResourceProfile(deploymentConfig, objectMapper);
+
         Set<String> envVariables = EnvVarExtractor.extractEnvVars(getProject());
 
         if (deploymentConfig.getConfigd() == null && !envVariables.isEmpty()) {
@@ -182,4 +582,27 @@ public abstract class GenerateK8DeploymentConfigTask extends DefaultTask {
 
         return deploymentConfig;
     }
+
+    /**
+     * Replaces the resources and the expected startup time with the suggestions of the resource profile,
+     * if one has been recorded.
+     */
+    private void applyResourceProfile(DeploymentConfig deploymentConfig, ObjectMapper objectMapper) throws IOException {
+        for (File file : getResourceProfile().getFiles()) {
+            if (!file.isFile()) {
+                continue;
+            }
+            ResourceProfile.Suggestions suggested = objectMapper.readValue(file, ResourceProfile.class).getSuggested();
+            deploymentConfig.setCpuRequest(suggested.getCpuRequest());
+            deploymentConfig.setCpuLimit(suggested.getCpuLimit());
+            deploymentConfig.setMemoryRequest(suggested.getMemoryRequest());
+            deploymentConfig.setMemoryLimit(suggested.getMemoryLimit());
+            if (suggested.getExpectedStartupSeconds() > 0) {
+                deploymentConfig.setExpectedStartupSeconds(suggested.getExpectedStartupSeconds());
+            }
+            getLogger().lifecycle("Applying resource profile {}: cpu {}/{}, memory {}/{}, expected startup {}s",
+                    file.getName(), suggested.getCpuRequest(), suggested.getCpuLimit(), suggested.getMemoryRequest(),
+                    suggested.getMemoryLimit(), suggested.getExpectedStartupSeconds());
+        }
+    }
 }
\ No newline at end of file
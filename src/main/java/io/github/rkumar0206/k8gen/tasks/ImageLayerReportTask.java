@@ -0,0 +1,146 @@
+package io.github.rkumar0206.k8gen.tasks;
+
+import io.github.rkumar0206.k8gen.util.DockerfileGenerator;
+import io.github.rkumar0206.k8gen.util.JarLayers;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.artifacts.component.ComponentIdentifier;
+import org.gradle.api.artifacts.component.ModuleComponentIdentifier;
+import org.gradle.api.artifacts.component.ProjectComponentIdentifier;
+import org.gradle.api.artifacts.result.ResolvedArtifactResult;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.MapProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * A Gradle task that reports the size of each layer of the application image, computed from the
+ * project's {@code runtimeClasspath} and main output with the rules of Spring Boot's layered jar.
+ *
+ * <p>The {@code spring-boot-loader} layer matches the extraction of the generated Dockerfile: it is empty from
+ * Spring Boot 3.3 on, which extracts with {@code jarmode=tools}, and sized from the loader matching the Spring Boot
+ * version before, or reported as unknown if the loader cannot be resolved. Both class paths are wired when the
+ * build is configured, so the task works with the configuration cache.
+ */
+public abstract class ImageLayerReportTask extends DefaultTask {
+
+    /**
+     * The runtime class path, declared so that Gradle builds project dependencies first.
+     */
+    @Classpath
+    public abstract ConfigurableFileCollection getRuntimeClasspath();
+
+    /**
+     * The layer of each file of {@link #getRuntimeClasspath()} by absolute path, see {@link #layers(Collection)}.
+     */
+    @Internal
+    public abstract MapProperty<String, String> getRuntimeLayers();
+
+    /**
+     * The directories holding the compiled classes and resources of the project itself.
+     */
+    @Classpath
+    public abstract ConfigurableFileCollection getMainOutput();
+
+    /**
+     * The {@code spring-boot-loader} jar, empty if there is no Spring Boot on the class path or it cannot be resolved.
+     */
+    @Classpath
+    public abstract ConfigurableFileCollection getLoaderClasspath();
+
+    /**
+     * The Spring Boot version on the runtime class path, absent if there is none.
+     */
+    @Input
+    @Optional
+    public abstract Property<String> getSpringBootVersion();
+
+    /**
+     * The report file.
+     */
+    @OutputFile
+    public abstract RegularFileProperty getReportFile();
+
+    @TaskAction
+    public void report() throws IOException {
+        Map<String, Long> sizes = new HashMap<>();
+        Map<String, String> layers = getRuntimeLayers().get();
+        for (File file : getRuntimeClasspath().getFiles()) {
+            String layer = layers.getOrDefault(file.getAbsolutePath(), JarLayers.layerOf(false, null));
+            sizes.merge(layer, sizeOf(file), Long::sum);
+        }
+        long applicationSize = getMainOutput().getFiles().stream().mapToLong(ImageLayerReportTask::sizeOf).sum();
+        sizes.merge(JarLayers.APPLICATION, applicationSize, Long::sum);
+
+        if (getSpringBootVersion().isPresent() && DockerfileGenerator.extractsWithJarTools(getSpringBootVersion().get())) {
+            sizes.put(JarLayers.SPRING_BOOT_LOADER, 0L);
+        } else if (!getLoaderClasspath().isEmpty()) {
+            sizes.put(JarLayers.SPRING_BOOT_LOADER,
+                    getLoaderClasspath().getFiles().stream().mapToLong(ImageLayerReportTask::sizeOf).sum());
+        }
+
+        String report = JarLayers.report(sizes);
+        File reportFile = getReportFile().get().getAsFile();
+        Files.createDirectories(reportFile.getParentFile().toPath());
+        Files.writeString(reportFile.toPath(), report, StandardCharsets.UTF_8);
+        getLogger().lifecycle(report);
+    }
+
+    /**
+     * Assigns the artifacts of a class path to the layers of the image: project dependencies and snapshots
+     * apart from the other dependencies.
+     *
+     * @param artifacts the artifacts of the class path
+     * @return the layer of each artifact by the absolute path of its file
+     */
+    public static Map<String, String> layers(Collection<ResolvedArtifactResult> artifacts) {
+        Map<String, String> layers = new HashMap<>();
+        for (ResolvedArtifactResult artifact : artifacts) {
+            ComponentIdentifier id = artifact.getId().getComponentIdentifier();
+            String version = id instanceof ModuleComponentIdentifier module ? module.getVersion() : null;
+            layers.put(artifact.getFile().getAbsolutePath(), JarLayers.layerOf(id instanceof ProjectComponentIdentifier, version));
+        }
+        return layers;
+    }
+
+    /**
+     * Finds the Spring Boot version of a class path.
+     *
+     * @param artifacts the artifacts of the class path
+     * @return the version of {@code org.springframework.boot:spring-boot}, or {@code null} if it is not on the class path
+     */
+    public static String springBootVersion(Collection<ResolvedArtifactResult> artifacts) {
+        for (ResolvedArtifactResult artifact : artifacts) {
+            if (artifact.getId().getComponentIdentifier() instanceof ModuleComponentIdentifier module
+                    && "org.springframework.boot".equals(module.getGroup()) && "spring-boot".equals(module.getModule())) {
+                return module.getVersion();
+            }
+        }
+        return null;
+    }
+
+    private static long sizeOf(File file) {
+        if (file.isFile()) {
+            return file.length();
+        }
+        if (!file.isDirectory()) {
+            return 0;
+        }
+        try (Stream<Path> paths = Files.walk(file.toPath())) {
+            return paths.filter(Files::isRegularFile).mapToLong(path -> path.toFile().length()).sum();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package io.github.rkumar0206.k8gen.tasks;
+
+import io.github.rkumar0206.k8gen.ai.agents.K8ConfigGeneratorAgent;
+import org.gradle.api.GradleException;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.TaskAction;
+import org.gradle.api.tasks.UntrackedTask;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A long-running variant of {@link GenerateK8DeploymentConfigTask} that regenerates whenever the configuration
+ * file or the Spring Boot configuration changes.
+ *
+ * <p>The parent directories of the watched files are observed with a {@link WatchService}. A burst of events is
+ * collected until no further event arrives for the debounce interval, then one generation runs. The agent is
+ * created once and reused by every cycle, a prompt that has been generated before is served from the generation
+ * cache, and only files whose content changed are rewritten. Each cycle reports its latency. A failing cycle, e.g.
+ * for a half-edited JSON file, is logged and the task keeps watching until the build is cancelled.
+ */
+@UntrackedTask(because = "Runs until the build is cancelled")
+public abstract class K8GenWatchTask extends GenerateK8DeploymentConfigTask {
+
+    private K8ConfigGeneratorAgent warmAgent;
+    private String warmAgentKey;
+
+    /**
+     * The files whose changes trigger a regeneration. They do not need to exist yet.
+     */
+    @Internal
+    public abstract ConfigurableFileCollection getWatchedFiles();
+
+    /**
+     * How long the watched files must stay unchanged before a regeneration starts.
+     */
+    @Internal
+    public abstract Property<Long> getDebounceMillis();
+
+    @Override
+    @TaskAction
+    public void generate() {
+        Set<Path> watchedFiles = new LinkedHashSet<>();
+        for (File file : getWatchedFiles().getFiles()) {
+            watchedFiles.add(file.toPath().toAbsolutePath().normalize());
+        }
+        runCycle("initial generation");
+
+        try (WatchService watchService = FileSystems.getDefault().newWatchService()) {
+            Set<Path> directories = new TreeSet<>();
+            for (Path file : watchedFiles) {
+                Path directory = file.getParent();
+                if (directory != null && directory.toFile().isDirectory() && directories.add(directory)) {
+                    directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                            StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+                }
+            }
+            getLogger().lifecycle("Watching {} for changes, cancel the build to stop", watchedFiles);
+
+            long debounceMillis = getDebounceMillis().getOrElse(300L);
+            while (!Thread.currentThread().isInterrupted()) {
+                Set<Path> changed = new TreeSet<>();
+                collect(watchService.take(), watchedFiles, changed);
+                WatchKey next;
+                while ((next = watchService.poll(debounceMillis, TimeUnit.MILLISECONDS)) != null) {
+                    collect(next, watchedFiles, changed);
+                }
+                if (!changed.isEmpty()) {
+                    runCycle(changed.stream().map(path -> path.getFileName().toString()).toList() + " changed");
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            Thread.currentThread().interrupt();
+            getLogger().lifecycle("Stopped watching");
+        } catch (IOException e) {
+            throw new GradleException("Unable to watch " + watchedFiles, e);
+        }
+    }
+
+    /**
+     * Keeps the agent of the first model call, so later cycles skip its construction. Another output format or
+     * routed model gets a new agent.
+     */
+    @Override
+    protected K8ConfigGeneratorAgent agent(String outputFormat, String modelName) {
+        String agentKey = outputFormat + "/" + modelName;
+        if (warmAgent == null || !agentKey.equals(warmAgentKey)) {
+            warmAgent = super.agent(outputFormat, modelName);
+            warmAgentKey = agentKey;
+        }
+        return warmAgent;
+    }
+
+    private void runCycle(String reason) {
+        long start = System.nanoTime();
+        try {
+            GenerationResult result = generateOnce();
+            getLogger().lifecycle("{}: regenerated in {} ms, {} of {} files changed, {}", reason,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), result.changedFiles(), result.files(),
+                    result.modelCalled() ? "model called" : "served from the generation cache");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            getLogger().error("{}: generation failed after {} ms: {}", reason,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), e.getMessage(), e);
+        }
+    }
+
+    private static void collect(WatchKey key, Set<Path> watchedFiles, Set<Path> changed) {
+        Path directory = (Path) key.watchable();
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                // events were lost, assume everything in the directory changed
+                watchedFiles.stream().filter(file -> directory.equals(file.getParent())).forEach(changed::add);
+            } else if (event.context() instanceof Path name) {
+                Path file = directory.resolve(name).toAbsolutePath().normalize();
+                if (watchedFiles.contains(file)) {
+                    changed.add(file);
+                }
+            }
+        }
+        key.reset();
+    }
+}
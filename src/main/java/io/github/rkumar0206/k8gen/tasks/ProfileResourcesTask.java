@@ -0,0 +1,296 @@
+package io.github.rkumar0206.k8gen.tasks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.github.rkumar0206.k8gen.model.DeploymentConfig;
+import io.github.rkumar0206.k8gen.model.ResourceProfile;
+import io.github.rkumar0206.k8gen.util.FlightRecordingSummary;
+import io.github.rkumar0206.k8gen.util.JfrProfiling;
+import io.github.rkumar0206.k8gen.util.JvmTuning;
+import io.github.rkumar0206.k8gen.util.ResourceSizing;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.GradleException;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.ListProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.*;
+import org.gradle.jvm.toolchain.JavaLauncher;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+/**
+ * A Gradle task that profiles a local run of the application to right-size its resources.
+ *
+ * <p>The boot jar is started with a JDK Flight Recorder recording and the processor count of the
+ * configured CPU limit. The task measures the time until the readiness endpoint answers with HTTP 200
+ * and the CPU time spent until then, sends a warm-up load to the configured paths and keeps the load
+ * up for a steady-state window. The CPU, heap and resident set size of that window are read from the
+ * recording once the application has shut down.
+ *
+ * <p>The measurements and the resources suggested from them by {@link ResourceSizing} are written to
+ * the resource profile, which {@code generateK8DeploymentConfig} applies to the deployment configuration.
+ * The application is expected to become ready without external dependencies, like for {@code benchmarkK8Startup}.
+ */
+@UntrackedTask(because = "Measures a local run of the application")
+public abstract class ProfileResourcesTask extends DefaultTask {
+
+    private static final Duration POLL_INTERVAL = Duration.ofMillis(100);
+
+    /**
+     * The boot jar of the application.
+     */
+    @InputFile
+    @PathSensitive(PathSensitivity.NONE)
+    public abstract RegularFileProperty getBootJar();
+
+    /**
+     * The Java launcher the application is started with.
+     */
+    @Nested
+    public abstract Property<JavaLauncher> getJavaLauncher();
+
+    /**
+     * The JSON file containing the deployment configuration.
+     */
+    @InputFile
+    @PathSensitive(PathSensitivity.NONE)
+    public abstract RegularFileProperty getConfigFile();
+
+    /**
+     * The Java version assumed when the deployment configuration does not name one, by default the version of
+     * the {@link #getJavaLauncher() launcher}.
+     */
+    @Input
+    public abstract Property<String> getJavaVersion();
+
+    /**
+     * The path polled until it answers with HTTP 200.
+     */
+    @Input
+    public abstract Property<String> getReadinessPath();
+
+    /**
+     * The paths requested round-robin by the warm-up and steady-state load.
+     */
+    @Input
+    public abstract ListProperty<String> getWarmupPaths();
+
+    /**
+     * The number of requests sent before the steady-state window starts.
+     */
+    @Input
+    public abstract Property<Integer> getWarmupRequests();
+
+    /**
+     * The number of concurrent clients of the load.
+     */
+    @Input
+    public abstract Property<Integer> getConcurrency();
+
+    /**
+     * The length of the steady-state window.
+     */
+    @Input
+    public abstract Property<Integer> getSteadyStateSeconds();
+
+    /**
+     * The time after which the start counts as failed.
+     */
+    @Input
+    public abstract Property<Integer> getTimeoutSeconds();
+
+    /**
+     * Additional JVM arguments of the application.
+     */
+    @Input
+    public abstract ListProperty<String> getJvmArgs();
+
+    /**
+     * Additional program arguments of the application, e.g. an active profile.
+     */
+    @Input
+    public abstract ListProperty<String> getApplicationArgs();
+
+    /**
+     * The directory holding the recording and the application log.
+     */
+    @Internal
+    public abstract DirectoryProperty getWorkDir();
+
+    /**
+     * The resource profile read by the generation step.
+     */
+    @OutputFile
+    public abstract RegularFileProperty getProfileFile();
+
+    @TaskAction
+    public void profile() throws IOException, InterruptedException {
+        DeploymentConfig deploymentConfig = readDeploymentConfig();
+        File workDir = getWorkDir().get().getAsFile();
+        Files.createDirectories(workDir.toPath());
+        Path recording = workDir.toPath().resolve("profile.jfr");
+        File log = new File(workDir, "application.log");
+        Files.deleteIfExists(recording);
+
+        int port = freePort();
+        JvmTuning tuning = JvmTuning.forDeployment(deploymentConfig);
+        List<String> command = new ArrayList<>();
+        command.add(getJavaLauncher().get().getExecutablePath().getAsFile().getAbsolutePath());
+        // size thread pools and pick the collector like in the container, but leave the heap unbounded
+        command.add("-XX:ActiveProcessorCount=" + tuning.getActiveProcessorCount());
+        command.add(tuning.getGarbageCollector());
+        command.add("-XX:StartFlightRecording=filename=" + recording + ",dumponexit=true,settings=default");
+        command.addAll(getJvmArgs().get());
+        command.addAll(List.of("-jar", getBootJar().get().getAsFile().getAbsolutePath(),
+                "--server.port=" + port, "--management.endpoint.health.probes.enabled=true"));
+        command.addAll(getApplicationArgs().get());
+
+        ResourceProfile profile = new ResourceProfile();
+        ResourceProfile.Measurements measured = profile.getMeasured();
+        getLogger().lifecycle("Starting {} on port {}", getBootJar().get().getAsFile().getName(), port);
+        Process process = new ProcessBuilder(command).redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.to(log)).start();
+        Instant steadyFrom;
+        try {
+            HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+            long start = System.nanoTime();
+            waitUntilReady(client, process, port, start, log);
+            measured.setStartupSeconds((System.nanoTime() - start) / 1e9);
+            measured.setStartupCpuSeconds(process.info().totalCpuDuration().map(Duration::toMillis).orElse(0L) / 1000.0);
+            getLogger().lifecycle(String.format(Locale.ROOT, "Ready after %.1fs (%.1fs CPU)",
+                    measured.getStartupSeconds(), measured.getStartupCpuSeconds()));
+
+            AtomicLong requests = new AtomicLong();
+            long warmupRequests = getWarmupRequests().get();
+            sendLoad(client, port, requests, () -> requests.get() < warmupRequests);
+            steadyFrom = Instant.now();
+            long deadline = System.nanoTime() + Duration.ofSeconds(getSteadyStateSeconds().get()).toNanos();
+            sendLoad(client, port, requests, () -> System.nanoTime() < deadline);
+            measured.setRequests(requests.get());
+        } finally {
+            // a graceful shutdown lets the JVM write the recording
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+
+        if (!Files.exists(recording)) {
+            throw new GradleException("No flight recording was written, see " + log);
+        }
+        FlightRecordingSummary.summarize(recording, steadyFrom, Runtime.getRuntime().availableProcessors(), measured);
+        profile.setSuggested(ResourceSizing.suggest(measured, deploymentConfig.getJavaVersion(),
+                JfrProfiling.forDeployment(deploymentConfig).getReservedMiB()));
+
+        File profileFile = getProfileFile().get().getAsFile();
+        if (profileFile.getParentFile() != null) {
+            Files.createDirectories(profileFile.getParentFile().toPath());
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(profileFile, profile);
+
+        ResourceProfile.Suggestions suggested = profile.getSuggested();
+        getLogger().lifecycle(String.format(Locale.ROOT,
+                "Steady state: %.2f cores (p95 %.2f), live heap %dMi, peak heap %dMi, RSS %dMi over %d requests",
+                measured.getSteadyCpuCores(), measured.getSteadyCpuCoresP95(), measured.getLiveHeapMiB(),
+                measured.getPeakHeapMiB(), measured.getPeakRssMiB(), measured.getRequests()));
+        getLogger().lifecycle("Suggested: cpu {}/{}, memory {}/{}, expected startup {}s, written to {}",
+                suggested.getCpuRequest(), suggested.getCpuLimit(), suggested.getMemoryRequest(),
+                suggested.getMemoryLimit(), suggested.getExpectedStartupSeconds(), profileFile);
+    }
+
+    private void waitUntilReady(HttpClient client, Process process, int port, long start, File log)
+            throws InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + getReadinessPath().get()))
+                .timeout(Duration.ofSeconds(2))
+                .GET()
+                .build();
+        long deadline = start + Duration.ofSeconds(getTimeoutSeconds().get()).toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new GradleException("The application exited with code " + process.exitValue() + ", see " + log);
+            }
+            try {
+                if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException ignored) {
+                // not listening yet
+            }
+            Thread.sleep(POLL_INTERVAL.toMillis());
+        }
+        throw new GradleException("Application did not become ready within " + getTimeoutSeconds().get() + "s, see " + log);
+    }
+
+    /**
+     * Sends requests to the warm-up paths from concurrent clients while the condition holds.
+     */
+    private void sendLoad(HttpClient client, int port, AtomicLong requests, BooleanSupplier condition)
+            throws InterruptedException {
+        List<String> paths = getWarmupPaths().get();
+        if (paths.isEmpty()) {
+            return;
+        }
+        AtomicLong failures = new AtomicLong();
+        int concurrency = Math.max(1, getConcurrency().get());
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        try {
+            for (int i = 0; i < concurrency; i++) {
+                executor.execute(() -> {
+                    while (condition.getAsBoolean() && !Thread.currentThread().isInterrupted()) {
+                        String path = paths.get((int) (requests.getAndIncrement() % paths.size()));
+                        try {
+                            client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                                    .timeout(Duration.ofSeconds(10)).GET().build(), HttpResponse.BodyHandlers.discarding());
+                        } catch (IOException e) {
+                            failures.incrementAndGet();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                });
+            }
+        } finally {
+            executor.shutdown();
+            if (!executor.awaitTermination(getSteadyStateSeconds().get() + getTimeoutSeconds().get(), TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        }
+        if (failures.get() > 0) {
+            getLogger().warn("{} of {} requests failed", failures.get(), requests.get());
+        }
+    }
+
+    private DeploymentConfig readDeploymentConfig() throws IOException {
+        DeploymentConfig deploymentConfig = new ObjectMapper()
+                .readValue(getConfigFile().get().getAsFile(), DeploymentConfig.class);
+        if (deploymentConfig.getJavaVersion() == null || deploymentConfig.getJavaVersion().isEmpty()) {
+            deploymentConfig.setJavaVersion(getJavaVersion().get());
+        }
+        return deploymentConfig;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package io.github.rkumar0206.k8gen.tasks;
+
+import io.github.rkumar0206.k8gen.util.KubernetesSchemas;
+import io.github.rkumar0206.k8gen.util.ManifestBundle;
+import io.github.rkumar0206.k8gen.util.ManifestValidator;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.GradleException;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * A Gradle task that validates the generated manifests against the Kubernetes schemas bundled with the plugin.
+ *
+ * <p>Every YAML file of the output directory is checked by {@link ManifestValidator}, offline and in parallel,
+ * so schema errors show up before {@code kubectl apply}. Each violation is reported with its file, kind, object
+ * name and JSON path, both in the build log and in a report file.
+ */
+public abstract class ValidateManifestsTask extends DefaultTask {
+
+    /**
+     * The directory holding the generated manifests.
+     */
+    @InputDirectory
+    @PathSensitive(PathSensitivity.RELATIVE)
+    public abstract DirectoryProperty getManifestDir();
+
+    /**
+     * The Kubernetes version the manifests are validated for, e.g. {@code 1.28}.
+     */
+    @Input
+    public abstract Property<String> getKubernetesVersion();
+
+    /**
+     * Whether the task fails when a manifest violates its schema.
+     */
+    @Input
+    public abstract Property<Boolean> getFailOnError();
+
+    /**
+     * The report file.
+     */
+    @OutputFile
+    public abstract RegularFileProperty getReportFile();
+
+    @TaskAction
+    public void validate() throws IOException {
+        String version = getKubernetesVersion().get();
+        ManifestValidator validator;
+        try {
+            validator = new ManifestValidator(version);
+        } catch (IllegalArgumentException e) {
+            throw new GradleException(e.getMessage(), e);
+        }
+        int latestMinor = KubernetesSchemas.bundled().getLatestMinor();
+        if (KubernetesSchemas.bundled().minorVersion(version) > latestMinor) {
+            getLogger().warn("Validating against the Kubernetes 1.{} schemas, the newest bundled ones", latestMinor);
+        }
+
+        long start = System.nanoTime();
+        ManifestValidator.Result result = validator.validate(ManifestBundle.readFiles(getManifestDir().get().getAsFile().toPath()));
+        long millis = (System.nanoTime() - start) / 1_000_000;
+
+        StringBuilder report = new StringBuilder();
+        report.append("Validated ").append(result.documents()).append(" objects in ").append(result.files())
+                .append(" files against Kubernetes ").append(version).append(" in ").append(millis).append(" ms\n");
+        for (String skipped : result.skipped()) {
+            report.append("skipped, no bundled schema: ").append(skipped).append('\n');
+        }
+        for (ManifestValidator.Violation violation : result.violations()) {
+            report.append(violation).append('\n');
+        }
+        report.append(result.violations().isEmpty() ? "No schema violations\n"
+                : result.violations().size() + " schema violations\n");
+
+        File reportFile = getReportFile().get().getAsFile();
+        Files.createDirectories(reportFile.getParentFile().toPath());
+        Files.writeString(reportFile.toPath(), report.toString(), StandardCharsets.UTF_8);
+        if (result.violations().isEmpty()) {
+            getLogger().lifecycle(report.toString());
+        } else {
+            getLogger().error(report.toString());
+            if (getFailOnError().getOrElse(true)) {
+                throw new GradleException(result.violations().size() + " schema violations in the generated manifests, see "
+                        + reportFile);
+            }
+        }
+    }
+}
@@ -0,0 +1,458 @@
+package io.github.rkumar0206.k8gen.util;
+
+import io.github.rkumar0206.k8gen.model.Autoscaling;
+import io.github.rkumar0206.k8gen.model.CustomMetric;
+import io.github.rkumar0206.k8gen.model.DeploymentConfig;
+import io.github.rkumar0206.k8gen.model.DockerImage;
+import io.github.rkumar0206.k8gen.model.KafkaLagScaling;
+import io.github.rkumar0206.k8gen.model.ScalingRules;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Builds the {@code autoscaling/v2} HorizontalPodAutoscaler of an {@link Autoscaling} configuration,
+ * together with the Prometheus objects its metrics depend on.
+ *
+ * <ul>
+ * <li>CPU utilization is a {@code Resource} metric,</li>
+ * <li>the request rate and the p95 latency are {@code Pods} metrics computed by the Prometheus adapter
+ * from Micrometer's {@code http_server_requests_seconds} series, actuator calls excluded,</li>
+ * <li>custom metrics are {@code Pods} metrics computed from the configured series.</li>
+ * </ul>
+ * A {@code PodMonitor} scrapes {@code /actuator/prometheus} of the application pods, and the adapter
+ * rules are written as values of the {@code prometheus-community/prometheus-adapter} chart.
+ * <p>A Kafka consumer scaling on its consumer-group lag gets a KEDA {@code ScaledObject} instead, which
+ * creates and feeds the HorizontalPodAutoscaler itself. Its replicas are capped at the partition count of
+ * the topic and it keeps the scaling rates of the autoscaler.
+ */
+public class AutoscalingGenerator {
+
+    /**
+     * The adapter metric holding the HTTP requests per second of a pod.
+     */
+    public static final String REQUESTS_PER_SECOND_METRIC = "http_server_requests_per_second";
+    /**
+     * The adapter metric holding the 95th percentile of the HTTP request latency of a pod, in seconds.
+     */
+    public static final String P95_LATENCY_METRIC = "http_server_requests_p95_seconds";
+    /**
+     * The path Micrometer's Prometheus registry is exposed on.
+     */
+    public static final String METRICS_PATH = "/actuator/prometheus";
+
+    private static final int DEFAULT_CPU_UTILIZATION = 70;
+    private static final String DEFAULT_CUSTOM_QUERY = "sum(rate(<<.Series>>{<<.LabelMatchers>>}[2m])) by (<<.GroupBy>>)";
+    private static final String HTTP_SELECTOR = "<<.LabelMatchers>>,uri!~\"/actuator.*\"";
+    private static final Set<String> SELECT_POLICIES = Set.of("Max", "Min", "Disabled");
+    private static final int DEFAULT_LAG_THRESHOLD = 100;
+    private static final int DEFAULT_POLLING_INTERVAL_SECONDS = 30;
+    private static final int DEFAULT_COOLDOWN_PERIOD_SECONDS = 300;
+    private static final int KAFKA_PORT = 9092;
+
+    /**
+     * Checks the autoscaling settings of a deployment configuration.
+     *
+     * @param deploymentConfig the deployment configuration
+     * @return the problems found, empty if the settings are valid
+     */
+    public static List<String> validate(DeploymentConfig deploymentConfig) {
+        List<String> problems = new ArrayList<>();
+        int minReplicas = minReplicas(deploymentConfig);
+        if (maxReplicas(deploymentConfig) < minReplicas) {
+            problems.add("hpaMaxReplicas must not be less than hpaMinReplicas (" + minReplicas + ")");
+        }
+        Autoscaling autoscaling = autoscaling(deploymentConfig);
+        if (autoscaling.getTargetCpuUtilization() != null && autoscaling.getTargetCpuUtilization() <= 0) {
+            problems.add("autoscaling.targetCpuUtilization must be positive");
+        }
+        checkQuantity(problems, "autoscaling.requestsPerSecond", autoscaling.getRequestsPerSecond());
+        if (autoscaling.getP95LatencyMillis() != null && autoscaling.getP95LatencyMillis() <= 0) {
+            problems.add("autoscaling.p95LatencyMillis must be positive");
+        }
+        if (autoscaling.getCustomMetrics() != null) {
+            for (CustomMetric metric : autoscaling.getCustomMetrics()) {
+                if (isBlank(metric.getName()) || isBlank(metric.getSeries())) {
+                    problems.add("autoscaling.customMetrics entries need a name and a series");
+                }
+                if (isBlank(metric.getTargetAverageValue())) {
+                    problems.add("autoscaling.customMetrics '" + metric.getName() + "' needs a targetAverageValue");
+                } else {
+                    checkQuantity(problems, "autoscaling.customMetrics '" + metric.getName() + "'", metric.getTargetAverageValue());
+                }
+            }
+        }
+        checkRules(problems, "autoscaling.scaleUp", autoscaling.getScaleUp());
+        checkRules(problems, "autoscaling.scaleDown", autoscaling.getScaleDown());
+        KafkaLagScaling kafkaLag = autoscaling.getKafkaLag();
+        if (kafkaLag != null) {
+            if (kafkaBootstrapServers(deploymentConfig) == null) {
+                problems.add("autoscaling.kafkaLag needs bootstrapServers, no Kafka found in configd or additionalDockerImages");
+            }
+            if (hasPodMetrics(autoscaling)) {
+                problems.add("autoscaling.kafkaLag cannot be combined with requestsPerSecond, p95LatencyMillis or customMetrics");
+            }
+            checkPositive(problems, "autoscaling.kafkaLag.partitions", kafkaLag.getPartitions());
+            checkPositive(problems, "autoscaling.kafkaLag.lagThreshold", kafkaLag.getLagThreshold());
+            checkPositive(problems, "autoscaling.kafkaLag.pollingIntervalSeconds", kafkaLag.getPollingIntervalSeconds());
+            checkPositive(problems, "autoscaling.kafkaLag.cooldownPeriodSeconds", kafkaLag.getCooldownPeriodSeconds());
+            if (kafkaLag.getActivationLagThreshold() != null && kafkaLag.getActivationLagThreshold() < 0) {
+                problems.add("autoscaling.kafkaLag.activationLagThreshold must not be negative");
+            }
+        }
+        return problems;
+    }
+
+    /**
+     * Builds the HorizontalPodAutoscaler.
+     *
+     * @param deploymentConfig the deployment configuration
+     * @param name             the name of the autoscaler
+     * @param targetName       the name of the scaled Deployment
+     * @return the manifest
+     */
+    public static Map<String, Object> horizontalPodAutoscaler(DeploymentConfig deploymentConfig, String name,
+                                                              String targetName) {
+        Autoscaling autoscaling = autoscaling(deploymentConfig);
+        Map<String, Object> hpa = object("autoscaling/v2", "HorizontalPodAutoscaler", name, deploymentConfig);
+        Map<String, Object> spec = ManifestUtil.child(hpa, "spec");
+        Map<String, Object> scaleTargetRef = ManifestUtil.child(spec, "scaleTargetRef");
+        scaleTargetRef.put("apiVersion", "apps/v1");
+        scaleTargetRef.put("kind", "Deployment");
+        scaleTargetRef.put("name", targetName);
+        spec.put("minReplicas", minReplicas(deploymentConfig));
+        spec.put("maxReplicas", maxReplicas(deploymentConfig));
+
+        List<Object> metrics = ManifestUtil.list(spec, "metrics");
+        Integer cpu = autoscaling.getTargetCpuUtilization();
+        if (cpu != null || !hasPodMetrics(autoscaling)) {
+            Map<String, Object> resource = new LinkedHashMap<>();
+            resource.put("name", "cpu");
+            resource.put("target", map("type", "Utilization",
+                    "averageUtilization", cpu == null ? DEFAULT_CPU_UTILIZATION : cpu));
+            metrics.add(metric("Resource", "resource", resource));
+        }
+        if (!isBlank(autoscaling.getRequestsPerSecond())) {
+            metrics.add(podsMetric(REQUESTS_PER_SECOND_METRIC, autoscaling.getRequestsPerSecond()));
+        }
+        if (autoscaling.getP95LatencyMillis() != null) {
+            metrics.add(podsMetric(P95_LATENCY_METRIC, autoscaling.getP95LatencyMillis() + "m"));
+        }
+        for (CustomMetric metric : customMetrics(autoscaling)) {
+            metrics.add(podsMetric(metric.getName(), metric.getTargetAverageValue()));
+        }
+
+        spec.put("behavior", behavior(autoscaling));
+        return hpa;
+    }
+
+    /**
+     * Builds the KEDA {@code ScaledObject} scaling a Kafka consumer on the lag of its consumer group, and on
+     * CPU utilization if a target is configured.
+     *
+     * @param deploymentConfig the deployment configuration, with {@code autoscaling.kafkaLag} set
+     * @param name             the name of the scaled object
+     * @param targetName       the name of the scaled Deployment
+     * @return the manifest
+     */
+    public static Map<String, Object> scaledObject(DeploymentConfig deploymentConfig, String name, String targetName) {
+        Autoscaling autoscaling = autoscaling(deploymentConfig);
+        KafkaLagScaling kafkaLag = autoscaling.getKafkaLag();
+        Map<String, Object> scaledObject = object("keda.sh/v1alpha1", "ScaledObject", name, deploymentConfig);
+        Map<String, Object> spec = ManifestUtil.child(scaledObject, "spec");
+        Map<String, Object> scaleTargetRef = ManifestUtil.child(spec, "scaleTargetRef");
+        scaleTargetRef.put("apiVersion", "apps/v1");
+        scaleTargetRef.put("kind", "Deployment");
+        scaleTargetRef.put("name", targetName);
+        spec.put("pollingInterval", valueOr(kafkaLag.getPollingIntervalSeconds(), DEFAULT_POLLING_INTERVAL_SECONDS));
+        spec.put("cooldownPeriod", valueOr(kafkaLag.getCooldownPeriodSeconds(), DEFAULT_COOLDOWN_PERIOD_SECONDS));
+        // a partition is consumed by one member of the group, further pods would stay idle
+        int partitions = kafkaLag.getPartitions() == null ? Integer.MAX_VALUE : kafkaLag.getPartitions();
+        int maxReplicas = Math.min(maxReplicas(deploymentConfig), partitions);
+        spec.put("minReplicaCount", Boolean.TRUE.equals(kafkaLag.getScaleToZero()) ? 0
+                : Math.min(minReplicas(deploymentConfig), maxReplicas));
+        spec.put("maxReplicaCount", maxReplicas);
+        ManifestUtil.child(ManifestUtil.child(spec, "advanced"), "horizontalPodAutoscalerConfig")
+                .put("behavior", behavior(autoscaling));
+
+        List<Object> triggers = ManifestUtil.list(spec, "triggers");
+        Map<String, Object> metadata = new LinkedHashMap<>();
+        metadata.put("bootstrapServers", kafkaBootstrapServers(deploymentConfig));
+        metadata.put("consumerGroup", kafkaConsumerGroup(deploymentConfig));
+        if (!isBlank(kafkaLag.getTopic())) {
+            metadata.put("topic", kafkaLag.getTopic());
+        }
+        metadata.put("lagThreshold", String.valueOf(valueOr(kafkaLag.getLagThreshold(), DEFAULT_LAG_THRESHOLD)));
+        metadata.put("activationLagThreshold", String.valueOf(valueOr(kafkaLag.getActivationLagThreshold(), 0)));
+        metadata.put("offsetResetPolicy", "latest");
+        metadata.put("allowIdleConsumers", "false");
+        Map<String, Object> trigger = map("type", "kafka", "metadata", metadata);
+        if (!isBlank(kafkaLag.getAuthenticationRef())) {
+            trigger.put("authenticationRef", map("name", kafkaLag.getAuthenticationRef()));
+        }
+        triggers.add(trigger);
+        if (autoscaling.getTargetCpuUtilization() != null) {
+            triggers.add(map("type", "cpu", "metricType", "Utilization",
+                    "metadata", map("value", String.valueOf(autoscaling.getTargetCpuUtilization()))));
+        }
+        return scaledObject;
+    }
+
+    /**
+     * Builds the {@code PodMonitor} scraping the application pods, labelled {@code app: <applicationName>}
+     * and exposing the metrics on the container port named {@code http}.
+     *
+     * @param deploymentConfig the deployment configuration
+     * @return the manifest
+     */
+    public static Map<String, Object> podMonitor(DeploymentConfig deploymentConfig) {
+        Map<String, Object> podMonitor = object("monitoring.coreos.com/v1", "PodMonitor",
+                deploymentConfig.getApplicationName(), deploymentConfig);
+        Map<String, Object> spec = ManifestUtil.child(podMonitor, "spec");
+        ManifestUtil.child(ManifestUtil.child(spec, "selector"), "matchLabels").put("app", deploymentConfig.getApplicationName());
+        Map<String, Object> endpoint = new LinkedHashMap<>();
+        endpoint.put("port", "http");
+        endpoint.put("path", METRICS_PATH);
+        endpoint.put("interval", "15s");
+        ManifestUtil.list(spec, "podMetricsEndpoints").add(endpoint);
+        return podMonitor;
+    }
+
+    /**
+     * Builds the values of the {@code prometheus-adapter} chart that serve the pod metrics of the autoscaler.
+     *
+     * @param deploymentConfig the deployment configuration
+     * @return the values, or {@code null} if the autoscaler only uses resource metrics
+     */
+    public static Map<String, Object> adapterValues(DeploymentConfig deploymentConfig) {
+        Autoscaling autoscaling = autoscaling(deploymentConfig);
+        if (!hasPodMetrics(autoscaling)) {
+            return null;
+        }
+        List<Object> rules = new ArrayList<>();
+        if (!isBlank(autoscaling.getRequestsPerSecond())) {
+            rules.add(rule("http_server_requests_seconds_count", REQUESTS_PER_SECOND_METRIC,
+                    "sum(rate(<<.Series>>{" + HTTP_SELECTOR + "}[2m])) by (<<.GroupBy>>)"));
+        }
+        if (autoscaling.getP95LatencyMillis() != null) {
+            // needs management.metrics.distribution.percentiles-histogram.http.server.requests=true
+            rules.add(rule("http_server_requests_seconds_bucket", P95_LATENCY_METRIC,
+                    "histogram_quantile(0.95, sum(rate(<<.Series>>{" + HTTP_SELECTOR + "}[2m])) by (le, <<.GroupBy>>))"));
+        }
+        for (CustomMetric metric : customMetrics(autoscaling)) {
+            rules.add(rule(metric.getSeries(), metric.getName(),
+                    isBlank(metric.getQuery()) ? DEFAULT_CUSTOM_QUERY : metric.getQuery()));
+        }
+        Map<String, Object> values = new LinkedHashMap<>();
+        Map<String, Object> rulesValue = ManifestUtil.child(values, "rules");
+        rulesValue.put("default", false);
+        rulesValue.put("custom", rules);
+        return values;
+    }
+
+    /**
+     * @param autoscaling the autoscaling settings
+     * @return {@code true} if any target needs the Prometheus adapter
+     */
+    public static boolean hasPodMetrics(Autoscaling autoscaling) {
+        return !isBlank(autoscaling.getRequestsPerSecond()) || autoscaling.getP95LatencyMillis() != null
+                || !customMetrics(autoscaling).isEmpty();
+    }
+
+    /**
+     * @param deploymentConfig the deployment configuration
+     * @return the autoscaling settings, empty ones if none are configured
+     */
+    public static Autoscaling autoscaling(DeploymentConfig deploymentConfig) {
+        return deploymentConfig.getAutoscaling() == null ? new Autoscaling() : deploymentConfig.getAutoscaling();
+    }
+
+    private static Map<String, Object> behavior(Autoscaling autoscaling) {
+        Map<String, Object> behavior = new LinkedHashMap<>();
+        behavior.put("scaleUp", behavior(autoscaling.getScaleUp(), 0, 100, 4, 15));
+        behavior.put("scaleDown", behavior(autoscaling.getScaleDown(), 300, 10, null, 60));
+        return behavior;
+    }
+
+    private static Map<String, Object> behavior(ScalingRules rules, int defaultWindow, Integer defaultPercent,
+                                                Integer defaultPods, int defaultPeriod) {
+        ScalingRules configured = rules == null ? new ScalingRules() : rules;
+        boolean customPolicies = configured.getPercent() != null || configured.getPods() != null;
+        Integer percent = customPolicies ? configured.getPercent() : defaultPercent;
+        Integer pods = customPolicies ? configured.getPods() : defaultPods;
+        int period = configured.getPeriodSeconds() == null ? defaultPeriod : configured.getPeriodSeconds();
+
+        Map<String, Object> behavior = new LinkedHashMap<>();
+        behavior.put("stabilizationWindowSeconds", configured.getStabilizationWindowSeconds() == null
+                ? defaultWindow : configured.getStabilizationWindowSeconds());
+        behavior.put("selectPolicy", isBlank(configured.getSelectPolicy()) ? "Max" : configured.getSelectPolicy());
+        List<Object> policies = ManifestUtil.list(behavior, "policies");
+        if (percent != null) {
+            policies.add(policy("Percent", percent, period));
+        }
+        if (pods != null) {
+            policies.add(policy("Pods", pods, period));
+        }
+        return behavior;
+    }
+
+    private static Map<String, Object> policy(String type, int value, int periodSeconds) {
+        Map<String, Object> policy = new LinkedHashMap<>();
+        policy.put("type", type);
+        policy.put("value", value);
+        policy.put("periodSeconds", periodSeconds);
+        return policy;
+    }
+
+    private static Map<String, Object> podsMetric(String name, String averageValue) {
+        Map<String, Object> pods = new LinkedHashMap<>();
+        pods.put("metric", map("name", name));
+        pods.put("target", map("type", "AverageValue", "averageValue", averageValue));
+        return metric("Pods", "pods", pods);
+    }
+
+    private static Map<String, Object> metric(String type, String key, Map<String, Object> source) {
+        Map<String, Object> metric = new LinkedHashMap<>();
+        metric.put("type", type);
+        metric.put(key, source);
+        return metric;
+    }
+
+    private static Map<String, Object> rule(String series, String name, String metricsQuery) {
+        Map<String, Object> rule = new LinkedHashMap<>();
+        rule.put("seriesQuery", series + "{namespace!=\"\",pod!=\"\"}");
+        Map<String, Object> overrides = ManifestUtil.child(ManifestUtil.child(rule, "resources"), "overrides");
+        overrides.put("namespace", map("resource", "namespace"));
+        overrides.put("pod", map("resource", "pod"));
+        Map<String, Object> ruleName = ManifestUtil.child(rule, "name");
+        ruleName.put("matches", "^" + series + "$");
+        ruleName.put("as", name);
+        rule.put("metricsQuery", metricsQuery);
+        return rule;
+    }
+
+    private static Map<String, Object> object(String apiVersion, String kind, String name,
+                                              DeploymentConfig deploymentConfig) {
+        Map<String, Object> object = new LinkedHashMap<>();
+        object.put("apiVersion", apiVersion);
+        object.put("kind", kind);
+        Map<String, Object> metadata = ManifestUtil.child(object, "metadata");
+        metadata.put("name", name);
+        if (!isBlank(deploymentConfig.getNamespace())) {
+            metadata.put("namespace", deploymentConfig.getNamespace());
+        }
+        ManifestUtil.child(metadata, "labels").put("app", deploymentConfig.getApplicationName());
+        return object;
+    }
+
+    private static Map<String, Object> map(Object... keysAndValues) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+            map.put((String) keysAndValues[i], keysAndValues[i + 1]);
+        }
+        return map;
+    }
+
+    private static void checkRules(List<String> problems, String path, ScalingRules rules) {
+        if (rules == null) {
+            return;
+        }
+        Integer window = rules.getStabilizationWindowSeconds();
+        if (window != null && (window < 0 || window > 3600)) {
+            problems.add(path + ".stabilizationWindowSeconds must be between 0 and 3600");
+        }
+        Integer period = rules.getPeriodSeconds();
+        if (period != null && (period <= 0 || period > 1800)) {
+            problems.add(path + ".periodSeconds must be between 1 and 1800");
+        }
+        if ((rules.getPercent() != null && rules.getPercent() <= 0) || (rules.getPods() != null && rules.getPods() <= 0)) {
+            problems.add(path + " policies must allow a positive change");
+        }
+        if (!isBlank(rules.getSelectPolicy()) && !SELECT_POLICIES.contains(rules.getSelectPolicy())) {
+            problems.add(path + ".selectPolicy must be one of Max, Min or Disabled");
+        }
+    }
+
+    private static void checkQuantity(List<String> problems, String path, String quantity) {
+        if (isBlank(quantity)) {
+            return;
+        }
+        try {
+            if (ResourceQuantity.parseCpuMillis(quantity) <= 0) {
+                problems.add(path + " must be positive");
+            }
+        } catch (IllegalArgumentException e) {
+            problems.add(path + " is not a valid quantity: " + quantity);
+        }
+    }
+
+    private static void checkPositive(List<String> problems, String path, Integer value) {
+        if (value != null && value <= 0) {
+            problems.add(path + " must be positive");
+        }
+    }
+
+    /**
+     * The configured bootstrap servers, the ones of the application's Spring configuration, or the Kafka
+     * container of the additional images.
+     */
+    private static String kafkaBootstrapServers(DeploymentConfig deploymentConfig) {
+        KafkaLagScaling kafkaLag = autoscaling(deploymentConfig).getKafkaLag();
+        if (kafkaLag != null && !isBlank(kafkaLag.getBootstrapServers())) {
+            return kafkaLag.getBootstrapServers();
+        }
+        Map<String, String> configd = deploymentConfig.getConfigd();
+        if (configd != null && !isBlank(configd.get("SPRING_KAFKA_BOOTSTRAP_SERVERS"))) {
+            return configd.get("SPRING_KAFKA_BOOTSTRAP_SERVERS");
+        }
+        List<DockerImage> images = deploymentConfig.getAdditionalDockerImages();
+        for (DockerImage image : images == null ? List.<DockerImage>of() : images) {
+            if (!isBlank(image.getImage()) && !isBlank(image.getName())
+                    && ImageTuningCatalogue.repository(image.getImage()).contains("kafka")) {
+                String port = image.getPorts() == null || image.getPorts().isEmpty() ? String.valueOf(KAFKA_PORT)
+                        : image.getPorts().get(0);
+                // a published port, e.g. 29092:9092, is reached on the container port inside the cluster
+                return image.getName() + ":" + port.substring(port.lastIndexOf(':') + 1).trim();
+            }
+        }
+        return null;
+    }
+
+    private static String kafkaConsumerGroup(DeploymentConfig deploymentConfig) {
+        KafkaLagScaling kafkaLag = autoscaling(deploymentConfig).getKafkaLag();
+        Map<String, String> configd = deploymentConfig.getConfigd();
+        if (!isBlank(kafkaLag.getConsumerGroup())) {
+            return kafkaLag.getConsumerGroup();
+        }
+        return configd != null && !isBlank(configd.get("SPRING_KAFKA_CONSUMER_GROUP_ID"))
+                ? configd.get("SPRING_KAFKA_CONSUMER_GROUP_ID") : deploymentConfig.getApplicationName();
+    }
+
+    private static int valueOr(Integer value, int defaultValue) {
+        return value == null ? defaultValue : value;
+    }
+
+    private static int minReplicas(DeploymentConfig deploymentConfig) {
+        return Math.max(1, deploymentConfig.getHpaMinReplicas());
+    }
+
+    private static int maxReplicas(DeploymentConfig deploymentConfig) {
+        return deploymentConfig.getHpaMaxReplicas() > 0 ? deploymentConfig.getHpaMaxReplicas()
+                : Math.max(minReplicas(deploymentConfig), deploymentConfig.getReplicas()) * 3;
+    }
+
+    private static List<CustomMetric> customMetrics(Autoscaling autoscaling) {
+        return autoscaling.getCustomMetrics() == null ? List.of() : autoscaling.getCustomMetrics();
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private AutoscalingGenerator() {
+        // utility class
+    }
+}
@@ -0,0 +1,309 @@
+package io.github.rkumar0206.k8gen.util;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Scans a project directory for paths that the Docker build context does not need and synthesizes a
+ * {@code .dockerignore} excluding them.
+ *
+ * <p>The generated Dockerfiles copy the project and run a Gradle build that skips the tests, so they
+ * need the build scripts, the Gradle wrapper and the main sources of each project. The scan walks the
+ * tree in parallel on the common fork-join pool, one task per directory, and excludes:
+ * <ul>
+ * <li>tooling and local files anywhere in the tree ({@code .git}, {@code .gradle}, IDE folders,
+ * {@code node_modules}, logs, {@code .env} files),</li>
+ * <li>build outputs ({@code build}, {@code out}, {@code target}, {@code bin}) next to a build script,</li>
+ * <li>test sources ({@code src/test}) of every project,</li>
+ * <li>top-level directories of at least {@link #UNUSED_DIRECTORY_BYTES} that hold neither a build script,
+ * sources nor jars, e.g. local datasets or documentation,</li>
+ * <li>additional paths such as the plugin's own output directory.</li>
+ * </ul>
+ * Symbolic links are not followed.
+ */
+public class BuildContextScanner {
+
+    public static final long UNUSED_DIRECTORY_BYTES = 1024L * 1024;
+
+    private static final List<String> IGNORED_DIRECTORIES = List.of(
+            ".git", ".gradle", ".idea", ".vscode", ".settings", ".kotlin", "node_modules");
+    private static final List<String> IGNORED_FILE_PATTERNS = List.of(
+            "*.iml", "*.log", ".DS_Store", ".env", ".env.*");
+    private static final Set<String> BUILD_OUTPUT_DIRECTORIES = Set.of("build", "out", "target", "bin");
+    private static final List<String> BUILD_FILES = List.of(
+            "build.gradle", "build.gradle.kts", "settings.gradle", "settings.gradle.kts", "pom.xml");
+    private static final Set<String> BUILD_DIRECTORIES = Set.of("src", "gradle", "buildSrc");
+
+    /**
+     * Why a path is excluded from the build context.
+     */
+    public enum Reason {
+        TOOLING, BUILD_OUTPUT, TEST_SOURCES, UNUSED_DIRECTORY, EXCLUDED
+    }
+
+    /**
+     * A path or pattern excluded from the build context, with the size it accounts for.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class Exclusion {
+        private final String pattern;
+        private final Reason reason;
+        private final long bytes;
+        private final long files;
+    }
+
+    /**
+     * The result of a scan.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class Scan {
+        private final long totalBytes;
+        private final long totalFiles;
+        private final long keptBytes;
+        private final long keptFiles;
+        private final List<Exclusion> exclusions;
+
+        /**
+         * @return the content of a {@code .dockerignore} file excluding every found path. It holds no sizes, so it
+         * only changes when the excluded paths do; see {@link #toReport()} for those
+         */
+        public String toDockerignore() {
+            StringBuilder out = new StringBuilder();
+            out.append("# Synthesized from a scan of the project tree: paths the Gradle build in the Dockerfile does not need.\n\n");
+
+            out.append("# tooling and local files\n");
+            IGNORED_DIRECTORIES.forEach(name -> out.append("**/").append(name).append('\n'));
+            IGNORED_FILE_PATTERNS.forEach(pattern -> out.append("**/").append(pattern).append('\n'));
+
+            appendSection(out, Reason.BUILD_OUTPUT, "build outputs");
+            appendSection(out, Reason.TEST_SOURCES, "test sources, the image build skips the tests");
+            appendSection(out, Reason.UNUSED_DIRECTORY, "directories without build scripts or sources");
+            appendSection(out, Reason.EXCLUDED, "generated deployment files");
+            return out.toString();
+        }
+
+        /**
+         * @return a before/after size report listing the largest exclusions
+         */
+        public String toReport() {
+            StringBuilder report = new StringBuilder();
+            report.append(String.format(Locale.ROOT, "Docker build context: %s in %d files -> %s in %d files%n",
+                    JarLayers.formatSize(totalBytes), totalFiles, JarLayers.formatSize(keptBytes), keptFiles));
+            exclusions.stream()
+                    .sorted(Comparator.comparingLong(Exclusion::getBytes).reversed())
+                    .limit(10)
+                    .forEach(exclusion -> report.append(String.format(Locale.ROOT, "  %10s  %-16s %s%n",
+                            JarLayers.formatSize(exclusion.getBytes()), exclusion.getReason().name().toLowerCase(Locale.ROOT),
+                            exclusion.getPattern())));
+            return report.toString();
+        }
+
+        private void appendSection(StringBuilder out, Reason reason, String title) {
+            List<Exclusion> section = exclusions.stream().filter(exclusion -> exclusion.getReason() == reason).toList();
+            if (section.isEmpty()) {
+                return;
+            }
+            out.append("\n# ").append(title).append('\n');
+            section.forEach(exclusion -> out.append(exclusion.getPattern()).append('\n'));
+        }
+    }
+
+    private final Path root;
+    private final Set<Path> excludedPaths;
+
+    private BuildContextScanner(Path root, Collection<Path> excludedPaths) {
+        this.root = root.toAbsolutePath().normalize();
+        this.excludedPaths = new HashSet<>();
+        excludedPaths.forEach(path -> this.excludedPaths.add(path.toAbsolutePath().normalize()));
+    }
+
+    /**
+     * Scans a project directory.
+     *
+     * @param root          the build context root, usually the project directory
+     * @param excludedPaths additional paths to exclude if they are inside the root
+     * @return the scan result
+     */
+    public static Scan scan(Path root, Collection<Path> excludedPaths) {
+        BuildContextScanner scanner = new BuildContextScanner(root, excludedPaths);
+        Tally tally = ForkJoinPool.commonPool().invoke(scanner.new DirectoryTask(scanner.root, true));
+
+        List<Exclusion> exclusions = new ArrayList<>();
+        tally.patterns.forEach((pattern, size) ->
+                exclusions.add(new Exclusion(pattern, Reason.TOOLING, size[0], size[1])));
+        exclusions.addAll(tally.exclusions);
+        exclusions.sort(Comparator.comparing(Exclusion::getReason).thenComparing(Exclusion::getPattern));
+
+        long excludedBytes = exclusions.stream().mapToLong(Exclusion::getBytes).sum();
+        long excludedFiles = exclusions.stream().mapToLong(Exclusion::getFiles).sum();
+        return new Scan(tally.keptBytes + excludedBytes, tally.keptFiles + excludedFiles,
+                tally.keptBytes, tally.keptFiles, exclusions);
+    }
+
+    /**
+     * Sizes and exclusions found below one directory.
+     */
+    private static class Tally {
+        long keptBytes;
+        long keptFiles;
+        boolean keptJars;
+        final Map<String, long[]> patterns = new TreeMap<>();
+        final List<Exclusion> exclusions = new ArrayList<>();
+
+        void addPattern(String pattern, long bytes, long files) {
+            long[] size = patterns.computeIfAbsent(pattern, key -> new long[2]);
+            size[0] += bytes;
+            size[1] += files;
+        }
+
+        void merge(Tally other, boolean keepPathExclusions) {
+            keptBytes += other.keptBytes;
+            keptFiles += other.keptFiles;
+            keptJars |= other.keptJars;
+            other.patterns.forEach((pattern, size) -> addPattern(pattern, size[0], size[1]));
+            if (keepPathExclusions) {
+                exclusions.addAll(other.exclusions);
+            }
+        }
+    }
+
+    private class DirectoryTask extends RecursiveTask<Tally> {
+        private final Path directory;
+        private final boolean isRoot;
+
+        DirectoryTask(Path directory, boolean isRoot) {
+            this.directory = directory;
+            this.isRoot = isRoot;
+        }
+
+        @Override
+        protected Tally compute() {
+            Tally tally = new Tally();
+            boolean projectDirectory = containsBuildFile(directory);
+            Map<DirectoryTask, Exclusion> pending = new LinkedHashMap<>();
+            List<DirectoryTask> subdirectories = new ArrayList<>();
+
+            try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+                for (Path entry : entries) {
+                    BasicFileAttributes attributes = readAttributes(entry);
+                    if (attributes == null || attributes.isSymbolicLink()) {
+                        continue;
+                    }
+                    String name = entry.getFileName().toString();
+                    String path = relativePath(entry);
+                    if (attributes.isDirectory()) {
+                        Reason reason = directoryReason(entry, name, projectDirectory);
+                        DirectoryTask task = new DirectoryTask(entry, false);
+                        if (reason == Reason.TOOLING) {
+                            pending.put(task, new Exclusion("**/" + name, reason, 0, 0));
+                        } else if (reason != null) {
+                            pending.put(task, new Exclusion(path, reason, 0, 0));
+                        } else {
+                            subdirectories.add(task);
+                        }
+                        task.fork();
+                    } else if (ignoredFilePattern(name) != null) {
+                        tally.addPattern("**/" + ignoredFilePattern(name), attributes.size(), 1);
+                    } else {
+                        tally.keptBytes += attributes.size();
+                        tally.keptFiles++;
+                        tally.keptJars |= name.endsWith(".jar");
+                    }
+                }
+            } catch (IOException e) {
+                // unreadable directories are not part of the context either
+            }
+
+            pending.forEach((task, exclusion) -> {
+                Tally excluded = task.join();
+                long bytes = excluded.keptBytes + excluded.patterns.values().stream().mapToLong(size -> size[0]).sum()
+                        + excluded.exclusions.stream().mapToLong(Exclusion::getBytes).sum();
+                long files = excluded.keptFiles + excluded.patterns.values().stream().mapToLong(size -> size[1]).sum()
+                        + excluded.exclusions.stream().mapToLong(Exclusion::getFiles).sum();
+                if (exclusion.getReason() == Reason.TOOLING) {
+                    tally.addPattern(exclusion.getPattern(), bytes, files);
+                } else {
+                    tally.exclusions.add(new Exclusion(exclusion.getPattern(), exclusion.getReason(), bytes, files));
+                }
+            });
+            for (DirectoryTask task : subdirectories) {
+                Tally subdirectory = task.join();
+                long bytes = subdirectory.keptBytes + subdirectory.exclusions.stream().mapToLong(Exclusion::getBytes).sum();
+                // vendored jars, e.g. libs/*.jar, may be referenced from any build script
+                if (isRoot && !subdirectory.keptJars && isUnusedTopLevelDirectory(task.directory)
+                        && bytes >= UNUSED_DIRECTORY_BYTES) {
+                    long files = subdirectory.keptFiles + subdirectory.exclusions.stream().mapToLong(Exclusion::getFiles).sum();
+                    tally.exclusions.add(new Exclusion(relativePath(task.directory), Reason.UNUSED_DIRECTORY, bytes, files));
+                    // tooling files inside stay accounted to their patterns
+                    subdirectory.keptBytes = 0;
+                    subdirectory.keptFiles = 0;
+                    tally.merge(subdirectory, false);
+                } else {
+                    tally.merge(subdirectory, true);
+                }
+            }
+            return tally;
+        }
+
+        private Reason directoryReason(Path entry, String name, boolean projectDirectory) {
+            if (excludedPaths.contains(entry.toAbsolutePath().normalize())) {
+                return Reason.EXCLUDED;
+            }
+            if (IGNORED_DIRECTORIES.contains(name)) {
+                return Reason.TOOLING;
+            }
+            if (projectDirectory && BUILD_OUTPUT_DIRECTORIES.contains(name)) {
+                return Reason.BUILD_OUTPUT;
+            }
+            if ("test".equals(name) && "src".equals(directory.getFileName() == null ? null : directory.getFileName().toString())
+                    && directory.getParent() != null && containsBuildFile(directory.getParent())) {
+                return Reason.TEST_SOURCES;
+            }
+            return null;
+        }
+    }
+
+    private boolean isUnusedTopLevelDirectory(Path directory) {
+        return !BUILD_DIRECTORIES.contains(directory.getFileName().toString())
+                && !containsBuildFile(directory)
+                && !Files.isDirectory(directory.resolve("src"));
+    }
+
+    private String relativePath(Path path) {
+        return root.relativize(path.toAbsolutePath().normalize()).toString().replace('\\', '/');
+    }
+
+    private static String ignoredFilePattern(String name) {
+        if (name.endsWith(".iml")) {
+            return "*.iml";
+        }
+        if (name.endsWith(".log")) {
+            return "*.log";
+        }
+        if (name.equals(".DS_Store") || name.equals(".env")) {
+            return name;
+        }
+        return name.startsWith(".env.") ? ".env.*" : null;
+    }
+
+    private static boolean containsBuildFile(Path directory) {
+        return BUILD_FILES.stream().anyMatch(file -> Files.isRegularFile(directory.resolve(file)));
+    }
+
+    private static BasicFileAttributes readAttributes(Path path) {
+        try {
+            return Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,412 @@
+package io.github.rkumar0206.k8gen.util;
+
+import io.github.rkumar0206.k8gen.model.NodePool;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Simulates scheduling the generated workloads onto a {@link NodePool}, without a cluster.
+ *
+ * <p>Deployments and StatefulSets are scaled to the replicas of their HorizontalPodAutoscaler (minimum or
+ * maximum) or to their own {@code replicas}; DaemonSets run one pod per node and are placed first. A pod
+ * requests the sum of its containers' requests (falling back to the limits, as Kubernetes does) or the
+ * largest init container, whichever is higher. Pods are placed one at a time, the largest workloads first,
+ * on the node that satisfies the {@code DoNotSchedule} topology spread constraints and required
+ * anti-affinity, is preferred by the {@code ScheduleAnyway} constraints and preferred anti-affinity, and
+ * is least allocated otherwise, like the default scheduler profile.
+ */
+public class CapacityPlanner {
+
+    private static final String ZONE_KEY = "topology.kubernetes.io/zone";
+    private static final String NODE_KEY = "kubernetes.io/hostname";
+    private static final int DEFAULT_MAX_PODS = 110;
+
+    /**
+     * A spread constraint of a workload.
+     *
+     * @param maxSkew the maximum difference of pods between two domains
+     * @param hard    {@code true} for {@code DoNotSchedule}
+     */
+    public record Spread(int maxSkew, boolean hard) {
+    }
+
+    /**
+     * A workload as far as scheduling is concerned.
+     *
+     * @param kind                  the workload kind
+     * @param name                  the workload name
+     * @param cpuMillis             the CPU request of one pod
+     * @param memoryMiB             the memory request of one pod
+     * @param minReplicas           the replicas at minimum scale
+     * @param maxReplicas           the replicas at maximum scale
+     * @param zoneSpread            the zone spread constraint, or {@code null}
+     * @param nodeSpread            the node spread constraint, or {@code null}
+     * @param requiredAntiAffinity  whether two pods must not share a node
+     * @param preferredAntiAffinity whether two pods should not share a node
+     */
+    public record Workload(String kind, String name, long cpuMillis, long memoryMiB, int minReplicas, int maxReplicas,
+                           Spread zoneSpread, Spread nodeSpread, boolean requiredAntiAffinity,
+                           boolean preferredAntiAffinity) {
+
+        boolean daemonSet() {
+            return "DaemonSet".equals(kind);
+        }
+
+        int replicas(boolean maxScale) {
+            return maxScale ? maxReplicas : minReplicas;
+        }
+    }
+
+    /**
+     * A node with the pods placed on it so far.
+     */
+    public static final class Node {
+        private final String name;
+        private final String zone;
+        private final long cpuMillis;
+        private final long memoryMiB;
+        private final int maxPods;
+        private long usedCpuMillis;
+        private long usedMemoryMiB;
+        private int pods;
+        private final Map<String, Integer> podsByWorkload = new HashMap<>();
+
+        Node(String name, String zone, long cpuMillis, long memoryMiB, int maxPods) {
+            this.name = name;
+            this.zone = zone;
+            this.cpuMillis = cpuMillis;
+            this.memoryMiB = memoryMiB;
+            this.maxPods = maxPods;
+        }
+
+        boolean fits(Workload workload) {
+            return pods < maxPods && usedCpuMillis + workload.cpuMillis() <= cpuMillis
+                    && usedMemoryMiB + workload.memoryMiB() <= memoryMiB;
+        }
+
+        void place(Workload workload) {
+            usedCpuMillis += workload.cpuMillis();
+            usedMemoryMiB += workload.memoryMiB();
+            pods++;
+            podsByWorkload.merge(workload.name(), 1, Integer::sum);
+        }
+
+        int count(Workload workload) {
+            return podsByWorkload.getOrDefault(workload.name(), 0);
+        }
+
+        double allocation() {
+            return Math.max(usedCpuMillis / (double) cpuMillis, usedMemoryMiB / (double) memoryMiB);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getZone() {
+            return zone;
+        }
+
+        public int getPods() {
+            return pods;
+        }
+
+        public long getUsedCpuMillis() {
+            return usedCpuMillis;
+        }
+
+        public long getUsedMemoryMiB() {
+            return usedMemoryMiB;
+        }
+    }
+
+    /**
+     * The outcome of one simulation.
+     *
+     * @param nodes         the nodes with their placed pods
+     * @param scheduled     the number of scheduled pods
+     * @param unschedulable the number of pods that could not be placed, by workload
+     * @param reasons       why the pods of a workload could not be placed
+     */
+    public record Simulation(List<Node> nodes, int scheduled, Map<String, Integer> unschedulable,
+                             Map<String, String> reasons) {
+    }
+
+    /**
+     * Extracts the workloads of the generated manifests.
+     *
+     * @param documents the parsed documents of all generated files
+     * @return the Deployments, StatefulSets and DaemonSets, scaled by their HorizontalPodAutoscalers or KEDA
+     * ScaledObjects
+     */
+    public static List<Workload> workloads(List<YamlDocument> documents) {
+        Map<String, int[]> autoscalers = new HashMap<>();
+        for (YamlDocument document : documents) {
+            boolean hpa = "HorizontalPodAutoscaler".equals(document.getKind());
+            if (hpa || "ScaledObject".equals(document.getKind())) {
+                Map<String, Object> spec = ManifestUtil.map(document.asMap().get("spec"));
+                Map<String, Object> target = spec == null ? null : ManifestUtil.map(spec.get("scaleTargetRef"));
+                if (target != null && target.get("name") != null) {
+                    // KEDA's defaults are 0 and 100 replicas
+                    int min = hpa ? intOr(spec.get("minReplicas"), 1) : intOr(spec.get("minReplicaCount"), 0);
+                    int max = hpa ? intOr(spec.get("maxReplicas"), min) : intOr(spec.get("maxReplicaCount"), 100);
+                    autoscalers.put(String.valueOf(target.get("name")), new int[]{min, max});
+                }
+            }
+        }
+
+        List<Workload> workloads = new ArrayList<>();
+        for (YamlDocument document : documents) {
+            String kind = document.getKind();
+            Map<String, Object> podSpec = ManifestUtil.podSpec(document);
+            if (podSpec == null || !("Deployment".equals(kind) || "StatefulSet".equals(kind) || "DaemonSet".equals(kind))) {
+                continue;
+            }
+            Map<String, Object> metadata = ManifestUtil.map(document.asMap().get("metadata"));
+            String name = metadata == null || metadata.get("name") == null ? kind : String.valueOf(metadata.get("name"));
+            Map<String, Object> spec = ManifestUtil.map(document.asMap().get("spec"));
+            int replicas = intOr(spec == null ? null : spec.get("replicas"), 1);
+            int[] scale = autoscalers.getOrDefault(name, new int[]{replicas, replicas});
+
+            long[] sum = new long[2];
+            for (Map<String, Object> container : ManifestUtil.maps(podSpec.get("containers"))) {
+                long[] requests = requests(container);
+                sum[0] += requests[0];
+                sum[1] += requests[1];
+            }
+            for (Map<String, Object> container : ManifestUtil.maps(podSpec.get("initContainers"))) {
+                long[] requests = requests(container);
+                sum[0] = Math.max(sum[0], requests[0]);
+                sum[1] = Math.max(sum[1], requests[1]);
+            }
+
+            Spread zoneSpread = null;
+            Spread nodeSpread = null;
+            for (Map<String, Object> constraint : ManifestUtil.maps(podSpec.get("topologySpreadConstraints"))) {
+                Spread spread = new Spread(Math.max(1, intOr(constraint.get("maxSkew"), 1)),
+                        "DoNotSchedule".equals(constraint.get("whenUnsatisfiable")));
+                if (ZONE_KEY.equals(constraint.get("topologyKey"))) {
+                    zoneSpread = spread;
+                } else if (NODE_KEY.equals(constraint.get("topologyKey"))) {
+                    nodeSpread = spread;
+                }
+            }
+            Map<String, Object> affinity = ManifestUtil.map(podSpec.get("affinity"));
+            Map<String, Object> antiAffinity = affinity == null ? null : ManifestUtil.map(affinity.get("podAntiAffinity"));
+            boolean required = antiAffinity != null && ManifestUtil.maps(
+                    antiAffinity.get("requiredDuringSchedulingIgnoredDuringExecution")).stream()
+                    .anyMatch(term -> NODE_KEY.equals(term.get("topologyKey")));
+            boolean preferred = antiAffinity != null && ManifestUtil.maps(
+                    antiAffinity.get("preferredDuringSchedulingIgnoredDuringExecution")).stream()
+                    .map(term -> ManifestUtil.map(term.get("podAffinityTerm")))
+                    .anyMatch(term -> term != null && NODE_KEY.equals(term.get("topologyKey")));
+
+            workloads.add(new Workload(kind, name, sum[0], sum[1], scale[0], scale[1],
+                    zoneSpread, nodeSpread, required, preferred));
+        }
+        return workloads;
+    }
+
+    /**
+     * Simulates scheduling all workloads onto an empty node pool.
+     *
+     * @param workloads the workloads
+     * @param nodePool  the node pool
+     * @param maxScale  whether the workloads run at their maximum instead of their minimum scale
+     * @return the outcome
+     * @throws IllegalArgumentException if the node pool is incomplete
+     */
+    public static Simulation simulate(List<Workload> workloads, NodePool nodePool, boolean maxScale) {
+        List<Node> nodes = nodes(nodePool);
+        int scheduled = 0;
+        Map<String, Integer> unschedulable = new LinkedHashMap<>();
+        Map<String, String> reasons = new LinkedHashMap<>();
+
+        long nodeCpu = nodes.get(0).cpuMillis;
+        long nodeMemory = nodes.get(0).memoryMiB;
+        List<Workload> ordered = new ArrayList<>(workloads);
+        ordered.sort(Comparator.comparing((Workload workload) -> !workload.daemonSet())
+                .thenComparing(workload -> -Math.max(workload.cpuMillis() / (double) nodeCpu,
+                        workload.memoryMiB() / (double) nodeMemory)));
+
+        for (Workload workload : ordered) {
+            if (workload.daemonSet()) {
+                for (Node node : nodes) {
+                    if (node.fits(workload)) {
+                        node.place(workload);
+                        scheduled++;
+                    } else {
+                        unschedulable.merge(workload.name(), 1, Integer::sum);
+                        reasons.putIfAbsent(workload.name(), shortage(List.of(node), workload));
+                    }
+                }
+                continue;
+            }
+            for (int replica = 0; replica < workload.replicas(maxScale); replica++) {
+                String reason = place(workload, nodes);
+                if (reason == null) {
+                    scheduled++;
+                } else {
+                    unschedulable.merge(workload.name(), 1, Integer::sum);
+                    reasons.putIfAbsent(workload.name(), reason);
+                }
+            }
+        }
+        return new Simulation(nodes, scheduled, unschedulable, reasons);
+    }
+
+    /**
+     * Plans the workloads at minimum and maximum scale and formats the outcome.
+     *
+     * @param workloads the workloads
+     * @param nodePool  the node pool
+     * @return the report text
+     */
+    public static String report(List<Workload> workloads, NodePool nodePool) {
+        List<Node> empty = nodes(nodePool);
+        long totalCpu = empty.stream().mapToLong(node -> node.cpuMillis).sum();
+        long totalMemory = empty.stream().mapToLong(node -> node.memoryMiB).sum();
+
+        StringBuilder report = new StringBuilder();
+        report.append(String.format(Locale.ROOT, "Node pool: %d nodes x %s CPU / %s memory in %s%n",
+                empty.size(), ResourceQuantity.formatCpuMillis(empty.get(0).cpuMillis),
+                ResourceQuantity.formatMiB(empty.get(0).memoryMiB),
+                String.join(", ", empty.stream().map(Node::getZone).distinct().toList())));
+        report.append(String.format(Locale.ROOT, "%n%-28s %8s %10s %7s %7s%n", "workload", "replicas", "cpu/pod", "mem/pod", ""));
+        for (Workload workload : workloads) {
+            report.append(String.format(Locale.ROOT, "%-28s %8s %10s %7s %s%n", workload.kind() + "/" + workload.name(),
+                    workload.daemonSet() ? "per node" : workload.minReplicas() == workload.maxReplicas()
+                            ? String.valueOf(workload.minReplicas()) : workload.minReplicas() + "-" + workload.maxReplicas(),
+                    ResourceQuantity.formatCpuMillis(workload.cpuMillis()), ResourceQuantity.formatMiB(workload.memoryMiB()),
+                    workload.cpuMillis() == 0 || workload.memoryMiB() == 0 ? "(no requests, not accounted)" : ""));
+        }
+
+        for (boolean maxScale : new boolean[]{false, true}) {
+            Simulation simulation = simulate(workloads, nodePool, maxScale);
+            long usedCpu = simulation.nodes().stream().mapToLong(Node::getUsedCpuMillis).sum();
+            long usedMemory = simulation.nodes().stream().mapToLong(Node::getUsedMemoryMiB).sum();
+            int unschedulable = simulation.unschedulable().values().stream().mapToInt(Integer::intValue).sum();
+            report.append(String.format(Locale.ROOT, "%nAt %s scale: %d pods scheduled, %d unschedulable%n",
+                    maxScale ? "maximum" : "minimum", simulation.scheduled(), unschedulable));
+            report.append(String.format(Locale.ROOT, "  requested %s CPU (%.0f%%), %s memory (%.0f%%)%n",
+                    ResourceQuantity.formatCpuMillis(usedCpu), percent(usedCpu, totalCpu),
+                    ResourceQuantity.formatMiB(usedMemory), percent(usedMemory, totalMemory)));
+            report.append(String.format(Locale.ROOT, "  headroom  %s CPU, %s memory%n",
+                    ResourceQuantity.formatCpuMillis(totalCpu - usedCpu), ResourceQuantity.formatMiB(totalMemory - usedMemory)));
+            for (Node node : simulation.nodes()) {
+                report.append(String.format(Locale.ROOT, "  %-8s %-16s %3d pods  cpu %3.0f%%  memory %3.0f%%%n",
+                        node.getName(), node.getZone(), node.getPods(), percent(node.usedCpuMillis, node.cpuMillis),
+                        percent(node.usedMemoryMiB, node.memoryMiB)));
+            }
+            simulation.unschedulable().forEach((name, count) -> report.append(String.format(Locale.ROOT,
+                    "  UNSCHEDULABLE %s x %d: %s%n", name, count, simulation.reasons().get(name))));
+        }
+        return report.toString();
+    }
+
+    /**
+     * @return {@code null} if the pod was placed, otherwise the reason it could not be
+     */
+    private static String place(Workload workload, List<Node> nodes) {
+        List<Node> candidates = nodes.stream().filter(node -> node.fits(workload)).toList();
+        if (candidates.isEmpty()) {
+            return shortage(nodes, workload);
+        }
+        Map<String, Integer> podsByZone = new HashMap<>();
+        nodes.forEach(node -> podsByZone.merge(node.getZone(), node.count(workload), Integer::sum));
+        int minZone = podsByZone.values().stream().mapToInt(Integer::intValue).min().orElse(0);
+        int minNode = nodes.stream().mapToInt(node -> node.count(workload)).min().orElse(0);
+
+        List<Node> allowed = candidates.stream()
+                .filter(node -> !workload.requiredAntiAffinity() || node.count(workload) == 0)
+                .filter(node -> !hard(workload.zoneSpread())
+                        || podsByZone.get(node.getZone()) + 1 - minZone <= workload.zoneSpread().maxSkew())
+                .filter(node -> !hard(workload.nodeSpread())
+                        || node.count(workload) + 1 - minNode <= workload.nodeSpread().maxSkew())
+                .toList();
+        if (allowed.isEmpty()) {
+            return workload.requiredAntiAffinity() && candidates.stream().allMatch(node -> node.count(workload) > 0)
+                    ? "required pod anti-affinity, every node with room already runs a pod"
+                    : "DoNotSchedule topology spread constraint cannot be satisfied";
+        }
+        Comparator<Node> preference = Comparator.comparingInt(node -> workload.zoneSpread() != null
+                ? podsByZone.get(node.getZone()) : 0);
+        preference = preference
+                .thenComparingInt(node -> workload.nodeSpread() != null || workload.preferredAntiAffinity()
+                        ? node.count(workload) : 0)
+                .thenComparingDouble(Node::allocation);
+        allowed.stream().min(preference).orElseThrow().place(workload);
+        return null;
+    }
+
+    private static String shortage(List<Node> nodes, Workload workload) {
+        if (nodes.stream().noneMatch(node -> node.usedCpuMillis + workload.cpuMillis() <= node.cpuMillis)) {
+            return "insufficient cpu (" + ResourceQuantity.formatCpuMillis(workload.cpuMillis()) + " per pod)";
+        }
+        if (nodes.stream().noneMatch(node -> node.usedMemoryMiB + workload.memoryMiB() <= node.memoryMiB)) {
+            return "insufficient memory (" + ResourceQuantity.formatMiB(workload.memoryMiB()) + " per pod)";
+        }
+        if (nodes.stream().allMatch(node -> node.pods >= node.maxPods)) {
+            return "too many pods";
+        }
+        return "insufficient cpu and memory on the same node";
+    }
+
+    private static List<Node> nodes(NodePool nodePool) {
+        if (nodePool.getNodeCount() <= 0 || nodePool.getCpu() == null || nodePool.getMemory() == null) {
+            throw new IllegalArgumentException("The node pool needs a positive nodeCount, cpu and memory");
+        }
+        long cpu = ResourceQuantity.parseCpuMillis(nodePool.getCpu());
+        long memory = ResourceQuantity.parseMemoryMiB(nodePool.getMemory());
+        int maxPods = nodePool.getMaxPodsPerNode() == null ? DEFAULT_MAX_PODS : nodePool.getMaxPodsPerNode();
+        List<String> zones = nodePool.getZones() == null || nodePool.getZones().isEmpty()
+                ? List.of("default") : nodePool.getZones();
+        List<Node> nodes = new ArrayList<>();
+        for (int i = 0; i < nodePool.getNodeCount(); i++) {
+            nodes.add(new Node("node-" + (i + 1), zones.get(i % zones.size()), cpu, memory, maxPods));
+        }
+        return nodes;
+    }
+
+    private static long[] requests(Map<String, Object> container) {
+        Map<String, Object> resources = ManifestUtil.map(container.get("resources"));
+        Map<String, Object> requests = resources == null ? null : ManifestUtil.map(resources.get("requests"));
+        Map<String, Object> limits = resources == null ? null : ManifestUtil.map(resources.get("limits"));
+        return new long[]{
+                quantity(requests, limits, "cpu", true),
+                quantity(requests, limits, "memory", false)
+        };
+    }
+
+    private static long quantity(Map<String, Object> requests, Map<String, Object> limits, String key, boolean cpu) {
+        Object value = requests != null && requests.get(key) != null ? requests.get(key)
+                : limits != null ? limits.get(key) : null;
+        if (value == null) {
+            return 0;
+        }
+        return cpu ? ResourceQuantity.parseCpuMillis(String.valueOf(value))
+                : ResourceQuantity.parseMemoryMiB(String.valueOf(value));
+    }
+
+    private static boolean hard(Spread spread) {
+        return spread != null && spread.hard();
+    }
+
+    private static double percent(long part, long total) {
+        return total == 0 ? 0 : part * 100.0 / total;
+    }
+
+    private static int intOr(Object value, int defaultValue) {
+        return value instanceof Number number ? number.intValue() : defaultValue;
+    }
+
+    private CapacityPlanner() {
+        // utility class
+    }
+}
@@ -0,0 +1,140 @@
+package io.github.rkumar0206.k8gen.util;
+
+import io.github.rkumar0206.k8gen.model.DatabaseConnections;
+import io.github.rkumar0206.k8gen.model.DeploymentConfig;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Plans how the database connections are shared by the pods of the application.
+ *
+ * <p>The budget is {@code max_connections} minus the reserved connections. It has to cover the pools
+ * of the largest number of pods that can run at once: the larger of {@code replicas} and
+ * {@code hpaMaxReplicas}, plus the pods a rolling update surges (25%, the Deployment default).
+ * <ul>
+ * <li>If the wanted pool size fits, every pod gets it.</li>
+ * <li>Otherwise PgBouncer in transaction-pooling mode is put in front of the database: the pods keep
+ * their pools, which now hold cheap client connections, and PgBouncer multiplexes them onto at most the
+ * budget of server connections.</li>
+ * <li>If PgBouncer is disabled, the pool is shrunk to what fits.</li>
+ * </ul>
+ */
+@Getter
+public class ConnectionBudget {
+
+    /**
+     * The port PgBouncer listens on.
+     */
+    public static final int PGBOUNCER_PORT = 6432;
+    /**
+     * The default PgBouncer image.
+     */
+    public static final String DEFAULT_PGBOUNCER_IMAGE = "edoburu/pgbouncer:v1.23.1-p2";
+    /**
+     * The number of replicas of a shared PgBouncer Deployment.
+     */
+    public static final int PGBOUNCER_REPLICAS = 2;
+
+    private static final int DEFAULT_MAX_CONNECTIONS = 100;
+    private static final int DEFAULT_RESERVED_CONNECTIONS = 10;
+    private static final int DEFAULT_POOL_SIZE = 10;
+
+    private final int maxConnections;
+    private final int peakPods;
+    private final int availableConnections;
+    private final int wantedPoolSize;
+    private final int poolSize;
+    private final boolean pgBouncer;
+    private final boolean sidecar;
+    private final int pgBouncerPoolSize;
+    private final int pgBouncerMaxClientConnections;
+    private final String pgBouncerImage;
+    private final List<String> warnings = new ArrayList<>();
+
+    private ConnectionBudget(DeploymentConfig deploymentConfig) {
+        DatabaseConnections settings = deploymentConfig.getDbConnections() == null
+                ? new DatabaseConnections() : deploymentConfig.getDbConnections();
+        this.maxConnections = valueOrDefault(settings.getMaxConnections(), DEFAULT_MAX_CONNECTIONS);
+        int reserved = valueOrDefault(settings.getReservedConnections(), DEFAULT_RESERVED_CONNECTIONS);
+        this.wantedPoolSize = valueOrDefault(settings.getPoolSize(), DEFAULT_POOL_SIZE);
+        this.availableConnections = maxConnections - reserved;
+        if (availableConnections < 1 || wantedPoolSize < 1) {
+            throw new IllegalArgumentException("dbConnections leave no connections for the application: maxConnections "
+                    + maxConnections + ", reservedConnections " + reserved + ", poolSize " + wantedPoolSize);
+        }
+
+        int maxPods = Math.max(1, Math.max(deploymentConfig.getReplicas(),
+                deploymentConfig.isEnableHPA() ? deploymentConfig.getHpaMaxReplicas() : 0));
+        this.peakPods = maxPods + (int) Math.ceil(maxPods * 0.25);
+
+        String mode = settings.getPgBouncer() == null ? "auto" : settings.getPgBouncer().trim().toLowerCase(Locale.ROOT);
+        if (!List.of("auto", "always", "never").contains(mode)) {
+            throw new IllegalArgumentException("dbConnections.pgBouncer must be auto, always or never: " + settings.getPgBouncer());
+        }
+        boolean exceeded = (long) wantedPoolSize * peakPods > availableConnections;
+        this.pgBouncer = "always".equals(mode) || (exceeded && "auto".equals(mode));
+        String placement = settings.getPgBouncerMode() == null ? "deployment"
+                : settings.getPgBouncerMode().trim().toLowerCase(Locale.ROOT);
+        if (!List.of("deployment", "sidecar").contains(placement)) {
+            throw new IllegalArgumentException("dbConnections.pgBouncerMode must be deployment or sidecar: "
+                    + settings.getPgBouncerMode());
+        }
+        this.sidecar = "sidecar".equals(placement);
+        this.pgBouncerImage = settings.getPgBouncerImage() == null || settings.getPgBouncerImage().isBlank()
+                ? DEFAULT_PGBOUNCER_IMAGE : settings.getPgBouncerImage();
+
+        if (pgBouncer) {
+            this.poolSize = wantedPoolSize;
+            this.pgBouncerPoolSize = Math.max(1, availableConnections / (sidecar ? peakPods : PGBOUNCER_REPLICAS));
+            // a shared instance may receive the clients of every pod when the load is skewed
+            this.pgBouncerMaxClientConnections = sidecar ? wantedPoolSize * 2 : wantedPoolSize * peakPods;
+            if (sidecar && exceeded && pgBouncerPoolSize * peakPods > availableConnections) {
+                warnings.add("Even one server connection per PgBouncer sidecar exceeds the budget of "
+                        + availableConnections + " connections for " + peakPods + " pods, use pgBouncerMode 'deployment'");
+            }
+        } else {
+            this.poolSize = Math.min(wantedPoolSize, availableConnections / peakPods);
+            this.pgBouncerPoolSize = 0;
+            this.pgBouncerMaxClientConnections = 0;
+            if (poolSize < 1) {
+                throw new IllegalArgumentException(peakPods + " pods cannot share " + availableConnections
+                        + " database connections without PgBouncer");
+            }
+            if (poolSize < wantedPoolSize) {
+                warnings.add("Hikari pool reduced from " + wantedPoolSize + " to " + poolSize + " connections per pod so that "
+                        + peakPods + " pods fit into " + availableConnections + " database connections");
+            }
+        }
+    }
+
+    /**
+     * Plans the connection budget of a deployment configuration.
+     *
+     * @param deploymentConfig the deployment configuration
+     * @return the plan
+     * @throws IllegalArgumentException if the settings are invalid or the pods cannot share the connections
+     */
+    public static ConnectionBudget plan(DeploymentConfig deploymentConfig) {
+        return new ConnectionBudget(deploymentConfig);
+    }
+
+    /**
+     * @return a one-line description of the plan for the build log
+     */
+    public String summary() {
+        String summary = String.format(Locale.ROOT, "Database connections: %d pods x %d = %d of %d available",
+                peakPods, poolSize, peakPods * poolSize, availableConnections);
+        if (!pgBouncer) {
+            return summary;
+        }
+        return summary + String.format(Locale.ROOT, ", through PgBouncer (%s, %d server connections %s)",
+                sidecar ? "sidecar" : "deployment", pgBouncerPoolSize, sidecar ? "per pod" : "per instance");
+    }
+
+    private static int valueOrDefault(Integer value, int defaultValue) {
+        return value == null ? defaultValue : value;
+    }
+}
@@ -35,6 +35,15 @@ public class DockerImageScanner {
             "spring.kafka.bootstrap-servers", "confluentinc/cp-kafka:latest"
     );
 
+    /**
+     * @return every image the scanner can infer
+     */
+    static Set<String> inferableImages() {
+        Set<String> images = new TreeSet<>(DEP_TO_IMAGE.values());
+        images.addAll(CONFIG_KEY_TO_IMAGE.values());
+        return images;
+    }
+
     /**
      * Scans the Gradle dependencies of the project and infers possible Docker images.
      * @param project consumer project
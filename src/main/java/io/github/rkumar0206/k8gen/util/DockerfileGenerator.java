@@ -0,0 +1,234 @@
+package io.github.rkumar0206.k8gen.util;
+
+import io.github.rkumar0206.k8gen.model.DeploymentConfig;
+import io.github.rkumar0206.k8gen.model.StartupMode;
+
+import java.util.Arrays;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Generates the multi-stage Dockerfile of a {@link StartupMode} without involving the model.
+ *
+ * <p>All JVM modes share a Gradle build stage that produces the boot jar and extracts its
+ * {@link JarLayers layers} with Spring Boot's {@code jarmode=tools}, or {@code jarmode=layertools} before
+ * Spring Boot 3.3; class data sharing and CRaC also work best on an exploded class path. The extracted
+ * files get a fixed timestamp and every layer is copied with its own {@code COPY}, so a code-only change
+ * yields a new application layer only.
+ * The stages that follow depend on the mode:
+ * <ul>
+ * <li>{@code jar}: runs the layered jar,</li>
+ * <li>{@code appcds}/{@code aot}: a training run that starts the context, exits after the refresh
+ * and dumps a dynamic CDS archive used by every later start,</li>
+ * <li>{@code crac}: a checkpoint stage that starts the context on a CRaC enabled JDK and dumps the
+ * process image, which the runtime stage restores,</li>
+ * <li>{@code native}: a GraalVM native-image build copied onto a slim base image.</li>
+ * </ul>
+ */
+public class DockerfileGenerator {
+
+    private static final int DEFAULT_PORT = 8080;
+    private static final Pattern VERSION = Pattern.compile("^(\\d+)\\.(\\d+)");
+
+    /**
+     * Generates the Dockerfile for a deployment configuration and the current Spring Boot version.
+     *
+     * @param deploymentConfig the deployment configuration, provides the Java and Gradle versions and the port
+     * @param mode             the startup mode
+     * @param jvmFlags         JVM flags baked into the CRaC checkpoint, may be {@code null}
+     * @return the Dockerfile content
+     */
+    public static String generate(DeploymentConfig deploymentConfig, StartupMode mode, String jvmFlags) {
+        return generate(deploymentConfig, mode, jvmFlags, null);
+    }
+
+    /**
+     * Generates the Dockerfile for a deployment configuration.
+     *
+     * <p>Before Spring Boot 3.3 the layers are extracted with {@code jarmode=layertools} and the exploded
+     * jar is started with its {@code JarLauncher}. The {@code appcds}, {@code aot} and {@code crac} modes
+     * stop the application after the context refresh, which needs Spring Boot 3.2.
+     *
+     * @param deploymentConfig  the deployment configuration, provides the Java and Gradle versions and the port
+     * @param mode              the startup mode
+     * @param jvmFlags          JVM flags baked into the CRaC checkpoint, may be {@code null}
+     * @param springBootVersion the Spring Boot version of the application, {@code null} for the current one
+     * @return the Dockerfile content
+     * @throws IllegalArgumentException if the mode is not supported by the Spring Boot version
+     */
+    public static String generate(DeploymentConfig deploymentConfig, StartupMode mode, String jvmFlags,
+                                  String springBootVersion) {
+        if (mode != StartupMode.JAR && mode != StartupMode.NATIVE && !isAtLeast(springBootVersion, 3, 2)) {
+            throw new IllegalArgumentException("startupMode '" + mode.getValue() + "' needs Spring Boot 3.2 or later, "
+                    + "the application uses " + springBootVersion);
+        }
+        int port = deploymentConfig.getPort() > 0 ? deploymentConfig.getPort() : DEFAULT_PORT;
+        int javaVersion = VersionUtils.parseJavaMajorVersion(deploymentConfig.getJavaVersion(), 21);
+        String gradleVersion = deploymentConfig.getGradleVersion() == null || deploymentConfig.getGradleVersion().isBlank()
+                ? "8.9" : deploymentConfig.getGradleVersion();
+
+        StringBuilder dockerfile = new StringBuilder();
+        dockerfile.append(mode == StartupMode.CRAC ? "# syntax=docker/dockerfile:1-labs\n" : "# syntax=docker/dockerfile:1.7\n");
+        dockerfile.append("# Generated for startupMode=").append(mode.getValue()).append(". Build with:\n");
+        if (mode == StartupMode.CRAC) {
+            dockerfile.append("#   docker buildx build --allow security.insecure --load -t <image> .\n");
+        } else {
+            dockerfile.append("#   docker build -t <image> .\n");
+        }
+        dockerfile.append("ARG JAVA_VERSION=").append(javaVersion).append('\n');
+        dockerfile.append("ARG GRADLE_VERSION=").append(gradleVersion).append("\n\n");
+
+        if (mode == StartupMode.NATIVE) {
+            appendNative(dockerfile, port);
+            return dockerfile.toString();
+        }
+
+        boolean tools = extractsWithJarTools(springBootVersion);
+        // layers without content are not extracted, but every layer is copied
+        dockerfile.append("""
+                FROM gradle:${GRADLE_VERSION}-jdk${JAVA_VERSION} AS build
+                WORKDIR /workspace
+                COPY . .
+                RUN --mount=type=cache,target=/home/gradle/.gradle/caches \\
+                    gradle bootJar --no-daemon -x test \\
+                 && cp "$(ls build/libs/*.jar | grep -v -- '-plain.jar' | head -n 1)" application.jar \\
+                 && %s \\
+                 && mkdir -p %s \\
+                 && find extracted -exec touch --no-dereference --date=@0 {} +
+
+                """.formatted(tools
+                        ? "java -Djarmode=tools -jar application.jar extract --layers --destination extracted"
+                        : "java -Djarmode=layertools -jar application.jar extract --destination extracted",
+                JarLayers.LAYER_ORDER.stream().map(layer -> "extracted/" + layer).collect(Collectors.joining(" "))));
+
+        // the tools extraction keeps a thin application.jar, layertools explodes the jar including its launcher
+        String launcher = tools ? "-jar application.jar"
+                : isAtLeast(springBootVersion, 3, 2) ? "org.springframework.boot.loader.launch.JarLauncher"
+                : "org.springframework.boot.loader.JarLauncher";
+        switch (mode) {
+            case JAR -> appendJar(dockerfile, port, launcher);
+            case APPCDS, AOT -> appendClassDataSharing(dockerfile, port, mode == StartupMode.AOT, launcher);
+            case CRAC -> appendCrac(dockerfile, port, jvmFlags, launcher);
+            default -> throw new IllegalArgumentException("Unsupported startup mode " + mode);
+        }
+        return dockerfile.toString();
+    }
+
+    private static void appendJar(StringBuilder dockerfile, int port, String launcher) {
+        dockerfile.append("""
+                FROM eclipse-temurin:${JAVA_VERSION}-jre
+                WORKDIR /app
+                RUN groupadd --system --gid 1001 app && useradd --system --uid 1001 --gid app --home-dir /app app
+                %s
+                USER app
+                EXPOSE %d
+                ENTRYPOINT ["java", %s]
+                """.formatted(layerCopies("1001:1001"), port, execArguments(launcher)));
+    }
+
+    private static void appendClassDataSharing(StringBuilder dockerfile, int port, boolean aot, String launcher) {
+        // with the org.springframework.boot.aot plugin applied, bootJar already contains the processAot output
+        String aotFlag = aot ? " -Dspring.aot.enabled=true" : "";
+        String aotArgument = aot ? "\"-Dspring.aot.enabled=true\", " : "";
+        dockerfile.append("""
+                FROM eclipse-temurin:${JAVA_VERSION}-jre
+                WORKDIR /app
+                RUN groupadd --system --gid 1001 app && useradd --system --uid 1001 --gid app --home-dir /app app
+                %s
+                # training run: refreshes the context without serving requests and dumps the loaded classes;
+                # beans that connect to external systems on startup must tolerate their absence here. It runs as
+                # root, app cannot write to /app and the JVM would silently start without the archive
+                RUN java -XX:ArchiveClassesAtExit=application.jsa -Dspring.context.exit=onRefresh%s %s \\
+                 && chown 1001:1001 application.jsa
+                USER app
+                EXPOSE %d
+                ENTRYPOINT ["java", "-XX:SharedArchiveFile=application.jsa", %s%s]
+                """.formatted(layerCopies("1001:1001"), aotFlag, launcher, port, aotArgument, execArguments(launcher)));
+    }
+
+    private static void appendCrac(StringBuilder dockerfile, int port, String jvmFlags, String launcher) {
+        // heap and GC settings cannot change on restore, so they are applied when the checkpoint is taken
+        String flags = jvmFlags == null || jvmFlags.isBlank() ? "" : jvmFlags + " ";
+        dockerfile.append("""
+                FROM azul/zulu-openjdk:${JAVA_VERSION}-jdk-crac-latest AS checkpoint
+                WORKDIR /app
+                %s
+                # the JVM is killed once the checkpoint is written, hence the check for the image directory
+                RUN --security=insecure java %s-XX:CRaCCheckpointTo=/app/checkpoint -Dspring.context.checkpoint=onRefresh \\
+                    %s || test -d /app/checkpoint
+
+                FROM azul/zulu-openjdk:${JAVA_VERSION}-jdk-crac-latest
+                WORKDIR /app
+                # CRIU restores the process as the user that created the checkpoint; the container needs the
+                # CHECKPOINT_RESTORE and SYS_PTRACE capabilities
+                COPY --from=checkpoint /app/ ./
+                EXPOSE %d
+                ENTRYPOINT ["java", "-XX:CRaCRestoreFrom=/app/checkpoint"]
+                """.formatted(layerCopies(null), flags, launcher, port));
+    }
+
+    /**
+     * One {@code COPY} per layer, least frequently changing first. {@code --link} keeps each layer
+     * independent of the ones below it, so an unchanged layer keeps its digest and is not pushed again.
+     */
+    private static String layerCopies(String owner) {
+        return JarLayers.LAYER_ORDER.stream()
+                .map(layer -> "COPY --link --from=build " + (owner == null ? "" : "--chown=" + owner + " ")
+                        + "/workspace/extracted/" + layer + "/ ./")
+                .collect(Collectors.joining("\n"));
+    }
+
+    /**
+     * Whether the layers of the boot jar are extracted with {@code jarmode=tools}, which leaves the
+     * {@code spring-boot-loader} layer empty and starts the application with {@code -jar}.
+     *
+     * @param springBootVersion the Spring Boot version on the runtime class path, {@code null} if unknown
+     * @return whether the version is 3.3 or later; an unknown version counts as current
+     */
+    public static boolean extractsWithJarTools(String springBootVersion) {
+        return isAtLeast(springBootVersion, 3, 3);
+    }
+
+    private static String execArguments(String command) {
+        return Arrays.stream(command.split(" ")).map(argument -> '"' + argument + '"').collect(Collectors.joining(", "));
+    }
+
+    /**
+     * @return whether the version is at least {@code major.minor}; an unknown version counts as current
+     */
+    private static boolean isAtLeast(String version, int major, int minor) {
+        Matcher matcher = version == null ? null : VERSION.matcher(version);
+        if (matcher == null || !matcher.find()) {
+            return true;
+        }
+        int actualMajor = Integer.parseInt(matcher.group(1));
+        return actualMajor > major || actualMajor == major && Integer.parseInt(matcher.group(2)) >= minor;
+    }
+
+    private static void appendNative(StringBuilder dockerfile, int port) {
+        dockerfile.append("""
+                # requires the org.graalvm.buildtools.native plugin and the Gradle wrapper in the project
+                FROM ghcr.io/graalvm/native-image-community:${JAVA_VERSION} AS build
+                WORKDIR /workspace
+                COPY . .
+                RUN --mount=type=cache,target=/root/.gradle \\
+                    ./gradlew nativeCompile --no-daemon -x test \\
+                 && for f in build/native/nativeCompile/*; do \\
+                      if [ -f "$f" ] && [ -x "$f" ]; then cp "$f" application && break; fi; \\
+                    done
+
+                FROM debian:bookworm-slim
+                WORKDIR /app
+                RUN groupadd --system --gid 1001 app && useradd --system --uid 1001 --gid app --home-dir /app app
+                COPY --from=build --chown=1001:1001 /workspace/application ./application
+                USER app
+                EXPOSE %d
+                ENTRYPOINT ["/app/application"]
+                """.formatted(port));
+    }
+
+    private DockerfileGenerator() {
+        // utility class
+    }
+}
@@ -0,0 +1,60 @@
+package io.github.rkumar0206.k8gen.util;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.rkumar0206.k8gen.model.DeploymentConfig;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ * Resolves the {@code environments} of a deployment configuration into one configuration per environment.
+ *
+ * <p>An environment's overrides are applied to a copy of the base configuration with the same Jackson
+ * mapping that reads the configuration file, so any field can be overridden and unknown fields are rejected.
+ */
+public class EnvironmentOverrides {
+
+    private static final Pattern ENVIRONMENT_NAME = Pattern.compile("[a-z0-9]([-a-z0-9]*[a-z0-9])?");
+
+    /**
+     * Resolves the environments of a configuration.
+     *
+     * @param deploymentConfig the base configuration
+     * @return the configuration of each environment, sorted by name; empty if there are none
+     * @throws IllegalArgumentException if an environment name is not a valid directory name or an override
+     *                                  does not match a configuration field
+     */
+    public static Map<String, DeploymentConfig> resolve(DeploymentConfig deploymentConfig) {
+        Map<String, Map<String, Object>> environments = deploymentConfig.getEnvironments();
+        Map<String, DeploymentConfig> resolved = new LinkedHashMap<>();
+        if (environments == null) {
+            return resolved;
+        }
+        ObjectMapper objectMapper = new ObjectMapper();
+        for (Map.Entry<String, Map<String, Object>> environment : new TreeMap<>(environments).entrySet()) {
+            String name = environment.getKey();
+            if (name == null || !ENVIRONMENT_NAME.matcher(name).matches()) {
+                throw new IllegalArgumentException("Invalid environment name '" + name
+                        + "', use lower-case letters, digits and dashes");
+            }
+            DeploymentConfig copy = objectMapper.convertValue(deploymentConfig, DeploymentConfig.class);
+            if (environment.getValue() != null) {
+                try {
+                    objectMapper.updateValue(copy, environment.getValue());
+                } catch (JsonMappingException e) {
+                    throw new IllegalArgumentException("Invalid overrides of environment '" + name + "': "
+                            + e.getOriginalMessage(), e);
+                }
+            }
+            resolved.put(name, copy);
+        }
+        return resolved;
+    }
+
+    private EnvironmentOverrides() {
+        // utility class
+    }
+}
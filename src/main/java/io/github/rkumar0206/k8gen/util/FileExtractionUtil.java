@@ -22,6 +22,8 @@ public class FileExtractionUtil {
     private static final Pattern FILE_BLOCK_PATTERN =
             Pattern.compile("-----BEGIN_FILE: (.+?)-----([\\s\\S]*?)-----END_FILE: \\1---");
 
+    private static final Pattern BEGIN_MARKER_PATTERN = Pattern.compile("-----BEGIN_FILE: (.+?)-----");
+
     /**
      * Extracts file contents from the given text.
      *
@@ -41,6 +43,28 @@ public class FileExtractionUtil {
         return files;
     }
 
+    /**
+     * Finds a file block that was opened but never closed, which happens when the model output is
+     * cut off in the middle of a file. {@link #extractFiles(String)} skips such a block.
+     *
+     * @param inputText the text containing file definitions
+     * @return the name of the last unterminated file, or {@code null} if every block is closed
+     */
+    public static String findUnterminatedFile(String inputText) {
+        Matcher matcher = BEGIN_MARKER_PATTERN.matcher(inputText);
+        String lastFileName = null;
+        int lastContentStart = -1;
+        while (matcher.find()) {
+            lastFileName = matcher.group(1);
+            lastContentStart = matcher.end();
+        }
+        if (lastFileName == null) {
+            return null;
+        }
+        boolean terminated = inputText.indexOf("-----END_FILE: " + lastFileName + "---", lastContentStart) >= 0;
+        return terminated ? null : lastFileName.trim();
+    }
+
     /**
      * Writes extracted files to disk under the given output directory.
      *
@@ -54,10 +78,46 @@ public class FileExtractionUtil {
         }
 
         for (Map.Entry<String, String> entry : files.entrySet()) {
-            File outFile = new File(outputDir, entry.getKey());
-            try (FileWriter writer = new FileWriter(outFile)) {
-                writer.write(entry.getValue());
-            }
+            writeFileToDisk(entry.getKey(), entry.getValue(), outputDir);
+        }
+    }
+
+    /**
+     * Writes a single extracted file like {@link #writeFileToDisk(String, String, File)}, unless the file
+     * already has the given content. Unchanged files keep their timestamps.
+     *
+     * @param fileName  the file path relative to the output directory
+     * @param content   the file content
+     * @param outputDir target directory
+     * @return {@code true} if the file was written
+     * @throws IOException if file write fails
+     */
+    public static boolean writeFileIfChanged(String fileName, String content, File outputDir) throws IOException {
+        File outFile = new File(outputDir, fileName);
+        if (outFile.isFile() && content.equals(java.nio.file.Files.readString(outFile.toPath()))) {
+            return false;
+        }
+        writeFileToDisk(fileName, content, outputDir);
+        return true;
+    }
+
+    /**
+     * Writes a single extracted file to disk under the given output directory,
+     * creating parent directories for nested paths.
+     *
+     * @param fileName  the file path relative to the output directory
+     * @param content   the file content
+     * @param outputDir target directory
+     * @throws IOException if file write fails
+     */
+    public static void writeFileToDisk(String fileName, String content, File outputDir) throws IOException {
+        File outFile = new File(outputDir, fileName);
+        File parent = outFile.getParentFile();
+        if (!parent.exists() && !parent.mkdirs()) {
+            throw new IOException("Failed to create directory: " + parent);
+        }
+        try (FileWriter writer = new FileWriter(outFile)) {
+            writer.write(content);
         }
     }
 
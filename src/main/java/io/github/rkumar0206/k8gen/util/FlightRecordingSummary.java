@@ -0,0 +1,96 @@
+package io.github.rkumar0206.k8gen.util;
+
+import io.github.rkumar0206.k8gen.model.ResourceProfile;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Reads the steady-state resource usage of an application from a JDK Flight Recorder recording made
+ * with the default settings.
+ *
+ * <ul>
+ * <li>CPU from {@code jdk.CPULoad}: the JVM's user and system share of the machine, in cores,</li>
+ * <li>heap from {@code jdk.GCHeapSummary}: the usage after a collection is the live set,</li>
+ * <li>resident set size from {@code jdk.ResidentSetSize}, recorded by JDK 21 and later.</li>
+ * </ul>
+ * Only events from the start of the steady-state window on are taken into account. If no collection
+ * happened in the window, the live set is taken from the last collection before it.
+ */
+public class FlightRecordingSummary {
+
+    private static final long MIB = 1024 * 1024;
+
+    /**
+     * Adds the steady-state values of a recording to the measurements.
+     *
+     * @param recording   the recording file
+     * @param steadyFrom  the start of the steady-state window
+     * @param machineCpus the number of CPUs of the machine the application ran on
+     * @param measured    the measurements to complete
+     * @throws IOException if the recording cannot be read
+     */
+    public static void summarize(Path recording, Instant steadyFrom, int machineCpus,
+                                 ResourceProfile.Measurements measured) throws IOException {
+        List<Double> cpuCores = new ArrayList<>();
+        long liveHeap = 0;
+        long liveHeapBeforeWindow = 0;
+        long peakHeap = 0;
+        long peakRss = 0;
+
+        try (RecordingFile file = new RecordingFile(recording)) {
+            while (file.hasMoreEvents()) {
+                RecordedEvent event = file.readEvent();
+                boolean inWindow = !event.getStartTime().isBefore(steadyFrom);
+                switch (event.getEventType().getName()) {
+                    case "jdk.CPULoad" -> {
+                        if (inWindow) {
+                            cpuCores.add((double) (event.getFloat("jvmUser") + event.getFloat("jvmSystem")) * machineCpus);
+                        }
+                    }
+                    case "jdk.GCHeapSummary" -> {
+                        long used = event.getLong("heapUsed");
+                        boolean afterGc = "After GC".equals(event.getString("when"));
+                        if (!inWindow) {
+                            liveHeapBeforeWindow = afterGc ? used : liveHeapBeforeWindow;
+                        } else {
+                            peakHeap = Math.max(peakHeap, used);
+                            liveHeap = afterGc ? Math.max(liveHeap, used) : liveHeap;
+                        }
+                    }
+                    case "jdk.ResidentSetSize" -> {
+                        if (inWindow) {
+                            peakRss = Math.max(peakRss, event.getLong("size"));
+                        }
+                    }
+                    default -> {
+                        // not used
+                    }
+                }
+            }
+        }
+
+        if (!cpuCores.isEmpty()) {
+            measured.setSteadyCpuCores(cpuCores.stream().mapToDouble(Double::doubleValue).average().orElse(0));
+            Collections.sort(cpuCores);
+            measured.setSteadyCpuCoresP95(cpuCores.get((int) Math.ceil(cpuCores.size() * 0.95) - 1));
+        }
+        measured.setLiveHeapMiB(toMiB(liveHeap > 0 ? liveHeap : liveHeapBeforeWindow));
+        measured.setPeakHeapMiB(toMiB(Math.max(peakHeap, liveHeap)));
+        measured.setPeakRssMiB(toMiB(peakRss));
+    }
+
+    private static long toMiB(long bytes) {
+        return (bytes + MIB - 1) / MIB;
+    }
+
+    private FlightRecordingSummary() {
+        // utility class
+    }
+}
@@ -0,0 +1,79 @@
+package io.github.rkumar0206.k8gen.util;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Stores the files of a model generation on disk, keyed by the generation key of the prompt.
+ *
+ * <p>Each entry is a JSON file mapping file names to the raw contents returned by the model, before any
+ * post-processing. Entries are written to a temporary file and moved into place, so a cancelled build never
+ * leaves a partial entry behind. An unreadable entry is treated as missing.
+ */
+public class GenerationCache {
+
+    private static final Logger LOGGER = Logging.getLogger(GenerationCache.class);
+
+    private final Path directory;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * Creates a cache.
+     *
+     * @param directory the directory holding the entries, created on the first write
+     */
+    public GenerationCache(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Loads an entry.
+     *
+     * @param key the generation key
+     * @return the files in generation order, or {@code null} if there is no usable entry
+     */
+    public Map<String, String> load(String key) {
+        Path entry = entry(key);
+        if (!Files.isRegularFile(entry)) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(entry.toFile(), new TypeReference<LinkedHashMap<String, String>>() {
+            });
+        } catch (IOException e) {
+            LOGGER.info("Ignoring unreadable generation cache entry {}", entry, e);
+            return null;
+        }
+    }
+
+    /**
+     * Stores an entry, replacing an existing one.
+     *
+     * @param key   the generation key
+     * @param files the files in generation order
+     * @throws IOException if the entry cannot be written
+     */
+    public void store(String key, Map<String, String> files) throws IOException {
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, key, ".tmp");
+        try {
+            objectMapper.writerWithDefaultPrettyPrinter().writeValue(temporary.toFile(), files);
+            Files.move(temporary, entry(key), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    private Path entry(String key) {
+        return directory.resolve(key + ".json");
+    }
+}
@@ -0,0 +1,169 @@
+package io.github.rkumar0206.k8gen.util;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.rkumar0206.k8gen.model.ImageTuningRule;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The catalogue of {@link ImageTuningRule}s applied to the additional images of a deployment.
+ *
+ * <p>The bundled rules cover the images {@link DockerImageScanner} infers from the project besides
+ * PostgreSQL, which {@code PostgresProcessor} tunes: Redis (and Valkey), Kafka, MongoDB and MySQL (and
+ * MariaDB). User rules are checked before the bundled ones, except that a user rule named like a bundled
+ * rule replaces it in place. The first rule matching a container's image and role applies.
+ */
+public class ImageTuningCatalogue {
+
+    private static final String RESOURCE = "/io/github/rkumar0206/k8gen/tuning/image-tuning.json";
+    private static final Pattern PLACEHOLDER = Pattern.compile(
+            "\\{memory(MiB|GiB)(?::(\\d+(?:\\.\\d+)?)%)?(?::(\\d+(?:\\.\\d+)?))?}");
+
+    private final List<ImageTuningRule> rules;
+
+    private ImageTuningCatalogue(List<ImageTuningRule> rules) {
+        this.rules = rules;
+    }
+
+    /**
+     * Loads the bundled rules and, if the file exists, the user rules.
+     *
+     * @param userRules a JSON file with a list of rules, may be {@code null} or missing
+     * @return the catalogue
+     * @throws IOException if the user rules cannot be read
+     */
+    public static ImageTuningCatalogue load(File userRules) throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        List<ImageTuningRule> userRuleList = userRules != null && userRules.isFile()
+                ? objectMapper.readValue(userRules, new TypeReference<List<ImageTuningRule>>() {
+                }) : List.of();
+        List<ImageTuningRule> bundledRules;
+        try (InputStream in = ImageTuningCatalogue.class.getResourceAsStream(RESOURCE)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing bundled resource " + RESOURCE);
+            }
+            bundledRules = objectMapper.readValue(in, new TypeReference<List<ImageTuningRule>>() {
+            });
+        }
+
+        // new user rules come first, a user rule replacing a bundled one takes its place
+        List<ImageTuningRule> rules = new ArrayList<>();
+        for (ImageTuningRule userRule : userRuleList) {
+            if (bundledRules.stream().noneMatch(rule -> rule.getName().equals(userRule.getName()))) {
+                rules.add(userRule);
+            }
+        }
+        for (ImageTuningRule rule : bundledRules) {
+            rules.add(userRuleList.stream().filter(userRule -> rule.getName().equals(userRule.getName()))
+                    .findFirst().orElse(rule));
+        }
+        return new ImageTuningCatalogue(rules);
+    }
+
+    /**
+     * @return the bundled rules only
+     */
+    public static ImageTuningCatalogue bundled() {
+        try {
+            return load(null);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Finds the rule of a container.
+     *
+     * @param image the image of the container, e.g. {@code docker.io/library/redis:7}
+     * @param role  the role of the image, may be {@code null}
+     * @return the first matching rule, or {@code null}
+     */
+    public ImageTuningRule find(String image, String role) {
+        if (image == null || image.isBlank()) {
+            return null;
+        }
+        String repository = repository(image);
+        for (ImageTuningRule rule : rules) {
+            boolean imageMatches = rule.getImages() != null && rule.getImages().stream()
+                    .anyMatch(pattern -> matches(repository, pattern.toLowerCase(Locale.ROOT)));
+            boolean roleMatches = rule.getRoles() == null || rule.getRoles().isEmpty()
+                    || role != null && rule.getRoles().stream().anyMatch(role.trim()::equalsIgnoreCase);
+            if (imageMatches && roleMatches) {
+                return rule;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Replaces the memory placeholders of a rule value.
+     *
+     * @param template  the value, e.g. {@code -Xmx{memoryMiB:50%}m}
+     * @param memoryMiB the memory limit of the container
+     * @return the value, e.g. {@code -Xmx512m}
+     */
+    public static String resolve(String template, long memoryMiB) {
+        Matcher matcher = PLACEHOLDER.matcher(template);
+        StringBuilder out = new StringBuilder();
+        while (matcher.find()) {
+            BigDecimal percent = matcher.group(2) == null ? BigDecimal.valueOf(100) : new BigDecimal(matcher.group(2));
+            BigDecimal value = BigDecimal.valueOf(memoryMiB).multiply(percent).divide(BigDecimal.valueOf(100));
+            String formatted;
+            if ("GiB".equals(matcher.group(1))) {
+                value = value.divide(BigDecimal.valueOf(1024), 2, RoundingMode.DOWN);
+                if (matcher.group(3) != null) {
+                    value = value.max(new BigDecimal(matcher.group(3)));
+                }
+                formatted = value.stripTrailingZeros().toPlainString();
+            } else {
+                long mib = value.setScale(0, RoundingMode.DOWN).longValue();
+                if (matcher.group(3) != null) {
+                    mib = Math.max(mib, new BigDecimal(matcher.group(3)).longValue());
+                }
+                formatted = String.valueOf(mib);
+            }
+            matcher.appendReplacement(out, Matcher.quoteReplacement(formatted));
+        }
+        matcher.appendTail(out);
+        return out.toString();
+    }
+
+    /**
+     * Strips the registry, the {@code library/} namespace, the tag and the digest of an image.
+     */
+    static String repository(String image) {
+        String repository = image.trim().toLowerCase(Locale.ROOT);
+        int digest = repository.indexOf('@');
+        if (digest >= 0) {
+            repository = repository.substring(0, digest);
+        }
+        int colon = repository.lastIndexOf(':');
+        if (colon > repository.lastIndexOf('/')) {
+            repository = repository.substring(0, colon);
+        }
+        int slash = repository.indexOf('/');
+        if (slash > 0) {
+            String first = repository.substring(0, slash);
+            if (first.contains(".") || first.contains(":") || "localhost".equals(first)) {
+                repository = repository.substring(slash + 1);
+            }
+        }
+        return repository.startsWith("library/") ? repository.substring("library/".length()) : repository;
+    }
+
+    private static boolean matches(String repository, String pattern) {
+        return pattern.endsWith("*") ? repository.startsWith(pattern.substring(0, pattern.length() - 1))
+                : repository.equals(pattern);
+    }
+}
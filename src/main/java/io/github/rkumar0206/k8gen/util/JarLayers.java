@@ -0,0 +1,83 @@
+package io.github.rkumar0206.k8gen.util;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The layers of a Spring Boot layered jar and a size report over them.
+ *
+ * <p>The layers are copied into the image in {@link #LAYER_ORDER}, from the least to the most
+ * frequently changing one. A code-only change therefore invalidates only the last image layer, and
+ * only that layer is pushed.
+ */
+public class JarLayers {
+
+    public static final String DEPENDENCIES = "dependencies";
+    public static final String SPRING_BOOT_LOADER = "spring-boot-loader";
+    public static final String SNAPSHOT_DEPENDENCIES = "snapshot-dependencies";
+    public static final String APPLICATION = "application";
+
+    /**
+     * The default layer order of Spring Boot's layered jar.
+     */
+    public static final List<String> LAYER_ORDER = List.of(DEPENDENCIES, SPRING_BOOT_LOADER, SNAPSHOT_DEPENDENCIES, APPLICATION);
+
+    /**
+     * Returns the layer a runtime class path entry ends up in, following Spring Boot's default rules.
+     *
+     * @param projectComponent {@code true} for the project itself and other projects of the build
+     * @param version          the module version, may be {@code null} for files
+     * @return the layer name
+     */
+    public static String layerOf(boolean projectComponent, String version) {
+        if (projectComponent) {
+            return APPLICATION;
+        }
+        return version != null && version.endsWith("-SNAPSHOT") ? SNAPSHOT_DEPENDENCIES : DEPENDENCIES;
+    }
+
+    /**
+     * Formats a size report.
+     *
+     * @param sizes the size per layer in bytes; a missing layer is reported as unknown
+     * @return the report text
+     */
+    public static String report(Map<String, Long> sizes) {
+        Map<String, Long> ordered = new LinkedHashMap<>();
+        LAYER_ORDER.forEach(layer -> ordered.put(layer, sizes.get(layer)));
+
+        long total = ordered.values().stream().filter(size -> size != null).mapToLong(Long::longValue).sum();
+        StringBuilder report = new StringBuilder();
+        report.append(String.format(Locale.ROOT, "%-22s %12s %7s%n", "layer", "size", "share"));
+        ordered.forEach((layer, size) -> report.append(size == null
+                ? String.format(Locale.ROOT, "%-22s %12s %7s%n", layer, "n/a", "")
+                : String.format(Locale.ROOT, "%-22s %12s %6.1f%%%n", layer, formatSize(size),
+                total == 0 ? 0.0 : size * 100.0 / total)));
+        report.append(String.format(Locale.ROOT, "%-22s %12s%n", "total", formatSize(total)));
+
+        long application = ordered.get(APPLICATION) == null ? 0 : ordered.get(APPLICATION);
+        report.append(String.format(Locale.ROOT, "A code-only change rebuilds and pushes %s instead of %s.%n",
+                formatSize(application), formatSize(total)));
+        return report.toString();
+    }
+
+    /**
+     * @param bytes a size in bytes
+     * @return the size in B, KiB or MiB with one decimal
+     */
+    public static String formatSize(long bytes) {
+        if (bytes < 1024) {
+            return bytes + " B";
+        }
+        if (bytes < 1024 * 1024) {
+            return String.format(Locale.ROOT, "%.1f KiB", bytes / 1024.0);
+        }
+        return String.format(Locale.ROOT, "%.1f MiB", bytes / (1024.0 * 1024.0));
+    }
+
+    private JarLayers() {
+        // utility class
+    }
+}
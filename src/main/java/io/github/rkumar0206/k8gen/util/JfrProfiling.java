@@ -0,0 +1,177 @@
+package io.github.rkumar0206.k8gen.util;
+
+import io.github.rkumar0206.k8gen.model.DeploymentConfig;
+import io.github.rkumar0206.k8gen.model.Profiling;
+import io.github.rkumar0206.k8gen.model.StartupMode;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The continuous Java Flight Recorder recording of the application container.
+ *
+ * <p>The recording is kept in a rolling repository on an {@code emptyDir} volume at {@code /jfr}, bounded by
+ * size and age, so the last hours before an incident can be copied out of a running pod. An emptyDir outlives a
+ * container restart, so the chunks written before an OOM kill, and the dump written on exit after a failed
+ * liveness probe, are still there in the restarted container. GC logs are rotated next to the recording.
+ * <p>JFR's buffers, pools and recorder threads live outside the heap, and its classes in metaspace. Both are
+ * reserved by {@link JvmTuning#forDeployment(DeploymentConfig)}, so the heap shrinks instead of the container
+ * growing past its memory limit. The recording is not started in the {@code crac} startup mode, whose checkpoint
+ * cannot hold its open files, nor in a native image.
+ */
+@Getter
+public class JfrProfiling {
+
+    /**
+     * The mount path of the volume holding the recording.
+     */
+    public static final String MOUNT_PATH = "/jfr";
+
+    /**
+     * The name of the volume holding the recording.
+     */
+    public static final String VOLUME_NAME = "jfr";
+
+    private static final int MIN_JAVA_VERSION = 11;
+    private static final int DEFAULT_MAX_SIZE_MIB = 128;
+    private static final int DEFAULT_MAX_AGE_MINUTES = 120;
+    private static final int DEFAULT_MEMORY_MIB = 16;
+    // thread buffers, stack trace and string pools, recorder threads
+    private static final int NATIVE_OVERHEAD_MIB = 32;
+    private static final int METASPACE_MIB = 16;
+    // the chunk being written may exceed maxsize until it is rotated
+    private static final int CHUNK_HEADROOM_MIB = 16;
+    private static final int GC_LOG_FILES = 5;
+    private static final int GC_LOG_FILE_MIB = 10;
+
+    private final boolean enabled;
+    private final String settings;
+    private final int maxSizeMiB;
+    private final int maxAgeMinutes;
+    private final int memoryMiB;
+    private final boolean dumpOnExit;
+    private final boolean gcLog;
+    private final List<String> warnings = new ArrayList<>();
+
+    private JfrProfiling(DeploymentConfig deploymentConfig) {
+        Profiling profiling = deploymentConfig.getObservability() == null ? null
+                : deploymentConfig.getObservability().getProfiling();
+        Profiling settings = profiling == null ? new Profiling() : profiling;
+        this.settings = settings.getSettings() == null || settings.getSettings().isBlank() ? "default"
+                : settings.getSettings().toLowerCase(Locale.ROOT);
+        if (!"default".equals(this.settings) && !"profile".equals(this.settings)) {
+            throw new IllegalArgumentException("observability.profiling.settings must be default or profile: "
+                    + settings.getSettings());
+        }
+        this.maxSizeMiB = positiveOrDefault(settings.getMaxSizeMiB(), DEFAULT_MAX_SIZE_MIB);
+        this.maxAgeMinutes = positiveOrDefault(settings.getMaxAgeMinutes(), DEFAULT_MAX_AGE_MINUTES);
+        this.memoryMiB = positiveOrDefault(settings.getMemoryMiB(), DEFAULT_MEMORY_MIB);
+        this.dumpOnExit = !Boolean.FALSE.equals(settings.getDumpOnExit());
+        this.gcLog = !Boolean.FALSE.equals(settings.getGcLog());
+
+        boolean requested = profiling != null && !Boolean.FALSE.equals(profiling.getEnabled());
+        StartupMode startupMode = StartupMode.fromValue(deploymentConfig.getStartupMode());
+        int javaMajorVersion = VersionUtils.parseJavaMajorVersion(deploymentConfig.getJavaVersion(), 21);
+        if (requested && (startupMode == StartupMode.CRAC || !startupMode.isJvm())) {
+            warnings.add("observability.profiling is not supported in the " + startupMode.getValue()
+                    + " startup mode, the recording is not started");
+        } else if (requested && javaMajorVersion < MIN_JAVA_VERSION) {
+            warnings.add("observability.profiling needs Java " + MIN_JAVA_VERSION + " or later, the recording is not started");
+        }
+        this.enabled = requested && warnings.isEmpty();
+    }
+
+    /**
+     * Derives the recording of a deployment configuration.
+     *
+     * @param deploymentConfig the deployment configuration
+     * @return the recording, disabled if the configuration has no {@code observability.profiling}
+     */
+    public static JfrProfiling forDeployment(DeploymentConfig deploymentConfig) {
+        return new JfrProfiling(deploymentConfig);
+    }
+
+    /**
+     * @return the memory JFR uses outside the heap and metaspace, {@code 0} if disabled
+     */
+    public long getNativeOverheadMiB() {
+        return enabled ? memoryMiB + NATIVE_OVERHEAD_MIB : 0;
+    }
+
+    /**
+     * @return the metaspace taken by JFR's classes, {@code 0} if disabled
+     */
+    public long getMetaspaceOverheadMiB() {
+        return enabled ? METASPACE_MIB : 0;
+    }
+
+    /**
+     * @return the memory reserved for JFR outside the heap, in metaspace and native memory
+     */
+    public long getReservedMiB() {
+        return getNativeOverheadMiB() + getMetaspaceOverheadMiB();
+    }
+
+    /**
+     * @return the {@code sizeLimit} of the volume: the repository, the dump on exit and the GC logs
+     */
+    public long getVolumeSizeLimitMiB() {
+        return maxSizeMiB + CHUNK_HEADROOM_MIB + (dumpOnExit ? maxSizeMiB : 0)
+                + (gcLog ? GC_LOG_FILES * GC_LOG_FILE_MIB : 0);
+    }
+
+    /**
+     * @return the JVM flags of the recording, in a fixed order, empty if disabled
+     */
+    public List<String> getFlags() {
+        List<String> flags = new ArrayList<>();
+        if (!enabled) {
+            return flags;
+        }
+        flags.add("-XX:FlightRecorderOptions=repository=" + MOUNT_PATH + "/repository,memorysize=" + memoryMiB + "m");
+        flags.add("-XX:StartFlightRecording=name=continuous,settings=" + settings + ",disk=true,maxsize=" + maxSizeMiB
+                + "m,maxage=" + maxAgeMinutes + "m" + (dumpOnExit ? ",dumponexit=true,filename=" + MOUNT_PATH + "/exit.jfr" : ""));
+        if (gcLog) {
+            flags.add("-Xlog:gc*:file=" + MOUNT_PATH + "/gc.log:time,uptime,level,tags:filecount=" + GC_LOG_FILES
+                    + ",filesize=" + GC_LOG_FILE_MIB + "m");
+        }
+        return flags;
+    }
+
+    /**
+     * Appends the flags of the recording to a {@code JAVA_TOOL_OPTIONS} value. Recording and GC log flags already
+     * in the value are replaced.
+     *
+     * @param javaToolOptions the value, may be {@code null} or blank
+     * @return the value with the flags, unchanged if disabled
+     */
+    public String appendTo(String javaToolOptions) {
+        List<String> flags = getFlags();
+        if (flags.isEmpty()) {
+            return javaToolOptions;
+        }
+        List<String> options = new ArrayList<>();
+        for (String option : (javaToolOptions == null ? "" : javaToolOptions).trim().split("\\s+")) {
+            if (!option.isEmpty() && !option.startsWith("-XX:StartFlightRecording")
+                    && !option.startsWith("-XX:FlightRecorderOptions") && !option.startsWith("-Xlog:gc")) {
+                options.add(option);
+            }
+        }
+        options.addAll(flags);
+        return String.join(" ", options);
+    }
+
+    /**
+     * @return a one-line description of the recording for the build log
+     */
+    public String summary() {
+        return String.format(Locale.ROOT, "JFR recording with %s settings, %dMi for %d minutes in %s, %dMi reserved outside the heap",
+                settings, maxSizeMiB, maxAgeMinutes, MOUNT_PATH, getReservedMiB());
+    }
+
+    private static int positiveOrDefault(Integer value, int defaultValue) {
+        return value == null || value <= 0 ? defaultValue : value;
+    }
+}
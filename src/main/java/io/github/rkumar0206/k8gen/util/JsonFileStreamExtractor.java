@@ -0,0 +1,197 @@
+package io.github.rkumar0206.k8gen.util;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.function.BiConsumer;
+
+/**
+ * Incremental extractor for the structured output mode, where the model answers with a JSON array
+ * of {@code {"path": ..., "content": ...}} objects instead of BEGIN/END file markers.
+ *
+ * <p>Text fragments are fed as they arrive from the model into Jackson's non-blocking parser. Each
+ * file is handed to the consumer as soon as its object is closed, and only the tokens of the object
+ * currently being parsed are held in memory, so the whole response is never buffered.
+ *
+ * <p>Objects without a {@code path} or {@code content} are dropped. A syntax error stops the
+ * extraction; files completed before the error have already been delivered.
+ */
+public class JsonFileStreamExtractor {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final BiConsumer<String, String> fileConsumer;
+    private final JsonParser parser;
+    private final ByteArrayFeeder feeder;
+
+    private boolean arrayStarted;
+    private boolean arrayClosed;
+    private int skipDepth;
+    private String currentField;
+    private String path;
+    private String content;
+    private int extractedFiles;
+    private int droppedObjects;
+    private String error;
+    private boolean endedEarly;
+
+    /**
+     * Creates a new extractor.
+     *
+     * @param fileConsumer receives {@code (path, content)} of every completed file
+     * @throws IOException if the parser cannot be created
+     */
+    public JsonFileStreamExtractor(BiConsumer<String, String> fileConsumer) throws IOException {
+        this.fileConsumer = fileConsumer;
+        this.parser = JSON_FACTORY.createNonBlockingByteArrayParser();
+        this.feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+    }
+
+    /**
+     * Feeds the next fragment of the model response.
+     *
+     * @param fragment the text received from the model
+     */
+    public void feed(String fragment) {
+        if (error != null || arrayClosed) {
+            return;
+        }
+        byte[] bytes = fragment.getBytes(StandardCharsets.UTF_8);
+        try {
+            feeder.feedInput(bytes, 0, bytes.length);
+            drain();
+        } catch (IOException e) {
+            error = e.getMessage();
+        }
+    }
+
+    /**
+     * Signals the end of the response and processes the remaining tokens.
+     */
+    public void finish() {
+        if (error == null && !arrayClosed) {
+            feeder.endOfInput();
+            try {
+                drain();
+            } catch (IOException e) {
+                error = e.getMessage();
+                endedEarly = true;
+            }
+        }
+        try {
+            parser.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    private void drain() throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+            handle(token);
+        }
+    }
+
+    private void handle(JsonToken token) throws IOException {
+        if (!arrayStarted) {
+            if (token != JsonToken.START_ARRAY) {
+                throw new IOException("Expected a JSON array of files but got " + token);
+            }
+            arrayStarted = true;
+            return;
+        }
+
+        // nested values of unknown fields are skipped token by token
+        if (skipDepth > 0) {
+            if (token.isStructStart()) {
+                skipDepth++;
+            } else if (token.isStructEnd()) {
+                skipDepth--;
+            }
+            return;
+        }
+
+        switch (token) {
+            case START_OBJECT -> {
+                if (currentField != null) {
+                    skipDepth = 1;
+                    currentField = null;
+                } else {
+                    path = null;
+                    content = null;
+                }
+            }
+            case FIELD_NAME -> currentField = parser.currentName();
+            case VALUE_STRING -> {
+                if ("path".equals(currentField)) {
+                    path = parser.getText();
+                } else if ("content".equals(currentField)) {
+                    content = parser.getText();
+                }
+                currentField = null;
+            }
+            case START_ARRAY -> {
+                skipDepth = 1;
+                currentField = null;
+            }
+            case END_OBJECT -> {
+                if (path != null && !path.isBlank() && content != null) {
+                    extractedFiles++;
+                    fileConsumer.accept(path.trim(), content.trim());
+                } else {
+                    droppedObjects++;
+                }
+                path = null;
+                content = null;
+            }
+            case END_ARRAY -> arrayClosed = true;
+            default -> currentField = null;
+        }
+    }
+
+    /**
+     * @return the number of files handed to the consumer
+     */
+    public int getExtractedFiles() {
+        return extractedFiles;
+    }
+
+    /**
+     * @return the number of objects dropped because they lacked a path or content
+     */
+    public int getDroppedObjects() {
+        return droppedObjects;
+    }
+
+    /**
+     * @return {@code true} if the closing bracket of the array was received
+     */
+    public boolean isComplete() {
+        return arrayClosed;
+    }
+
+    /**
+     * @return {@code true} if the response ended before the array was closed, e.g. because the
+     * model hit its output token limit
+     */
+    public boolean isTruncated() {
+        return !arrayClosed && (error == null || endedEarly);
+    }
+
+    /**
+     * @return the path of the object that was being parsed when the response ended, or {@code null}
+     */
+    public String getIncompleteFile() {
+        return path;
+    }
+
+    /**
+     * @return the parse error that stopped the extraction, or {@code null}
+     */
+    public String getError() {
+        return error;
+    }
+}
@@ -0,0 +1,190 @@
+package io.github.rkumar0206.k8gen.util;
+
+import io.github.rkumar0206.k8gen.model.DeploymentConfig;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Deterministic, container-aware JVM flags derived from a container's resource limits.
+ *
+ * <p>The heap is sized through {@code -XX:MaxRAMPercentage} so that it follows the cgroup memory
+ * limit. The percentage leaves headroom for the JVM's non-heap memory, each part of which is
+ * capped explicitly so the estimate holds:
+ * <ul>
+ * <li>metaspace ({@code -XX:MaxMetaspaceSize}),</li>
+ * <li>JIT code cache ({@code -XX:ReservedCodeCacheSize}),</li>
+ * <li>direct byte buffers ({@code -XX:MaxDirectMemorySize}),</li>
+ * <li>thread stacks, estimated from the CPU count,</li>
+ * <li>GC bookkeeping and other native memory, estimated as 5% of the limit plus 16 MiB,</li>
+ * <li>the buffers and classes of the continuous JFR recording, if {@link JfrProfiling} is enabled.</li>
+ * </ul>
+ * The garbage collector is picked from the heap size and processor count, and
+ * {@code -XX:ActiveProcessorCount} pins the processor count for CPU limits so that every JDK
+ * version sees the same value (JDKs before 19 also derived it from the CPU request).
+ */
+@Getter
+public class JvmTuning {
+
+    /**
+     * Memory limit assumed when the configuration has none, matching the prompt's default.
+     */
+    public static final String DEFAULT_MEMORY_LIMIT = "1Gi";
+
+    /**
+     * CPU limit assumed when the configuration has none, matching the prompt's default.
+     */
+    public static final String DEFAULT_CPU_LIMIT = "500m";
+
+    private static final int MIN_HEAP_PERCENTAGE = 25;
+    private static final int MAX_HEAP_PERCENTAGE = 80;
+    private static final long ZGC_MIN_HEAP_MIB = 16 * 1024;
+    private static final long G1_MIN_HEAP_MIB = 256;
+
+    private final long memoryLimitMiB;
+    private final int activeProcessorCount;
+    private final int javaMajorVersion;
+    private final long metaspaceMiB;
+    private final long codeCacheMiB;
+    private final long directMemoryMiB;
+    private final long threadStacksMiB;
+    private final long nativeOverheadMiB;
+    private final long extraOverheadMiB;
+    private final int maxRamPercentage;
+    private final int initialRamPercentage;
+    private final String garbageCollector;
+    private final List<String> warnings = new ArrayList<>();
+
+    private JvmTuning(long memoryLimitMiB, long memoryRequestMiB, long cpuLimitMillis, int javaMajorVersion,
+                      long extraOverheadMiB, long extraMetaspaceMiB) {
+        this.memoryLimitMiB = memoryLimitMiB;
+        this.activeProcessorCount = (int) Math.max(1, (cpuLimitMillis + 999) / 1000);
+        this.javaMajorVersion = javaMajorVersion;
+        this.extraOverheadMiB = extraOverheadMiB;
+
+        this.metaspaceMiB = (memoryLimitMiB <= 384 ? 96 : memoryLimitMiB <= 1024 ? 128 : memoryLimitMiB <= 4096 ? 192 : 256)
+                + extraMetaspaceMiB;
+        this.codeCacheMiB = memoryLimitMiB <= 768 ? 48 : memoryLimitMiB <= 2048 ? 64 : memoryLimitMiB <= 4096 ? 128 : 240;
+        this.directMemoryMiB = memoryLimitMiB < 1024 ? 32 : memoryLimitMiB <= 2048 ? 64 : 128;
+        // resident stack pages, about half a MiB for each of the threads a service typically runs per core
+        int estimatedThreads = Math.min(250, 40 + 60 * activeProcessorCount);
+        this.threadStacksMiB = estimatedThreads / 2;
+        this.nativeOverheadMiB = Math.round(memoryLimitMiB * 0.05) + 16;
+
+        long heapMiB = memoryLimitMiB - metaspaceMiB - codeCacheMiB - directMemoryMiB - threadStacksMiB
+                - nativeOverheadMiB - extraOverheadMiB;
+        int percentage = (int) Math.floor(heapMiB * 100.0 / memoryLimitMiB);
+        if (percentage < MIN_HEAP_PERCENTAGE) {
+            warnings.add("memory limit of " + memoryLimitMiB + "Mi leaves almost no room for the heap; "
+                    + "consider at least 512Mi");
+        }
+        this.maxRamPercentage = Math.max(MIN_HEAP_PERCENTAGE, Math.min(MAX_HEAP_PERCENTAGE, percentage));
+        this.initialRamPercentage = memoryRequestMiB >= memoryLimitMiB
+                ? maxRamPercentage
+                : Math.max(1, (int) (maxRamPercentage * memoryRequestMiB / memoryLimitMiB));
+
+        this.garbageCollector = selectGarbageCollector(getMaxHeapMiB());
+    }
+
+    /**
+     * Computes the JVM flags for the application container of a deployment configuration.
+     * Missing values fall back to {@link #DEFAULT_MEMORY_LIMIT}, {@link #DEFAULT_CPU_LIMIT} and Java 21.
+     * The memory of the JFR recording of {@code observability.profiling} is reserved outside the heap.
+     *
+     * @param deploymentConfig the deployment configuration
+     * @return the tuning
+     */
+    public static JvmTuning forDeployment(DeploymentConfig deploymentConfig) {
+        return forDeployment(deploymentConfig, 0);
+    }
+
+    /**
+     * Computes the JVM flags for the application container of a deployment configuration, reserving
+     * additional non-heap memory, e.g. for native buffers of a profiler, on top of that of the JFR recording.
+     *
+     * @param deploymentConfig the deployment configuration
+     * @param extraOverheadMiB additional memory to keep outside the heap
+     * @return the tuning
+     */
+    public static JvmTuning forDeployment(DeploymentConfig deploymentConfig, long extraOverheadMiB) {
+        String memoryLimit = valueOrDefault(deploymentConfig.getMemoryLimit(), DEFAULT_MEMORY_LIMIT);
+        JfrProfiling profiling = JfrProfiling.forDeployment(deploymentConfig);
+        return new JvmTuning(
+                ResourceQuantity.parseMemoryMiB(memoryLimit),
+                ResourceQuantity.parseMemoryMiB(valueOrDefault(deploymentConfig.getMemoryRequest(), memoryLimit)),
+                ResourceQuantity.parseCpuMillis(valueOrDefault(deploymentConfig.getCpuLimit(), DEFAULT_CPU_LIMIT)),
+                VersionUtils.parseJavaMajorVersion(deploymentConfig.getJavaVersion(), 21),
+                extraOverheadMiB + profiling.getNativeOverheadMiB(),
+                profiling.getMetaspaceOverheadMiB());
+    }
+
+    /**
+     * Computes the JVM flags for the given container resources.
+     *
+     * @param memoryLimit      the memory limit, e.g. {@code 1Gi}
+     * @param memoryRequest    the memory request, e.g. {@code 512Mi}
+     * @param cpuLimit         the CPU limit, e.g. {@code 500m}
+     * @param javaVersion      the Java version, e.g. {@code 21}
+     * @param extraOverheadMiB additional memory to keep outside the heap
+     * @return the tuning
+     */
+    public static JvmTuning compute(String memoryLimit, String memoryRequest, String cpuLimit, String javaVersion,
+                                    long extraOverheadMiB) {
+        return new JvmTuning(
+                ResourceQuantity.parseMemoryMiB(memoryLimit),
+                ResourceQuantity.parseMemoryMiB(memoryRequest),
+                ResourceQuantity.parseCpuMillis(cpuLimit),
+                VersionUtils.parseJavaMajorVersion(javaVersion, 21),
+                extraOverheadMiB,
+                0);
+    }
+
+    /**
+     * @return the maximum heap size implied by {@link #getMaxRamPercentage()}
+     */
+    public long getMaxHeapMiB() {
+        return memoryLimitMiB * maxRamPercentage / 100;
+    }
+
+    /**
+     * @return the flags as a list, in a fixed order
+     */
+    public List<String> getFlags() {
+        List<String> flags = new ArrayList<>();
+        flags.add("-XX:InitialRAMPercentage=" + initialRamPercentage + ".0");
+        flags.add("-XX:MaxRAMPercentage=" + maxRamPercentage + ".0");
+        flags.add("-XX:MaxMetaspaceSize=" + metaspaceMiB + "m");
+        flags.add("-XX:ReservedCodeCacheSize=" + codeCacheMiB + "m");
+        flags.add("-XX:MaxDirectMemorySize=" + directMemoryMiB + "m");
+        flags.add("-XX:ActiveProcessorCount=" + activeProcessorCount);
+        flags.add(garbageCollector);
+        if ("-XX:+UseZGC".equals(garbageCollector) && javaMajorVersion < 23) {
+            flags.add("-XX:+ZGenerational");
+        }
+        flags.add("-XX:+ExitOnOutOfMemoryError");
+        return flags;
+    }
+
+    /**
+     * @return the flags joined into a value for {@code JAVA_TOOL_OPTIONS}
+     */
+    public String toJavaToolOptions() {
+        return String.join(" ", getFlags());
+    }
+
+    private String selectGarbageCollector(long heapMiB) {
+        if (activeProcessorCount < 2 || heapMiB < G1_MIN_HEAP_MIB) {
+            // a single core gains nothing from concurrent collectors, their threads only compete with the app
+            return "-XX:+UseSerialGC";
+        }
+        if (heapMiB >= ZGC_MIN_HEAP_MIB && javaMajorVersion >= 21) {
+            return "-XX:+UseZGC";
+        }
+        return "-XX:+UseG1GC";
+    }
+
+    private static String valueOrDefault(String value, String defaultValue) {
+        return value == null || value.isBlank() ? defaultValue : value;
+    }
+}
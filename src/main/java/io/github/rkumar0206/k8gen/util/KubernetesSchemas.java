@@ -0,0 +1,259 @@
+package io.github.rkumar0206.k8gen.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The Kubernetes object schemas bundled with the plugin, compiled into an index keyed by
+ * {@code apiVersion/kind}.
+ *
+ * <p>The bundled {@code schemas/kubernetes.json} is a reduced form of the upstream OpenAPI definitions of
+ * the kinds the plugin generates: only the validation keywords are kept (types, required fields, enums,
+ * name patterns and lengths), and a field added after the oldest supported version records the minor
+ * version it was added in, so one file serves every supported version. A field type is written as a
+ * primitive ({@code string}, {@code integer}, {@code number}, {@code boolean}, {@code intOrString},
+ * {@code quantity}, {@code any}), a definition name, {@code [type]} for a list or {@code {type}} for a map.
+ * The file is compiled once per JVM, so the Gradle daemon keeps the index warm between builds.
+ */
+public final class KubernetesSchemas {
+
+    private static final String RESOURCE = "/io/github/rkumar0206/k8gen/schemas/kubernetes.json";
+    private static final Pattern VERSION = Pattern.compile("v?(\\d+)\\.(\\d+)(\\.\\d+)?");
+
+    /**
+     * The type of a schema node.
+     */
+    public enum Type {
+        OBJECT, ARRAY, MAP, STRING, INTEGER, NUMBER, BOOLEAN, INT_OR_STRING, QUANTITY, ANY
+    }
+
+    /**
+     * A compiled schema node. Definitions are shared, so a node may be reachable from several paths.
+     */
+    @Getter
+    public static final class Schema {
+        private Type type;
+        private final Map<String, Field> properties = new HashMap<>();
+        private final Set<String> required = new HashSet<>();
+        private boolean preserveUnknownFields;
+        /**
+         * The schema of the elements of a list or the values of a map.
+         */
+        private Schema items;
+        private Set<String> enumValues;
+        private Pattern pattern;
+        private int maxLength;
+    }
+
+    /**
+     * A field of an object.
+     *
+     * @param schema     the schema of the field value
+     * @param sinceMinor the Kubernetes minor version the field was added in, {@code 0} if it exists in all
+     *                   supported versions
+     */
+    public record Field(Schema schema, int sinceMinor) {
+    }
+
+    private final int minMinor;
+    private final int latestMinor;
+    private final Map<String, Schema> kinds;
+    private final Map<String, Set<String>> apiVersionsByKind;
+
+    private KubernetesSchemas(int minMinor, int latestMinor, Map<String, Schema> kinds,
+                              Map<String, Set<String>> apiVersionsByKind) {
+        this.minMinor = minMinor;
+        this.latestMinor = latestMinor;
+        this.kinds = kinds;
+        this.apiVersionsByKind = apiVersionsByKind;
+    }
+
+    /**
+     * @return the bundled schemas, compiled on first use
+     */
+    public static KubernetesSchemas bundled() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * @param apiVersion the {@code apiVersion} of an object
+     * @param kind       the {@code kind} of an object
+     * @return the schema of the object, or {@code null} if the pair is not bundled
+     */
+    public Schema schema(String apiVersion, String kind) {
+        return kinds.get(apiVersion + "/" + kind);
+    }
+
+    /**
+     * @param kind a kind
+     * @return the bundled API versions serving the kind, empty if the kind is not bundled
+     */
+    public Set<String> apiVersions(String kind) {
+        return apiVersionsByKind.getOrDefault(kind, Set.of());
+    }
+
+    /**
+     * Parses a Kubernetes version such as {@code 1.28}, {@code v1.28} or {@code 1.28.3}.
+     *
+     * @param version the version
+     * @return the minor version
+     * @throws IllegalArgumentException if the version is malformed or older than the oldest supported one
+     */
+    public int minorVersion(String version) {
+        Matcher matcher = VERSION.matcher(version == null ? "" : version.trim());
+        if (!matcher.matches() || !"1".equals(matcher.group(1))) {
+            throw new IllegalArgumentException("Invalid Kubernetes version '" + version + "', expected e.g. 1.28");
+        }
+        int minor = Integer.parseInt(matcher.group(2));
+        if (minor < minMinor) {
+            throw new IllegalArgumentException("Kubernetes " + version + " is not supported, the oldest supported version is 1."
+                    + minMinor);
+        }
+        return minor;
+    }
+
+    /**
+     * @return the newest minor version whose fields are bundled; newer versions are validated against it
+     */
+    public int getLatestMinor() {
+        return latestMinor;
+    }
+
+    private static final class Holder {
+        private static final KubernetesSchemas INSTANCE = load();
+    }
+
+    private static KubernetesSchemas load() {
+        try (InputStream in = KubernetesSchemas.class.getResourceAsStream(RESOURCE)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing bundled resource " + RESOURCE);
+            }
+            return new Compiler(new ObjectMapper().readTree(in)).compile();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read " + RESOURCE, e);
+        }
+    }
+
+    /**
+     * Turns the JSON definitions into {@link Schema} nodes, resolving every definition once.
+     */
+    private static final class Compiler {
+
+        private final JsonNode root;
+        private final JsonNode definitions;
+        private final Map<String, Schema> compiled = new HashMap<>();
+
+        Compiler(JsonNode root) {
+            this.root = root;
+            this.definitions = root.path("definitions");
+        }
+
+        KubernetesSchemas compile() {
+            Map<String, Schema> kinds = new HashMap<>();
+            Map<String, Set<String>> apiVersionsByKind = new LinkedHashMap<>();
+            for (Map.Entry<String, JsonNode> entry : root.path("kinds").properties()) {
+                String key = entry.getKey();
+                int slash = key.lastIndexOf('/');
+                kinds.put(key, definition(entry.getValue().asText()));
+                apiVersionsByKind.computeIfAbsent(key.substring(slash + 1), k -> new TreeSet<>())
+                        .add(key.substring(0, slash));
+            }
+            return new KubernetesSchemas(minor(root.path("minVersion").asText()),
+                    minor(root.path("latestVersion").asText()), kinds, apiVersionsByKind);
+        }
+
+        private Schema definition(String name) {
+            Schema schema = compiled.get(name);
+            if (schema != null) {
+                return schema;
+            }
+            JsonNode node = definitions.get(name);
+            if (node == null) {
+                throw new IllegalStateException("Unknown schema definition " + name);
+            }
+            schema = new Schema();
+            // registered before its fields are compiled, so definitions may refer to each other
+            compiled.put(name, schema);
+            fill(schema, node);
+            return schema;
+        }
+
+        private void fill(Schema schema, JsonNode node) {
+            if (node.has("properties")) {
+                schema.type = Type.OBJECT;
+                for (Map.Entry<String, JsonNode> property : node.get("properties").properties()) {
+                    schema.properties.put(property.getKey(), field(property.getValue()));
+                }
+                node.path("required").forEach(name -> schema.required.add(name.asText()));
+                schema.preserveUnknownFields = node.path("preserveUnknownFields").asBoolean(false);
+                return;
+            }
+            Schema base = type(node.path("type").asText("any"));
+            schema.type = base.type;
+            schema.items = base.items;
+            if (node.has("enum")) {
+                schema.enumValues = new HashSet<>();
+                node.get("enum").forEach(value -> schema.enumValues.add(value.asText()));
+            }
+            if (node.has("pattern")) {
+                schema.pattern = Pattern.compile(node.get("pattern").asText());
+            }
+            schema.maxLength = node.path("maxLength").asInt(0);
+        }
+
+        private Field field(JsonNode node) {
+            if (node.isTextual()) {
+                return new Field(type(node.asText()), 0);
+            }
+            int since = node.has("since") ? minor(node.get("since").asText()) : 0;
+            if (node.has("$ref")) {
+                return new Field(type(node.get("$ref").asText()), since);
+            }
+            Schema schema = new Schema();
+            fill(schema, node);
+            return new Field(schema, since);
+        }
+
+        private Schema type(String notation) {
+            if (notation.startsWith("[") || notation.startsWith("{")) {
+                Schema container = new Schema();
+                container.type = notation.startsWith("[") ? Type.ARRAY : Type.MAP;
+                container.items = type(notation.substring(1, notation.length() - 1));
+                return container;
+            }
+            Type primitive = switch (notation) {
+                case "string" -> Type.STRING;
+                case "integer" -> Type.INTEGER;
+                case "number" -> Type.NUMBER;
+                case "boolean" -> Type.BOOLEAN;
+                case "intOrString" -> Type.INT_OR_STRING;
+                case "quantity" -> Type.QUANTITY;
+                case "any" -> Type.ANY;
+                default -> null;
+            };
+            if (primitive == null) {
+                return definition(notation);
+            }
+            Schema schema = new Schema();
+            schema.type = primitive;
+            return schema;
+        }
+
+        private static int minor(String version) {
+            return Integer.parseInt(version.split("\\.")[1]);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package io.github.rkumar0206.k8gen.util;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Collects the Kubernetes objects of the generated files into one multi-document YAML file.
+ *
+ * <p>Only the objects of the base manifests are taken: docker-compose files, kustomizations and everything below
+ * {@code overlays/} are left out, as are documents without {@code apiVersion} and {@code kind}. The objects are
+ * ordered so that {@code kubectl apply -f} creates them in dependency order, namespaces and RBAC first and the
+ * autoscalers and policies of a workload after it; objects of the same kind keep the order of their files. Each
+ * object is rendered canonically with a {@code Source} comment naming its file.
+ */
+public class ManifestBundle {
+
+    private static final List<String> APPLY_ORDER = List.of(
+            "Namespace", "CustomResourceDefinition", "ServiceAccount", "ClusterRole", "ClusterRoleBinding", "Role",
+            "RoleBinding", "ConfigMap", "Secret", "PersistentVolumeClaim", "Service", "Job", "CronJob", "Deployment",
+            "StatefulSet", "DaemonSet", "Ingress", "HorizontalPodAutoscaler", "ScaledObject", "PodDisruptionBudget",
+            "NetworkPolicy");
+
+    /**
+     * Reads every file below a directory.
+     *
+     * @param directory the directory
+     * @return the contents by path relative to the directory, with {@code /} separators, sorted by path
+     * @throws IOException if a file cannot be read
+     */
+    public static Map<String, String> readFiles(Path directory) throws IOException {
+        Map<String, String> files = new LinkedHashMap<>();
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.filter(Files::isRegularFile).sorted().toList()) {
+                files.put(directory.relativize(path).toString().replace('\\', '/'), Files.readString(path, StandardCharsets.UTF_8));
+            }
+        }
+        return files;
+    }
+
+    /**
+     * Builds the all-in-one manifest.
+     *
+     * @param files the generated files by path
+     * @return the multi-document YAML text, empty if there are no Kubernetes objects
+     */
+    public static String allInOne(Map<String, String> files) {
+        List<YamlDocument> objects = new ArrayList<>();
+        files.forEach((fileName, content) -> {
+            if (!isBaseManifest(fileName)) {
+                return;
+            }
+            List<YamlDocument> documents = YamlNormalizer.parse(content);
+            if (documents == null) {
+                return;
+            }
+            for (YamlDocument document : documents) {
+                Map<String, Object> map = document.asMap();
+                if (map == null || map.get("apiVersion") == null || document.getKind() == null
+                        || "Kustomization".equals(document.getKind())) {
+                    continue;
+                }
+                List<String> comments = new ArrayList<>();
+                comments.add(" Source: " + fileName);
+                comments.addAll(document.getComments());
+                objects.add(new YamlDocument(comments, document.getData()));
+            }
+        });
+        objects.sort(Comparator.comparingInt(document -> applyOrder(document.getKind())));
+        return YamlNormalizer.render(objects);
+    }
+
+    private static boolean isBaseManifest(String fileName) {
+        String path = fileName.replace('\\', '/');
+        return YamlNormalizer.isYamlFile(path) && !ManifestUtil.isComposeFile(path) && !path.startsWith("overlays/");
+    }
+
+    private static int applyOrder(String kind) {
+        int index = APPLY_ORDER.indexOf(kind);
+        return index < 0 ? APPLY_ORDER.size() : index;
+    }
+
+    private ManifestBundle() {
+        // utility class
+    }
+}
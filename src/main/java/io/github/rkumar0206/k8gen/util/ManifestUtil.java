@@ -0,0 +1,266 @@
+package io.github.rkumar0206.k8gen.util;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Helpers for patching parsed Kubernetes manifests and docker-compose files in place.
+ *
+ * <p>The maps and lists are the mutable structures produced by {@link YamlNormalizer#parse(String)}.
+ * Missing intermediate maps and lists are created on demand.
+ */
+public class ManifestUtil {
+
+    private static final Set<String> POD_TEMPLATE_KINDS = Set.of("Deployment", "StatefulSet", "DaemonSet", "ReplicaSet", "Job");
+
+    /**
+     * @param fileName the file name
+     * @return {@code true} for {@code docker-compose.yml}, {@code compose.yaml} and similar names
+     */
+    public static boolean isComposeFile(String fileName) {
+        String name = fileName.replace('\\', '/');
+        name = name.substring(name.lastIndexOf('/') + 1).toLowerCase(Locale.ROOT);
+        return YamlNormalizer.isYamlFile(name) && (name.startsWith("docker-compose") || name.startsWith("compose"));
+    }
+
+    /**
+     * @param fileName the generated file path
+     * @param name     a file name, e.g. {@code Dockerfile}
+     * @return {@code true} if the path denotes the named file at the top of the output directory
+     */
+    public static boolean isRootFile(String fileName, String name) {
+        String path = fileName.replace('\\', '/');
+        while (path.startsWith("./") || path.startsWith("/")) {
+            path = path.substring(path.startsWith("./") ? 2 : 1);
+        }
+        return name.equals(path);
+    }
+
+    /**
+     * Returns the pod spec of a workload document.
+     *
+     * @param document the parsed document
+     * @return the pod spec, or {@code null} if the document is not a workload with a pod template
+     */
+    public static Map<String, Object> podSpec(YamlDocument document) {
+        Map<String, Object> root = document.asMap();
+        if (root == null) {
+            return null;
+        }
+        String kind = document.getKind();
+        Map<String, Object> spec = map(root.get("spec"));
+        if ("CronJob".equals(kind)) {
+            Map<String, Object> jobTemplate = spec == null ? null : map(spec.get("jobTemplate"));
+            spec = jobTemplate == null ? null : map(jobTemplate.get("spec"));
+        } else if (!POD_TEMPLATE_KINDS.contains(kind)) {
+            return null;
+        }
+        Map<String, Object> template = spec == null ? null : map(spec.get("template"));
+        return template == null ? null : map(template.get("spec"));
+    }
+
+    /**
+     * Finds the application container of a pod spec: the container named like the application,
+     * otherwise the one whose image mentions the application name, otherwise the only container.
+     *
+     * @param podSpec         the pod spec
+     * @param applicationName the application name, may be {@code null}
+     * @return the container, or {@code null} if none can be identified
+     */
+    public static Map<String, Object> findAppContainer(Map<String, Object> podSpec, String applicationName) {
+        List<Map<String, Object>> containers = maps(podSpec.get("containers"));
+        return findByName(containers, applicationName, "image");
+    }
+
+    /**
+     * Finds the application container of a workload. Unlike {@link #findAppContainer(Map, String)} the only
+     * container of another workload, e.g. the Kafka or Postgres Deployment, is not taken.
+     *
+     * @param document        the workload
+     * @param applicationName the application name, may be {@code null}
+     * @return the container, or {@code null} if the document has no pod template or is not the application's
+     */
+    public static Map<String, Object> findAppContainer(YamlDocument document, String applicationName) {
+        Map<String, Object> podSpec = podSpec(document);
+        Map<String, Object> container = podSpec == null ? null : findAppContainer(podSpec, applicationName);
+        return container != null && isApplication(document, container, applicationName) ? container : null;
+    }
+
+    /**
+     * Tells whether a workload is the application's: it is named like the application, or the container is, or
+     * the container's image mentions the application name.
+     *
+     * @param document        the workload
+     * @param container       the container found by {@link #findAppContainer(Map, String)}
+     * @param applicationName the application name, may be {@code null}
+     * @return whether the workload runs the application
+     */
+    public static boolean isApplication(YamlDocument document, Map<String, Object> container, String applicationName) {
+        Map<String, Object> metadata = map(document.asMap().get("metadata"));
+        return applicationName != null && (metadata != null && applicationName.equals(metadata.get("name"))
+                || applicationName.equals(container.get("name"))
+                || String.valueOf(container.get("image")).contains(applicationName));
+    }
+
+    /**
+     * Finds the application service of a docker-compose file: the service named like the application or
+     * {@code app}, otherwise the one with a {@code build} section or an image mentioning the application
+     * name, otherwise the only service.
+     *
+     * @param compose         the parsed compose file
+     * @param applicationName the application name, may be {@code null}
+     * @return the service, or {@code null} if none can be identified
+     */
+    public static Map<String, Object> findAppService(Map<String, Object> compose, String applicationName) {
+        Map<String, Object> services = map(compose.get("services"));
+        if (services == null || services.isEmpty()) {
+            return null;
+        }
+        for (String name : new String[]{applicationName, "app"}) {
+            if (name != null && map(services.get(name)) != null) {
+                return map(services.get(name));
+            }
+        }
+        for (Object service : services.values()) {
+            Map<String, Object> definition = map(service);
+            if (definition != null && (definition.containsKey("build")
+                    || mentions(definition.get("image"), applicationName))) {
+                return definition;
+            }
+        }
+        return services.size() == 1 ? map(services.values().iterator().next()) : null;
+    }
+
+    /**
+     * Sets an environment variable of a container, replacing an existing entry of the same name.
+     *
+     * @param container the container
+     * @param name      the variable name
+     * @param value     the value
+     */
+    public static void setEnv(Map<String, Object> container, String name, String value) {
+        List<Object> env = list(container, "env");
+        for (Object entry : env) {
+            Map<String, Object> variable = map(entry);
+            if (variable != null && name.equals(variable.get("name"))) {
+                variable.remove("valueFrom");
+                variable.put("value", value);
+                return;
+            }
+        }
+        Map<String, Object> variable = new LinkedHashMap<>();
+        variable.put("name", name);
+        variable.put("value", value);
+        env.add(variable);
+    }
+
+    /**
+     * Sets an environment variable of a compose service. Both the map and the {@code KEY=value} list
+     * syntax of {@code environment} are supported.
+     *
+     * @param service the service definition
+     * @param name    the variable name
+     * @param value   the value
+     */
+    @SuppressWarnings("unchecked")
+    public static void setComposeEnv(Map<String, Object> service, String name, String value) {
+        Object environment = service.get("environment");
+        if (environment instanceof List<?> entries) {
+            List<Object> list = (List<Object>) entries;
+            list.removeIf(entry -> String.valueOf(entry).equals(name) || String.valueOf(entry).startsWith(name + "="));
+            list.add(name + "=" + value);
+        } else {
+            child(service, "environment").put(name, value);
+        }
+    }
+
+    /**
+     * Returns the map stored under a key, creating it if missing.
+     *
+     * @param parent the parent map
+     * @param key    the key
+     * @return the child map
+     */
+    @SuppressWarnings("unchecked")
+    public static Map<String, Object> child(Map<String, Object> parent, String key) {
+        Object value = parent.get(key);
+        if (value instanceof Map<?, ?> map) {
+            return (Map<String, Object>) map;
+        }
+        Map<String, Object> created = new LinkedHashMap<>();
+        parent.put(key, created);
+        return created;
+    }
+
+    /**
+     * Returns the list stored under a key, creating it if missing.
+     *
+     * @param parent the parent map
+     * @param key    the key
+     * @return the child list
+     */
+    @SuppressWarnings("unchecked")
+    public static List<Object> list(Map<String, Object> parent, String key) {
+        Object value = parent.get(key);
+        if (value instanceof List<?> list) {
+            return (List<Object>) list;
+        }
+        List<Object> created = new ArrayList<>();
+        parent.put(key, created);
+        return created;
+    }
+
+    /**
+     * @param value a parsed value
+     * @return the value as a map, or {@code null} if it is not a map
+     */
+    @SuppressWarnings("unchecked")
+    public static Map<String, Object> map(Object value) {
+        return value instanceof Map<?, ?> map ? (Map<String, Object>) map : null;
+    }
+
+    /**
+     * @param value a parsed value
+     * @return the map elements of the value if it is a list, otherwise an empty list
+     */
+    public static List<Map<String, Object>> maps(Object value) {
+        List<Map<String, Object>> maps = new ArrayList<>();
+        if (value instanceof List<?> list) {
+            for (Object item : list) {
+                Map<String, Object> map = map(item);
+                if (map != null) {
+                    maps.add(map);
+                }
+            }
+        }
+        return maps;
+    }
+
+    private static Map<String, Object> findByName(List<Map<String, Object>> items, String name, String fallbackKey) {
+        if (name != null) {
+            for (Map<String, Object> item : items) {
+                if (name.equals(item.get("name"))) {
+                    return item;
+                }
+            }
+            for (Map<String, Object> item : items) {
+                if (mentions(item.get(fallbackKey), name)) {
+                    return item;
+                }
+            }
+        }
+        return items.size() == 1 ? items.get(0) : null;
+    }
+
+    private static boolean mentions(Object value, String name) {
+        return name != null && !name.isBlank() && value != null && String.valueOf(value).contains(name);
+    }
+
+    private ManifestUtil() {
+        // utility class
+    }
+}
@@ -0,0 +1,267 @@
+package io.github.rkumar0206.k8gen.util;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Validates generated Kubernetes manifests against the {@link KubernetesSchemas} bundled with the plugin,
+ * without a cluster.
+ *
+ * <p>Every document whose {@code apiVersion} and {@code kind} are bundled is checked for unknown fields,
+ * missing required fields, value types, enum values, name formats and fields that do not exist yet in the
+ * targeted Kubernetes version. A built-in kind under an API version that is not served, such as
+ * {@code policy/v1beta1}, is reported as well. Documents of other API groups (custom resources other than
+ * KEDA's {@code ScaledObject}, Kustomize files) are skipped. Files are validated in parallel.
+ */
+public class ManifestValidator {
+
+    private static final Pattern QUANTITY = Pattern.compile("[+-]?([0-9]+(\\.[0-9]*)?|\\.[0-9]+)(([KMGTPE]i)|[numkMGTPE]|[eE][+-]?[0-9]+)?");
+    private static final Pattern IDENTIFIER = Pattern.compile("[A-Za-z_$][A-Za-z0-9_$]*");
+    private static final String KUSTOMIZE_GROUP = "kustomize.config.k8s.io";
+
+    /**
+     * A schema violation.
+     *
+     * @param file    the file name, relative to the validated directory
+     * @param kind    the kind of the object, or {@code null} if unknown
+     * @param name    the name of the object, or {@code null} if unknown
+     * @param path    the JSON path of the offending value, e.g. {@code $.spec.template.spec.containers[0].image}
+     * @param message the problem
+     */
+    public record Violation(String file, String kind, String name, String path, String message) {
+
+        @Override
+        public String toString() {
+            String object = kind == null ? "" : " " + kind + (name == null ? "" : "/" + name);
+            return file + ":" + object + " " + path + ": " + message;
+        }
+    }
+
+    /**
+     * The outcome of a validation run.
+     *
+     * @param files      the number of files validated
+     * @param documents  the number of documents validated against a schema
+     * @param skipped    the documents without a bundled schema, as {@code file: apiVersion kind}
+     * @param violations the violations, in file order
+     */
+    public record Result(int files, int documents, List<String> skipped, List<Violation> violations) {
+    }
+
+    private record FileResult(int documents, List<String> skipped, List<Violation> violations) {
+    }
+
+    private final KubernetesSchemas schemas;
+    private final int minorVersion;
+
+    /**
+     * Creates a validator for a Kubernetes version.
+     *
+     * @param kubernetesVersion the targeted version, e.g. {@code 1.28}
+     * @throws IllegalArgumentException if the version is malformed or not supported
+     */
+    public ManifestValidator(String kubernetesVersion) {
+        this.schemas = KubernetesSchemas.bundled();
+        this.minorVersion = schemas.minorVersion(kubernetesVersion);
+    }
+
+    /**
+     * Validates a set of files in parallel. Files that are not YAML, and docker-compose files, are ignored.
+     *
+     * @param files the file contents by file name, in reporting order
+     * @return the result
+     */
+    public Result validate(Map<String, String> files) {
+        List<FileResult> results = files.entrySet().parallelStream()
+                .filter(file -> YamlNormalizer.isYamlFile(file.getKey()) && !ManifestUtil.isComposeFile(file.getKey()))
+                .map(file -> validateFile(file.getKey(), file.getValue()))
+                .toList();
+
+        int documents = 0;
+        List<String> skipped = new ArrayList<>();
+        List<Violation> violations = new ArrayList<>();
+        for (FileResult result : results) {
+            documents += result.documents();
+            skipped.addAll(result.skipped());
+            violations.addAll(result.violations());
+        }
+        return new Result(results.size(), documents, skipped, violations);
+    }
+
+    private FileResult validateFile(String fileName, String content) {
+        List<YamlDocument> parsed = YamlNormalizer.parse(content);
+        if (parsed == null) {
+            return new FileResult(0, List.of(), List.of(new Violation(fileName, null, null, "$", "not valid YAML")));
+        }
+        int documents = 0;
+        List<String> skipped = new ArrayList<>();
+        List<Violation> violations = new ArrayList<>();
+        for (YamlDocument document : parsed) {
+            if (document.getData() == null) {
+                continue;
+            }
+            Map<String, Object> root = document.asMap();
+            if (root == null) {
+                violations.add(new Violation(fileName, null, null, "$", "expected a Kubernetes object"));
+                continue;
+            }
+            Object apiVersion = root.get("apiVersion");
+            String kind = document.getKind();
+            Map<String, Object> metadata = ManifestUtil.map(root.get("metadata"));
+            String name = metadata == null || metadata.get("name") == null ? null : metadata.get("name").toString();
+            if (!(apiVersion instanceof String) || kind == null) {
+                violations.add(new Violation(fileName, kind, name, "$", "missing apiVersion or kind"));
+                continue;
+            }
+
+            KubernetesSchemas.Schema schema = schemas.schema((String) apiVersion, kind);
+            if (schema != null) {
+                documents++;
+                check(root, schema, "$", new Location(fileName, kind, name, violations));
+            } else if (builtIn((String) apiVersion) && !schemas.apiVersions(kind).isEmpty()) {
+                violations.add(new Violation(fileName, kind, name, "$.apiVersion", apiVersion + " does not serve " + kind
+                        + " in Kubernetes 1." + minorVersion + ", use " + String.join(" or ", schemas.apiVersions(kind))));
+            } else {
+                skipped.add(fileName + ": " + apiVersion + " " + kind);
+            }
+        }
+        return new FileResult(documents, skipped, violations);
+    }
+
+    private record Location(String file, String kind, String name, List<Violation> violations) {
+
+        void report(String path, String message) {
+            violations.add(new Violation(file, kind, name, path, message));
+        }
+    }
+
+    private void check(Object value, KubernetesSchemas.Schema schema, String path, Location location) {
+        if (value == null) {
+            // an explicit null leaves the field unset
+            return;
+        }
+        switch (schema.getType()) {
+            case OBJECT -> checkObject(value, schema, path, location);
+            case ARRAY -> {
+                if (!(value instanceof List<?> list)) {
+                    location.report(path, "expected a list, got " + describe(value));
+                    return;
+                }
+                for (int i = 0; i < list.size(); i++) {
+                    check(list.get(i), schema.getItems(), path + "[" + i + "]", location);
+                }
+            }
+            case MAP -> {
+                Map<String, Object> map = ManifestUtil.map(value);
+                if (map == null) {
+                    location.report(path, "expected a map, got " + describe(value));
+                    return;
+                }
+                for (Map.Entry<String, Object> entry : map.entrySet()) {
+                    check(entry.getValue(), schema.getItems(), child(path, String.valueOf(entry.getKey())), location);
+                }
+            }
+            case STRING -> checkString(value, schema, path, location);
+            case INTEGER -> {
+                if (!(value instanceof Integer || value instanceof Long || value instanceof BigInteger)) {
+                    location.report(path, "expected an integer, got " + describe(value));
+                }
+            }
+            case NUMBER -> {
+                if (!(value instanceof Number)) {
+                    location.report(path, "expected a number, got " + describe(value));
+                }
+            }
+            case BOOLEAN -> {
+                if (!(value instanceof Boolean)) {
+                    location.report(path, "expected a boolean, got " + describe(value));
+                }
+            }
+            case INT_OR_STRING -> {
+                if (!(value instanceof String || value instanceof Integer || value instanceof Long)) {
+                    location.report(path, "expected an integer or a string, got " + describe(value));
+                }
+            }
+            case QUANTITY -> {
+                if (!(value instanceof Number) && !(value instanceof String text && QUANTITY.matcher(text).matches())) {
+                    location.report(path, "expected a quantity such as 500m or 512Mi, got " + describe(value));
+                }
+            }
+            case ANY -> {
+            }
+        }
+    }
+
+    private void checkObject(Object value, KubernetesSchemas.Schema schema, String path, Location location) {
+        Map<String, Object> map = ManifestUtil.map(value);
+        if (map == null) {
+            location.report(path, "expected an object, got " + describe(value));
+            return;
+        }
+        for (Map.Entry<String, Object> entry : map.entrySet()) {
+            String key = String.valueOf(entry.getKey());
+            KubernetesSchemas.Field field = schema.getProperties().get(key);
+            if (field == null) {
+                if (!schema.isPreserveUnknownFields()) {
+                    location.report(child(path, key), "unknown field");
+                }
+            } else if (field.sinceMinor() > minorVersion) {
+                location.report(child(path, key), "field is not available before Kubernetes 1." + field.sinceMinor());
+            } else {
+                check(entry.getValue(), field.schema(), child(path, key), location);
+            }
+        }
+        for (String required : schema.getRequired()) {
+            if (map.get(required) == null) {
+                location.report(child(path, required), "required field is missing");
+            }
+        }
+    }
+
+    private static void checkString(Object value, KubernetesSchemas.Schema schema, String path, Location location) {
+        if (!(value instanceof String text)) {
+            String hint = value instanceof Number || value instanceof Boolean ? ", quote the value" : "";
+            location.report(path, "expected a string, got " + describe(value) + hint);
+            return;
+        }
+        if (schema.getEnumValues() != null && !schema.getEnumValues().contains(text)) {
+            location.report(path, "unsupported value '" + text + "', expected one of "
+                    + schema.getEnumValues().stream().sorted().toList());
+        } else if (schema.getMaxLength() > 0 && text.length() > schema.getMaxLength()) {
+            location.report(path, "'" + text + "' is longer than " + schema.getMaxLength() + " characters");
+        } else if (schema.getPattern() != null && !schema.getPattern().matcher(text).matches()) {
+            location.report(path, "'" + text + "' must match " + schema.getPattern().pattern());
+        }
+    }
+
+    private static String child(String path, String key) {
+        return IDENTIFIER.matcher(key).matches() ? path + "." + key : path + "['" + key + "']";
+    }
+
+    private static String describe(Object value) {
+        String type;
+        if (value instanceof Map<?, ?>) {
+            return "an object";
+        } else if (value instanceof List<?>) {
+            return "a list";
+        } else if (value instanceof Boolean) {
+            type = "boolean";
+        } else if (value instanceof Integer || value instanceof Long || value instanceof BigInteger) {
+            type = "integer";
+        } else if (value instanceof Number) {
+            type = "number";
+        } else {
+            type = "string";
+        }
+        return type + " " + value;
+    }
+
+    private static boolean builtIn(String apiVersion) {
+        int slash = apiVersion.indexOf('/');
+        String group = slash < 0 ? "" : apiVersion.substring(0, slash);
+        return !group.contains(".") || group.endsWith(".k8s.io") && !KUSTOMIZE_GROUP.equals(group);
+    }
+}
@@ -0,0 +1,150 @@
+package io.github.rkumar0206.k8gen.util;
+
+import io.github.rkumar0206.k8gen.model.Database;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Derives {@code postgresql.conf} settings from the resources of the database container.
+ *
+ * <p>The rules follow the usual sizing guidance for a dedicated server:
+ * <ul>
+ * <li>{@code shared_buffers} is a quarter of the memory limit and {@code effective_cache_size} three
+ * quarters, the rest being the page cache the kernel keeps for the database,</li>
+ * <li>{@code work_mem} shares the memory outside the shared buffers among three sort or hash operations
+ * per connection and parallel worker,</li>
+ * <li>{@code maintenance_work_mem} is a sixteenth of the memory ({@code oltp}) or an eighth ({@code analytic}),
+ * at most 2GB,</li>
+ * <li>the WAL may grow to 4GB ({@code oltp}) or 16GB ({@code analytic}), at most a quarter of the data volume,
+ * between checkpoints spread over 90% of the 15 or 30 minute interval,</li>
+ * <li>parallel query uses the cores of the CPU limit, at most two per gather for {@code oltp},</li>
+ * <li>the planner assumes SSD storage.</li>
+ * </ul>
+ */
+@Getter
+public class PostgresTuning {
+
+    /**
+     * The memory limit assumed when none is configured.
+     */
+    public static final String DEFAULT_MEMORY = "1Gi";
+    /**
+     * The CPU limit assumed when none is configured.
+     */
+    public static final String DEFAULT_CPU = "1";
+    /**
+     * The data volume size assumed when none is configured.
+     */
+    public static final String DEFAULT_STORAGE = "10Gi";
+
+    private static final long MIB_IN_KB = 1024;
+    private static final long GIB_IN_KB = 1024 * 1024;
+
+    private final long memoryLimitMiB;
+    private final int cores;
+    private final boolean analytic;
+    private final Map<String, String> settings = new LinkedHashMap<>();
+    private final List<String> warnings = new ArrayList<>();
+
+    private PostgresTuning(Database database, int maxConnections) {
+        String workload = database.getWorkload() == null ? "oltp" : database.getWorkload().trim().toLowerCase(Locale.ROOT);
+        if (!List.of("oltp", "analytic").contains(workload)) {
+            throw new IllegalArgumentException("database.workload must be oltp or analytic: " + database.getWorkload());
+        }
+        this.analytic = "analytic".equals(workload);
+        this.memoryLimitMiB = ResourceQuantity.parseMemoryMiB(memoryLimit(database));
+        this.cores = (int) Math.max(1, Math.ceil(ResourceQuantity.parseCpuMillis(cpuLimit(database)) / 1000.0));
+        long storageKb = ResourceQuantity.parseMemoryMiB(database.getStorageSize() == null
+                || database.getStorageSize().isBlank() ? DEFAULT_STORAGE : database.getStorageSize()) * MIB_IN_KB;
+
+        long memoryKb = memoryLimitMiB * MIB_IN_KB;
+        long sharedBuffers = memoryKb / 4;
+        int workersPerGather = cores < 2 ? 0 : analytic ? Math.min(8, cores / 2) : Math.min(2, cores / 2);
+        long workMem = Math.max(64, (memoryKb - sharedBuffers) / (maxConnections * 3L) / Math.max(1, workersPerGather));
+        long maxWal = Math.min(analytic ? 16 * GIB_IN_KB : 4 * GIB_IN_KB, storageKb / 4);
+
+        settings.put("listen_addresses", "'*'");
+        settings.put("max_connections", String.valueOf(maxConnections));
+        settings.put("shared_buffers", formatKb(sharedBuffers));
+        settings.put("effective_cache_size", formatKb(memoryKb * 3 / 4));
+        settings.put("work_mem", formatKb(workMem));
+        settings.put("maintenance_work_mem", formatKb(Math.min(2 * GIB_IN_KB, memoryKb / (analytic ? 8 : 16))));
+        settings.put("wal_buffers", formatKb(Math.max(64, Math.min(16 * MIB_IN_KB, sharedBuffers * 3 / 100))));
+        settings.put("min_wal_size", formatKb(Math.min(analytic ? 4 * GIB_IN_KB : GIB_IN_KB, maxWal / 4)));
+        settings.put("max_wal_size", formatKb(maxWal));
+        settings.put("checkpoint_timeout", analytic ? "30min" : "15min");
+        settings.put("checkpoint_completion_target", "0.9");
+        settings.put("random_page_cost", "1.1");
+        settings.put("effective_io_concurrency", "200");
+        settings.put("default_statistics_target", analytic ? "500" : "100");
+        settings.put("max_worker_processes", String.valueOf(Math.max(8, cores)));
+        settings.put("max_parallel_workers", String.valueOf(cores));
+        settings.put("max_parallel_workers_per_gather", String.valueOf(workersPerGather));
+        settings.put("max_parallel_maintenance_workers", String.valueOf(Math.max(1, Math.min(4, cores / 2))));
+
+        if (memoryLimitMiB < 256) {
+            warnings.add("database.memoryLimit " + memoryLimit(database) + " leaves PostgreSQL almost no room for caching");
+        }
+        if (database.getMemoryRequest() != null && !database.getMemoryRequest().isBlank()
+                && ResourceQuantity.parseMemoryMiB(database.getMemoryRequest()) < memoryLimitMiB) {
+            warnings.add("database.memoryRequest is below the limit; postgresql.conf is sized for the limit, so the pod"
+                    + " may be evicted under memory pressure");
+        }
+    }
+
+    /**
+     * Computes the settings for a database.
+     *
+     * @param database       the database settings
+     * @param maxConnections the {@code max_connections} of the database
+     * @return the tuning
+     */
+    public static PostgresTuning compute(Database database, int maxConnections) {
+        return new PostgresTuning(database, maxConnections);
+    }
+
+    /**
+     * @param database the database settings
+     * @return the memory limit, or the default
+     */
+    public static String memoryLimit(Database database) {
+        return database.getMemoryLimit() == null || database.getMemoryLimit().isBlank()
+                ? DEFAULT_MEMORY : database.getMemoryLimit();
+    }
+
+    /**
+     * @param database the database settings
+     * @return the CPU limit, or the default
+     */
+    public static String cpuLimit(Database database) {
+        return database.getCpuLimit() == null || database.getCpuLimit().isBlank() ? DEFAULT_CPU : database.getCpuLimit();
+    }
+
+    /**
+     * Renders the settings as {@code postgresql.conf}.
+     *
+     * @return the file content
+     */
+    public String toPostgresqlConf() {
+        StringBuilder conf = new StringBuilder();
+        conf.append(String.format(Locale.ROOT, "# Tuned for %s, %d CPU, %s workload%n",
+                ResourceQuantity.formatMiB(memoryLimitMiB), cores, analytic ? "analytic" : "oltp"));
+        settings.forEach((name, value) -> conf.append(name).append(" = ").append(value).append('\n'));
+        return conf.toString();
+    }
+
+    private static String formatKb(long kb) {
+        if (kb % GIB_IN_KB == 0) {
+            return kb / GIB_IN_KB + "GB";
+        }
+        if (kb % MIB_IN_KB == 0) {
+            return kb / MIB_IN_KB + "MB";
+        }
+        return kb + "kB";
+    }
+}
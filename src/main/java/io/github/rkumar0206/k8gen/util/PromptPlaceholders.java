@@ -0,0 +1,82 @@
+package io.github.rkumar0206.k8gen.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.rkumar0206.k8gen.model.DeploymentConfig;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Replaces the volatile fields of a deployment configuration with stable placeholders before it is sent
+ * to the model, and puts the real values back into the generated files.
+ *
+ * <p>{@code imageTag}, {@code imageRegistry}, {@code namespace}, {@code dbPassword} and the values of
+ * {@code secrets} change between releases or environments without changing the structure of the manifests.
+ * With placeholders the prompt, and therefore the generation cache key, stays the same. Since the model
+ * base64-encodes values in a Secret's {@code data}, the encoded placeholders are substituted as well.
+ */
+public class PromptPlaceholders {
+
+    @Getter
+    private final DeploymentConfig promptConfig;
+    private final Map<String, String> values = new LinkedHashMap<>();
+
+    private PromptPlaceholders(DeploymentConfig deploymentConfig) {
+        this.promptConfig = new ObjectMapper().convertValue(deploymentConfig, DeploymentConfig.class);
+        promptConfig.setImageTag(placeholder("IMAGE_TAG", deploymentConfig.getImageTag()));
+        promptConfig.setImageRegistry(placeholder("IMAGE_REGISTRY", deploymentConfig.getImageRegistry()));
+        promptConfig.setNamespace(placeholder("NAMESPACE", deploymentConfig.getNamespace()));
+        promptConfig.setDbPassword(placeholder("DB_PASSWORD", deploymentConfig.getDbPassword()));
+        if (deploymentConfig.getSecrets() != null) {
+            Map<String, String> secrets = new LinkedHashMap<>();
+            int index = 0;
+            for (Map.Entry<String, String> secret : new TreeMap<>(deploymentConfig.getSecrets()).entrySet()) {
+                secrets.put(secret.getKey(), placeholder("SECRET_" + ++index, secret.getValue()));
+            }
+            promptConfig.setSecrets(secrets);
+        }
+    }
+
+    /**
+     * Creates the placeholders of a configuration.
+     *
+     * @param deploymentConfig the real configuration, left unchanged
+     * @return the placeholders
+     */
+    public static PromptPlaceholders of(DeploymentConfig deploymentConfig) {
+        return new PromptPlaceholders(deploymentConfig);
+    }
+
+    /**
+     * Puts the real values into a generated file.
+     *
+     * @param content the file content, as generated from {@link #getPromptConfig()}
+     * @return the content with every placeholder, plain or base64-encoded, replaced
+     */
+    public String substitute(String content) {
+        String result = content;
+        for (Map.Entry<String, String> entry : values.entrySet()) {
+            result = result.replace(entry.getKey(), entry.getValue())
+                    .replace(base64(entry.getKey()), base64(entry.getValue()));
+        }
+        return result;
+    }
+
+    private String placeholder(String name, String value) {
+        if (value == null || value.isEmpty()) {
+            return value;
+        }
+        String placeholder = "k8gen-" + name.toLowerCase(Locale.ROOT).replace('_', '-') + "-placeholder";
+        values.put(placeholder, value);
+        return placeholder;
+    }
+
+    private static String base64(String value) {
+        return Base64.getEncoder().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
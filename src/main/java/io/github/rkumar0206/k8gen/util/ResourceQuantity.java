@@ -0,0 +1,116 @@
+package io.github.rkumar0206.k8gen.util;
+
+import java.util.Locale;
+
+/**
+ * Utility for converting Kubernetes resource quantities such as {@code 512Mi}, {@code 1Gi},
+ * {@code 500m} or {@code 1.5} to numbers and back.
+ *
+ * <p>Only the suffixes that appear in resource requests and limits are supported: the binary
+ * suffixes {@code Ki, Mi, Gi, Ti}, the decimal suffixes {@code k, M, G, T} and {@code m} for
+ * millicores.
+ */
+public class ResourceQuantity {
+
+    private static final long MIB = 1024L * 1024L;
+
+    /**
+     * Parses a memory quantity.
+     *
+     * @param quantity the quantity, e.g. {@code 512Mi} or {@code 1G}
+     * @return the number of bytes
+     * @throws IllegalArgumentException if the quantity cannot be parsed
+     */
+    public static long parseMemoryBytes(String quantity) {
+        String value = requireValue(quantity);
+        String[][] suffixes = {
+                {"Ki", "1024"}, {"Mi", String.valueOf(MIB)}, {"Gi", String.valueOf(MIB * 1024)},
+                {"Ti", String.valueOf(MIB * 1024 * 1024)},
+                {"k", "1000"}, {"K", "1000"}, {"M", "1000000"}, {"G", "1000000000"}, {"T", "1000000000000"}
+        };
+        for (String[] suffix : suffixes) {
+            if (value.endsWith(suffix[0])) {
+                return Math.round(parseNumber(value.substring(0, value.length() - suffix[0].length()), quantity)
+                        * Long.parseLong(suffix[1]));
+            }
+        }
+        return Math.round(parseNumber(value, quantity));
+    }
+
+    /**
+     * Parses a memory quantity into whole mebibytes, rounding down.
+     *
+     * @param quantity the quantity, e.g. {@code 512Mi}
+     * @return the number of MiB
+     */
+    public static long parseMemoryMiB(String quantity) {
+        return parseMemoryBytes(quantity) / MIB;
+    }
+
+    /**
+     * Parses a CPU quantity.
+     *
+     * @param quantity the quantity, e.g. {@code 500m} or {@code 2}
+     * @return the number of millicores
+     * @throws IllegalArgumentException if the quantity cannot be parsed
+     */
+    public static long parseCpuMillis(String quantity) {
+        String value = requireValue(quantity);
+        if (value.endsWith("m")) {
+            return Math.round(parseNumber(value.substring(0, value.length() - 1), quantity));
+        }
+        return Math.round(parseNumber(value, quantity) * 1000);
+    }
+
+    /**
+     * Formats a number of MiB as a Kubernetes quantity, using {@code Gi} when it divides evenly.
+     *
+     * @param mib the amount of memory in MiB
+     * @return e.g. {@code 1Gi} or {@code 768Mi}
+     */
+    public static String formatMiB(long mib) {
+        return mib > 0 && mib % 1024 == 0 ? (mib / 1024) + "Gi" : mib + "Mi";
+    }
+
+    /**
+     * Formats millicores as a Kubernetes quantity, using whole cores when it divides evenly.
+     *
+     * @param millis the CPU amount in millicores
+     * @return e.g. {@code 2} or {@code 500m}
+     */
+    public static String formatCpuMillis(long millis) {
+        return millis > 0 && millis % 1000 == 0 ? String.valueOf(millis / 1000) : millis + "m";
+    }
+
+    /**
+     * Formats millicores the way docker-compose expects the {@code cpus} value.
+     *
+     * @param millis the CPU amount in millicores
+     * @return e.g. {@code 0.5} or {@code 2}
+     */
+    public static String formatComposeCpus(long millis) {
+        if (millis % 1000 == 0) {
+            return String.valueOf(millis / 1000);
+        }
+        return String.format(Locale.ROOT, "%.3f", millis / 1000.0).replaceAll("0+$", "");
+    }
+
+    private static String requireValue(String quantity) {
+        if (quantity == null || quantity.isBlank()) {
+            throw new IllegalArgumentException("Resource quantity must not be empty");
+        }
+        return quantity.trim();
+    }
+
+    private static double parseNumber(String number, String quantity) {
+        try {
+            return Double.parseDouble(number);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid resource quantity: " + quantity, e);
+        }
+    }
+
+    private ResourceQuantity() {
+        // utility class
+    }
+}
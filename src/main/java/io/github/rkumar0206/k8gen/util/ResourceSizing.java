@@ -0,0 +1,78 @@
+package io.github.rkumar0206.k8gen.util;
+
+import io.github.rkumar0206.k8gen.model.ResourceProfile;
+
+/**
+ * Derives container resources from the measurements of a local profiling run.
+ *
+ * <ul>
+ * <li>The CPU request covers the mean steady-state usage with 20% headroom; the limit covers the 95th
+ * percentile with 50% headroom and is at least twice the request, so that startup is not throttled
+ * to a crawl.</li>
+ * <li>The memory limit covers the peak resident set size with 25% headroom, and is raised until the
+ * heap {@link JvmTuning} derives from it holds 2.5 times the live set. The request equals the limit,
+ * since a JVM does not hand memory back quickly enough to live with less. Memory a JFR recording reserves
+ * outside the heap comes on top, since the profiling run does not record.</li>
+ * <li>The expected startup time accounts for the CPU limit: the CPU time spent until ready cannot be
+ * spread over more cores than the limit allows.</li>
+ * </ul>
+ */
+public class ResourceSizing {
+
+    private static final long MIN_CPU_REQUEST_MILLIS = 100;
+    private static final long MIN_CPU_LIMIT_MILLIS = 500;
+    private static final long MIN_MEMORY_MIB = 256;
+    private static final long MEMORY_STEP_MIB = 64;
+    private static final double HEAP_TO_LIVE_SET_RATIO = 2.5;
+
+    /**
+     * Computes the suggested resources.
+     *
+     * @param measured    the measurements of the profiling run
+     * @param javaVersion the Java version of the application, may be {@code null}
+     * @return the suggestions
+     */
+    public static ResourceProfile.Suggestions suggest(ResourceProfile.Measurements measured, String javaVersion) {
+        return suggest(measured, javaVersion, 0);
+    }
+
+    /**
+     * Computes the suggested resources for a container that needs additional memory outside the heap.
+     *
+     * @param measured    the measurements of the profiling run
+     * @param javaVersion the Java version of the application, may be {@code null}
+     * @param reservedMiB memory reserved outside the heap, e.g. by {@link JfrProfiling}
+     * @return the suggestions
+     */
+    public static ResourceProfile.Suggestions suggest(ResourceProfile.Measurements measured, String javaVersion,
+                                                      long reservedMiB) {
+        long cpuRequest = roundUp(Math.max(MIN_CPU_REQUEST_MILLIS, measured.getSteadyCpuCores() * 1200), 50);
+        long cpuLimit = roundUp(Math.max(Math.max(MIN_CPU_LIMIT_MILLIS, measured.getSteadyCpuCoresP95() * 1500),
+                cpuRequest * 2), 250);
+
+        long memory = roundUp(Math.max(MIN_MEMORY_MIB, measured.getPeakRssMiB() * 1.25 + reservedMiB), MEMORY_STEP_MIB);
+        double requiredHeap = measured.getLiveHeapMiB() * HEAP_TO_LIVE_SET_RATIO;
+        String cpu = ResourceQuantity.formatCpuMillis(cpuLimit);
+        while (JvmTuning.compute(ResourceQuantity.formatMiB(memory), ResourceQuantity.formatMiB(memory), cpu,
+                javaVersion, reservedMiB).getMaxHeapMiB() < requiredHeap) {
+            memory += MEMORY_STEP_MIB;
+        }
+
+        ResourceProfile.Suggestions suggestions = new ResourceProfile.Suggestions();
+        suggestions.setCpuRequest(ResourceQuantity.formatCpuMillis(cpuRequest));
+        suggestions.setCpuLimit(cpu);
+        suggestions.setMemoryRequest(ResourceQuantity.formatMiB(memory));
+        suggestions.setMemoryLimit(ResourceQuantity.formatMiB(memory));
+        suggestions.setExpectedStartupSeconds((int) Math.ceil(Math.max(measured.getStartupSeconds(),
+                measured.getStartupCpuSeconds() / (cpuLimit / 1000.0))));
+        return suggestions;
+    }
+
+    private static long roundUp(double value, long step) {
+        return (long) Math.ceil(value / step) * step;
+    }
+
+    private ResourceSizing() {
+        // utility class
+    }
+}
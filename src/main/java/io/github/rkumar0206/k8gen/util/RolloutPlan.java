@@ -0,0 +1,59 @@
+package io.github.rkumar0206.k8gen.util;
+
+import io.github.rkumar0206.k8gen.model.Availability;
+import io.github.rkumar0206.k8gen.model.DeploymentConfig;
+import lombok.Getter;
+
+/**
+ * Derives the rollout and disruption settings of the application from its replica count and probes.
+ *
+ * <ul>
+ * <li>A rolling update never takes a pod down before its replacement is ready while there are fewer
+ * than ten replicas; from ten on, 10% may be unavailable. It surges one pod, or 25% from four replicas on.</li>
+ * <li>The PodDisruptionBudget allows as many voluntary disruptions as the rollout allows unavailable pods,
+ * but at least one, so that node drains never block.</li>
+ * <li>The {@code preStop} sleep keeps a terminating pod serving until the load balancers noticed, i.e. for
+ * the time a readiness probe needs to fail ({@code periodSeconds x failureThreshold}), between 5 and 30 seconds.
+ * The termination grace period adds Spring Boot's graceful shutdown timeout and a margin of 5 seconds.</li>
+ * </ul>
+ */
+@Getter
+public class RolloutPlan {
+
+    private static final int DEFAULT_SHUTDOWN_TIMEOUT_SECONDS = 30;
+    private static final int MARGIN_SECONDS = 5;
+
+    private final int replicas;
+    private final int maxSurge;
+    private final int maxUnavailable;
+    private final int disruptionsAllowed;
+    private final int preStopSleepSeconds;
+    private final int shutdownTimeoutSeconds;
+    private final int terminationGracePeriodSeconds;
+
+    private RolloutPlan(DeploymentConfig deploymentConfig, int readinessPeriodSeconds, int readinessFailureThreshold) {
+        this.replicas = Math.max(1, Math.max(deploymentConfig.getReplicas(),
+                deploymentConfig.isEnableHPA() ? deploymentConfig.getHpaMinReplicas() : 0));
+        this.maxSurge = replicas < 4 ? 1 : (int) Math.ceil(replicas * 0.25);
+        this.maxUnavailable = replicas < 10 ? 0 : replicas / 10;
+        this.disruptionsAllowed = Math.max(1, maxUnavailable);
+        this.preStopSleepSeconds = Math.min(30, Math.max(5, readinessPeriodSeconds * readinessFailureThreshold));
+        Availability availability = deploymentConfig.getAvailability();
+        this.shutdownTimeoutSeconds = availability == null || availability.getShutdownTimeoutSeconds() == null
+                ? DEFAULT_SHUTDOWN_TIMEOUT_SECONDS : availability.getShutdownTimeoutSeconds();
+        this.terminationGracePeriodSeconds = preStopSleepSeconds + shutdownTimeoutSeconds + MARGIN_SECONDS;
+    }
+
+    /**
+     * Plans the rollout of a deployment.
+     *
+     * @param deploymentConfig          the deployment configuration
+     * @param readinessPeriodSeconds    the {@code periodSeconds} of the readiness probe
+     * @param readinessFailureThreshold the {@code failureThreshold} of the readiness probe
+     * @return the plan
+     */
+    public static RolloutPlan plan(DeploymentConfig deploymentConfig, int readinessPeriodSeconds,
+                                   int readinessFailureThreshold) {
+        return new RolloutPlan(deploymentConfig, readinessPeriodSeconds, readinessFailureThreshold);
+    }
+}
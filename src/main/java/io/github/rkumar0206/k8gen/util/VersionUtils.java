@@ -1,10 +1,14 @@
 package io.github.rkumar0206.k8gen.util;
 
+import io.github.rkumar0206.k8gen.model.DeploymentConfig;
 import org.gradle.api.JavaVersion;
 import org.gradle.api.Project;
 import org.gradle.api.plugins.JavaPluginExtension;
 import org.gradle.jvm.toolchain.JavaToolchainService;
 
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
 /**
  * A utility class for retrieving version information related to a Gradle project.
  *
@@ -15,6 +19,8 @@ import org.gradle.jvm.toolchain.JavaToolchainService;
  */
 public class VersionUtils {
 
+    private static final Pattern JAVA_VERSION_PATTERN = Pattern.compile("(\\d+)(?:\\.(\\d+))?");
+
     /**
      * Retrieves the version of the Gradle distribution being used by the project.
      *
@@ -60,6 +66,31 @@ public class VersionUtils {
         return JavaVersion.current().toString();
     }
 
+    /**
+     * Extracts the major version from a Java version string.
+     *
+     * <p>Handles both the legacy {@code 1.x} scheme and the current one, e.g. {@code 1.8} and
+     * {@code 1.8.0_392} yield {@code 8}, {@code 17.0.9} and {@code 21} yield {@code 17} and {@code 21}.
+     *
+     * @param javaVersion The version string, usually {@link DeploymentConfig#getJavaVersion()}.
+     * @param defaultVersion The version assumed when the string is missing or not a version.
+     * @return The major version, or {@code defaultVersion} if the string cannot be parsed.
+     */
+    public static int parseJavaMajorVersion(String javaVersion, int defaultVersion) {
+        if (javaVersion == null) {
+            return defaultVersion;
+        }
+        Matcher matcher = JAVA_VERSION_PATTERN.matcher(javaVersion.trim());
+        if (!matcher.find()) {
+            return defaultVersion;
+        }
+        int major = Integer.parseInt(matcher.group(1));
+        if (major == 1 && matcher.group(2) != null) {
+            return Integer.parseInt(matcher.group(2));
+        }
+        return major;
+    }
+
     /** Private constructor to prevent instantiation. */
     private VersionUtils() {
         // utility class
@@ -0,0 +1,118 @@
+package io.github.rkumar0206.k8gen.util;
+
+import io.github.rkumar0206.k8gen.model.DeploymentConfig;
+import io.github.rkumar0206.k8gen.model.WebServer;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The concurrency and timeout settings of the application's embedded web server.
+ *
+ * <p>On Java 21 and later requests are handled on virtual threads, so the number of concurrent requests is
+ * no longer bounded by a thread pool. Otherwise Tomcat's pool is sized from the CPU limit instead of
+ * Tomcat's default of 200 threads, which a container limited to a fraction of a CPU can only time-slice:
+ * 50 threads per CPU, for request handlers that mostly wait on I/O, and an accept queue of the same size.
+ * <p>The timeouts are aligned with the proxy in front of the pods. Tomcat keeps idle connections open
+ * 5 seconds longer than the proxy, so the proxy always closes first and never reuses a connection Tomcat is
+ * closing, which fails the request with a 502. The Ingress waits as long for a response as Tomcat waits for
+ * a request. A ClusterIP Service has no timeouts of its own: kube-proxy passes connections through.
+ */
+@Getter
+public class WebServerTuning {
+
+    private static final int VIRTUAL_THREADS_MIN_JAVA_VERSION = 21;
+    private static final int THREADS_PER_CPU = 50;
+    private static final int MIN_THREADS = 20;
+    private static final int MAX_THREADS = 200;
+    private static final int DEFAULT_REQUEST_TIMEOUT_SECONDS = 60;
+    private static final int DEFAULT_IDLE_TIMEOUT_SECONDS = 60;
+    private static final int KEEP_ALIVE_MARGIN_SECONDS = 5;
+
+    private final int javaMajorVersion;
+    private final boolean virtualThreads;
+    private final int maxThreads;
+    private final int minSpareThreads;
+    private final int acceptCount;
+    private final int requestTimeoutSeconds;
+    private final int keepAliveTimeoutSeconds;
+    private final List<String> warnings = new ArrayList<>();
+
+    private WebServerTuning(DeploymentConfig deploymentConfig) {
+        WebServer settings = deploymentConfig.getWebServer() == null ? new WebServer() : deploymentConfig.getWebServer();
+        this.javaMajorVersion = VersionUtils.parseJavaMajorVersion(deploymentConfig.getJavaVersion(), 21);
+        boolean supported = javaMajorVersion >= VIRTUAL_THREADS_MIN_JAVA_VERSION;
+        if (Boolean.TRUE.equals(settings.getVirtualThreads()) && !supported) {
+            warnings.add("webServer.virtualThreads needs Java " + VIRTUAL_THREADS_MIN_JAVA_VERSION + " or later, "
+                    + "Java " + javaMajorVersion + " uses a Tomcat thread pool");
+        }
+        this.virtualThreads = supported && !Boolean.FALSE.equals(settings.getVirtualThreads());
+
+        String cpuLimit = deploymentConfig.getCpuLimit() == null || deploymentConfig.getCpuLimit().isBlank()
+                ? JvmTuning.DEFAULT_CPU_LIMIT : deploymentConfig.getCpuLimit();
+        long cpuMillis = ResourceQuantity.parseCpuMillis(cpuLimit);
+        int sized = (int) Math.min(MAX_THREADS, Math.max(MIN_THREADS, cpuMillis * THREADS_PER_CPU / 1000));
+        this.maxThreads = settings.getMaxThreads() != null && settings.getMaxThreads() > 0 ? settings.getMaxThreads() : sized;
+        this.minSpareThreads = Math.min(10, maxThreads);
+        this.acceptCount = maxThreads;
+
+        this.requestTimeoutSeconds = positiveOrDefault(settings.getRequestTimeoutSeconds(), DEFAULT_REQUEST_TIMEOUT_SECONDS);
+        this.keepAliveTimeoutSeconds = positiveOrDefault(settings.getIdleTimeoutSeconds(), DEFAULT_IDLE_TIMEOUT_SECONDS)
+                + KEEP_ALIVE_MARGIN_SECONDS;
+    }
+
+    /**
+     * Derives the web server settings of a deployment configuration.
+     * Missing values fall back to Java 21 and {@link JvmTuning#DEFAULT_CPU_LIMIT}.
+     *
+     * @param deploymentConfig the deployment configuration
+     * @return the tuning
+     */
+    public static WebServerTuning forDeployment(DeploymentConfig deploymentConfig) {
+        return new WebServerTuning(deploymentConfig);
+    }
+
+    /**
+     * @return the Spring Boot properties of the settings, as environment variables
+     */
+    public Map<String, String> toEnvironment() {
+        Map<String, String> environment = new LinkedHashMap<>();
+        environment.put("SPRING_THREADS_VIRTUAL_ENABLED", String.valueOf(virtualThreads));
+        if (!virtualThreads) {
+            environment.put("SERVER_TOMCAT_THREADS_MAX", String.valueOf(maxThreads));
+            environment.put("SERVER_TOMCAT_THREADS_MIN_SPARE", String.valueOf(minSpareThreads));
+            environment.put("SERVER_TOMCAT_ACCEPT_COUNT", String.valueOf(acceptCount));
+        }
+        environment.put("SERVER_TOMCAT_CONNECTION_TIMEOUT", requestTimeoutSeconds + "s");
+        environment.put("SERVER_TOMCAT_KEEP_ALIVE_TIMEOUT", keepAliveTimeoutSeconds + "s");
+        return environment;
+    }
+
+    /**
+     * @return the ingress-nginx annotations of the settings
+     */
+    public Map<String, String> toIngressAnnotations() {
+        Map<String, String> annotations = new LinkedHashMap<>();
+        annotations.put("nginx.ingress.kubernetes.io/proxy-read-timeout", String.valueOf(requestTimeoutSeconds));
+        annotations.put("nginx.ingress.kubernetes.io/proxy-send-timeout", String.valueOf(requestTimeoutSeconds));
+        return annotations;
+    }
+
+    /**
+     * @return a one-line description of the settings for the build log
+     */
+    public String summary() {
+        String threads = virtualThreads ? "virtual threads"
+                : String.format(Locale.ROOT, "%d Tomcat threads, accept queue %d", maxThreads, acceptCount);
+        return String.format(Locale.ROOT, "Web server on Java %d: %s, request timeout %ds, keep-alive %ds",
+                javaMajorVersion, threads, requestTimeoutSeconds, keepAliveTimeoutSeconds);
+    }
+
+    private static int positiveOrDefault(Integer value, int defaultValue) {
+        return value == null || value <= 0 ? defaultValue : value;
+    }
+}
@@ -0,0 +1,54 @@
+package io.github.rkumar0206.k8gen.util;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A single document of a (possibly multi-document) YAML file, as produced by
+ * {@link YamlNormalizer#parse(String)}.
+ *
+ * <p>The parsed content is kept as plain SnakeYAML structures (maps, lists and scalars) so that
+ * post-processing steps can modify it directly. Comments are kept separately, in their original
+ * order, because they are re-emitted at a fixed position at the top of the document.
+ */
+@Data
+@AllArgsConstructor
+public class YamlDocument {
+    /**
+     * The text of every comment of the document, without the leading {@code #}.
+     */
+    private List<String> comments;
+    /**
+     * The parsed content of the document.
+     */
+    private Object data;
+
+    /**
+     * Creates a document without comments.
+     *
+     * @param data the document content
+     */
+    public YamlDocument(Object data) {
+        this(new ArrayList<>(), data);
+    }
+
+    /**
+     * @return the document content as a map, or {@code null} if it is not a mapping
+     */
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> asMap() {
+        return data instanceof Map ? (Map<String, Object>) data : null;
+    }
+
+    /**
+     * @return the {@code kind} of a Kubernetes object, or {@code null}
+     */
+    public String getKind() {
+        Map<String, Object> map = asMap();
+        return map != null && map.get("kind") != null ? map.get("kind").toString() : null;
+    }
+}
@@ -0,0 +1,307 @@
+package io.github.rkumar0206.k8gen.util;
+
+import org.yaml.snakeyaml.DumperOptions;
+import org.yaml.snakeyaml.LoaderOptions;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.comments.CommentType;
+import org.yaml.snakeyaml.constructor.SafeConstructor;
+import org.yaml.snakeyaml.events.CommentEvent;
+import org.yaml.snakeyaml.events.DocumentStartEvent;
+import org.yaml.snakeyaml.events.Event;
+import org.yaml.snakeyaml.nodes.Node;
+import org.yaml.snakeyaml.nodes.Tag;
+import org.yaml.snakeyaml.representer.Representer;
+
+import java.io.StringReader;
+import java.util.*;
+
+/**
+ * Utility for re-emitting generated YAML in a canonical form.
+ *
+ * <p>The model's output varies in key order, quoting, indentation and comment placement even for
+ * identical inputs. Every YAML document is therefore parsed with SnakeYAML and dumped again with:
+ * <ul>
+ * <li>a fixed key order per Kubernetes kind (well-known keys first, the rest alphabetically),</li>
+ * <li>consistent scalars: plain style where possible, literal blocks for multi-line strings,</li>
+ * <li>two-space indentation with indented sequences and no line folding,</li>
+ * <li>all comments of a document moved, in their original order, to the top of that document.</li>
+ * </ul>
+ * Semantically identical manifests thus end up byte-identical. Files that cannot be parsed are
+ * returned unchanged.
+ */
+public class YamlNormalizer {
+
+    private static final String DOCUMENT_SEPARATOR = "---\n";
+
+    private static final List<String> TOP_LEVEL_ORDER = List.of(
+            "apiVersion", "kind", "metadata", "spec", "type", "immutable", "data", "stringData", "binaryData",
+            "rules", "roleRef", "subjects", "secrets", "automountServiceAccountToken",
+            // docker-compose
+            "version", "name", "services", "networks", "volumes", "configs",
+            // kustomization
+            "resources", "namespace", "patches");
+
+    private static final Map<String, List<String>> SPEC_ORDER_BY_KIND = Map.ofEntries(
+            Map.entry("Deployment", List.of("replicas", "revisionHistoryLimit", "selector", "strategy", "minReadySeconds",
+                    "template")),
+            Map.entry("StatefulSet", List.of("serviceName", "replicas", "selector", "updateStrategy", "podManagementPolicy",
+                    "template", "volumeClaimTemplates")),
+            Map.entry("Job", List.of("backoffLimit", "activeDeadlineSeconds", "ttlSecondsAfterFinished", "template")),
+            Map.entry("Service", List.of("type", "clusterIP", "selector", "ports", "sessionAffinity")),
+            Map.entry("Ingress", List.of("ingressClassName", "tls", "rules")),
+            Map.entry("HorizontalPodAutoscaler", List.of("scaleTargetRef", "minReplicas", "maxReplicas", "metrics",
+                    "behavior")),
+            Map.entry("ScaledObject", List.of("scaleTargetRef", "pollingInterval", "cooldownPeriod", "minReplicaCount",
+                    "maxReplicaCount", "advanced", "fallback", "triggers")),
+            Map.entry("PodDisruptionBudget", List.of("minAvailable", "maxUnavailable", "selector",
+                    "unhealthyPodEvictionPolicy")),
+            Map.entry("NetworkPolicy", List.of("podSelector", "policyTypes", "ingress", "egress")),
+            Map.entry("PersistentVolumeClaim", List.of("accessModes", "storageClassName", "resources")));
+
+    private static final List<String> PROBE_ORDER = List.of(
+            "httpGet", "tcpSocket", "grpc", "exec", "initialDelaySeconds", "periodSeconds", "timeoutSeconds",
+            "successThreshold", "failureThreshold");
+
+    private static final List<String> SCALING_RULES_ORDER = List.of("stabilizationWindowSeconds", "selectPolicy", "policies");
+
+    private static final Map<String, List<String>> ORDER_BY_PARENT_KEY = Map.ofEntries(
+            Map.entry("metadata", List.of("name", "generateName", "namespace", "labels", "annotations")),
+            Map.entry("template", List.of("metadata", "spec")),
+            Map.entry("containers", List.of("name", "image", "imagePullPolicy", "command", "args", "workingDir", "ports",
+                    "env", "envFrom", "resources", "volumeMounts", "startupProbe", "readinessProbe",
+                    "livenessProbe", "lifecycle", "securityContext")),
+            Map.entry("services", List.of("image", "build", "container_name", "command", "entrypoint", "environment",
+                    "env_file", "ports", "depends_on", "volumes", "healthcheck", "deploy", "restart")),
+            Map.entry("resources", List.of("requests", "limits")),
+            Map.entry("ports", List.of("name", "containerPort", "port", "targetPort", "protocol")),
+            Map.entry("env", List.of("name", "value", "valueFrom")),
+            Map.entry("startupProbe", PROBE_ORDER),
+            Map.entry("readinessProbe", PROBE_ORDER),
+            Map.entry("livenessProbe", PROBE_ORDER),
+            Map.entry("topologySpreadConstraints", List.of("maxSkew", "topologyKey", "whenUnsatisfiable",
+                    "labelSelector", "matchLabelKeys")),
+            Map.entry("strategy", List.of("type", "rollingUpdate")),
+            Map.entry("rollingUpdate", List.of("maxSurge", "maxUnavailable")),
+            Map.entry("preferredDuringSchedulingIgnoredDuringExecution", List.of("weight", "podAffinityTerm")),
+            Map.entry("patches", List.of("target", "patch")),
+            Map.entry("target", List.of("group", "version", "kind", "name")),
+            Map.entry("metrics", List.of("type")),
+            Map.entry("scaleTargetRef", List.of("apiVersion", "kind", "name")),
+            Map.entry("triggers", List.of("type", "name", "metricType", "metadata", "authenticationRef")),
+            Map.entry("behavior", List.of("scaleUp", "scaleDown")),
+            Map.entry("scaleUp", SCALING_RULES_ORDER),
+            Map.entry("scaleDown", SCALING_RULES_ORDER),
+            Map.entry("policies", List.of("type", "value", "periodSeconds")));
+
+    private static final List<String> POD_SPEC_ORDER = List.of(
+            "serviceAccountName", "terminationGracePeriodSeconds", "securityContext", "imagePullSecrets",
+            "initContainers", "containers", "volumes", "affinity", "topologySpreadConstraints", "tolerations",
+            "restartPolicy");
+
+    /**
+     * Normalizes a generated file. Only {@code .yaml} and {@code .yml} files are touched.
+     *
+     * @param fileName the file name, used to detect YAML files
+     * @param content  the file content
+     * @return the canonical content, or the original content if it is not (valid) YAML
+     */
+    public static String normalize(String fileName, String content) {
+        if (!isYamlFile(fileName)) {
+            return content;
+        }
+        List<YamlDocument> documents = parse(content);
+        return documents == null ? content : render(documents);
+    }
+
+    /**
+     * @param fileName the file name
+     * @return {@code true} for {@code .yaml} and {@code .yml} files
+     */
+    public static boolean isYamlFile(String fileName) {
+        String lowerCase = fileName.toLowerCase(Locale.ROOT);
+        return lowerCase.endsWith(".yaml") || lowerCase.endsWith(".yml");
+    }
+
+    /**
+     * Parses all documents of a YAML file together with their comments.
+     *
+     * @param content the YAML text
+     * @return the documents, or {@code null} if the text is not valid YAML
+     */
+    public static List<YamlDocument> parse(String content) {
+        try {
+            List<List<String>> comments = collectComments(content);
+            List<YamlDocument> documents = new ArrayList<>();
+            int index = 0;
+            for (Object data : loader().loadAll(content)) {
+                List<String> documentComments = index < comments.size() ? comments.get(index) : new ArrayList<>();
+                index++;
+                if (data != null || !documentComments.isEmpty()) {
+                    documents.add(new YamlDocument(documentComments, data));
+                }
+            }
+            return documents;
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Renders documents in the canonical form, separated by {@code ---}.
+     *
+     * @param documents the documents to render
+     * @return the YAML text
+     */
+    public static String render(List<YamlDocument> documents) {
+        Yaml dumper = dumper();
+        StringBuilder out = new StringBuilder();
+        for (YamlDocument document : documents) {
+            if (!out.isEmpty()) {
+                out.append(DOCUMENT_SEPARATOR);
+            }
+            for (String comment : document.getComments()) {
+                out.append('#').append(comment.isEmpty() || comment.startsWith(" ") ? "" : " ").append(comment).append('\n');
+            }
+            if (document.getData() != null) {
+                String kind = document.getKind();
+                out.append(dumper.dump(canonicalize(document.getData(), null, kind)));
+            }
+        }
+        return out.toString();
+    }
+
+    /**
+     * Comments are only reported by the event API, so the text is parsed a second time to
+     * collect them per document. Blank-line events are ignored.
+     */
+    private static List<List<String>> collectComments(String content) {
+        LoaderOptions options = new LoaderOptions();
+        options.setProcessComments(true);
+        Yaml yaml = new Yaml(options);
+
+        // comments in front of the first document belong to it, comments after a document's content
+        // stay with that document
+        List<List<String>> comments = new ArrayList<>();
+        List<String> current = new ArrayList<>();
+        boolean firstDocument = true;
+        for (Event event : yaml.parse(new StringReader(content))) {
+            if (event instanceof DocumentStartEvent) {
+                if (!firstDocument) {
+                    current = new ArrayList<>();
+                }
+                comments.add(current);
+                firstDocument = false;
+            } else if (event instanceof CommentEvent comment && comment.getCommentType() != CommentType.BLANK_LINE) {
+                current.add(comment.getValue().stripTrailing());
+            }
+        }
+        return comments;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object canonicalize(Object value, String parentKey, String kind) {
+        if (value instanceof Map<?, ?> map) {
+            List<String> order = keyOrder(parentKey, kind);
+            List<Object> keys = new ArrayList<>(map.keySet());
+            keys.sort(Comparator.comparingInt((Object key) -> {
+                        int position = order.indexOf(String.valueOf(key));
+                        return position < 0 ? Integer.MAX_VALUE : position;
+                    })
+                    .thenComparing(String::valueOf));
+
+            Map<Object, Object> sorted = new LinkedHashMap<>();
+            for (Object key : keys) {
+                sorted.put(key, canonicalize(map.get(key), childContext(parentKey, String.valueOf(key)), kind));
+            }
+            return sorted;
+        }
+        if (value instanceof List<?> list) {
+            List<Object> items = new ArrayList<>();
+            for (Object item : list) {
+                items.add(canonicalize(item, parentKey, kind));
+            }
+            return items;
+        }
+        return value;
+    }
+
+    /**
+     * The children of a compose {@code services} map are service definitions, so they share the
+     * {@code services} order; the same applies to the pod spec below a pod template.
+     */
+    private static String childContext(String parentKey, String key) {
+        if ("services".equals(parentKey)) {
+            return "service";
+        }
+        if ("template".equals(parentKey) && "spec".equals(key)) {
+            return "podSpec";
+        }
+        return key;
+    }
+
+    private static List<String> keyOrder(String parentKey, String kind) {
+        if (parentKey == null) {
+            return TOP_LEVEL_ORDER;
+        }
+        if ("spec".equals(parentKey)) {
+            return SPEC_ORDER_BY_KIND.getOrDefault(kind, List.of());
+        }
+        if ("podSpec".equals(parentKey)) {
+            return POD_SPEC_ORDER;
+        }
+        if ("service".equals(parentKey)) {
+            return ORDER_BY_PARENT_KEY.get("services");
+        }
+        if ("initContainers".equals(parentKey)) {
+            return ORDER_BY_PARENT_KEY.get("containers");
+        }
+        return ORDER_BY_PARENT_KEY.getOrDefault(parentKey, List.of("name"));
+    }
+
+    private static Yaml loader() {
+        LoaderOptions loaderOptions = new LoaderOptions();
+        return new Yaml(new StringTimestampConstructor(loaderOptions));
+    }
+
+    private static Yaml dumper() {
+        DumperOptions options = new DumperOptions();
+        options.setDefaultFlowStyle(DumperOptions.FlowStyle.BLOCK);
+        options.setIndent(2);
+        options.setIndicatorIndent(2);
+        options.setIndentWithIndicator(true);
+        options.setSplitLines(false);
+        options.setWidth(Integer.MAX_VALUE);
+        return new Yaml(new CanonicalRepresenter(options), options);
+    }
+
+    /**
+     * Keeps timestamps as the strings they were written as; the Kubernetes API has no timestamp type.
+     */
+    private static class StringTimestampConstructor extends SafeConstructor {
+        StringTimestampConstructor(LoaderOptions loaderOptions) {
+            super(loaderOptions);
+            this.yamlConstructors.put(Tag.TIMESTAMP, new ConstructYamlStr());
+        }
+    }
+
+    /**
+     * Emits multi-line strings as literal blocks instead of escaped double-quoted scalars.
+     */
+    private static class CanonicalRepresenter extends Representer {
+        CanonicalRepresenter(DumperOptions options) {
+            super(options);
+        }
+
+        @Override
+        protected Node representScalar(Tag tag, String value, DumperOptions.ScalarStyle style) {
+            if (Tag.STR.equals(tag) && value.contains("\n")) {
+                return super.representScalar(tag, value, DumperOptions.ScalarStyle.LITERAL);
+            }
+            return super.representScalar(tag, value, style);
+        }
+    }
+
+    private YamlNormalizer() {
+        // utility class
+    }
+}
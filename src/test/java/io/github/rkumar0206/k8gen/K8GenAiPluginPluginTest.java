@@ -3,8 +3,10 @@
  */
 package io.github.rkumar0206.k8gen;
 
+import io.github.rkumar0206.k8gen.extension.K8GenExtension;
 import org.gradle.testfixtures.ProjectBuilder;
 import org.gradle.api.Project;
+import org.gradle.api.tasks.bundling.Jar;
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -20,4 +22,43 @@ class K8GenAiPluginPluginTest {
 //        // Verify the result
 //        assertNotNull(project.getTasks().findByName("greeting"));
 //    }
+
+    @Test
+    void leavesTheBootJarAloneByDefault() {
+        // set to the defaults before Gradle 9
+        Project project = ProjectBuilder.builder().build();
+        project.getPluginManager().apply("io.github.rkumar0206.k8gen");
+        Jar bootJar = project.getTasks().register("bootJar", Jar.class, jar -> {
+            jar.setPreserveFileTimestamps(true);
+            jar.setReproducibleFileOrder(false);
+        }).get();
+
+        assertTrue(bootJar.isPreserveFileTimestamps());
+        assertFalse(bootJar.isReproducibleFileOrder());
+    }
+
+    @Test
+    void makesTheBootJarReproducibleOnRequest() {
+        Project project = ProjectBuilder.builder().build();
+        project.getPluginManager().apply("io.github.rkumar0206.k8gen");
+        project.getExtensions().getByType(K8GenExtension.class).getReproducibleBootJar().set(true);
+        Jar bootJar = project.getTasks().register("bootJar", Jar.class).get();
+
+        assertFalse(bootJar.isPreserveFileTimestamps());
+        assertTrue(bootJar.isReproducibleFileOrder());
+    }
+
+    @Test
+    void writesTheManifestsOfEachProjectToItsOwnDirectory() {
+        Project root = ProjectBuilder.builder().build();
+        Project orders = ProjectBuilder.builder().withName("orders").withParent(root).build();
+        Project billing = ProjectBuilder.builder().withName("billing").withParent(root).build();
+        orders.getPluginManager().apply("io.github.rkumar0206.k8gen");
+        billing.getPluginManager().apply("io.github.rkumar0206.k8gen");
+
+        assertEquals(orders.file("k8s").getAbsolutePath(),
+                orders.getExtensions().getByType(K8GenExtension.class).getOutputDir().get());
+        assertEquals(billing.file("k8s").getAbsolutePath(),
+                billing.getExtensions().getByType(K8GenExtension.class).getOutputDir().get());
+    }
 }
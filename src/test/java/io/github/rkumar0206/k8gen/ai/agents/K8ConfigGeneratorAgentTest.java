@@ -0,0 +1,204 @@
+package io.github.rkumar0206.k8gen.ai.agents;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.github.rkumar0206.k8gen.ai.gemini.GeminiContextCacheService;
+import io.github.rkumar0206.k8gen.model.DeploymentConfig;
+import org.gradle.testfixtures.ProjectBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the agent against a local stand-in of the Gemini API.
+ */
+class K8ConfigGeneratorAgentTest {
+
+    private static final String MODEL = "gemini-2.5-flash";
+
+    @TempDir
+    Path stateDir;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<JsonNode> generateRequests = new CopyOnWriteArrayList<>();
+    private final Map<String, String> files = new LinkedHashMap<>();
+    private final List<String> deliveredFiles = new ArrayList<>();
+    private final Deque<String[]> markerAnswers = new ConcurrentLinkedDeque<>();
+    private HttpServer server;
+    private String baseUrl;
+    private volatile int createStatus = 200;
+
+    @BeforeEach
+    void startStandIn() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/v1beta/cachedContents", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            respond(exchange, createStatus, createStatus != 200 ? "{\"error\": {\"code\": 400}}" : """
+                    {"name": "cachedContents/abc123", "expireTime": "2099-01-01T00:00:00Z"}""", "application/json");
+        });
+        server.createContext("/v1beta/models/", exchange -> {
+            generateRequests.add(objectMapper.readTree(exchange.getRequestBody()));
+            if (exchange.getRequestURI().getPath().endsWith(":generateContent")) {
+                String[] answer = markerAnswers.isEmpty() ? new String[]{"", "STOP"} : markerAnswers.poll();
+                respond(exchange, 200, objectMapper.writeValueAsString(response(answer[0], answer[1])), "application/json");
+                return;
+            }
+            respond(exchange, 200, sse("[{\"path\": \"deployment.yaml\", \"content\": \"kind: Deployment\"}]", "STOP"),
+                    "text/event-stream");
+        });
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort() + "/v1beta";
+    }
+
+    @AfterEach
+    void stopStandIn() {
+        server.stop(0);
+    }
+
+    @Test
+    void sendsOnlyTheInputsOnTopOfTheCachedInstruction() throws Exception {
+        K8ConfigGeneratorAgent agent = new K8ConfigGeneratorAgent("test-key", MODEL, baseUrl, contextCache());
+        agent.setOutputFormat(K8ConfigGeneratorAgent.OUTPUT_FORMAT_JSON);
+
+        assertTrue(agent.generateFiles(config(), 1, files::put));
+
+        assertEquals(Map.of("deployment.yaml", "kind: Deployment"), files);
+        JsonNode request = generateRequests.get(0);
+        assertEquals("cachedContents/abc123", request.path("cachedContent").asText());
+        assertTrue(request.path("systemInstruction").isMissingNode());
+        assertTrue(request.path("contents").path(0).path("parts").path(0).path("text").asText().startsWith("Inputs:"));
+    }
+
+    @Test
+    void sendsTheFullPromptWhenTheServerRefusesToCacheIt() throws Exception {
+        createStatus = 400;
+        K8ConfigGeneratorAgent agent = new K8ConfigGeneratorAgent("test-key", MODEL, baseUrl, contextCache());
+        agent.setOutputFormat(K8ConfigGeneratorAgent.OUTPUT_FORMAT_JSON);
+
+        assertTrue(agent.generateFiles(config(), 1, files::put));
+
+        assertEquals(Map.of("deployment.yaml", "kind: Deployment"), files);
+        JsonNode request = generateRequests.get(0);
+        assertTrue(request.path("cachedContent").isMissingNode());
+        assertTrue(request.path("systemInstruction").path("parts").path(0).path("text").asText()
+                .startsWith(K8ConfigGeneratorAgent.generateSystemInstruction(1)));
+    }
+
+    @Test
+    void requestsOnlyTheFilesMissingFromATruncatedAnswer() throws Exception {
+        StringBuilder first = new StringBuilder();
+        for (int i = 1; i <= 17; i++) {
+            first.append(file("file" + i + ".yaml"));
+        }
+        first.append("-----BEGIN_FILE: file18.yaml-----\nkind: Con");
+        markerAnswers.add(new String[]{first.toString(), "MAX_TOKENS"});
+        markerAnswers.add(new String[]{file("file18.yaml"), "STOP"});
+
+        assertTrue(markerAgent(2).generateFiles(config(), 1, this::deliver));
+
+        assertEquals(18, files.size());
+        assertEquals("kind: ConfigMap", files.get("file18.yaml"));
+        assertEquals(2, generateRequests.size(), "one follow-up request");
+        String followUp = userText(generateRequests.get(1));
+        assertTrue(followUp.contains("file1.yaml, file2.yaml"), followUp);
+        assertTrue(followUp.contains("The file `file18.yaml` was incomplete"));
+    }
+
+    @Test
+    void handsReSentFilesOnOnlyOnce() throws Exception {
+        markerAnswers.add(new String[]{file("a.yaml") + file("b.yaml"), "MAX_TOKENS"});
+        markerAnswers.add(new String[]{file("b.yaml") + file("c.yaml"), "STOP"});
+
+        assertTrue(markerAgent(2).generateFiles(config(), 1, this::deliver));
+
+        assertEquals(List.of("a.yaml", "b.yaml", "c.yaml"), deliveredFiles);
+    }
+
+    @Test
+    void givesUpAfterTheLastContinuation() throws Exception {
+        for (int i = 1; i <= 3; i++) {
+            markerAnswers.add(new String[]{file("file" + i + ".yaml"), "MAX_TOKENS"});
+        }
+
+        assertFalse(markerAgent(1).generateFiles(config(), 1, this::deliver));
+
+        assertEquals(2, generateRequests.size(), "the first request and one continuation");
+        assertEquals(List.of("file1.yaml", "file2.yaml"), deliveredFiles);
+    }
+
+    private K8ConfigGeneratorAgent markerAgent(int maxContinuations) {
+        K8ConfigGeneratorAgent agent = new K8ConfigGeneratorAgent("test-key", MODEL, baseUrl, null);
+        agent.setMaxContinuations(maxContinuations);
+        return agent;
+    }
+
+    private void deliver(String path, String content) {
+        deliveredFiles.add(path);
+        files.put(path, content);
+    }
+
+    private static String file(String name) {
+        return "-----BEGIN_FILE: " + name + "-----\nkind: ConfigMap\n-----END_FILE: " + name + "-----\n";
+    }
+
+    private static String userText(JsonNode request) {
+        StringBuilder text = new StringBuilder();
+        request.path("contents").forEach(content -> content.path("parts")
+                .forEach(part -> text.append(part.path("text").asText())));
+        return text.toString();
+    }
+
+    private static Map<String, Object> response(String text, String finishReason) {
+        Map<String, Object> candidate = new LinkedHashMap<>();
+        candidate.put("content", Map.of("role", "model", "parts", List.of(Map.of("text", text))));
+        candidate.put("finishReason", finishReason);
+        return Map.of("candidates", List.of(candidate),
+                "usageMetadata", Map.of("promptTokenCount", 10, "candidatesTokenCount", 10, "totalTokenCount", 20));
+    }
+
+    private GeminiContextCacheService contextCache() {
+        return ProjectBuilder.builder().build().getGradle().getSharedServices()
+                .registerIfAbsent("contextCache", GeminiContextCacheService.class, spec -> {
+                    spec.getParameters().getStateFile().set(stateDir.resolve("gemini-context-cache.json").toFile());
+                    spec.getParameters().getTtlMinutes().set(30);
+                }).get();
+    }
+
+    private static DeploymentConfig config() {
+        DeploymentConfig config = new DeploymentConfig();
+        config.setApplicationName("orders");
+        return config;
+    }
+
+    private String sse(String text, String finishReason) throws IOException {
+        Map<String, Object> candidate = new LinkedHashMap<>();
+        candidate.put("content", Map.of("parts", List.of(Map.of("text", text))));
+        candidate.put("finishReason", finishReason);
+        return "data: " + objectMapper.writeValueAsString(Map.of("candidates", List.of(candidate))) + "\n\n";
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body, String contentType) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+        exchange.close();
+    }
+}
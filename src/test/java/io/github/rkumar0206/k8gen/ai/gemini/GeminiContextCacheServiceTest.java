@@ -0,0 +1,147 @@
+package io.github.rkumar0206.k8gen.ai.gemini;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.gradle.api.Project;
+import org.gradle.testfixtures.ProjectBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Exercises {@link GeminiContextCacheService} against a local stand-in of the {@code cachedContents} resource.
+ */
+class GeminiContextCacheServiceTest {
+
+    @TempDir
+    Path stateDir;
+
+    private final List<String> requests = new CopyOnWriteArrayList<>();
+    private HttpServer server;
+    private GeminiRestClient client;
+    private volatile int createStatus = 200;
+    private volatile Duration lifetime = Duration.ofMinutes(30);
+
+    @BeforeEach
+    void startStandIn() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/v1beta/cachedContents", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            requests.add(exchange.getRequestMethod() + " " + exchange.getRequestURI().getPath());
+            int status = "POST".equals(exchange.getRequestMethod()) ? createStatus : 200;
+            respond(exchange, status, status != 200 ? "{\"error\": {\"code\": " + status + "}}" : """
+                    {"name": "cachedContents/c%d", "expireTime": "%s"}""".formatted(requests.size(), Instant.now().plus(lifetime)));
+        });
+        server.start();
+        client = new GeminiRestClient("test-key",
+                "http://127.0.0.1:" + server.getAddress().getPort() + "/v1beta", Duration.ofSeconds(5));
+    }
+
+    @AfterEach
+    void stopStandIn() {
+        server.stop(0);
+    }
+
+    @Test
+    void createsAnEntryOnceAndReusesIt() throws Exception {
+        GeminiContextCacheService service = service();
+
+        assertEquals("cachedContents/c1", service.resolve(client, "gemini-2.5-flash", "static instructions"));
+        assertEquals("cachedContents/c1", service.resolve(client, "gemini-2.5-flash", "static instructions"));
+        assertEquals(List.of("POST /v1beta/cachedContents"), requests);
+    }
+
+    @Test
+    void extendsAnEntryThatIsAboutToExpire() throws Exception {
+        GeminiContextCacheService service = service();
+        lifetime = Duration.ofMinutes(5);
+
+        service.resolve(client, "gemini-2.5-flash", "static instructions");
+        service.resolve(client, "gemini-2.5-flash", "static instructions");
+
+        assertEquals(List.of("POST /v1beta/cachedContents", "PATCH /v1beta/cachedContents/c1"), requests);
+    }
+
+    @Test
+    void recreatesAnExpiredEntry() throws Exception {
+        GeminiContextCacheService service = service();
+        lifetime = Duration.ofSeconds(10);
+
+        service.resolve(client, "gemini-2.5-flash", "static instructions");
+        assertEquals("cachedContents/c2", service.resolve(client, "gemini-2.5-flash", "static instructions"));
+        assertEquals(List.of("POST /v1beta/cachedContents", "POST /v1beta/cachedContents"), requests);
+    }
+
+    @Test
+    void recreatesAnInvalidatedEntry() throws Exception {
+        GeminiContextCacheService service = service();
+
+        service.resolve(client, "gemini-2.5-flash", "static instructions");
+        service.invalidate("gemini-2.5-flash", "static instructions");
+
+        assertEquals("cachedContents/c2", service.resolve(client, "gemini-2.5-flash", "static instructions"));
+    }
+
+    @Test
+    void stopsAfterTheServerRefusesAnEntry() throws Exception {
+        GeminiContextCacheService service = service();
+        createStatus = 400;
+
+        assertNull(service.resolve(client, "gemini-2.5-flash", "too short"));
+        assertNull(service.resolve(client, "gemini-2.5-flash", "too short"));
+        assertEquals(1, requests.size(), "a refused instruction is not sent again");
+    }
+
+    @Test
+    void retriesAfterATransientFailure() throws Exception {
+        GeminiContextCacheService service = service();
+        createStatus = 503;
+
+        assertNull(service.resolve(client, "gemini-2.5-flash", "static instructions"));
+        createStatus = 200;
+        assertEquals("cachedContents/c2", service.resolve(client, "gemini-2.5-flash", "static instructions"));
+    }
+
+    @Test
+    void reusesTheEntriesOfAnEarlierBuild() throws Exception {
+        GeminiContextCacheService first = service();
+        first.resolve(client, "gemini-2.5-flash", "static instructions");
+        first.close();
+
+        GeminiContextCacheService second = service();
+        assertEquals("cachedContents/c1", second.resolve(client, "gemini-2.5-flash", "static instructions"));
+        assertEquals(1, requests.size());
+    }
+
+    /**
+     * A service of a new build, sharing the state file of the earlier ones.
+     */
+    private GeminiContextCacheService service() {
+        Project project = ProjectBuilder.builder().build();
+        return project.getGradle().getSharedServices()
+                .registerIfAbsent("contextCache", GeminiContextCacheService.class, spec -> {
+                    spec.getParameters().getStateFile().set(stateDir.resolve("gemini-context-cache.json").toFile());
+                    spec.getParameters().getTtlMinutes().set(30);
+                }).get();
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+        exchange.close();
+    }
+}
@@ -0,0 +1,99 @@
+package io.github.rkumar0206.k8gen.ai.gemini;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Exercises {@link GeminiRestClient} against a local stand-in of the Gemini API.
+ */
+class GeminiRestClientTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<JsonNode> requests = new CopyOnWriteArrayList<>();
+    private HttpServer server;
+    private GeminiRestClient client;
+
+    @BeforeEach
+    void startStandIn() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/v1beta/cachedContents", exchange -> {
+            capture(exchange);
+            respond(exchange, 200, """
+                    {"name": "cachedContents/abc123", "expireTime": "2099-01-01T00:00:00Z"}""");
+        });
+        server.createContext("/v1beta/models/", exchange -> {
+            JsonNode body = capture(exchange);
+            if (!"cachedContents/abc123".equals(body.path("cachedContent").asText())) {
+                respond(exchange, 404, "{\"error\": {\"status\": \"NOT_FOUND\"}}");
+                return;
+            }
+            respond(exchange, 200, """
+                    {"candidates": [{"content": {"parts": [{"text": "plan", "thought": true}, {"text": "files"}]},
+                      "finishReason": "STOP"}],
+                     "usageMetadata": {"promptTokenCount": 4100, "cachedContentTokenCount": 3900, "candidatesTokenCount": 12}}""");
+        });
+        server.start();
+        client = new GeminiRestClient("test-key",
+                "http://127.0.0.1:" + server.getAddress().getPort() + "/v1beta/", Duration.ofSeconds(5));
+    }
+
+    @AfterEach
+    void stopStandIn() {
+        server.stop(0);
+    }
+
+    @Test
+    void createsCacheAndReferencesItFromGenerateContent() throws Exception {
+        CachedContent cache = client.createCachedContent("gemini-2.5-flash", "static instructions", Duration.ofMinutes(30));
+
+        assertEquals("cachedContents/abc123", cache.getName());
+        assertTrue(cache.isValidFor(Duration.ofHours(1)));
+        assertEquals("models/gemini-2.5-flash", requests.get(0).path("model").asText());
+        assertEquals("1800s", requests.get(0).path("ttl").asText());
+        assertEquals("static instructions",
+                requests.get(0).path("systemInstruction").path("parts").path(0).path("text").asText());
+
+        GeminiResponse response = client.generateContent("gemini-2.5-flash", cache.getName(), "Inputs: {}");
+
+        assertEquals("files", response.getText());
+        assertEquals("STOP", response.getFinishReason());
+        assertEquals(3900, response.getCachedContentTokenCount());
+        assertEquals("Inputs: {}", requests.get(1).path("contents").path(0).path("parts").path(0).path("text").asText());
+    }
+
+    @Test
+    void reportsStatusOfRejectedRequests() {
+        GeminiApiException e = assertThrows(GeminiApiException.class,
+                () -> client.generateContent("gemini-2.5-flash", "cachedContents/expired", "Inputs: {}"));
+        assertEquals(404, e.getStatusCode());
+    }
+
+    private JsonNode capture(HttpExchange exchange) throws IOException {
+        assertEquals("test-key", exchange.getRequestHeaders().getFirst("x-goog-api-key"));
+        JsonNode body = objectMapper.readTree(exchange.getRequestBody());
+        requests.add(body);
+        return body;
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+        exchange.close();
+    }
+}
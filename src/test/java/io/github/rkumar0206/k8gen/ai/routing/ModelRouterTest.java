@@ -0,0 +1,89 @@
+package io.github.rkumar0206.k8gen.ai.routing;
+
+import io.github.rkumar0206.k8gen.model.DeploymentConfig;
+import io.github.rkumar0206.k8gen.model.DockerImage;
+import io.github.rkumar0206.k8gen.model.Migrations;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ModelRouterTest {
+
+    private final ModelRouter router = new ModelRouter(ModelRouter.DEFAULT_TIERS);
+
+    @Test
+    void routesConfigurationsByComplexity() throws Exception {
+        DeploymentConfig bare = config();
+        ModelRouter.Complexity bareComplexity = ModelRouter.complexity(bare);
+        assertEquals(new ModelRouter.Complexity(9, 0, 0, 1), bareComplexity);
+        assertEquals("gemini-2.5-flash-lite", router.modelFor(bareComplexity.score()));
+
+        DeploymentConfig withDatabase = config();
+        withDatabase.setIncludeDatabase(true);
+        withDatabase.setIngressHost("orders.example.com");
+        withDatabase.setEnableHPA(true);
+        withDatabase.setSecrets(Map.of("DB_PASSWORD", "s3cr3t"));
+        assertEquals(14, ModelRouter.complexity(withDatabase).requestedFiles());
+        assertEquals("gemini-2.5-flash", router.modelFor(ModelRouter.complexity(withDatabase).score()));
+
+        DeploymentConfig complex = config();
+        complex.setIncludeDatabase(true);
+        complex.setMigrations(new Migrations());
+        complex.setExtraK8sResources(List.of("ServiceAccount", "Role", "RoleBinding", "NetworkPolicy"));
+        complex.setAdditionalDockerImages(List.of(image("redis"), image("kafka"), image("zookeeper"),
+                image("prometheus"), image("grafana")));
+        ModelRouter.Complexity complexComplexity = ModelRouter.complexity(complex);
+        assertEquals(4, complexComplexity.extraResources());
+        assertEquals(5, complexComplexity.additionalImages());
+        assertEquals("gemini-2.5-pro", router.modelFor(complexComplexity.score()));
+    }
+
+    @Test
+    void sortsTheTiersByBoundAndSendsHigherScoresToTheLastTier() {
+        ModelRouter custom = new ModelRouter(Map.of("strong", 30, "fast", 10));
+
+        assertEquals("fast", custom.modelFor(10));
+        assertEquals("strong", custom.modelFor(11));
+        assertEquals("strong", custom.modelFor(100));
+        assertThrows(IllegalArgumentException.class, () -> new ModelRouter(Map.of()));
+    }
+
+    @Test
+    void recordsLatencyAndOutcomePerModel(@TempDir Path directory) {
+        Path file = directory.resolve("k8gen/model-routing.json");
+        new ModelRoutingStats(file).record("gemini-2.5-flash-lite", 11, 4000, true);
+        new ModelRoutingStats(file).record("gemini-2.5-flash-lite", 12, 8000, false);
+        new ModelRoutingStats(file).record("gemini-2.5-flash", 20, 9000, true);
+
+        Map<String, ModelRoutingStats.ModelStats> stats = new ModelRoutingStats(file).load();
+        ModelRoutingStats.ModelStats lite = stats.get("gemini-2.5-flash-lite");
+        assertEquals(2, lite.getGenerations());
+        assertEquals(1, lite.getSuccesses());
+        assertEquals(8000, lite.getMaxLatencyMillis());
+        assertEquals(new TreeSet<>(List.of(12)), lite.getFailedScores());
+        assertEquals("gemini-2.5-flash-lite: 1 of 2 generations complete, mean latency 6000 ms, scores 11-12, failed at [12]",
+                ModelRoutingStats.summary("gemini-2.5-flash-lite", lite));
+        assertEquals(1, stats.get("gemini-2.5-flash").getSuccesses());
+    }
+
+    private static DeploymentConfig config() {
+        DeploymentConfig config = new DeploymentConfig();
+        config.setApplicationName("orders");
+        config.setJavaVersion("21");
+        config.setPort(8080);
+        return config;
+    }
+
+    private static DockerImage image(String name) {
+        DockerImage image = new DockerImage();
+        image.setName(name);
+        image.setImage(name + ":latest");
+        return image;
+    }
+}
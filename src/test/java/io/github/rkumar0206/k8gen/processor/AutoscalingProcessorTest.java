@@ -0,0 +1,299 @@
+package io.github.rkumar0206.k8gen.processor;
+
+import io.github.rkumar0206.k8gen.model.Autoscaling;
+import io.github.rkumar0206.k8gen.model.CustomMetric;
+import io.github.rkumar0206.k8gen.model.DeploymentConfig;
+import io.github.rkumar0206.k8gen.model.DockerImage;
+import io.github.rkumar0206.k8gen.model.KafkaLagScaling;
+import io.github.rkumar0206.k8gen.model.ScalingRules;
+import io.github.rkumar0206.k8gen.util.ManifestUtil;
+import io.github.rkumar0206.k8gen.util.ManifestValidator;
+import io.github.rkumar0206.k8gen.util.YamlNormalizer;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AutoscalingProcessorTest {
+
+    private static final String MODEL_HPA = """
+            apiVersion: autoscaling/v1
+            kind: HorizontalPodAutoscaler
+            metadata:
+              name: orders-hpa
+            spec:
+              scaleTargetRef:
+                apiVersion: apps/v1
+                kind: Deployment
+                name: orders-deployment
+              minReplicas: 2
+              maxReplicas: 10
+              targetCPUUtilizationPercentage: 80
+            """;
+
+    private static final String DEPLOYMENT = """
+            apiVersion: apps/v1
+            kind: Deployment
+            metadata:
+              name: orders-deployment
+            spec:
+              template:
+                metadata:
+                  labels:
+                    app: orders
+                spec:
+                  containers:
+                    - name: orders
+                      image: registry.example.com/orders:1.0.0
+                      ports:
+                        - containerPort: 8081
+            """;
+
+    private final Map<String, String> output = new LinkedHashMap<>();
+
+    @Test
+    void replacesTheModelsAutoscalerWithRequestRateAndLatencyTargets() {
+        Autoscaling autoscaling = new Autoscaling();
+        autoscaling.setRequestsPerSecond("50");
+        autoscaling.setP95LatencyMillis(250);
+        ScalingRules scaleDown = new ScalingRules();
+        scaleDown.setStabilizationWindowSeconds(600);
+        scaleDown.setPods(1);
+        scaleDown.setPeriodSeconds(120);
+        autoscaling.setScaleDown(scaleDown);
+
+        AutoscalingProcessor processor = new AutoscalingProcessor(config(autoscaling));
+        processor.process("hpa.yaml", MODEL_HPA, output::put);
+        processor.finish(output::put);
+
+        Map<String, Object> hpa = parse(output.get("hpa.yaml"));
+        assertEquals("autoscaling/v2", hpa.get("apiVersion"));
+        assertEquals("orders-hpa", ManifestUtil.map(hpa.get("metadata")).get("name"));
+        Map<String, Object> spec = ManifestUtil.map(hpa.get("spec"));
+        assertEquals("orders-deployment", ManifestUtil.map(spec.get("scaleTargetRef")).get("name"));
+        assertEquals(2, spec.get("minReplicas"));
+        assertEquals(10, spec.get("maxReplicas"));
+
+        List<Map<String, Object>> metrics = ManifestUtil.maps(spec.get("metrics"));
+        assertEquals(List.of("Pods", "Pods"), metrics.stream().map(metric -> metric.get("type")).toList());
+        assertEquals(Map.of("type", "AverageValue", "averageValue", "50"),
+                ManifestUtil.map(metrics.get(0).get("pods")).get("target"));
+        assertEquals(Map.of("type", "AverageValue", "averageValue", "250m"),
+                ManifestUtil.map(metrics.get(1).get("pods")).get("target"));
+
+        Map<String, Object> behavior = ManifestUtil.map(spec.get("behavior"));
+        Map<String, Object> up = ManifestUtil.map(behavior.get("scaleUp"));
+        assertEquals(0, up.get("stabilizationWindowSeconds"));
+        assertEquals(List.of(Map.of("type", "Percent", "value", 100, "periodSeconds", 15),
+                Map.of("type", "Pods", "value", 4, "periodSeconds", 15)), up.get("policies"));
+        Map<String, Object> down = ManifestUtil.map(behavior.get("scaleDown"));
+        assertEquals(600, down.get("stabilizationWindowSeconds"));
+        assertEquals("Max", down.get("selectPolicy"));
+        assertEquals(List.of(Map.of("type", "Pods", "value", 1, "periodSeconds", 120)), down.get("policies"));
+
+        String adapter = output.get("prometheus-adapter-values.yaml");
+        assertTrue(adapter.contains("as: http_server_requests_per_second"), adapter);
+        assertTrue(adapter.contains("histogram_quantile(0.95"));
+        assertTrue(output.get("prometheus.yaml").contains("kind: PodMonitor"));
+    }
+
+    @Test
+    void preparesTheDeploymentForScraping() {
+        Autoscaling autoscaling = new Autoscaling();
+        autoscaling.setP95LatencyMillis(200);
+        CustomMetric queue = new CustomMetric();
+        queue.setName("orders_queue_size");
+        queue.setSeries("orders_queue_size");
+        queue.setQuery("max(<<.Series>>{<<.LabelMatchers>>}) by (<<.GroupBy>>)");
+        queue.setTargetAverageValue("30");
+        autoscaling.setCustomMetrics(List.of(queue));
+
+        AutoscalingProcessor processor = new AutoscalingProcessor(config(autoscaling));
+        processor.process("deployment.yaml", DEPLOYMENT, output::put);
+        processor.finish(output::put);
+
+        String deployment = output.get("deployment.yaml");
+        assertTrue(deployment.contains("prometheus.io/scrape: 'true'"), deployment);
+        assertTrue(deployment.contains("name: http"));
+        assertTrue(deployment.contains("MANAGEMENT_METRICS_DISTRIBUTION_PERCENTILES_HISTOGRAM_HTTP_SERVER_REQUESTS"));
+        assertEquals("orders-deployment", ManifestUtil.map(ManifestUtil.map(parse(output.get("hpa.yaml"))
+                .get("spec")).get("scaleTargetRef")).get("name"));
+        assertTrue(output.get("prometheus-adapter-values.yaml").contains("max(<<.Series>>{<<.LabelMatchers>>})"));
+        assertTrue(output.get("prometheus.yaml").contains("port: http"));
+    }
+
+    @Test
+    void neitherTargetsNorScrapesBackingServices() {
+        String redis = """
+                apiVersion: apps/v1
+                kind: Deployment
+                metadata:
+                  name: redis
+                spec:
+                  template:
+                    spec:
+                      containers:
+                        - name: redis
+                          image: redis:7
+                          ports:
+                            - containerPort: 6379
+                """;
+        Autoscaling autoscaling = new Autoscaling();
+        autoscaling.setRequestsPerSecond("50");
+
+        AutoscalingProcessor processor = new AutoscalingProcessor(config(autoscaling));
+        processor.process("deployment.yaml", DEPLOYMENT, output::put);
+        processor.process("redis.yaml", redis, output::put);
+        processor.finish(output::put);
+
+        assertEquals(redis, output.get("redis.yaml"));
+        assertEquals("orders-deployment", ManifestUtil.map(ManifestUtil.map(parse(output.get("hpa.yaml"))
+                .get("spec")).get("scaleTargetRef")).get("name"));
+    }
+
+    @Test
+    void scalesOnCpuWithoutPrometheusTargets() {
+        AutoscalingProcessor processor = new AutoscalingProcessor(config(null));
+        processor.finish(output::put);
+
+        assertEquals(List.of("hpa.yaml"), List.copyOf(output.keySet()));
+        Map<String, Object> spec = ManifestUtil.map(parse(output.get("hpa.yaml")).get("spec"));
+        Map<String, Object> resource = ManifestUtil.map(ManifestUtil.maps(spec.get("metrics")).get(0).get("resource"));
+        assertEquals(Map.of("type", "Utilization", "averageUtilization", 70), resource.get("target"));
+        assertEquals(300, ManifestUtil.map(ManifestUtil.map(spec.get("behavior")).get("scaleDown"))
+                .get("stabilizationWindowSeconds"));
+    }
+
+    @Test
+    void rejectsInvalidPolicies() {
+        Autoscaling autoscaling = new Autoscaling();
+        autoscaling.setRequestsPerSecond("fast");
+        ScalingRules scaleUp = new ScalingRules();
+        scaleUp.setSelectPolicy("Fastest");
+        scaleUp.setPercent(0);
+        autoscaling.setScaleUp(scaleUp);
+        DeploymentConfig config = config(autoscaling);
+        config.setHpaMinReplicas(5);
+        config.setHpaMaxReplicas(3);
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> new AutoscalingProcessor(config));
+
+        assertTrue(e.getMessage().contains("hpaMaxReplicas must not be less than hpaMinReplicas"), e.getMessage());
+        assertTrue(e.getMessage().contains("autoscaling.requestsPerSecond is not a valid quantity"));
+        assertTrue(e.getMessage().contains("autoscaling.scaleUp policies must allow a positive change"));
+        assertTrue(e.getMessage().contains("autoscaling.scaleUp.selectPolicy must be one of Max, Min or Disabled"));
+    }
+
+    @Test
+    void scalesAKafkaConsumerOnConsumerGroupLagCappedAtThePartitions() {
+        KafkaLagScaling kafkaLag = new KafkaLagScaling();
+        kafkaLag.setTopic("orders.created");
+        kafkaLag.setPartitions(6);
+        kafkaLag.setCooldownPeriodSeconds(120);
+        Autoscaling autoscaling = new Autoscaling();
+        autoscaling.setKafkaLag(kafkaLag);
+        autoscaling.setTargetCpuUtilization(80);
+        DeploymentConfig config = config(autoscaling);
+        DockerImage kafka = new DockerImage();
+        kafka.setName("kafka");
+        kafka.setImage("confluentinc/cp-kafka:7.6.1");
+        kafka.setPorts(List.of("29092:9092"));
+        config.setAdditionalDockerImages(List.of(kafka));
+        config.setConfigd(Map.of("SPRING_KAFKA_CONSUMER_GROUP_ID", "orders-projector"));
+        AutoscalingProcessor processor = new AutoscalingProcessor(config);
+
+        processor.process("hpa.yaml", MODEL_HPA, output::put);
+        processor.process("deployment.yaml", DEPLOYMENT, output::put);
+        processor.finish(output::put);
+
+        assertEquals(List.of("hpa.yaml", "deployment.yaml"), List.copyOf(output.keySet()));
+        assertEquals("""
+                apiVersion: keda.sh/v1alpha1
+                kind: ScaledObject
+                metadata:
+                  name: orders-hpa
+                  labels:
+                    app: orders
+                spec:
+                  scaleTargetRef:
+                    apiVersion: apps/v1
+                    kind: Deployment
+                    name: orders-deployment
+                  pollingInterval: 30
+                  cooldownPeriod: 120
+                  minReplicaCount: 2
+                  maxReplicaCount: 6
+                  advanced:
+                    horizontalPodAutoscalerConfig:
+                      behavior:
+                        scaleUp:
+                          stabilizationWindowSeconds: 0
+                          selectPolicy: Max
+                          policies:
+                            - type: Percent
+                              value: 100
+                              periodSeconds: 15
+                            - type: Pods
+                              value: 4
+                              periodSeconds: 15
+                        scaleDown:
+                          stabilizationWindowSeconds: 300
+                          selectPolicy: Max
+                          policies:
+                            - type: Percent
+                              value: 10
+                              periodSeconds: 60
+                  triggers:
+                    - type: kafka
+                      metadata:
+                        activationLagThreshold: '0'
+                        allowIdleConsumers: 'false'
+                        bootstrapServers: kafka:9092
+                        consumerGroup: orders-projector
+                        lagThreshold: '100'
+                        offsetResetPolicy: latest
+                        topic: orders.created
+                    - type: cpu
+                      metricType: Utilization
+                      metadata:
+                        value: '80'
+                """, output.get("hpa.yaml"));
+
+        ManifestValidator.Result result = new ManifestValidator("1.29").validate(Map.of("hpa.yaml", output.get("hpa.yaml")));
+        assertEquals(List.of(), result.violations());
+        assertEquals(1, result.documents(), "the ScaledObject is validated against the bundled schema");
+    }
+
+    @Test
+    void needsKafkaForLagScaling() {
+        Autoscaling autoscaling = new Autoscaling();
+        autoscaling.setKafkaLag(new KafkaLagScaling());
+        autoscaling.getKafkaLag().setPartitions(0);
+        autoscaling.setRequestsPerSecond("50");
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> new AutoscalingProcessor(config(autoscaling)));
+
+        assertTrue(e.getMessage().contains("autoscaling.kafkaLag needs bootstrapServers"), e.getMessage());
+        assertTrue(e.getMessage().contains("cannot be combined with requestsPerSecond"));
+        assertTrue(e.getMessage().contains("autoscaling.kafkaLag.partitions must be positive"));
+    }
+
+    private static Map<String, Object> parse(String yaml) {
+        return YamlNormalizer.parse(yaml).get(0).asMap();
+    }
+
+    private static DeploymentConfig config(Autoscaling autoscaling) {
+        DeploymentConfig config = new DeploymentConfig();
+        config.setApplicationName("orders");
+        config.setPort(8081);
+        config.setEnableHPA(true);
+        config.setHpaMinReplicas(2);
+        config.setHpaMaxReplicas(10);
+        config.setAutoscaling(autoscaling);
+        return config;
+    }
+}
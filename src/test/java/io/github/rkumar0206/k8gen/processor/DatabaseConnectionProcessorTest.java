@@ -0,0 +1,145 @@
+package io.github.rkumar0206.k8gen.processor;
+
+import io.github.rkumar0206.k8gen.model.DatabaseConnections;
+import io.github.rkumar0206.k8gen.model.DeploymentConfig;
+import io.github.rkumar0206.k8gen.util.ConnectionBudget;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DatabaseConnectionProcessorTest {
+
+    private static final String CONFIG_MAP = """
+            apiVersion: v1
+            kind: ConfigMap
+            metadata:
+              name: orders-config
+            data:
+              SPRING_PROFILES_ACTIVE: prod
+            """;
+
+    private static final String DEPLOYMENT = """
+            apiVersion: apps/v1
+            kind: Deployment
+            metadata:
+              name: orders
+            spec:
+              template:
+                spec:
+                  containers:
+                    - name: orders
+                      image: registry.example.com/orders:1.0.0
+                      envFrom:
+                        - configMapRef: {name: orders-config}
+                        - secretRef: {name: orders-secret}
+                      env:
+                        - name: SPRING_DATASOURCE_URL
+                          value: jdbc:postgresql://orders-postgres:5432/orders?sslmode=disable
+                        - name: SPRING_DATASOURCE_USERNAME
+                          valueFrom:
+                            secretKeyRef: {name: orders-secret, key: DB_USER}
+            """;
+
+    private final Map<String, String> output = new LinkedHashMap<>();
+
+    @Test
+    void setsThePoolSizeWithinTheBudget() {
+        DeploymentConfig config = config(3, null);
+        DatabaseConnectionProcessor processor = new DatabaseConnectionProcessor(config, ConnectionBudget.plan(config));
+
+        processor.process("configmap.yaml", CONFIG_MAP, output::put);
+        processor.process("deployment.yaml", DEPLOYMENT, output::put);
+        processor.finish(output::put);
+
+        assertTrue(output.get("configmap.yaml").contains("SPRING_DATASOURCE_HIKARI_MAXIMUM_POOL_SIZE: '10'"), output.get("configmap.yaml"));
+        assertEquals(DEPLOYMENT, output.get("deployment.yaml"));
+        assertFalse(output.containsKey("pgbouncer.yaml"));
+    }
+
+    @Test
+    void routesTheApplicationThroughASharedPgBouncer() {
+        DeploymentConfig config = config(10, null);
+        DatabaseConnectionProcessor processor = new DatabaseConnectionProcessor(config, ConnectionBudget.plan(config));
+
+        processor.process("configmap.yaml", CONFIG_MAP, output::put);
+        processor.process("deployment.yaml", DEPLOYMENT, output::put);
+        processor.finish(output::put);
+
+        assertTrue(output.get("deployment.yaml").contains(
+                "value: jdbc:postgresql://orders-pgbouncer:6432/orders?sslmode=disable&prepareThreshold=0"), output.get("deployment.yaml"));
+        String pgBouncer = output.get("pgbouncer.yaml");
+        assertTrue(pgBouncer.contains("kind: Deployment"), pgBouncer);
+        assertTrue(pgBouncer.contains("kind: Service"));
+        assertTrue(pgBouncer.contains("value: orders-postgres"));
+        assertTrue(pgBouncer.contains("value: transaction"));
+        assertTrue(pgBouncer.contains("key: DB_USER"), "copies the credentials of the application");
+        assertTrue(pgBouncer.contains("name: orders-secret"));
+        assertTrue(pgBouncer.contains("key: SPRING_DATASOURCE_PASSWORD"));
+    }
+
+    @Test
+    void addsAPgBouncerSidecar() {
+        DeploymentConfig config = config(10, "sidecar");
+        DatabaseConnectionProcessor processor = new DatabaseConnectionProcessor(config, ConnectionBudget.plan(config));
+
+        processor.process("deployment.yaml", DEPLOYMENT, output::put);
+        processor.finish(output::put);
+
+        String deployment = output.get("deployment.yaml");
+        assertTrue(deployment.contains("jdbc:postgresql://localhost:6432/orders"), deployment);
+        assertTrue(deployment.contains("name: pgbouncer"));
+        assertFalse(output.containsKey("pgbouncer.yaml"));
+    }
+
+    @Test
+    void pointsTheSidecarAtTheDatabaseOfFilesAfterTheDeployment() {
+        DeploymentConfig config = config(10, "sidecar");
+        DatabaseConnectionProcessor processor = new DatabaseConnectionProcessor(config, ConnectionBudget.plan(config));
+
+        processor.process("deployment.yaml", """
+                apiVersion: apps/v1
+                kind: Deployment
+                metadata:
+                  name: orders
+                spec:
+                  template:
+                    spec:
+                      containers:
+                        - name: orders
+                          image: registry.example.com/orders:1.0.0
+                          envFrom:
+                            - configMapRef: {name: orders-config}
+                """, output::put);
+        processor.process("configmap.yaml", """
+                apiVersion: v1
+                kind: ConfigMap
+                metadata:
+                  name: orders-config
+                data:
+                  SPRING_DATASOURCE_URL: jdbc:postgresql://orders-db:5433/orders
+                """, output::put);
+        assertFalse(output.containsKey("deployment.yaml"), "held back until the upstream is known");
+        processor.finish(output::put);
+
+        String deployment = output.get("deployment.yaml");
+        assertTrue(deployment.contains("name: pgbouncer"), deployment);
+        assertTrue(deployment.contains("value: orders-db"));
+        assertTrue(deployment.contains("value: '5433'"));
+        assertTrue(output.get("configmap.yaml").contains("jdbc:postgresql://localhost:6432/orders?prepareThreshold=0"));
+    }
+
+    private static DeploymentConfig config(int replicas, String pgBouncerMode) {
+        DeploymentConfig config = new DeploymentConfig();
+        config.setApplicationName("orders");
+        config.setDbName("orders");
+        config.setIncludeDatabase(true);
+        config.setReplicas(replicas);
+        DatabaseConnections connections = new DatabaseConnections();
+        connections.setPgBouncerMode(pgBouncerMode);
+        config.setDbConnections(connections);
+        return config;
+    }
+}
@@ -0,0 +1,115 @@
+package io.github.rkumar0206.k8gen.processor;
+
+import io.github.rkumar0206.k8gen.model.DeploymentConfig;
+import io.github.rkumar0206.k8gen.model.DockerImage;
+import io.github.rkumar0206.k8gen.util.ImageTuningCatalogue;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImageTuningProcessorTest {
+
+    private final Map<String, String> output = new LinkedHashMap<>();
+
+    @Test
+    void tunesTheAdditionalContainersForTheirRole() {
+        String manifests = """
+                apiVersion: apps/v1
+                kind: Deployment
+                metadata:
+                  name: sessions
+                spec:
+                  template:
+                    spec:
+                      containers:
+                        - name: sessions
+                          image: redis:7
+                          command: [redis-server, --appendonly, "yes", --maxmemory, 100mb]
+                          resources:
+                            limits: {memory: 512Mi}
+                ---
+                apiVersion: apps/v1
+                kind: Deployment
+                metadata:
+                  name: orders
+                spec:
+                  template:
+                    spec:
+                      containers:
+                        - name: orders
+                          image: registry.example.com/orders:1.0.0
+                """;
+
+        processor().process("redis.yaml", manifests, output::put);
+
+        String redis = output.get("redis.yaml");
+        assertTrue(redis.contains("""
+                          command:
+                            - redis-server
+                            - --appendonly
+                            - 'yes'
+                          args:
+                            - --maxmemory
+                            - 384mb
+                            - --maxmemory-policy
+                            - noeviction
+                          resources:
+                            requests:
+                              cpu: 100m
+                              memory: 256Mi
+                            limits:
+                              memory: 512Mi
+                """), redis);
+        assertEquals(1, redis.split("image: registry.example.com/orders:1.0.0\n", -1).length - 1);
+        assertFalse(redis.substring(redis.indexOf("name: orders")).contains("resources"));
+    }
+
+    @Test
+    void tunesComposeServices() {
+        String compose = """
+                services:
+                  orders:
+                    build: .
+                  kafka:
+                    image: confluentinc/cp-kafka:7.6.0
+                    environment:
+                      KAFKA_NODE_ID: 1
+                    deploy:
+                      resources:
+                        limits:
+                          memory: 2g
+                  mysql:
+                    image: mysql:8.4
+                    command: --innodb-buffer-pool-size=128M --max-connections=200
+                """;
+
+        processor().process("docker-compose.yml", compose, output::put);
+
+        String result = output.get("docker-compose.yml");
+        assertTrue(result.contains("KAFKA_HEAP_OPTS: -Xms1024m -Xmx1024m"), result);
+        assertTrue(result.contains("KAFKA_LOG_SEGMENT_BYTES: '268435456'"));
+        assertTrue(result.contains("""
+                    command:
+                      - --max-connections=200
+                      - --innodb-buffer-pool-size=614M
+                """));
+        assertTrue(result.contains("memory: 1024M"));
+        // the application service is left to the JVM tuning
+        assertEquals(2, result.split("deploy:", -1).length - 1);
+    }
+
+    private static ImageTuningProcessor processor() {
+        DockerImage redis = new DockerImage();
+        redis.setName("sessions");
+        redis.setImage("redis:7");
+        redis.setRole("session");
+        DeploymentConfig config = new DeploymentConfig();
+        config.setApplicationName("orders");
+        config.setAdditionalDockerImages(List.of(redis));
+        return new ImageTuningProcessor(config, ImageTuningCatalogue.bundled());
+    }
+}
@@ -0,0 +1,108 @@
+package io.github.rkumar0206.k8gen.processor;
+
+import io.github.rkumar0206.k8gen.model.DeploymentConfig;
+import io.github.rkumar0206.k8gen.util.JvmTuning;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JvmTuningProcessorTest {
+
+    private final Map<String, String> output = new LinkedHashMap<>();
+
+    @Test
+    void replacesJavaToolOptionsOfTheApplicationContainer() {
+        JvmTuningProcessor processor = processor();
+
+        processor.process("deployment.yaml", """
+                apiVersion: apps/v1
+                kind: Deployment
+                metadata:
+                  name: orders
+                spec:
+                  template:
+                    spec:
+                      containers:
+                        - name: orders
+                          image: registry.example.com/orders:1.0.0
+                          env:
+                            - name: JAVA_TOOL_OPTIONS
+                              value: -Xms512m -Xmx1g
+                        - name: log-shipper
+                          image: fluent-bit:3
+                """, output::put);
+
+        String deployment = output.get("deployment.yaml");
+        assertTrue(deployment.contains("value: -XX:InitialRAMPercentage=74.0 -XX:MaxRAMPercentage=74.0"), deployment);
+        assertFalse(deployment.contains("-Xmx1g"));
+        assertEquals(1, deployment.split("JAVA_TOOL_OPTIONS", -1).length - 1);
+    }
+
+    @Test
+    void setsEnvironmentAndLimitsOfTheComposeService() {
+        JvmTuningProcessor processor = processor();
+
+        processor.process("docker-compose.yml", """
+                services:
+                  orders:
+                    build: .
+                    environment:
+                      - SPRING_PROFILES_ACTIVE=local
+                  postgres:
+                    image: postgres:16
+                """, output::put);
+
+        String compose = output.get("docker-compose.yml");
+        assertTrue(compose.contains("- JAVA_TOOL_OPTIONS=-XX:InitialRAMPercentage=74.0"), compose);
+        assertTrue(compose.contains("memory: 2048M"), compose);
+        assertTrue(compose.contains("cpus: '2'"), compose);
+        assertEquals(compose.indexOf("deploy:"), compose.lastIndexOf("deploy:"));
+    }
+
+    @Test
+    void leavesTheJvmsOfBackingServicesAlone() {
+        String kafka = """
+                apiVersion: apps/v1
+                kind: Deployment
+                metadata:
+                  name: kafka
+                spec:
+                  template:
+                    spec:
+                      containers:
+                        - name: kafka
+                          image: confluentinc/cp-kafka:7.6.0
+                          env:
+                            - name: KAFKA_HEAP_OPTS
+                              value: -Xms512m -Xmx512m
+                """;
+
+        processor().process("kafka.yaml", kafka, output::put);
+
+        assertFalse(output.get("kafka.yaml").contains("JAVA_TOOL_OPTIONS"), output.get("kafka.yaml"));
+    }
+
+    @Test
+    void passesOtherFilesThroughUnchanged() {
+        String service = "kind: Service\nmetadata: {name: orders}\n";
+
+        processor().process("service.yaml", service, output::put);
+        processor().process("Dockerfile", "FROM eclipse-temurin:21-jre\n", output::put);
+
+        assertEquals(service, output.get("service.yaml"));
+        assertEquals("FROM eclipse-temurin:21-jre\n", output.get("Dockerfile"));
+    }
+
+    private static JvmTuningProcessor processor() {
+        DeploymentConfig config = new DeploymentConfig();
+        config.setApplicationName("orders");
+        config.setMemoryLimit("2Gi");
+        config.setMemoryRequest("2Gi");
+        config.setCpuLimit("2");
+        config.setJavaVersion("21");
+        return new JvmTuningProcessor(config, JvmTuning.forDeployment(config));
+    }
+}
@@ -0,0 +1,140 @@
+package io.github.rkumar0206.k8gen.processor;
+
+import io.github.rkumar0206.k8gen.model.DatabaseConnections;
+import io.github.rkumar0206.k8gen.model.DeploymentConfig;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KustomizeProcessorTest {
+
+    private static final String DEPLOYMENT = """
+            apiVersion: apps/v1
+            kind: Deployment
+            metadata:
+              name: orders
+            spec:
+              replicas: 2
+              template:
+                spec:
+                  containers:
+                    - name: orders
+                      image: registry.example.com/orders:1.0.0
+                      env:
+                        - name: JAVA_TOOL_OPTIONS
+                          value: -XX:MaxRAMPercentage=70.0
+                      resources:
+                        requests: {cpu: 250m, memory: 512Mi}
+                        limits: {cpu: 500m, memory: 1Gi}
+            """;
+
+    private static final String INGRESS = """
+            apiVersion: networking.k8s.io/v1
+            kind: Ingress
+            metadata:
+              name: orders
+            spec:
+              tls:
+                - hosts: [orders.dev.example.com]
+                  secretName: orders-tls
+              rules:
+                - host: orders.dev.example.com
+            """;
+
+    private final Map<String, String> output = new LinkedHashMap<>();
+
+    @Test
+    void rendersABaseAndOneOverlayPerEnvironment() {
+        DeploymentConfig config = config();
+        config.setEnvironments(Map.of(
+                "prod", Map.of("replicas", 4, "namespace", "orders-prod", "memoryLimit", "2Gi",
+                        "ingressHost", "orders.example.com"),
+                "dev", Map.of()));
+        KustomizeProcessor processor = new KustomizeProcessor(config, true);
+
+        processor.process("deployment.yaml", DEPLOYMENT, output::put);
+        processor.process("ingress.yaml", INGRESS, output::put);
+        processor.process("docker-compose.yml", "services: {}\n", output::put);
+        processor.process("kustomization.yaml", "resources: [deployment.yaml]\n", output::put);
+        processor.finish(output::put);
+
+        assertEquals(List.of("deployment.yaml", "ingress.yaml", "docker-compose.yml", "kustomization.yaml",
+                "overlays/dev/kustomization.yaml", "overlays/prod/kustomization.yaml"), List.copyOf(output.keySet()));
+        assertTrue(output.get("kustomization.yaml").contains("""
+                resources:
+                  - deployment.yaml
+                  - ingress.yaml
+                """), output.get("kustomization.yaml"));
+        assertFalse(output.get("overlays/dev/kustomization.yaml").contains("patches"));
+
+        String prod = output.get("overlays/prod/kustomization.yaml");
+        assertTrue(prod.contains("namespace: orders-prod"), prod);
+        assertTrue(prod.contains("replicas: 4"));
+        assertTrue(prod.contains("memory: 2Gi"));
+        assertTrue(prod.contains("name: JAVA_TOOL_OPTIONS"));
+        assertTrue(prod.contains("path: /spec/rules/0/host"));
+        assertTrue(prod.contains("path: /spec/tls/0/hosts/0"));
+        assertTrue(prod.contains("value: orders.example.com"));
+    }
+
+    @Test
+    void rejectsUnknownOverrides() {
+        DeploymentConfig config = config();
+        config.setEnvironments(Map.of("prod", Map.of("replica", 4)));
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> new KustomizeProcessor(config, true));
+        assertTrue(e.getMessage().contains("prod"), e.getMessage());
+        config.setEnvironments(Map.of("Prod", Map.of()));
+        assertThrows(IllegalArgumentException.class, () -> new KustomizeProcessor(config, true));
+    }
+
+    @Test
+    void patchesThePoolSizeOfEachEnvironment() {
+        DeploymentConfig config = config();
+        config.setIncludeDatabase(true);
+        config.setDbConnections(new DatabaseConnections());
+        config.getDbConnections().setPgBouncer("never");
+        config.setEnvironments(Map.of("prod", Map.of("replicas", 10)));
+        KustomizeProcessor processor = new KustomizeProcessor(config, true);
+
+        processor.process("deployment.yaml", DEPLOYMENT, output::put);
+        processor.finish(output::put);
+
+        // 90 connections shared by 13 pods at peak
+        String prod = output.get("overlays/prod/kustomization.yaml");
+        assertTrue(prod.contains("name: SPRING_DATASOURCE_HIKARI_MAXIMUM_POOL_SIZE"), prod);
+        assertTrue(prod.contains("value: '6'"));
+    }
+
+    @Test
+    void rejectsEnvironmentsTheBaseCannotServe() {
+        DeploymentConfig config = config();
+        config.setIncludeDatabase(true);
+        config.setEnvironments(Map.of("prod", Map.of("replicas", 12)));
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> new KustomizeProcessor(config, true));
+        assertTrue(e.getMessage().contains("Environment 'prod' needs another database connection plan"), e.getMessage());
+
+        config.setIncludeDatabase(false);
+        config.setEnvironments(Map.of("prod", Map.of("enableHPA", true, "hpaMaxReplicas", 8)));
+        e = assertThrows(IllegalArgumentException.class, () -> new KustomizeProcessor(config, true));
+        assertTrue(e.getMessage().contains("enables the HPA"), e.getMessage());
+    }
+
+    private static DeploymentConfig config() {
+        DeploymentConfig config = new DeploymentConfig();
+        config.setApplicationName("orders");
+        config.setJavaVersion("21");
+        config.setReplicas(2);
+        config.setNamespace("orders-dev");
+        config.setCpuRequest("250m");
+        config.setMemoryRequest("512Mi");
+        config.setCpuLimit("500m");
+        config.setMemoryLimit("1Gi");
+        config.setIngressHost("orders.dev.example.com");
+        return config;
+    }
+}
@@ -0,0 +1,204 @@
+package io.github.rkumar0206.k8gen.processor;
+
+import io.github.rkumar0206.k8gen.model.DatabaseConnections;
+import io.github.rkumar0206.k8gen.model.DeploymentConfig;
+import io.github.rkumar0206.k8gen.model.MigrationStrategy;
+import io.github.rkumar0206.k8gen.model.Migrations;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MigrationJobProcessorTest {
+
+    private static final String DEPLOYMENT = """
+            apiVersion: apps/v1
+            kind: Deployment
+            metadata:
+              name: orders
+              namespace: shop
+            spec:
+              template:
+                spec:
+                  serviceAccountName: orders
+                  initContainers:
+                    - name: flyway-migrate
+                      image: flyway/flyway:10
+                      args: [migrate]
+                      volumeMounts:
+                        - {name: migrations, mountPath: /flyway/sql}
+                  containers:
+                    - name: orders
+                      image: registry.example.com/orders:1.4.2
+                      envFrom:
+                        - secretRef: {name: orders-db}
+                      env:
+                        - {name: JAVA_TOOL_OPTIONS, value: -XX:MaxRAMPercentage=75.0}
+                        - {name: SPRING_DATASOURCE_URL, value: "jdbc:postgresql://postgres:5432/orders"}
+                  volumes:
+                    - name: migrations
+                      configMap: {name: orders-migrations}
+                    - name: tmp
+                      emptyDir: {}
+            """;
+
+    private final Map<String, String> output = new LinkedHashMap<>();
+
+    @Test
+    void movesTheMigrationInitContainerIntoAHookJob() {
+        MigrationJobProcessor processor = new MigrationJobProcessor(config(null));
+
+        processor.process("deployment.yaml", DEPLOYMENT, output::put);
+        processor.finish(output::put);
+
+        String deployment = output.get("deployment.yaml");
+        assertFalse(deployment.contains("initContainers"), deployment);
+        assertFalse(deployment.contains("flyway"));
+        assertTrue(deployment.contains("argocd.argoproj.io/sync-wave: '2'"), deployment);
+
+        String job = output.get("migrations-job.yaml");
+        assertEquals("""
+                apiVersion: batch/v1
+                kind: Job
+                metadata:
+                  name: orders-migrate-1-4-2
+                  namespace: shop
+                  labels:
+                    app: orders-migrations
+                  annotations:
+                    argocd.argoproj.io/hook: Sync
+                    argocd.argoproj.io/hook-delete-policy: BeforeHookCreation
+                    argocd.argoproj.io/sync-wave: '1'
+                    helm.sh/hook: post-install,pre-upgrade
+                    helm.sh/hook-delete-policy: before-hook-creation
+                    helm.sh/hook-weight: '-5'
+                spec:
+                  backoffLimit: 2
+                  activeDeadlineSeconds: 600
+                  ttlSecondsAfterFinished: 86400
+                  template:
+                    metadata:
+                      labels:
+                        app: orders-migrations
+                    spec:
+                      serviceAccountName: orders
+                      containers:
+                        - name: flyway-migrate
+                          image: flyway/flyway:10
+                          args:
+                            - migrate
+                          volumeMounts:
+                            - name: migrations
+                              mountPath: /flyway/sql
+                      volumes:
+                        - name: migrations
+                          configMap:
+                            name: orders-migrations
+                      restartPolicy: Never
+                """, job);
+    }
+
+    @Test
+    void buildsTheJobFromTheConfigurationWithTheApplicationsEnvironment() {
+        String deployment = DEPLOYMENT.substring(0, DEPLOYMENT.indexOf("      initContainers:"))
+                + DEPLOYMENT.substring(DEPLOYMENT.indexOf("      containers:"));
+        DeploymentConfig config = config(List.of("-jar", "/app/migrate.jar"));
+        config.getMigrations().setImage(null);
+        config.getMigrations().setBackoffLimit(0);
+        MigrationJobProcessor processor = new MigrationJobProcessor(config);
+
+        processor.process("deployment.yaml", deployment, output::put);
+        processor.finish(output::put);
+
+        String job = output.get("migrations-job.yaml");
+        assertTrue(job.contains("""
+                        - name: migrations
+                          image: registry.example.com/orders:1.4.2
+                          args:
+                            - -jar
+                            - /app/migrate.jar
+                """), job);
+        assertTrue(job.contains("name: SPRING_DATASOURCE_URL"));
+        assertTrue(job.contains("name: orders-db"));
+        assertFalse(job.contains("JAVA_TOOL_OPTIONS"));
+        assertTrue(job.contains("backoffLimit: 0"));
+        assertFalse(job.contains("volumes:"));
+    }
+
+    @Test
+    void connectsDirectlyToTheDatabaseWhenPgBouncerIsASidecar() {
+        assertConnectsDirectly("sidecar");
+    }
+
+    @Test
+    void connectsDirectlyToTheDatabaseWhenPgBouncerIsADeployment() {
+        assertConnectsDirectly("deployment");
+    }
+
+    private void assertConnectsDirectly(String pgBouncerMode) {
+        String deployment = """
+                apiVersion: apps/v1
+                kind: Deployment
+                metadata:
+                  name: orders
+                spec:
+                  template:
+                    spec:
+                      containers:
+                        - name: orders
+                          image: registry.example.com/orders:1.4.2
+                          envFrom:
+                            - configMapRef: {name: orders-config}
+                """;
+        DeploymentConfig config = config(List.of("-jar", "/app/migrate.jar"));
+        config.getMigrations().setImage(null);
+        config.setIncludeDatabase(true);
+        DatabaseConnections connections = new DatabaseConnections();
+        connections.setPgBouncer("always");
+        connections.setPgBouncerMode(pgBouncerMode);
+        config.setDbConnections(connections);
+        MigrationJobProcessor processor = new MigrationJobProcessor(config);
+
+        processor.process("deployment.yaml", deployment, output::put);
+        processor.process("configmap.yaml", """
+                apiVersion: v1
+                kind: ConfigMap
+                metadata:
+                  name: orders-config
+                data:
+                  SPRING_DATASOURCE_URL: jdbc:postgresql://orders-postgres:5432/orders
+                """, output::put);
+        processor.finish(output::put);
+
+        String job = output.get("migrations-job.yaml");
+        assertTrue(job.contains("name: orders-config"), job);
+        assertTrue(job.contains("""
+                            - name: SPRING_DATASOURCE_URL
+                              value: jdbc:postgresql://orders-postgres:5432/orders
+                """), job);
+    }
+
+    @Test
+    void parsesTheStrategy() {
+        assertEquals(MigrationStrategy.INIT_CONTAINER, MigrationStrategy.fromValue(null));
+        assertEquals(MigrationStrategy.INIT_CONTAINER, MigrationStrategy.fromValue("initcontainer"));
+        assertEquals(MigrationStrategy.JOB, MigrationStrategy.fromValue(" Job "));
+        assertThrows(IllegalArgumentException.class, () -> MigrationStrategy.fromValue("hook"));
+    }
+
+    private static DeploymentConfig config(List<String> args) {
+        Migrations migrations = new Migrations();
+        migrations.setTool("flyway");
+        migrations.setImage("flyway/flyway:10");
+        migrations.setArgs(args);
+        migrations.setStrategy("job");
+        DeploymentConfig config = new DeploymentConfig();
+        config.setApplicationName("orders");
+        config.setImageTag("1.4.2");
+        config.setMigrations(migrations);
+        return config;
+    }
+}
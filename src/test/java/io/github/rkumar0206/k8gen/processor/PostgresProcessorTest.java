@@ -0,0 +1,126 @@
+package io.github.rkumar0206.k8gen.processor;
+
+import io.github.rkumar0206.k8gen.model.Database;
+import io.github.rkumar0206.k8gen.model.DeploymentConfig;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PostgresProcessorTest {
+
+    private static final String MODEL_POSTGRES = """
+            apiVersion: apps/v1
+            kind: Deployment
+            metadata:
+              name: postgres
+            spec:
+              template:
+                spec:
+                  containers:
+                    - name: postgres
+                      image: postgres:16
+                      env:
+                        - name: POSTGRES_USER
+                          valueFrom:
+                            secretKeyRef: {name: orders-db, key: username}
+            ---
+            apiVersion: v1
+            kind: Service
+            metadata:
+              name: postgres
+            spec:
+              selector:
+                app: postgres
+              ports:
+                - port: 5432
+            """;
+
+    private static final String PVC = """
+            apiVersion: v1
+            kind: PersistentVolumeClaim
+            metadata:
+              name: postgres-pvc
+            spec:
+              accessModes: [ReadWriteOnce]
+            """;
+
+    private final Map<String, String> output = new LinkedHashMap<>();
+
+    @Test
+    void replacesTheModelsDatabaseWithATunedStatefulSet() {
+        PostgresProcessor processor = new PostgresProcessor(config(), 100);
+
+        processor.process("pvc.yaml", PVC, output::put);
+        processor.process("postgres-deployment.yaml", MODEL_POSTGRES, output::put);
+        processor.finish(output::put);
+
+        assertFalse(output.containsKey("pvc.yaml"), "the StatefulSet claims its own volume");
+        String service = output.get("postgres-deployment.yaml");
+        assertTrue(service.startsWith("apiVersion: v1\nkind: Service"), service);
+        assertTrue(service.contains("app: orders-postgres"));
+
+        String postgres = output.get("postgres.yaml");
+        assertTrue(postgres.contains("kind: StatefulSet"), postgres);
+        assertTrue(postgres.contains("serviceName: orders-postgres-headless"));
+        assertTrue(postgres.contains("clusterIP: None"));
+        assertTrue(postgres.contains("shared_buffers = 1GB"));
+        assertTrue(postgres.contains("- config_file=/etc/postgresql/postgresql.conf"));
+        assertTrue(postgres.contains("pg_isready -h 127.0.0.1 -p 5432"));
+        assertTrue(postgres.contains("name: orders-db"), "keeps the credentials of the model's container");
+        assertTrue(postgres.contains("""
+                            - name: POSTGRES_PASSWORD
+                              valueFrom:
+                                secretKeyRef:
+                                  name: orders-secret
+                                  key: SPRING_DATASOURCE_PASSWORD
+                """), "the missing password comes from the application's Secret");
+        assertTrue(postgres.contains("storageClassName: fast-ssd"));
+        assertTrue(postgres.contains("storage: 50Gi"));
+        assertEquals(3, postgres.split("\n---\n").length, "no second client Service");
+    }
+
+    @Test
+    void keepsTheEnvironmentTheModelsContainerTakesFromASecret() {
+        PostgresProcessor processor = new PostgresProcessor(config(), 100);
+
+        processor.process("postgres.yaml", """
+                apiVersion: apps/v1
+                kind: Deployment
+                metadata:
+                  name: postgres
+                spec:
+                  template:
+                    spec:
+                      containers:
+                        - name: postgres
+                          image: postgres:16
+                          envFrom:
+                            - secretRef: {name: orders-db}
+                """, output::put);
+        processor.finish(output::put);
+
+        String postgres = output.get("postgres.yaml");
+        assertTrue(postgres.contains("""
+                          envFrom:
+                            - secretRef:
+                                name: orders-db
+                """), postgres);
+        assertFalse(postgres.contains("POSTGRES_PASSWORD"));
+    }
+
+    private static DeploymentConfig config() {
+        DeploymentConfig config = new DeploymentConfig();
+        config.setApplicationName("orders");
+        config.setIncludeDatabase(true);
+        Database database = new Database();
+        database.setMemoryLimit("4Gi");
+        database.setCpuLimit("2");
+        database.setStorageSize("50Gi");
+        database.setStorageClass("fast-ssd");
+        config.setDatabase(database);
+        return config;
+    }
+}
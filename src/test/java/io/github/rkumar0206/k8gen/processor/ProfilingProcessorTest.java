@@ -0,0 +1,104 @@
+package io.github.rkumar0206.k8gen.processor;
+
+import io.github.rkumar0206.k8gen.model.DeploymentConfig;
+import io.github.rkumar0206.k8gen.model.Observability;
+import io.github.rkumar0206.k8gen.model.Profiling;
+import io.github.rkumar0206.k8gen.util.JfrProfiling;
+import io.github.rkumar0206.k8gen.util.JvmTuning;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProfilingProcessorTest {
+
+    private static final String DEPLOYMENT = """
+            apiVersion: apps/v1
+            kind: Deployment
+            metadata:
+              name: orders
+            spec:
+              template:
+                spec:
+                  containers:
+                    - name: orders
+                      image: registry.example.com/orders:1.0.0
+                      env:
+                        - name: MANAGEMENT_ENDPOINTS_WEB_EXPOSURE_INCLUDE
+                          value: health,metrics
+                      volumeMounts:
+                        - {name: tmp, mountPath: /tmp}
+                  volumes:
+                    - {name: tmp, emptyDir: {}}
+            """;
+
+    private final Map<String, String> output = new LinkedHashMap<>();
+
+    @Test
+    void appendsTheRecordingToTheTunedFlagsAndMountsItsVolume() {
+        DeploymentConfig config = config(new Profiling());
+        JvmTuning tuning = JvmTuning.forDeployment(config);
+        JfrProfiling profiling = JfrProfiling.forDeployment(config);
+
+        new JvmTuningProcessor(config, tuning).process("deployment.yaml", DEPLOYMENT, output::put);
+        new ProfilingProcessor(config, profiling).process("deployment.yaml", output.get("deployment.yaml"), output::put);
+
+        String deployment = output.get("deployment.yaml");
+        assertTrue(deployment.contains("value: " + tuning.toJavaToolOptions() + " -XX:FlightRecorderOptions="), deployment);
+        assertTrue(deployment.contains("- name: jfr\n              mountPath: /jfr"), deployment);
+        assertTrue(deployment.contains("sizeLimit: 322Mi"), deployment);
+        assertTrue(deployment.contains("mountPath: /tmp"), "other volumes stay");
+        assertTrue(deployment.contains("value: health,info,metrics,prometheus"), deployment);
+        assertTrue(deployment.contains("MANAGEMENT_METRICS_TAGS_APPLICATION"));
+        assertTrue(deployment.contains("prometheus.io/path: /actuator/prometheus"));
+    }
+
+    @Test
+    void onlyExposesMetricsWhenTheRecordingCannotRun() {
+        DeploymentConfig config = config(new Profiling());
+        config.setStartupMode("crac");
+
+        new ProfilingProcessor(config, JfrProfiling.forDeployment(config)).process("deployment.yaml", DEPLOYMENT, output::put);
+
+        String deployment = output.get("deployment.yaml");
+        assertFalse(deployment.contains("JAVA_TOOL_OPTIONS"), deployment);
+        assertFalse(deployment.contains("/jfr"));
+        assertTrue(deployment.contains("prometheus.io/scrape: 'true'"), deployment);
+    }
+
+    @Test
+    void leavesTheWorkloadsOfBackingServicesAlone() {
+        String redis = """
+                apiVersion: apps/v1
+                kind: Deployment
+                metadata:
+                  name: redis
+                spec:
+                  template:
+                    spec:
+                      containers:
+                        - name: redis
+                          image: redis:7
+                """;
+        DeploymentConfig config = config(new Profiling());
+
+        ProfilingProcessor processor = new ProfilingProcessor(config, JfrProfiling.forDeployment(config));
+        processor.process("redis.yaml", redis, output::put);
+
+        assertEquals(redis, output.get("redis.yaml"));
+    }
+
+    private static DeploymentConfig config(Profiling profiling) {
+        DeploymentConfig config = new DeploymentConfig();
+        config.setApplicationName("orders");
+        config.setJavaVersion("21");
+        config.setMemoryLimit("1Gi");
+        config.setCpuLimit("1");
+        Observability observability = new Observability();
+        observability.setProfiling(profiling);
+        config.setObservability(observability);
+        return config;
+    }
+}
@@ -0,0 +1,158 @@
+package io.github.rkumar0206.k8gen.processor;
+
+import io.github.rkumar0206.k8gen.model.Availability;
+import io.github.rkumar0206.k8gen.model.DeploymentConfig;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RolloutProcessorTest {
+
+    private static final String DEPLOYMENT = """
+            apiVersion: apps/v1
+            kind: Deployment
+            metadata:
+              name: orders
+            spec:
+              replicas: 3
+              selector:
+                matchLabels:
+                  app: orders
+              template:
+                metadata:
+                  labels:
+                    app: orders
+                spec:
+                  containers:
+                    - name: orders
+                      image: registry.example.com/orders:1.0.0
+                      readinessProbe:
+                        httpGet: {path: /actuator/health/readiness, port: http}
+                        periodSeconds: 5
+                        failureThreshold: 2
+            """;
+
+    private static final String MODEL_PDB = """
+            apiVersion: policy/v1
+            kind: PodDisruptionBudget
+            metadata:
+              name: orders-pdb
+            spec:
+              minAvailable: 3
+              selector:
+                matchLabels:
+                  app: orders
+            """;
+
+    private final Map<String, String> output = new LinkedHashMap<>();
+
+    @Test
+    void spreadsThePodsAndDrainsThemBeforeShuttingDown() {
+        RolloutProcessor processor = new RolloutProcessor(config(null), "1.29");
+
+        processor.process("deployment.yaml", DEPLOYMENT, output::put);
+
+        String deployment = output.get("deployment.yaml");
+        assertTrue(deployment.contains("""
+                  strategy:
+                    type: RollingUpdate
+                    rollingUpdate:
+                      maxSurge: 1
+                      maxUnavailable: 0
+                """), deployment);
+        assertTrue(deployment.contains("""
+                      topologySpreadConstraints:
+                        - maxSkew: 1
+                          topologyKey: topology.kubernetes.io/zone
+                          whenUnsatisfiable: ScheduleAnyway
+                """), deployment);
+        assertTrue(deployment.contains("topologyKey: kubernetes.io/hostname"));
+        assertTrue(deployment.contains("- pod-template-hash"));
+        assertTrue(deployment.contains("preferredDuringSchedulingIgnoredDuringExecution"));
+        assertTrue(deployment.contains("terminationGracePeriodSeconds: 45"), deployment);
+        assertTrue(deployment.contains("""
+                                command:
+                                  - sleep
+                                  - '10'
+                """), deployment);
+        assertTrue(deployment.contains("value: graceful"));
+    }
+
+    @Test
+    void alignsTheModelsDisruptionBudgetWithTheRollout() {
+        RolloutProcessor processor = new RolloutProcessor(config(null), "1.29");
+
+        processor.process("deployment.yaml", DEPLOYMENT, output::put);
+        processor.process("pdb.yaml", MODEL_PDB, output::put);
+        processor.finish(output::put);
+
+        assertEquals(2, output.size());
+        String pdb = output.get("pdb.yaml");
+        assertFalse(pdb.contains("minAvailable"), pdb);
+        assertTrue(pdb.contains("maxUnavailable: 1"));
+        assertTrue(pdb.contains("unhealthyPodEvictionPolicy: AlwaysAllow"));
+    }
+
+    @Test
+    void emitsADisruptionBudgetAndHonoursDisabledSpreading() {
+        Availability availability = new Availability();
+        availability.setSpreadAcrossZones(false);
+        availability.setPodAntiAffinity(false);
+        availability.setStrictSpread(true);
+        RolloutProcessor processor = new RolloutProcessor(config(availability), "1.29");
+
+        processor.process("deployment.yaml", DEPLOYMENT, output::put);
+        processor.finish(output::put);
+
+        String deployment = output.get("deployment.yaml");
+        assertFalse(deployment.contains("topology.kubernetes.io/zone"), deployment);
+        assertFalse(deployment.contains("podAntiAffinity"));
+        assertTrue(deployment.contains("whenUnsatisfiable: DoNotSchedule"));
+        assertTrue(output.get("pdb.yaml").contains("kind: PodDisruptionBudget"));
+    }
+
+    @Test
+    void leavesOutBetaFieldsBeforeKubernetes127() {
+        RolloutProcessor processor = new RolloutProcessor(config(null), "1.26");
+
+        processor.process("deployment.yaml", DEPLOYMENT, output::put);
+        processor.process("pdb.yaml", MODEL_PDB.replace("minAvailable: 3", "unhealthyPodEvictionPolicy: AlwaysAllow"),
+                output::put);
+
+        String deployment = output.get("deployment.yaml");
+        assertTrue(deployment.contains("topologySpreadConstraints"), deployment);
+        assertFalse(deployment.contains("matchLabelKeys"));
+        assertFalse(output.get("pdb.yaml").contains("unhealthyPodEvictionPolicy"), output.get("pdb.yaml"));
+    }
+
+    @Test
+    void leavesBackingServicesAlone() {
+        String postgres = """
+                apiVersion: apps/v1
+                kind: Deployment
+                metadata:
+                  name: postgres
+                spec:
+                  template:
+                    spec:
+                      containers:
+                        - name: postgres
+                          image: postgres:16
+                """;
+
+        new RolloutProcessor(config(null), "1.29").process("postgres.yaml", postgres, output::put);
+
+        assertEquals(postgres, output.get("postgres.yaml"));
+    }
+
+    private static DeploymentConfig config(Availability availability) {
+        DeploymentConfig config = new DeploymentConfig();
+        config.setApplicationName("orders");
+        config.setReplicas(3);
+        config.setAvailability(availability);
+        return config;
+    }
+}
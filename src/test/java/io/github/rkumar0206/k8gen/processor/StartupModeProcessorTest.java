@@ -0,0 +1,193 @@
+package io.github.rkumar0206.k8gen.processor;
+
+import io.github.rkumar0206.k8gen.model.DeploymentConfig;
+import io.github.rkumar0206.k8gen.model.StartupMode;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StartupModeProcessorTest {
+
+    private static final String DEPLOYMENT = """
+            apiVersion: apps/v1
+            kind: Deployment
+            metadata:
+              name: orders
+            spec:
+              template:
+                spec:
+                  containers:
+                    - name: orders
+                      image: registry.example.com/orders:1.0.0
+                      readinessProbe:
+                        httpGet: {path: /actuator/health/readiness, port: http}
+                        initialDelaySeconds: 15
+                      livenessProbe:
+                        httpGet: {path: /actuator/health/liveness, port: http}
+                        initialDelaySeconds: 30
+            """;
+
+    private final Map<String, String> output = new LinkedHashMap<>();
+
+    @Test
+    void replacesTheModelsDockerfileWithTheModesDockerfile() {
+        StartupModeProcessor processor = new StartupModeProcessor(config(), StartupMode.APPCDS, null, true, null);
+
+        processor.process("Dockerfile", "FROM openjdk:21\n", output::put);
+        processor.finish(output::put);
+
+        assertEquals(1, output.size());
+        String dockerfile = output.get("Dockerfile");
+        assertTrue(dockerfile.contains("-XX:ArchiveClassesAtExit=application.jsa -Dspring.context.exit=onRefresh"), dockerfile);
+        assertTrue(dockerfile.indexOf("chown 1001:1001 application.jsa") < dockerfile.indexOf("USER app"),
+                "the archive is written before switching to the unprivileged user");
+        assertTrue(dockerfile.contains("ENTRYPOINT [\"java\", \"-XX:SharedArchiveFile=application.jsa\", \"-jar\", \"application.jar\"]"));
+        assertTrue(dockerfile.contains("EXPOSE 8081"));
+    }
+
+    @Test
+    void emitsTheDockerfileWhenTheModelDidNotProduceOne() {
+        StartupModeProcessor processor = new StartupModeProcessor(config(), StartupMode.CRAC, "-XX:MaxRAMPercentage=74.0", true, null);
+
+        processor.finish(output::put);
+
+        String dockerfile = output.get("Dockerfile");
+        assertTrue(dockerfile.startsWith("# syntax=docker/dockerfile:1-labs"));
+        assertTrue(dockerfile.contains("RUN --security=insecure java -XX:MaxRAMPercentage=74.0 -XX:CRaCCheckpointTo=/app/checkpoint"));
+        assertTrue(dockerfile.contains("ENTRYPOINT [\"java\", \"-XX:CRaCRestoreFrom=/app/checkpoint\"]"));
+    }
+
+    @Test
+    void keepsTheModelsDockerfileInJarModeWithoutLayeredJar() {
+        StartupModeProcessor processor = new StartupModeProcessor(config(), StartupMode.JAR, null, false, null);
+
+        processor.process("Dockerfile", "FROM openjdk:21\n", output::put);
+        processor.finish(output::put);
+
+        assertEquals(Map.of("Dockerfile", "FROM openjdk:21\n"), output);
+    }
+
+    @Test
+    void copiesTheJarLayersLeastChangingFirst() {
+        new StartupModeProcessor(config(), StartupMode.JAR, null, true, null).finish(output::put);
+
+        String dockerfile = output.get("Dockerfile");
+        assertTrue(dockerfile.contains("extract --layers --destination extracted"), dockerfile);
+        assertTrue(dockerfile.contains("""
+                COPY --link --from=build --chown=1001:1001 /workspace/extracted/dependencies/ ./
+                COPY --link --from=build --chown=1001:1001 /workspace/extracted/spring-boot-loader/ ./
+                COPY --link --from=build --chown=1001:1001 /workspace/extracted/snapshot-dependencies/ ./
+                COPY --link --from=build --chown=1001:1001 /workspace/extracted/application/ ./
+                USER app
+                """));
+        assertTrue(dockerfile.contains("touch --no-dereference --date=@0"));
+    }
+
+    @Test
+    void extractsTheLayersWithLayertoolsBeforeSpringBoot33() {
+        new StartupModeProcessor(config(), StartupMode.APPCDS, null, true, "3.2.5").finish(output::put);
+
+        String dockerfile = output.get("Dockerfile");
+        assertTrue(dockerfile.contains("java -Djarmode=layertools -jar application.jar extract --destination extracted"), dockerfile);
+        assertFalse(dockerfile.contains("jarmode=tools"));
+        assertTrue(dockerfile.contains("-Dspring.context.exit=onRefresh org.springframework.boot.loader.launch.JarLauncher"));
+        assertTrue(dockerfile.contains(
+                "ENTRYPOINT [\"java\", \"-XX:SharedArchiveFile=application.jsa\", \"org.springframework.boot.loader.launch.JarLauncher\"]"));
+    }
+
+    @Test
+    void startsTheExplodedJarWithTheLauncherOfSpringBoot2() {
+        new StartupModeProcessor(config(), StartupMode.JAR, null, true, "2.7.18").finish(output::put);
+
+        assertTrue(output.get("Dockerfile").contains("ENTRYPOINT [\"java\", \"org.springframework.boot.loader.JarLauncher\"]"));
+    }
+
+    @Test
+    void rejectsModesThatStopAfterTheRefreshBeforeSpringBoot32() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> new StartupModeProcessor(config(), StartupMode.CRAC, null, true, "3.1.12"));
+        assertTrue(e.getMessage().contains("Spring Boot 3.2"), e.getMessage());
+    }
+
+    @Test
+    void sizesTheStartupProbeForTheMode() {
+        new StartupModeProcessor(config(), StartupMode.NATIVE, null, true, null).process("deployment.yaml", DEPLOYMENT, output::put);
+
+        String deployment = output.get("deployment.yaml");
+        assertTrue(deployment.contains("""
+                        startupProbe:
+                          httpGet:
+                            path: /actuator/health/liveness
+                            port: http
+                          periodSeconds: 1
+                          failureThreshold: 20
+              """), deployment);
+        assertFalse(deployment.contains("initialDelaySeconds"));
+    }
+
+    @Test
+    void sizesTheStartupProbeFromTheExpectedStartupTime() {
+        DeploymentConfig config = config();
+        config.setExpectedStartupSeconds(40);
+
+        new StartupModeProcessor(config, StartupMode.JAR, null, true, null).process("deployment.yaml", DEPLOYMENT, output::put);
+
+        String deployment = output.get("deployment.yaml");
+        assertTrue(deployment.contains("""
+                          periodSeconds: 5
+                          failureThreshold: 16
+              """), deployment);
+    }
+
+    @Test
+    void leavesTheDeploymentsOfBackingServicesAlone() {
+        String kafka = """
+                apiVersion: apps/v1
+                kind: Deployment
+                metadata:
+                  name: kafka
+                spec:
+                  template:
+                    spec:
+                      containers:
+                        - name: kafka
+                          image: confluentinc/cp-kafka:7.6.0
+                          ports:
+                            - containerPort: 9092
+                """;
+
+        new StartupModeProcessor(config(), StartupMode.CRAC, null, true, null).process("kafka.yaml", kafka, output::put);
+
+        String deployment = output.get("kafka.yaml");
+        assertFalse(deployment.contains("startupProbe"), deployment);
+        assertFalse(deployment.contains("CHECKPOINT_RESTORE"));
+    }
+
+    @Test
+    void grantsCheckpointRestoreCapabilitiesInCracMode() {
+        new StartupModeProcessor(config(), StartupMode.CRAC, null, true, null).process("deployment.yaml", DEPLOYMENT, output::put);
+
+        String deployment = output.get("deployment.yaml");
+        assertTrue(deployment.contains("- CHECKPOINT_RESTORE"), deployment);
+        assertTrue(deployment.contains("- SYS_PTRACE"));
+    }
+
+    @Test
+    void rejectsUnknownModes() {
+        assertEquals(StartupMode.AOT, StartupMode.fromValue(" AOT "));
+        assertEquals(StartupMode.JAR, StartupMode.fromValue(null));
+        assertThrows(IllegalArgumentException.class, () -> StartupMode.fromValue("leyden"));
+    }
+
+    private static DeploymentConfig config() {
+        DeploymentConfig config = new DeploymentConfig();
+        config.setApplicationName("orders");
+        config.setJavaVersion("21");
+        config.setGradleVersion("8.10");
+        config.setPort(8081);
+        return config;
+    }
+}
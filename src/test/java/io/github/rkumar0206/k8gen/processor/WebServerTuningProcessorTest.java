@@ -0,0 +1,88 @@
+package io.github.rkumar0206.k8gen.processor;
+
+import io.github.rkumar0206.k8gen.model.DeploymentConfig;
+import io.github.rkumar0206.k8gen.util.WebServerTuning;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WebServerTuningProcessorTest {
+
+    private static final String MANIFESTS = """
+            apiVersion: v1
+            kind: ConfigMap
+            metadata:
+              name: orders-config
+            data:
+              SPRING_PROFILES_ACTIVE: prod
+              SERVER_TOMCAT_ACCEPT_COUNT: "500"
+            ---
+            apiVersion: apps/v1
+            kind: Deployment
+            metadata:
+              name: orders
+            spec:
+              template:
+                spec:
+                  containers:
+                    - name: orders
+                      image: registry.example.com/orders:1.0.0
+                      env:
+                        - {name: SERVER_TOMCAT_THREADS_MAX, value: "200"}
+            ---
+            apiVersion: networking.k8s.io/v1
+            kind: Ingress
+            metadata:
+              name: orders
+            spec:
+              ingressClassName: nginx
+            """;
+
+    private final Map<String, String> output = new LinkedHashMap<>();
+
+    @Test
+    void setsTheTomcatPoolBeforeJava21() {
+        DeploymentConfig config = config("17");
+        config.setConfigd(Map.of("SERVER_TOMCAT_ACCEPT_COUNT", "500"));
+        WebServerTuningProcessor processor = new WebServerTuningProcessor(config, WebServerTuning.forDeployment(config));
+
+        processor.process("k8s.yaml", MANIFESTS, output::put);
+
+        String manifests = output.get("k8s.yaml");
+        assertTrue(manifests.contains("SPRING_THREADS_VIRTUAL_ENABLED: 'false'"), manifests);
+        assertTrue(manifests.contains("SERVER_TOMCAT_THREADS_MAX: '25'"));
+        assertTrue(manifests.contains("SERVER_TOMCAT_ACCEPT_COUNT: '500'"), "configd wins");
+        assertTrue(manifests.contains("SERVER_TOMCAT_KEEP_ALIVE_TIMEOUT: 65s"));
+        assertTrue(manifests.contains("value: '25'"), "explicit container variable follows");
+        assertTrue(manifests.contains("nginx.ingress.kubernetes.io/proxy-read-timeout: '60'"));
+    }
+
+    @Test
+    void enablesVirtualThreadsFromJava21() {
+        DeploymentConfig config = config("21");
+        WebServerTuningProcessor processor = new WebServerTuningProcessor(config, WebServerTuning.forDeployment(config));
+
+        processor.process("k8s.yaml", MANIFESTS, output::put);
+        processor.process("docker-compose.yml", """
+                services:
+                  orders:
+                    image: orders:1.0.0
+                """, output::put);
+
+        String manifests = output.get("k8s.yaml");
+        assertTrue(manifests.contains("SPRING_THREADS_VIRTUAL_ENABLED: 'true'"), manifests);
+        assertFalse(manifests.contains("SERVER_TOMCAT_THREADS_MIN_SPARE"));
+        assertTrue(output.get("docker-compose.yml").contains("SPRING_THREADS_VIRTUAL_ENABLED"), output.get("docker-compose.yml"));
+    }
+
+    private static DeploymentConfig config(String javaVersion) {
+        DeploymentConfig config = new DeploymentConfig();
+        config.setApplicationName("orders");
+        config.setJavaVersion(javaVersion);
+        config.setCpuLimit("500m");
+        return config;
+    }
+}
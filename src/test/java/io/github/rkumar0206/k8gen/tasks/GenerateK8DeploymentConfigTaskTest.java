@@ -0,0 +1,94 @@
+package io.github.rkumar0206.k8gen.tasks;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.github.rkumar0206.k8gen.extension.K8GenExtension;
+import org.gradle.api.Project;
+import org.gradle.testfixtures.ProjectBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the generation against a local stand-in of the Gemini API.
+ */
+class GenerateK8DeploymentConfigTaskTest {
+
+    @TempDir
+    Path projectDir;
+
+    private final AtomicInteger requests = new AtomicInteger();
+    private HttpServer server;
+    private GenerateK8DeploymentConfigTask task;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        // every answer breaks off with a syntax error after two files
+        server.createContext("/v1beta/models/", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            requests.incrementAndGet();
+            respond(exchange, chunk("[{\"path\": \"configmap.yaml\", \"content\": \"kind: ConfigMap\"},")
+                    + chunk(" {\"path\": \"service.yaml\", \"content\": \"kind: Service\"},")
+                    + chunk(" {\"path\": ]"));
+        });
+        server.start();
+
+        Files.writeString(projectDir.resolve("k8-config.json"), "{\"applicationName\": \"orders\"}");
+        Project project = ProjectBuilder.builder().withProjectDir(projectDir.toFile()).build();
+        project.getPluginManager().apply("io.github.rkumar0206.k8gen");
+        K8GenExtension extension = project.getExtensions().getByType(K8GenExtension.class);
+        extension.getJsonConfigFilePath().set(projectDir.resolve("k8-config.json").toString());
+        extension.getOutputDir().set(projectDir.resolve("k8s").toString());
+        extension.getOutputFormat().set("json");
+        extension.getMaxContinuations().set(1);
+        extension.getContextCaching().set(false);
+        extension.getGeminiAPIKey().set("test-key");
+        extension.getGeminiBaseUrl().set("http://127.0.0.1:" + server.getAddress().getPort() + "/v1beta/");
+        task = project.getTasks().named("generateK8DeploymentConfig", GenerateK8DeploymentConfigTask.class).get();
+    }
+
+    @AfterEach
+    void stopStandIn() {
+        server.stop(0);
+    }
+
+    @Test
+    void doesNotCacheAGenerationWhoseStructuredOutputBreaksOff() throws Exception {
+        GenerateK8DeploymentConfigTask.GenerationResult result = task.generateOnce();
+
+        assertTrue(result.modelCalled());
+        assertEquals(2, requests.get(), "the broken answer is continued once");
+        assertTrue(new File(projectDir.toFile(), "k8s/service.yaml").isFile(), "the files received are written");
+        File cacheDir = task.getGenerationCacheDir().get().getAsFile();
+        String[] entries = cacheDir.list();
+        assertTrue(entries == null || entries.length == 0, "an incomplete generation is not cached");
+
+        task.generateOnce();
+        assertEquals(4, requests.get(), "the next run asks the model again");
+    }
+
+    private static String chunk(String text) {
+        String escaped = text.replace("\\", "\\\\").replace("\"", "\\\"");
+        return "data: {\"candidates\": [{\"content\": {\"parts\": [{\"text\": \"" + escaped + "\"}]}}]}\n\n";
+    }
+
+    private static void respond(HttpExchange exchange, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "text/event-stream");
+        exchange.sendResponseHeaders(200, bytes.length);
+        exchange.getResponseBody().write(bytes);
+        exchange.close();
+    }
+}
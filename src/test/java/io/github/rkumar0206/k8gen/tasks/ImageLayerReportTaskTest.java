@@ -0,0 +1,53 @@
+package io.github.rkumar0206.k8gen.tasks;
+
+import org.gradle.api.Project;
+import org.gradle.testfixtures.ProjectBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImageLayerReportTaskTest {
+
+    @TempDir
+    Path projectDir;
+
+    private ImageLayerReportTask task;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Path loader = Files.write(projectDir.resolve("spring-boot-loader.jar"), new byte[2048]);
+        Project project = ProjectBuilder.builder().withProjectDir(projectDir.toFile()).build();
+        task = project.getTasks().register("reportK8ImageLayers", ImageLayerReportTask.class, report -> {
+            report.getLoaderClasspath().from(loader.toFile());
+            report.getReportFile().set(projectDir.resolve("image-layers.txt").toFile());
+        }).get();
+    }
+
+    @Test
+    void reportsAnEmptyLoaderLayerWhenExtractingWithJarTools() throws IOException {
+        task.getSpringBootVersion().set("3.3.4");
+
+        task.report();
+
+        assertTrue(read().matches("(?s).*spring-boot-loader +0 B.*"), read());
+    }
+
+    @Test
+    void sizesTheLoaderLayerWhenExtractingWithLayertools() throws IOException {
+        task.getSpringBootVersion().set("3.2.5");
+
+        task.report();
+
+        assertTrue(read().matches("(?s).*spring-boot-loader +2\\.0 KiB.*"), read());
+    }
+
+    private String read() throws IOException {
+        return Files.readString(projectDir.resolve("image-layers.txt"));
+    }
+}
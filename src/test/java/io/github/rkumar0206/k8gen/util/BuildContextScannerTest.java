@@ -0,0 +1,72 @@
+package io.github.rkumar0206.k8gen.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BuildContextScannerTest {
+
+    @TempDir
+    Path project;
+
+    @Test
+    void excludesEverythingTheImageBuildDoesNotNeed() throws IOException {
+        write("settings.gradle", 100);
+        write("build.gradle", 100);
+        write("gradle/wrapper/gradle-wrapper.jar", 40_000);
+        write("src/main/java/App.java", 2_000);
+        write("src/main/resources/model.bin", 6 * 1024 * 1024);
+        write("src/main/java/com/example/build/Builder.java", 500);
+        write("src/test/java/AppTest.java", 3_000);
+        write("build/libs/app.jar", 50_000);
+        write("service/build.gradle", 100);
+        write("service/build/tmp/cache.bin", 20_000);
+        write("frontend/node_modules/react/index.js", 30_000);
+        write("datasets/orders.csv", 2 * 1024 * 1024);
+        write("docs/notes.md", 1_000);
+        write("libs/vendor-client.jar", 6 * 1024 * 1024);
+        write(".git/objects/pack/pack.pack", 70_000);
+        write(".env", 50);
+        write("k8s/deployment.yaml", 800);
+
+        BuildContextScanner.Scan scan = BuildContextScanner.scan(project, List.of(project.resolve("k8s")));
+        String dockerignore = scan.toDockerignore();
+
+        assertEquals(List.of(
+                        "build", "service/build", "src/test", "datasets", "k8s"),
+                dockerignore.lines().filter(line -> !line.isBlank() && !line.startsWith("#") && !line.startsWith("**/")).toList(),
+                dockerignore);
+        // needed by the build: scripts, wrapper, main sources (even a large resource), vendored jars, small unknown directories
+        long kept = 100 + 100 + 40_000 + 2_000 + 6 * 1024 * 1024 + 500 + 100 + 6 * 1024 * 1024 + 1_000;
+        assertEquals(kept, scan.getKeptBytes());
+        assertEquals(9, scan.getKeptFiles());
+        assertEquals(17, scan.getTotalFiles());
+        assertTrue(scan.toReport().startsWith("Docker build context: "));
+    }
+
+    @Test
+    void keepsTheDockerignoreStableWhileTheSourcesChange() throws IOException {
+        write("build.gradle", 100);
+        write("src/main/java/App.java", 2_000);
+        write("datasets/orders.csv", 2 * 1024 * 1024);
+        String before = BuildContextScanner.scan(project, List.of()).toDockerignore();
+
+        write("src/main/java/App.java", 2_500);
+        write("src/main/java/Orders.java", 700);
+        write("datasets/customers.csv", 1_000);
+
+        assertEquals(before, BuildContextScanner.scan(project, List.of()).toDockerignore());
+    }
+
+    private void write(String path, int bytes) throws IOException {
+        Path file = project.resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.write(file, new byte[bytes]);
+    }
+}
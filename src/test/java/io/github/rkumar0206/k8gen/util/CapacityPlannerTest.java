@@ -0,0 +1,158 @@
+package io.github.rkumar0206.k8gen.util;
+
+import io.github.rkumar0206.k8gen.model.NodePool;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CapacityPlannerTest {
+
+    private static final String MANIFESTS = """
+            apiVersion: apps/v1
+            kind: Deployment
+            metadata:
+              name: orders
+            spec:
+              replicas: 2
+              template:
+                spec:
+                  topologySpreadConstraints:
+                    - maxSkew: 1
+                      topologyKey: topology.kubernetes.io/zone
+                      whenUnsatisfiable: ScheduleAnyway
+                  containers:
+                    - name: orders
+                      resources:
+                        requests: {cpu: 500m, memory: 1Gi}
+                        limits: {cpu: "1", memory: 1Gi}
+            ---
+            apiVersion: autoscaling/v2
+            kind: HorizontalPodAutoscaler
+            metadata:
+              name: orders
+            spec:
+              scaleTargetRef: {apiVersion: apps/v1, kind: Deployment, name: orders}
+              minReplicas: 2
+              maxReplicas: 10
+            ---
+            apiVersion: apps/v1
+            kind: StatefulSet
+            metadata:
+              name: orders-postgres
+            spec:
+              template:
+                spec:
+                  containers:
+                    - name: postgres
+                      resources:
+                        limits: {cpu: "1", memory: 2Gi}
+            ---
+            apiVersion: apps/v1
+            kind: DaemonSet
+            metadata:
+              name: log-agent
+            spec:
+              template:
+                spec:
+                  containers:
+                    - name: agent
+                      resources:
+                        requests: {cpu: 100m, memory: 128Mi}
+            """;
+
+    @Test
+    void readsRequestsAndScaleFromTheManifests() {
+        List<CapacityPlanner.Workload> workloads = CapacityPlanner.workloads(YamlNormalizer.parse(MANIFESTS));
+
+        assertEquals(3, workloads.size());
+        CapacityPlanner.Workload orders = workloads.get(0);
+        assertEquals(500, orders.cpuMillis());
+        assertEquals(1024, orders.memoryMiB());
+        assertEquals(2, orders.minReplicas());
+        assertEquals(10, orders.maxReplicas());
+        assertEquals(new CapacityPlanner.Spread(1, false), orders.zoneSpread());
+        CapacityPlanner.Workload postgres = workloads.get(1);
+        assertEquals(1000, postgres.cpuMillis(), "limits stand in for missing requests");
+        assertEquals(2048, postgres.memoryMiB());
+    }
+
+    @Test
+    void readsTheScaleOfAKedaScaledObject() {
+        List<CapacityPlanner.Workload> workloads = CapacityPlanner.workloads(YamlNormalizer.parse("""
+                apiVersion: apps/v1
+                kind: Deployment
+                metadata:
+                  name: worker
+                spec:
+                  replicas: 1
+                  template:
+                    spec:
+                      containers:
+                        - name: worker
+                          resources:
+                            requests: {cpu: 250m, memory: 512Mi}
+                ---
+                apiVersion: keda.sh/v1alpha1
+                kind: ScaledObject
+                metadata:
+                  name: worker
+                spec:
+                  scaleTargetRef: {name: worker}
+                  minReplicaCount: 0
+                  maxReplicaCount: 20
+                """));
+
+        assertEquals(1, workloads.size());
+        assertEquals(0, workloads.get(0).minReplicas());
+        assertEquals(20, workloads.get(0).maxReplicas());
+    }
+
+    @Test
+    void findsThePodsThatDoNotFitAtMaximumScale() {
+        List<CapacityPlanner.Workload> workloads = CapacityPlanner.workloads(YamlNormalizer.parse(MANIFESTS));
+        NodePool pool = pool(3, "a", "b", "c");
+
+        CapacityPlanner.Simulation min = CapacityPlanner.simulate(workloads, pool, false);
+        assertEquals(6, min.scheduled());
+        assertTrue(min.unschedulable().isEmpty());
+
+        CapacityPlanner.Simulation max = CapacityPlanner.simulate(workloads, pool, true);
+        // 1900m left per node after the log agent, the database takes 1000m of one of them: room for 7 pods
+        assertEquals(Map.of("orders", 3), max.unschedulable());
+        assertTrue(max.reasons().get("orders").startsWith("insufficient cpu"), max.reasons().get("orders"));
+
+        String report = CapacityPlanner.report(workloads, pool);
+        assertTrue(report.contains("At minimum scale: 6 pods scheduled, 0 unschedulable"), report);
+        assertTrue(report.contains("At maximum scale: 11 pods scheduled, 3 unschedulable"), report);
+        assertTrue(report.contains("UNSCHEDULABLE orders x 3"));
+    }
+
+    @Test
+    void honoursHardSpreadAndRequiredAntiAffinity() {
+        CapacityPlanner.Workload zoned = new CapacityPlanner.Workload("Deployment", "zoned", 100, 128, 4, 4,
+                new CapacityPlanner.Spread(1, true), null, false, false);
+        CapacityPlanner.Workload exclusive = new CapacityPlanner.Workload("Deployment", "exclusive", 100, 128, 4, 4,
+                null, null, true, false);
+
+        CapacityPlanner.Simulation simulation = CapacityPlanner.simulate(List.of(zoned, exclusive), pool(3, "a", "b"), false);
+
+        Map<String, Integer> zonedPerZone = new HashMap<>();
+        simulation.nodes().forEach(node -> zonedPerZone.merge(node.getZone(), node.count(zoned), Integer::sum));
+        assertEquals(Map.of("a", 2, "b", 2), zonedPerZone);
+        assertEquals(Map.of("exclusive", 1), simulation.unschedulable());
+        assertTrue(simulation.reasons().get("exclusive").contains("anti-affinity"));
+    }
+
+    private static NodePool pool(int nodes, String... zones) {
+        NodePool pool = new NodePool();
+        pool.setNodeCount(nodes);
+        pool.setCpu("2");
+        pool.setMemory("4Gi");
+        pool.setZones(List.of(zones));
+        return pool;
+    }
+}
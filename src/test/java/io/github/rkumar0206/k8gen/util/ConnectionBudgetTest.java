@@ -0,0 +1,64 @@
+package io.github.rkumar0206.k8gen.util;
+
+import io.github.rkumar0206.k8gen.model.DatabaseConnections;
+import io.github.rkumar0206.k8gen.model.DeploymentConfig;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConnectionBudgetTest {
+
+    @ParameterizedTest(name = "{0} replicas, HPA max {1}, max_connections {2}, {3}")
+    @CsvSource({
+            // replicas, hpaMax, maxConnections, pgBouncer, peakPods, poolSize, withPgBouncer, pgBouncerPoolSize
+            "2,          0,      100,            auto,      3,        10,       false,         0",
+            "2,          6,      100,            auto,      8,        10,       false,         0",
+            "2,          8,      100,            auto,      10,       10,       true,          45",
+            "2,          8,      100,            never,     10,       9,        false,         0",
+            "2,          8,      200,            auto,      10,       10,       false,         0",
+            "1,          0,      100,            always,    2,        10,       true,          45",
+    })
+    void plansTheBudgetForThePeakNumberOfPods(int replicas, int hpaMaxReplicas, int maxConnections, String pgBouncer,
+                                              int peakPods, int poolSize, boolean withPgBouncer, int pgBouncerPoolSize) {
+        ConnectionBudget budget = ConnectionBudget.plan(config(replicas, hpaMaxReplicas, maxConnections, pgBouncer));
+
+        assertEquals(peakPods, budget.getPeakPods());
+        assertEquals(withPgBouncer, budget.isPgBouncer());
+        assertEquals(poolSize, budget.getPoolSize());
+        assertEquals(pgBouncerPoolSize, budget.getPgBouncerPoolSize());
+        assertTrue(budget.getPeakPods() * budget.getPoolSize() <= budget.getAvailableConnections() || budget.isPgBouncer());
+    }
+
+    @Test
+    void warnsWhenThePoolIsShrunk() {
+        ConnectionBudget budget = ConnectionBudget.plan(config(2, 12, 100, "never"));
+
+        assertEquals(6, budget.getPoolSize(), "90 connections shared by 15 pods");
+        assertEquals(1, budget.getWarnings().size());
+        assertTrue(budget.getWarnings().get(0).contains("reduced from 10 to 6"), budget.getWarnings().get(0));
+    }
+
+    @Test
+    void rejectsBudgetsThatCannotWork() {
+        assertThrows(IllegalArgumentException.class, () -> ConnectionBudget.plan(config(100, 0, 50, "never")));
+        assertThrows(IllegalArgumentException.class, () -> ConnectionBudget.plan(config(1, 0, 5, "auto")));
+        DeploymentConfig config = config(1, 0, 100, "auto");
+        config.getDbConnections().setPgBouncerMode("daemonset");
+        assertThrows(IllegalArgumentException.class, () -> ConnectionBudget.plan(config));
+    }
+
+    private static DeploymentConfig config(int replicas, int hpaMaxReplicas, int maxConnections, String pgBouncer) {
+        DeploymentConfig config = new DeploymentConfig();
+        config.setApplicationName("orders");
+        config.setReplicas(replicas);
+        config.setEnableHPA(hpaMaxReplicas > 0);
+        config.setHpaMaxReplicas(hpaMaxReplicas);
+        DatabaseConnections connections = new DatabaseConnections();
+        connections.setMaxConnections(maxConnections);
+        connections.setPgBouncer(pgBouncer);
+        config.setDbConnections(connections);
+        return config;
+    }
+}
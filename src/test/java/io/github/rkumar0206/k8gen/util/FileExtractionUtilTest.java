@@ -0,0 +1,55 @@
+package io.github.rkumar0206.k8gen.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileExtractionUtilTest {
+
+    private static final String COMPLETE = """
+            -----BEGIN_FILE: namespace.yaml-----
+            kind: Namespace
+            -----END_FILE: namespace.yaml-----
+            -----BEGIN_FILE: service.yaml-----
+            kind: Service
+            -----END_FILE: service.yaml-----
+            """;
+
+    @Test
+    void extractsTerminatedBlocks() {
+        Map<String, String> files = FileExtractionUtil.extractFiles(COMPLETE);
+
+        assertEquals(List.of("namespace.yaml", "service.yaml"), List.copyOf(files.keySet()));
+        assertEquals("kind: Service", files.get("service.yaml"));
+        assertNull(FileExtractionUtil.findUnterminatedFile(COMPLETE));
+    }
+
+    @Test
+    void detectsFileCutOffByTheTokenLimit() {
+        String truncated = COMPLETE + """
+                -----BEGIN_FILE: deployment.yaml-----
+                apiVersion: apps/v1
+                kind: Deploy""";
+
+        assertEquals(2, FileExtractionUtil.extractFiles(truncated).size());
+        assertEquals("deployment.yaml", FileExtractionUtil.findUnterminatedFile(truncated));
+    }
+
+    @Test
+    void rewritesOnlyChangedFiles(@TempDir Path directory) throws IOException {
+        File outputDir = directory.toFile();
+
+        assertTrue(FileExtractionUtil.writeFileIfChanged("k8s/service.yaml", "kind: Service\n", outputDir));
+        assertFalse(FileExtractionUtil.writeFileIfChanged("k8s/service.yaml", "kind: Service\n", outputDir));
+        assertTrue(FileExtractionUtil.writeFileIfChanged("k8s/service.yaml", "kind: Service\nspec: {}\n", outputDir));
+        assertEquals("kind: Service\nspec: {}\n", Files.readString(directory.resolve("k8s/service.yaml")));
+    }
+}
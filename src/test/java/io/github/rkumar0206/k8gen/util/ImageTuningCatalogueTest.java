@@ -0,0 +1,64 @@
+package io.github.rkumar0206.k8gen.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImageTuningCatalogueTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void resolvesMemoryPlaceholders() {
+        assertEquals("-Xms512m -Xmx512m", ImageTuningCatalogue.resolve("-Xms{memoryMiB:50%}m -Xmx{memoryMiB:50%}m", 1024));
+        assertEquals("--innodb-buffer-pool-size=1228M", ImageTuningCatalogue.resolve("--innodb-buffer-pool-size={memoryMiB:60%}M", 2048));
+        assertEquals("1.6", ImageTuningCatalogue.resolve("{memoryGiB:40%:0.25}", 4096));
+        assertEquals("0.25", ImageTuningCatalogue.resolve("{memoryGiB:40%:0.25}", 512));
+        assertEquals("256", ImageTuningCatalogue.resolve("{memoryMiB}", 256));
+    }
+
+    @Test
+    void matchesOnRepositoryAndRole() {
+        ImageTuningCatalogue catalogue = ImageTuningCatalogue.bundled();
+
+        assertEquals("redis", catalogue.find("docker.io/library/redis:7.2@sha256:abc", "cache").getName());
+        assertEquals("redis-store", catalogue.find("redis:7", "Session").getName());
+        assertEquals("redis", catalogue.find("redis", null).getName());
+        assertEquals("bitnami-kafka", catalogue.find("registry.example.com:5000/bitnami/kafka:3.7", null).getName());
+        assertNull(catalogue.find("redis/redis-stack:latest", null));
+        assertNull(catalogue.find("postgres:16", "database"));
+    }
+
+    @Test
+    void coversTheImagesInferredFromTheProject() {
+        ImageTuningCatalogue catalogue = ImageTuningCatalogue.bundled();
+        for (String image : DockerImageScanner.inferableImages()) {
+            if (!image.startsWith("postgres")) {
+                assertNotNull(catalogue.find(image, null), image);
+            }
+        }
+    }
+
+    @Test
+    void userRulesReplaceBundledRulesOfTheSameName() throws IOException {
+        Path rules = tempDir.resolve("k8gen-image-tuning.json");
+        Files.writeString(rules, """
+                [
+                  {"name": "redis", "images": ["redis"], "args": ["--maxmemory", "{memoryMiB:90%}mb"]},
+                  {"name": "clickhouse", "images": ["clickhouse/*"], "memoryLimit": "4Gi"}
+                ]
+                """);
+
+        ImageTuningCatalogue catalogue = ImageTuningCatalogue.load(rules.toFile());
+
+        assertEquals("{memoryMiB:90%}mb", catalogue.find("redis:7", null).getArgs().get(1));
+        assertEquals("redis-store", catalogue.find("redis:7", "queue").getName());
+        assertEquals("4Gi", catalogue.find("clickhouse/clickhouse-server:24", null).getMemoryLimit());
+    }
+}
@@ -0,0 +1,32 @@
+package io.github.rkumar0206.k8gen.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JarLayersTest {
+
+    @Test
+    void assignsClasspathEntriesLikeSpringBoot() {
+        assertEquals(JarLayers.APPLICATION, JarLayers.layerOf(true, "1.0.0-SNAPSHOT"));
+        assertEquals(JarLayers.SNAPSHOT_DEPENDENCIES, JarLayers.layerOf(false, "2.1.0-SNAPSHOT"));
+        assertEquals(JarLayers.DEPENDENCIES, JarLayers.layerOf(false, "3.3.4"));
+        assertEquals(JarLayers.DEPENDENCIES, JarLayers.layerOf(false, null));
+    }
+
+    @Test
+    void reportsLayersInImageOrder() {
+        String report = JarLayers.report(Map.of(
+                JarLayers.APPLICATION, 512L * 1024,
+                JarLayers.DEPENDENCIES, 95L * 1024 * 1024,
+                JarLayers.SNAPSHOT_DEPENDENCIES, 0L));
+
+        assertTrue(report.indexOf("dependencies") < report.indexOf("spring-boot-loader"), report);
+        assertTrue(report.indexOf("spring-boot-loader") < report.indexOf("snapshot-dependencies"));
+        assertTrue(report.matches("(?s).*spring-boot-loader +n/a.*"));
+        assertTrue(report.matches("(?s).*total +95\\.5 MiB.*"));
+        assertTrue(report.contains("A code-only change rebuilds and pushes 512.0 KiB instead of 95.5 MiB."));
+    }
+}
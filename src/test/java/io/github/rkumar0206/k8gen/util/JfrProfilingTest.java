@@ -0,0 +1,93 @@
+package io.github.rkumar0206.k8gen.util;
+
+import io.github.rkumar0206.k8gen.model.DeploymentConfig;
+import io.github.rkumar0206.k8gen.model.Observability;
+import io.github.rkumar0206.k8gen.model.Profiling;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JfrProfilingTest {
+
+    @Test
+    void recordsContinuouslyToTheVolume() {
+        JfrProfiling profiling = JfrProfiling.forDeployment(config("21", "jar", new Profiling()));
+
+        assertTrue(profiling.isEnabled());
+        assertEquals(List.of(
+                "-XX:FlightRecorderOptions=repository=/jfr/repository,memorysize=16m",
+                "-XX:StartFlightRecording=name=continuous,settings=default,disk=true,maxsize=128m,maxage=120m,dumponexit=true,filename=/jfr/exit.jfr",
+                "-Xlog:gc*:file=/jfr/gc.log:time,uptime,level,tags:filecount=5,filesize=10m"), profiling.getFlags());
+        assertEquals(128 + 16 + 128 + 50, profiling.getVolumeSizeLimitMiB());
+        assertEquals("-XX:MaxRAMPercentage=63.0 " + String.join(" ", profiling.getFlags()),
+                profiling.appendTo("-XX:MaxRAMPercentage=63.0 -XX:StartFlightRecording=duration=60s -Xlog:gc:stdout"));
+    }
+
+    @Test
+    void foldsTheRecordingIntoTheHeapComputation() {
+        DeploymentConfig config = config("21", "jar", null);
+        config.setMemoryLimit("1Gi");
+        config.setCpuLimit("1");
+        JvmTuning without = JvmTuning.forDeployment(config);
+        config.setObservability(observability(new Profiling()));
+        JvmTuning with = JvmTuning.forDeployment(config);
+
+        assertEquals(without.getMetaspaceMiB() + 16, with.getMetaspaceMiB());
+        assertEquals(48, with.getExtraOverheadMiB());
+        assertTrue(with.getMaxHeapMiB() < without.getMaxHeapMiB(), with.getMaxHeapMiB() + "Mi");
+        long total = with.getMaxHeapMiB() + with.getMetaspaceMiB() + with.getCodeCacheMiB() + with.getDirectMemoryMiB()
+                + with.getThreadStacksMiB() + with.getNativeOverheadMiB() + with.getExtraOverheadMiB();
+        assertTrue(total <= with.getMemoryLimitMiB(), total + "Mi");
+    }
+
+    @ParameterizedTest(name = "Java {0}, {1} startup mode")
+    @CsvSource({"21, crac", "21, native", "1.8, jar"})
+    void isNotStartedWhereJfrCannotRun(String javaVersion, String startupMode) {
+        JfrProfiling profiling = JfrProfiling.forDeployment(config(javaVersion, startupMode, new Profiling()));
+
+        assertFalse(profiling.isEnabled());
+        assertEquals(1, profiling.getWarnings().size());
+        assertEquals(0, profiling.getReservedMiB());
+        assertEquals("-Xss1m", profiling.appendTo("-Xss1m"));
+    }
+
+    @Test
+    void honoursTheConfiguredSettings() {
+        Profiling settings = new Profiling();
+        settings.setSettings("profile");
+        settings.setMaxSizeMiB(64);
+        settings.setMaxAgeMinutes(30);
+        settings.setDumpOnExit(false);
+        settings.setGcLog(false);
+        JfrProfiling profiling = JfrProfiling.forDeployment(config("17", "appcds", settings));
+
+        assertEquals("-XX:StartFlightRecording=name=continuous,settings=profile,disk=true,maxsize=64m,maxage=30m",
+                profiling.getFlags().get(1));
+        assertEquals(2, profiling.getFlags().size());
+        assertEquals(64 + 16, profiling.getVolumeSizeLimitMiB());
+
+        settings.setEnabled(false);
+        assertFalse(JfrProfiling.forDeployment(config("17", "jar", settings)).isEnabled());
+        settings.setSettings("verbose");
+        assertThrows(IllegalArgumentException.class, () -> JfrProfiling.forDeployment(config("17", "jar", settings)));
+    }
+
+    private static DeploymentConfig config(String javaVersion, String startupMode, Profiling profiling) {
+        DeploymentConfig config = new DeploymentConfig();
+        config.setApplicationName("orders");
+        config.setJavaVersion(javaVersion);
+        config.setStartupMode(startupMode);
+        config.setObservability(profiling == null ? null : observability(profiling));
+        return config;
+    }
+
+    private static Observability observability(Profiling profiling) {
+        Observability observability = new Observability();
+        observability.setProfiling(profiling);
+        return observability;
+    }
+}
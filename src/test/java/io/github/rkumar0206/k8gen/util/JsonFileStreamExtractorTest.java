@@ -0,0 +1,56 @@
+package io.github.rkumar0206.k8gen.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonFileStreamExtractorTest {
+
+    @Test
+    void handsOverEachFileAsSoonAsItsObjectCompletes() throws Exception {
+        Map<String, String> files = new LinkedHashMap<>();
+        JsonFileStreamExtractor extractor = new JsonFileStreamExtractor(files::put);
+
+        extractor.feed("[{\"path\": \"Dockerfile\", \"con");
+        extractor.feed("tent\": \"FROM eclipse-temurin:21-jre\\n\"}");
+        assertEquals(Map.of("Dockerfile", "FROM eclipse-temurin:21-jre"), files);
+
+        extractor.feed(", {\"path\": \"service.yaml\", \"extra\": {\"nested\": [1, 2]}, \"content\": \"kind: Service\"}]");
+        extractor.finish();
+
+        assertEquals(2, extractor.getExtractedFiles());
+        assertEquals("kind: Service", files.get("service.yaml"));
+        assertTrue(extractor.isComplete());
+        assertNull(extractor.getError());
+    }
+
+    @Test
+    void dropsIncompleteObjectsAndStopsOnSyntaxErrors() throws Exception {
+        Map<String, String> files = new LinkedHashMap<>();
+        JsonFileStreamExtractor extractor = new JsonFileStreamExtractor(files::put);
+
+        extractor.feed("[{\"path\": \"a.yaml\"}, {\"path\": \"b.yaml\", \"content\": \"b\"}, {\"path\": ]");
+        extractor.finish();
+
+        assertEquals(Map.of("b.yaml", "b"), files);
+        assertEquals(1, extractor.getDroppedObjects());
+        assertNotNull(extractor.getError());
+        assertFalse(extractor.isComplete());
+    }
+
+    @Test
+    void reportsTruncatedResponseAndTheIncompleteFile() throws Exception {
+        Map<String, String> files = new LinkedHashMap<>();
+        JsonFileStreamExtractor extractor = new JsonFileStreamExtractor(files::put);
+
+        extractor.feed("[{\"path\": \"a.yaml\", \"content\": \"a\"}, {\"path\": \"b.yaml\", \"content\": \"kind: Depl");
+        extractor.finish();
+
+        assertEquals(Map.of("a.yaml", "a"), files);
+        assertTrue(extractor.isTruncated());
+        assertEquals("b.yaml", extractor.getIncompleteFile());
+    }
+}
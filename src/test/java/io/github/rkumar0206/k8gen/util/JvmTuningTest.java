@@ -0,0 +1,71 @@
+package io.github.rkumar0206.k8gen.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JvmTuningTest {
+
+    @ParameterizedTest(name = "{0}/{1} with {2} CPU on Java {3}")
+    @CsvSource({
+            // limit, request, cpu,  java, maxRam, initialRam, processors, gc
+            "256Mi,   256Mi,   250m, 21,   25,     25,         1,          -XX:+UseSerialGC",
+            "512Mi,   256Mi,   500m, 17,   41,     20,         1,          -XX:+UseSerialGC",
+            "1Gi,     512Mi,   1,    21,   63,     31,         1,          -XX:+UseSerialGC",
+            "2Gi,     2Gi,     2,    21,   74,     74,         2,          -XX:+UseG1GC",
+            "4Gi,     2Gi,     1500m,17,   80,     40,         2,          -XX:+UseG1GC",
+            "32Gi,    32Gi,    8,    17,   80,     80,         8,          -XX:+UseG1GC",
+            "32Gi,    32Gi,    8,    21,   80,     80,         8,          -XX:+UseZGC",
+    })
+    void computesFlagsForCommonResourceCombinations(String memoryLimit, String memoryRequest, String cpuLimit,
+                                                    String javaVersion, int maxRamPercentage,
+                                                    int initialRamPercentage, int processors,
+                                                    String garbageCollector) {
+
+        JvmTuning tuning = JvmTuning.compute(memoryLimit, memoryRequest, cpuLimit, javaVersion, 0);
+
+        assertEquals(maxRamPercentage, tuning.getMaxRamPercentage());
+        assertEquals(initialRamPercentage, tuning.getInitialRamPercentage());
+        assertEquals(processors, tuning.getActiveProcessorCount());
+        assertEquals(garbageCollector, tuning.getGarbageCollector());
+        assertTrue(tuning.getFlags().contains("-XX:ActiveProcessorCount=" + processors));
+        assertTrue(tuning.getFlags().contains("-XX:+ExitOnOutOfMemoryError"));
+    }
+
+    @ParameterizedTest
+    @CsvSource({"256Mi, 96m, 48m, 32m", "1Gi, 128m, 64m, 64m", "4Gi, 192m, 128m, 128m", "8Gi, 256m, 240m, 128m"})
+    void capsNonHeapMemoryBySize(String memoryLimit, String metaspace, String codeCache, String directMemory) {
+        JvmTuning tuning = JvmTuning.compute(memoryLimit, memoryLimit, "1", "21", 0);
+
+        assertTrue(tuning.getFlags().contains("-XX:MaxMetaspaceSize=" + metaspace));
+        assertTrue(tuning.getFlags().contains("-XX:ReservedCodeCacheSize=" + codeCache));
+        assertTrue(tuning.getFlags().contains("-XX:MaxDirectMemorySize=" + directMemory));
+    }
+
+    @Test
+    void heapAndNonHeapStayWithinTheLimit() {
+        for (String limit : new String[]{"512Mi", "768Mi", "1Gi", "1536Mi", "2Gi", "3Gi", "4Gi", "6Gi"}) {
+            for (String cpu : new String[]{"250m", "1", "2", "4"}) {
+                JvmTuning tuning = JvmTuning.compute(limit, limit, cpu, "21", 0);
+                long total = tuning.getMaxHeapMiB() + tuning.getMetaspaceMiB() + tuning.getCodeCacheMiB()
+                        + tuning.getDirectMemoryMiB() + tuning.getThreadStacksMiB() + tuning.getNativeOverheadMiB();
+
+                assertTrue(total <= tuning.getMemoryLimitMiB(), limit + "/" + cpu + " needs " + total + "Mi");
+            }
+        }
+    }
+
+    @Test
+    void zgcIsGenerationalOnlyBeforeJava23() {
+        assertTrue(JvmTuning.compute("32Gi", "32Gi", "8", "21", 0).getFlags().contains("-XX:+ZGenerational"));
+        assertFalse(JvmTuning.compute("32Gi", "32Gi", "8", "25", 0).getFlags().contains("-XX:+ZGenerational"));
+    }
+
+    @Test
+    void warnsWhenTheLimitLeavesNoRoomForTheHeap() {
+        assertFalse(JvmTuning.compute("256Mi", "256Mi", "250m", "21", 0).getWarnings().isEmpty());
+        assertTrue(JvmTuning.compute("1Gi", "1Gi", "1", "21", 0).getWarnings().isEmpty());
+    }
+}
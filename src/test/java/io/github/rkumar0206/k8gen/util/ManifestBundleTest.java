@@ -0,0 +1,58 @@
+package io.github.rkumar0206.k8gen.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ManifestBundleTest {
+
+    @Test
+    void collectsTheBaseObjectsInApplyOrder() {
+        Map<String, String> files = new LinkedHashMap<>();
+        files.put("Dockerfile", "FROM eclipse-temurin:21-jre\n");
+        files.put("docker-compose.yml", "services:\n  orders:\n    image: orders:1.0.0\n");
+        files.put("deployment.yaml", "apiVersion: apps/v1\nkind: Deployment\nmetadata:\n  name: orders\n");
+        files.put("hpa.yaml", "apiVersion: autoscaling/v2\nkind: HorizontalPodAutoscaler\nmetadata:\n  name: orders\n");
+        files.put("configmap.yaml", """
+                # generated
+                apiVersion: v1
+                kind: ConfigMap
+                metadata:
+                  name: orders-config
+                ---
+                apiVersion: v1
+                kind: Secret
+                metadata:
+                  name: orders-secret
+                """);
+        files.put("namespace.yaml", "apiVersion: v1\nkind: Namespace\nmetadata:\n  name: production\n");
+        files.put("kustomization.yaml", "apiVersion: kustomize.config.k8s.io/v1beta1\nkind: Kustomization\nresources: []\n");
+        files.put("overlays/prod/deployment-patch.yaml", "apiVersion: apps/v1\nkind: Deployment\nmetadata:\n  name: orders\n");
+
+        String manifest = ManifestBundle.allInOne(files);
+        List<YamlDocument> documents = YamlNormalizer.parse(manifest);
+
+        assertEquals(List.of("Namespace", "ConfigMap", "Secret", "Deployment", "HorizontalPodAutoscaler"),
+                documents.stream().map(YamlDocument::getKind).toList());
+        assertTrue(manifest.startsWith("# Source: namespace.yaml\napiVersion: v1\n"), manifest);
+        assertEquals(List.of(" Source: configmap.yaml", " generated"), documents.get(1).getComments());
+    }
+
+    @Test
+    void readsFilesByRelativePath(@TempDir Path directory) throws Exception {
+        Files.createDirectories(directory.resolve("overlays/prod"));
+        Files.writeString(directory.resolve("overlays/prod/kustomization.yaml"), "resources: []\n");
+        Files.writeString(directory.resolve("service.yaml"), "kind: Service\n");
+
+        assertEquals(List.of("overlays/prod/kustomization.yaml", "service.yaml"),
+                List.copyOf(ManifestBundle.readFiles(directory).keySet()));
+        assertEquals("", ManifestBundle.allInOne(Map.of("service.yaml", "kind: Service\n")));
+    }
+}
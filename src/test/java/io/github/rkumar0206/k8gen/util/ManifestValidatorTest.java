@@ -0,0 +1,151 @@
+package io.github.rkumar0206.k8gen.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ManifestValidatorTest {
+
+    private static final String DEPLOYMENT = """
+            apiVersion: apps/v1
+            kind: Deployment
+            metadata:
+              name: orders
+              labels:
+                app.kubernetes.io/name: orders
+            spec:
+              replicas: 2
+              selector:
+                matchLabels: {app: orders}
+              strategy:
+                type: RollingUpdate
+                rollingUpdate: {maxSurge: 1, maxUnavailable: 0}
+              template:
+                metadata:
+                  labels: {app: orders}
+                spec:
+                  terminationGracePeriodSeconds: 45
+                  topologySpreadConstraints:
+                    - maxSkew: 1
+                      topologyKey: topology.kubernetes.io/zone
+                      whenUnsatisfiable: ScheduleAnyway
+                      labelSelector:
+                        matchLabels: {app: orders}
+                      matchLabelKeys: [pod-template-hash]
+                  containers:
+                    - name: orders
+                      image: registry.example.com/orders:1.0.0
+                      ports:
+                        - {name: http, containerPort: 8080}
+                      env:
+                        - {name: SERVER_SHUTDOWN, value: graceful}
+                      resources:
+                        requests: {cpu: 500m, memory: 512Mi}
+                        limits: {memory: 1Gi}
+                      readinessProbe:
+                        httpGet: {path: /actuator/health/readiness, port: http}
+                      lifecycle:
+                        preStop:
+                          exec:
+                            command: [sleep, "10"]
+            ---
+            apiVersion: v1
+            kind: Service
+            metadata:
+              name: orders
+            spec:
+              selector: {app: orders}
+              ports:
+                - {name: http, port: 80, targetPort: http}
+            """;
+
+    private static final String PDB = """
+            apiVersion: policy/v1
+            kind: PodDisruptionBudget
+            metadata:
+              name: orders
+            spec:
+              maxUnavailable: 1
+              unhealthyPodEvictionPolicy: AlwaysAllow
+              selector:
+                matchLabels: {app: orders}
+            """;
+
+    @Test
+    void acceptsValidManifestsAndSkipsOtherApiGroups() {
+        Map<String, String> files = new LinkedHashMap<>();
+        files.put("deployment.yaml", DEPLOYMENT);
+        files.put("pdb.yaml", PDB);
+        files.put("kustomization.yaml", "apiVersion: kustomize.config.k8s.io/v1beta1\nkind: Kustomization\nresources: [deployment.yaml]\n");
+        files.put("Dockerfile", "FROM eclipse-temurin:21-jre\n");
+
+        ManifestValidator.Result result = new ManifestValidator("1.26").validate(files);
+
+        assertEquals(List.of(), result.violations());
+        assertEquals(3, result.files());
+        assertEquals(3, result.documents());
+        assertEquals(List.of("kustomization.yaml: kustomize.config.k8s.io/v1beta1 Kustomization"), result.skipped());
+    }
+
+    @Test
+    void reportsViolationsByFileKindAndPath() {
+        String manifest = DEPLOYMENT
+                .replace("replicas: 2", "replicas: two")
+                .replace("image: registry", "imagePullPolicy: Sometimes\n          image: registry")
+                .replace("whenUnsatisfiable: ScheduleAnyway", "whenUnsatisfiable: Maybe")
+                .replace("terminationGracePeriodSeconds: 45", "terminationGracePeriod: 45")
+                .replace("- {name: http, port: 80, targetPort: http}", "- {name: http, targetPort: http}");
+        String configMap = """
+                apiVersion: v1
+                kind: ConfigMap
+                metadata:
+                  name: orders-config
+                data:
+                  SERVER_PORT: 8080
+                ---
+                apiVersion: policy/v1beta1
+                kind: PodDisruptionBudget
+                metadata:
+                  name: orders
+                """;
+        Map<String, String> files = new LinkedHashMap<>();
+        files.put("deployment.yaml", manifest);
+        files.put("configmap.yaml", configMap);
+
+        List<String> violations = new ManifestValidator("1.28").validate(files).violations().stream()
+                .map(ManifestValidator.Violation::toString).toList();
+
+        assertTrue(violations.contains("deployment.yaml: Deployment/orders $.spec.replicas: expected an integer, got string two"),
+                violations.toString());
+        assertTrue(violations.contains("deployment.yaml: Deployment/orders $.spec.template.spec.terminationGracePeriod: unknown field"));
+        assertTrue(violations.contains("deployment.yaml: Deployment/orders $.spec.template.spec.containers[0].imagePullPolicy: "
+                + "unsupported value 'Sometimes', expected one of [Always, IfNotPresent, Never]"));
+        assertTrue(violations.stream().anyMatch(v -> v.startsWith(
+                "deployment.yaml: Deployment/orders $.spec.template.spec.topologySpreadConstraints[0].whenUnsatisfiable: unsupported value")));
+        assertTrue(violations.contains("deployment.yaml: Service/orders $.spec.ports[0].port: required field is missing"));
+        assertTrue(violations.contains("configmap.yaml: ConfigMap/orders-config $.data.SERVER_PORT: "
+                + "expected a string, got integer 8080, quote the value"));
+        assertTrue(violations.contains("configmap.yaml: PodDisruptionBudget/orders $.apiVersion: "
+                + "policy/v1beta1 does not serve PodDisruptionBudget in Kubernetes 1.28, use policy/v1"));
+        assertEquals(7, violations.size(), violations.toString());
+    }
+
+    @Test
+    void checksFieldsAgainstTheTargetedVersion() {
+        Map<String, String> files = Map.of("deployment.yaml", DEPLOYMENT.replace(
+                "exec:\n                command: [sleep, \"10\"]", "sleep: {seconds: 10}"));
+
+        List<ManifestValidator.Violation> violations = new ManifestValidator("v1.28.4").validate(files).violations();
+        assertEquals(1, violations.size());
+        assertEquals("$.spec.template.spec.containers[0].lifecycle.preStop.sleep", violations.get(0).path());
+        assertEquals("field is not available before Kubernetes 1.29", violations.get(0).message());
+
+        assertEquals(List.of(), new ManifestValidator("1.29").validate(files).violations());
+        assertThrows(IllegalArgumentException.class, () -> new ManifestValidator("1.25"));
+        assertThrows(IllegalArgumentException.class, () -> new ManifestValidator("latest"));
+    }
+}
@@ -0,0 +1,65 @@
+package io.github.rkumar0206.k8gen.util;
+
+import io.github.rkumar0206.k8gen.model.Database;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PostgresTuningTest {
+
+    @ParameterizedTest(name = "{0}, {1} CPU, {2}")
+    @CsvSource({
+            // memory, cpu, workload,  connections, sharedBuffers, cache,  workMem, maintenance, maxWal, perGather
+            "1Gi,      1,   oltp,      100,         256MB,         768MB,  2621kB,  64MB,        2560MB, 0",
+            "4Gi,      2,   oltp,      100,         1GB,           3GB,    10485kB, 256MB,       2560MB, 1",
+            "16Gi,     8,   analytic,  40,          4GB,           12GB,   26214kB, 2GB,         2560MB, 4",
+    })
+    void sizesMemorySettingsFromTheLimit(String memory, String cpu, String workload, int connections,
+                                         String sharedBuffers, String effectiveCacheSize, String workMem,
+                                         String maintenanceWorkMem, String maxWalSize, String workersPerGather) {
+        Database database = new Database();
+        database.setMemoryLimit(memory);
+        database.setCpuLimit(cpu);
+        database.setWorkload(workload);
+
+        Map<String, String> settings = PostgresTuning.compute(database, connections).getSettings();
+
+        assertEquals(sharedBuffers, settings.get("shared_buffers"));
+        assertEquals(effectiveCacheSize, settings.get("effective_cache_size"));
+        assertEquals(workMem, settings.get("work_mem"));
+        assertEquals(maintenanceWorkMem, settings.get("maintenance_work_mem"));
+        assertEquals(maxWalSize, settings.get("max_wal_size"), "a quarter of the default 10Gi volume");
+        assertEquals(workersPerGather, settings.get("max_parallel_workers_per_gather"));
+        assertEquals(String.valueOf(connections), settings.get("max_connections"));
+    }
+
+    @Test
+    void growsTheWalWithTheVolume() {
+        Database database = new Database();
+        database.setStorageSize("200Gi");
+        database.setWorkload("analytic");
+
+        PostgresTuning tuning = PostgresTuning.compute(database, 100);
+
+        assertEquals("16GB", tuning.getSettings().get("max_wal_size"));
+        assertEquals("4GB", tuning.getSettings().get("min_wal_size"));
+        assertEquals("30min", tuning.getSettings().get("checkpoint_timeout"));
+        assertTrue(tuning.toPostgresqlConf().startsWith("# Tuned for 1Gi, 1 CPU, analytic workload\n"));
+        assertTrue(tuning.toPostgresqlConf().contains("listen_addresses = '*'\n"));
+    }
+
+    @Test
+    void warnsAboutBurstableMemory() {
+        Database database = new Database();
+        database.setMemoryRequest("512Mi");
+        database.setMemoryLimit("2Gi");
+
+        assertEquals(1, PostgresTuning.compute(database, 100).getWarnings().size());
+        database.setWorkload("mixed");
+        assertThrows(IllegalArgumentException.class, () -> PostgresTuning.compute(database, 100));
+    }
+}
@@ -0,0 +1,82 @@
+package io.github.rkumar0206.k8gen.util;
+
+import io.github.rkumar0206.k8gen.ai.agents.K8ConfigGeneratorAgent;
+import io.github.rkumar0206.k8gen.model.DeploymentConfig;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PromptPlaceholdersTest {
+
+    @Test
+    void releasesThatOnlyBumpVolatileFieldsShareTheGenerationKey() throws Exception {
+        DeploymentConfig release1 = config("1.0.0", "s3cr3t");
+        DeploymentConfig release2 = config("1.0.1", "rotated");
+        DeploymentConfig changed = config("1.0.1", "rotated");
+        changed.setReplicas(5);
+
+        String key1 = K8ConfigGeneratorAgent.generationKey(PromptPlaceholders.of(release1).getPromptConfig(), "gemini-2.5-flash", "markers", 1);
+        String key2 = K8ConfigGeneratorAgent.generationKey(PromptPlaceholders.of(release2).getPromptConfig(), "gemini-2.5-flash", "markers", 1);
+        String key3 = K8ConfigGeneratorAgent.generationKey(PromptPlaceholders.of(changed).getPromptConfig(), "gemini-2.5-flash", "markers", 1);
+        String key4 = K8ConfigGeneratorAgent.generationKey(PromptPlaceholders.of(release1).getPromptConfig(), "gemini-2.5-flash", "json", 1);
+
+        assertEquals(key1, key2);
+        assertNotEquals(key1, key3);
+        assertNotEquals(key1, key4);
+        assertEquals("1.0.0", release1.getImageTag(), "the real configuration is left unchanged");
+    }
+
+    @Test
+    void substitutesPlainAndBase64EncodedPlaceholders() {
+        PromptPlaceholders placeholders = PromptPlaceholders.of(config("1.0.1", "s3cr3t"));
+        DeploymentConfig prompt = placeholders.getPromptConfig();
+        String generated = "image: " + prompt.getImageRegistry() + "/orders:" + prompt.getImageTag() + "\n"
+                + "namespace: " + prompt.getNamespace() + "\n"
+                + "API_KEY: " + base64(prompt.getSecrets().get("API_KEY")) + "\n";
+
+        assertEquals("""
+                image: registry.example.com/orders:1.0.1
+                namespace: shop
+                API_KEY: %s
+                """.formatted(base64("s3cr3t")), placeholders.substitute(generated));
+    }
+
+    @Test
+    void storesAndLoadsGenerations(@TempDir Path directory) throws Exception {
+        GenerationCache cache = new GenerationCache(directory.resolve("generations"));
+        Map<String, String> files = new LinkedHashMap<>();
+        files.put("deployment.yaml", "kind: Deployment\n");
+        files.put("Dockerfile", "FROM eclipse-temurin:21\n");
+
+        assertNull(cache.load("abc"));
+        cache.store("abc", files);
+
+        assertEquals(files, cache.load("abc"));
+        assertEquals(1, directory.resolve("generations").toFile().list().length, "no temporary file is left");
+        Files.writeString(directory.resolve("generations/abc.json"), "{", StandardCharsets.UTF_8);
+        assertNull(cache.load("abc"));
+    }
+
+    private static DeploymentConfig config(String imageTag, String secret) {
+        DeploymentConfig config = new DeploymentConfig();
+        config.setApplicationName("orders");
+        config.setImageRegistry("registry.example.com");
+        config.setImageTag(imageTag);
+        config.setNamespace("shop");
+        config.setReplicas(2);
+        config.setSecrets(Map.of("API_KEY", secret));
+        return config;
+    }
+
+    private static String base64(String value) {
+        return Base64.getEncoder().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,51 @@
+package io.github.rkumar0206.k8gen.util;
+
+import io.github.rkumar0206.k8gen.model.ResourceProfile;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResourceSizingTest {
+
+    @Test
+    void suggestsResourcesFromTheSteadyState() {
+        ResourceProfile.Measurements measured = measurements(0.3, 0.6, 180, 420, 12, 18);
+
+        ResourceProfile.Suggestions suggested = ResourceSizing.suggest(measured, "21");
+
+        assertEquals("400m", suggested.getCpuRequest());
+        assertEquals("1", suggested.getCpuLimit());
+        assertEquals("768Mi", suggested.getMemoryLimit(), "576Mi would leave less than 2.5 times the live set for the heap");
+        assertEquals(suggested.getMemoryLimit(), suggested.getMemoryRequest());
+        assertEquals(18, suggested.getExpectedStartupSeconds());
+    }
+
+    @Test
+    void raisesTheMemoryLimitUntilTheHeapHoldsTheLiveSet() {
+        ResourceProfile.Measurements measured = measurements(0.08, 0.2, 400, 600, 6, 4);
+
+        ResourceProfile.Suggestions suggested = ResourceSizing.suggest(measured, "21");
+
+        long limit = ResourceQuantity.parseMemoryMiB(suggested.getMemoryLimit());
+        assertTrue(limit > 600 * 1.25, suggested.getMemoryLimit());
+        assertTrue(JvmTuning.compute(suggested.getMemoryLimit(), suggested.getMemoryLimit(), suggested.getCpuLimit(),
+                "21", 0).getMaxHeapMiB() >= 1000);
+        assertEquals("100m", suggested.getCpuRequest());
+        assertEquals("500m", suggested.getCpuLimit());
+        assertEquals(8, suggested.getExpectedStartupSeconds(), "4s of CPU on half a core");
+    }
+
+    private static ResourceProfile.Measurements measurements(double cpu, double cpuP95, long liveHeapMiB,
+                                                             long rssMiB, double startupSeconds,
+                                                             double startupCpuSeconds) {
+        ResourceProfile.Measurements measured = new ResourceProfile.Measurements();
+        measured.setSteadyCpuCores(cpu);
+        measured.setSteadyCpuCoresP95(cpuP95);
+        measured.setLiveHeapMiB(liveHeapMiB);
+        measured.setPeakHeapMiB(liveHeapMiB * 2);
+        measured.setPeakRssMiB(rssMiB);
+        measured.setStartupSeconds(startupSeconds);
+        measured.setStartupCpuSeconds(startupCpuSeconds);
+        return measured;
+    }
+}
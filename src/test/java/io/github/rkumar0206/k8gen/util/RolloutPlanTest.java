@@ -0,0 +1,52 @@
+package io.github.rkumar0206.k8gen.util;
+
+import io.github.rkumar0206.k8gen.model.Availability;
+import io.github.rkumar0206.k8gen.model.DeploymentConfig;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RolloutPlanTest {
+
+    @ParameterizedTest(name = "{0} replicas, HPA min {1}, readiness {2}s x {3}")
+    @CsvSource({
+            // replicas, hpaMin, period, threshold, maxSurge, maxUnavailable, disruptions, preStop, grace
+            "1,          0,      10,     3,         1,        0,              1,           30,      65",
+            "3,          0,      5,      3,         1,        0,              1,           15,      50",
+            "4,          0,      10,     1,         1,        0,              1,           10,      45",
+            "10,         0,      1,      1,         3,        1,              1,           5,       40",
+            "2,          20,     10,     3,         5,        2,              2,           30,      65",
+    })
+    void sizesTheRolloutFromTheReplicasAndTheReadinessProbe(int replicas, int hpaMinReplicas, int period, int threshold,
+                                                            int maxSurge, int maxUnavailable, int disruptions,
+                                                            int preStop, int grace) {
+        DeploymentConfig config = new DeploymentConfig();
+        config.setReplicas(replicas);
+        config.setEnableHPA(hpaMinReplicas > 0);
+        config.setHpaMinReplicas(hpaMinReplicas);
+
+        RolloutPlan plan = RolloutPlan.plan(config, period, threshold);
+
+        assertEquals(maxSurge, plan.getMaxSurge());
+        assertEquals(maxUnavailable, plan.getMaxUnavailable());
+        assertEquals(disruptions, plan.getDisruptionsAllowed());
+        assertEquals(preStop, plan.getPreStopSleepSeconds());
+        assertEquals(grace, plan.getTerminationGracePeriodSeconds());
+    }
+
+    @Test
+    void leavesTheConfiguredShutdownTimeoutToTheApplication() {
+        DeploymentConfig config = new DeploymentConfig();
+        config.setReplicas(2);
+        Availability availability = new Availability();
+        availability.setShutdownTimeoutSeconds(60);
+        config.setAvailability(availability);
+
+        RolloutPlan plan = RolloutPlan.plan(config, 10, 3);
+
+        assertEquals(60, plan.getShutdownTimeoutSeconds());
+        assertEquals(95, plan.getTerminationGracePeriodSeconds());
+    }
+}
@@ -0,0 +1,70 @@
+package io.github.rkumar0206.k8gen.util;
+
+import io.github.rkumar0206.k8gen.model.DeploymentConfig;
+import io.github.rkumar0206.k8gen.model.WebServer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WebServerTuningTest {
+
+    @ParameterizedTest(name = "Java {0}, CPU limit {1}")
+    @CsvSource({
+            // javaVersion, cpuLimit, virtualThreads, maxThreads
+            "1.8,           500m,     false,          25",
+            "11,            250m,     false,          20",
+            "17.0.9,        2,        false,          100",
+            "17,            8,        false,          200",
+            "21,            500m,     true,           25",
+            "25,            2,        true,           100",
+    })
+    void usesVirtualThreadsFromJava21AndSizesTomcatFromTheCpuLimit(String javaVersion, String cpuLimit,
+                                                                  boolean virtualThreads, int maxThreads) {
+        WebServerTuning tuning = WebServerTuning.forDeployment(config(javaVersion, cpuLimit));
+
+        assertEquals(virtualThreads, tuning.isVirtualThreads());
+        assertEquals(maxThreads, tuning.getMaxThreads());
+        Map<String, String> environment = tuning.toEnvironment();
+        assertEquals(String.valueOf(virtualThreads), environment.get("SPRING_THREADS_VIRTUAL_ENABLED"));
+        assertEquals(virtualThreads ? null : String.valueOf(maxThreads), environment.get("SERVER_TOMCAT_THREADS_MAX"));
+        assertEquals(virtualThreads ? null : String.valueOf(maxThreads), environment.get("SERVER_TOMCAT_ACCEPT_COUNT"));
+        assertEquals("65s", environment.get("SERVER_TOMCAT_KEEP_ALIVE_TIMEOUT"));
+        assertEquals("60s", environment.get("SERVER_TOMCAT_CONNECTION_TIMEOUT"));
+    }
+
+    @Test
+    void honoursTheConfiguredSettings() {
+        DeploymentConfig config = config("17", "1");
+        WebServer webServer = new WebServer();
+        webServer.setVirtualThreads(true);
+        webServer.setMaxThreads(64);
+        webServer.setRequestTimeoutSeconds(120);
+        webServer.setIdleTimeoutSeconds(350);
+        config.setWebServer(webServer);
+
+        WebServerTuning tuning = WebServerTuning.forDeployment(config);
+
+        assertFalse(tuning.isVirtualThreads());
+        assertEquals(1, tuning.getWarnings().size());
+        assertEquals(64, tuning.getMaxThreads());
+        assertEquals("355s", tuning.toEnvironment().get("SERVER_TOMCAT_KEEP_ALIVE_TIMEOUT"));
+        assertEquals(Map.of("nginx.ingress.kubernetes.io/proxy-read-timeout", "120",
+                "nginx.ingress.kubernetes.io/proxy-send-timeout", "120"), tuning.toIngressAnnotations());
+
+        webServer.setVirtualThreads(false);
+        config.setJavaVersion("21");
+        assertFalse(WebServerTuning.forDeployment(config).isVirtualThreads());
+    }
+
+    private static DeploymentConfig config(String javaVersion, String cpuLimit) {
+        DeploymentConfig config = new DeploymentConfig();
+        config.setApplicationName("orders");
+        config.setJavaVersion(javaVersion);
+        config.setCpuLimit(cpuLimit);
+        return config;
+    }
+}
@@ -0,0 +1,107 @@
+package io.github.rkumar0206.k8gen.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class YamlNormalizerTest {
+
+    @Test
+    void semanticallyIdenticalManifestsBecomeByteIdentical() {
+        String first = """
+                # generated deployment
+                kind: Deployment
+                apiVersion: apps/v1
+                spec:
+                  template:
+                    spec:
+                      containers:
+                      - image: "registry.example.com/app:1.0.0"
+                        name: app
+                  replicas: 3
+                metadata:
+                  labels: {component: backend, app: app}
+                  name: app
+                """;
+        String second = """
+                apiVersion: "apps/v1"
+                kind: Deployment
+                metadata:
+                    name: 'app'
+                    labels:
+                        app: app
+                        component: backend   # generated deployment
+                spec:
+                    replicas: 3
+                    template:
+                        spec:
+                            containers:
+                                -   name: app
+                                    image: registry.example.com/app:1.0.0
+                """;
+
+        String normalized = YamlNormalizer.normalize("deployment.yaml", first);
+
+        assertEquals(normalized, YamlNormalizer.normalize("deployment.yaml", second));
+        assertEquals("""
+                # generated deployment
+                apiVersion: apps/v1
+                kind: Deployment
+                metadata:
+                  name: app
+                  labels:
+                    app: app
+                    component: backend
+                spec:
+                  replicas: 3
+                  template:
+                    spec:
+                      containers:
+                        - name: app
+                          image: registry.example.com/app:1.0.0
+                """, normalized);
+    }
+
+    @Test
+    void keepsMultiDocumentStructureAndLiteralBlocks() {
+        String content = """
+                apiVersion: v1
+                kind: ConfigMap
+                data:
+                  postgresql.conf: "shared_buffers = 256MB\\n# comment inside the value\\n"
+                  A_PORT: "8080"
+                metadata:
+                  name: config
+                ---
+                # second document
+                apiVersion: v1
+                kind: Namespace
+                metadata:
+                  name: production
+                """;
+
+        assertEquals("""
+                apiVersion: v1
+                kind: ConfigMap
+                metadata:
+                  name: config
+                data:
+                  A_PORT: '8080'
+                  postgresql.conf: |
+                    shared_buffers = 256MB
+                    # comment inside the value
+                ---
+                # second document
+                apiVersion: v1
+                kind: Namespace
+                metadata:
+                  name: production
+                """, YamlNormalizer.normalize("resources.yaml", content));
+    }
+
+    @Test
+    void leavesOtherAndInvalidFilesUntouched() {
+        assertEquals("FROM  eclipse-temurin", YamlNormalizer.normalize("Dockerfile", "FROM  eclipse-temurin"));
+        assertEquals("key: [unclosed", YamlNormalizer.normalize("broken.yaml", "key: [unclosed"));
+    }
+}